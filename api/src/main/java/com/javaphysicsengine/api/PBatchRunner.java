@@ -0,0 +1,178 @@
+package com.javaphysicsengine.api;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.api.collision.PNarrowphase;
+import com.javaphysicsengine.api.solver.PContactSolver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulates many runs of the same scene in parallel, such as for Monte Carlo sweeps of a parameter.
+ *
+ * Each run gets its own world with copies of the bodies and constraints of the scene, which a generator then changes
+ * for that run. The worlds are simulated on a fork join pool, one task per run, and each one is given to a sink as
+ * soon as it is done. The runs share no bodies, constraints, broadphases or solvers, so nothing has to be locked.
+ *
+ * The narrowphase and contact solver of each world split their work on the same pool as the runs. A worker that
+ * is waiting for them steals their tasks (or those of other runs) instead of blocking, so the pool stays busy
+ * whether there are many small worlds or a few big ones
+ */
+public class PBatchRunner {
+
+    /**
+     * Changes the world of a run before it is simulated
+     */
+    public interface PParameterGenerator {
+
+        /**
+         * Sets the parameters of a run, such as the positions, velocities or masses of its bodies.
+         * It is called on the thread that simulates the run, and may be called for many runs at once
+         * @param run The index of the run
+         * @param world The world of the run, which has copies of the scene's bodies and constraints
+         */
+        void apply(int run, PWorld world);
+    }
+
+    /**
+     * Receives the world of each run once it has been simulated
+     */
+    public interface PResultSink {
+
+        /**
+         * Takes the result of a run. It is called on the thread that simulated the run, in the order that the runs
+         * finish, and may be called for many runs at once
+         * @param run The index of the run
+         * @param world The world of the run after it has been simulated
+         */
+        void accept(int run, PWorld world);
+    }
+
+    /**
+     * Makes the empty worlds that the runs start from, such as with a config that depends on the run
+     */
+    public interface PWorldFactory {
+
+        /**
+         * Makes an empty world for a run. It is called on the thread that simulates the run, and may be called
+         * for many runs at once
+         * @param run The index of the run
+         * @param forkJoinPool The pool that the runs are simulated on, which the world should split its work on
+         * @return A world that is not shared with any other run
+         */
+        PWorld createWorld(int run, ForkJoinPool forkJoinPool);
+    }
+
+    private final ForkJoinPool forkJoinPool;
+    private final PWorldFactory worldFactory;
+
+    /**
+     * Creates a runner that simulates runs on the common fork join pool, in worlds with the default config
+     */
+    public PBatchRunner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a runner that simulates runs on a certain fork join pool, in worlds with the default config
+     * Pre-condition: "forkJoinPool" must not be null
+     * @param forkJoinPool The pool to simulate the runs on
+     */
+    public PBatchRunner(ForkJoinPool forkJoinPool) {
+        this(forkJoinPool, PWorldConfig.DEFAULT);
+    }
+
+    /**
+     * Creates a runner that simulates runs on a certain fork join pool, in worlds with a certain config
+     * Pre-condition: "forkJoinPool" and "config" must not be null
+     * @param forkJoinPool The pool to simulate the runs on
+     * @param config The physics parameters of the world of each run
+     */
+    public PBatchRunner(ForkJoinPool forkJoinPool, PWorldConfig config) {
+        this(forkJoinPool, (run, pool) -> new PWorld(config, false, new PNarrowphase(pool), new PContactSolver(pool)));
+    }
+
+    /**
+     * Creates a runner that simulates runs on a certain fork join pool, in worlds made by a factory
+     * Pre-condition: "forkJoinPool" and "worldFactory" must not be null
+     * @param forkJoinPool The pool to simulate the runs on
+     * @param worldFactory Makes the empty world of each run
+     */
+    public PBatchRunner(ForkJoinPool forkJoinPool, PWorldFactory worldFactory) {
+        this.forkJoinPool = forkJoinPool;
+        this.worldFactory = worldFactory;
+    }
+
+    /**
+     * Simulates a number of runs of a scene, and returns once all of them have been given to the sink.
+     * The scene is only read while the runs are simulated, and must not be changed until this returns
+     * Pre-condition: "scene", "generator" and "sink" must not be null, "timeStep" must be greater than 0,
+     * and "numRuns" and "numSteps" must be at least 0
+     * @param scene The world whose bodies and constraints are copied into each run
+     * @param numRuns The number of runs
+     * @param timeStep The time simulated by each step, in seconds
+     * @param numSteps The number of steps to simulate each run for
+     * @param generator Sets the parameters of each run
+     * @param sink Takes the world of each run once it has been simulated
+     * @throws RuntimeException if a run throws, after the runs that have started have finished
+     */
+    public void run(PWorld scene, int numRuns, double timeStep, int numSteps,
+                    PParameterGenerator generator, PResultSink sink) {
+
+        // Polygons bring their vertices up to date when they are read, so do it here once. Copying the scene
+        // on many threads at once then only reads it
+        for (PBody body : scene.getBodies()) {
+            if (body instanceof PPolygon) {
+                ((PPolygon) body).getVertices();
+            }
+        }
+
+        if (numRuns > 0) {
+            forkJoinPool.invoke(new PRunsTask(scene, 0, numRuns, timeStep, numSteps, generator, sink));
+        }
+    }
+
+    /**
+     * Simulates a range of runs, splitting it in half until there is one run per task
+     */
+    private class PRunsTask extends RecursiveAction {
+        private final PWorld scene;
+        private final int startRun;
+        private final int endRun;
+        private final double timeStep;
+        private final int numSteps;
+        private final PParameterGenerator generator;
+        private final PResultSink sink;
+
+        PRunsTask(PWorld scene, int startRun, int endRun, double timeStep, int numSteps,
+                  PParameterGenerator generator, PResultSink sink) {
+            this.scene = scene;
+            this.startRun = startRun;
+            this.endRun = endRun;
+            this.timeStep = timeStep;
+            this.numSteps = numSteps;
+            this.generator = generator;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (endRun - startRun == 1) {
+                PWorld world = worldFactory.createWorld(startRun, forkJoinPool);
+                world.addCopiesOf(scene.getBodies(), scene.getConstraints());
+                generator.apply(startRun, world);
+
+                for (int step = 0; step < numSteps; step++) {
+                    world.simulate(timeStep);
+                }
+                sink.accept(startRun, world);
+                return;
+            }
+
+            int middleRun = (startRun + endRun) >>> 1;
+            invokeAll(new PRunsTask(scene, startRun, middleRun, timeStep, numSteps, generator, sink),
+                    new PRunsTask(scene, middleRun, endRun, timeStep, numSteps, generator, sink));
+        }
+    }
+}
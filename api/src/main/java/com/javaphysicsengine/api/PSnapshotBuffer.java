@@ -0,0 +1,71 @@
+package com.javaphysicsengine.api;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PConstraints;
+import com.javaphysicsengine.api.collision.PNarrowphase;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands snapshots of a world from the thread that simulates it to one other thread, such as a renderer, without
+ * locking.
+ *
+ * There are three snapshots. The writer fills the back one, while the reader reads the front one, and the middle one
+ * holds the latest complete snapshot. Publishing swaps the back snapshot with the middle one, and taking the latest
+ * snapshot swaps the middle one with the front one, each with a single atomic exchange. Neither side ever waits for
+ * the other, and the reader never sees a snapshot that is being written to.
+ *
+ * Only one thread may publish, and only one thread may take snapshots
+ */
+public class PSnapshotBuffer {
+
+    // The middle index has this bit set when it holds a snapshot that the reader has not taken yet
+    private static final int NEW_SNAPSHOT = 4;
+    private static final int INDEX_MASK = 3;
+
+    private final PWorldSnapshot[] snapshots = { new PWorldSnapshot(), new PWorldSnapshot(), new PWorldSnapshot() };
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    // Only used by the writer
+    private int back = 0;
+
+    // Only used by the reader
+    private int front = 2;
+
+    /**
+     * Takes a snapshot of the bodies and constraints of a world and makes it the latest one.
+     * It must only be called on the thread that simulates the world
+     * @param stepNumber The number of time steps that the world has simulated
+     * @param bodies The bodies of the world
+     * @param constraints The constraints of the world
+     */
+    public void publish(long stepNumber, List<PBody> bodies, List<PConstraints> constraints) {
+        publish(stepNumber, bodies, constraints, null);
+    }
+
+    /**
+     * Takes a snapshot of the bodies, constraints and contact points of a world and makes it the latest one.
+     * It must only be called on the thread that simulates the world
+     * @param stepNumber The number of time steps that the world has simulated
+     * @param bodies The bodies of the world
+     * @param constraints The constraints of the world
+     * @param narrowphase The narrowphase with the contacts of the last time step, or null to leave out the contact points
+     */
+    public void publish(long stepNumber, List<PBody> bodies, List<PConstraints> constraints, PNarrowphase narrowphase) {
+        snapshots[back].capture(stepNumber, bodies, constraints, narrowphase);
+        back = middle.getAndSet(back | NEW_SNAPSHOT) & INDEX_MASK;
+    }
+
+    /**
+     * Returns the latest snapshot that has been published. The snapshot stays the same until the next call,
+     * after which it may be written to again. It must only be called on one thread
+     * @return The latest snapshot, which has no bodies if none has been published yet
+     */
+    public PWorldSnapshot getLatest() {
+        if ((middle.get() & NEW_SNAPSHOT) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return snapshots[front];
+    }
+}
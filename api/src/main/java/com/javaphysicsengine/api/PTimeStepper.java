@@ -0,0 +1,121 @@
+package com.javaphysicsengine.api;
+
+/**
+ * Drives a world with a fixed time step from the time that has passed on the clock.
+ *
+ * The time that has passed is added up, and the world is simulated one fixed step at a time for as long as
+ * a whole step has built up. The time left over is less than a step, and {@link #getAlpha()} gives how far
+ * it is into the next step, so that a renderer can blend between the last two states instead of simulating more.
+ *
+ * If simulating takes longer than the time it simulates, the time would keep building up and each frame would have
+ * to run more steps than the last. To prevent this, no more than a certain number of steps are run in a frame, and
+ * the time that is still left over after them is dropped (so the simulation falls behind the clock instead).
+ */
+public class PTimeStepper {
+    public static final int DEFAULT_MAX_STEPS_PER_FRAME = 5;
+    public static final int DEFAULT_NUM_SUBSTEPS = 1;
+
+    private final PWorld world;
+    private final double timeStep;
+    private int maxStepsPerFrame = DEFAULT_MAX_STEPS_PER_FRAME;
+    private int numSubsteps = DEFAULT_NUM_SUBSTEPS;
+
+    // The time that has passed but has not been simulated yet, in seconds
+    private double accumulator = 0;
+
+    /**
+     * Creates a time stepper
+     * Pre-condition: "world" must not be null, and "timeStep" must be greater than 0
+     * @param world The world to simulate
+     * @param timeStep The time simulated by each step, in seconds
+     */
+    public PTimeStepper(PWorld world, double timeStep) {
+        this.world = world;
+        this.timeStep = timeStep;
+    }
+
+    /**
+     * Returns the time simulated by each step
+     * @return The time step in seconds
+     */
+    public double getTimeStep() {
+        return timeStep;
+    }
+
+    /**
+     * Returns the most steps that are run in one call to advance()
+     * @return The maximum number of steps per frame
+     */
+    public int getMaxStepsPerFrame() {
+        return maxStepsPerFrame;
+    }
+
+    /**
+     * Sets the most steps that are run in one call to advance()
+     * Pre-condition: "maxStepsPerFrame" must be at least 1
+     * @param maxStepsPerFrame The maximum number of steps per frame
+     */
+    public void setMaxStepsPerFrame(int maxStepsPerFrame) {
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * Returns the number of smaller steps that each step is split into
+     * @return The number of substeps
+     */
+    public int getNumSubsteps() {
+        return numSubsteps;
+    }
+
+    /**
+     * Sets the number of smaller steps that each step is split into. More substeps make fast or stacked bodies
+     * more stable, but take longer to simulate
+     * Pre-condition: "numSubsteps" must be at least 1
+     * @param numSubsteps The number of substeps
+     */
+    public void setNumSubsteps(int numSubsteps) {
+        this.numSubsteps = numSubsteps;
+    }
+
+    /**
+     * Returns how far the time that has not been simulated yet is into the next step
+     * @return A value from 0 (the state of the last step) up to but not including 1 (the state of the next step)
+     */
+    public double getAlpha() {
+        return accumulator / timeStep;
+    }
+
+    /**
+     * Simulates the world for as many whole steps as have built up, up to the maximum number of steps per frame
+     * Pre-condition: "timeEllapsed" must be at least 0
+     * @param timeEllapsed The time that has passed on the clock since the last call, in seconds
+     * @return The number of steps that were simulated
+     */
+    public int advance(double timeEllapsed) {
+        accumulator += timeEllapsed;
+
+        int numSteps = 0;
+        while (accumulator >= timeStep && numSteps < maxStepsPerFrame) {
+            step();
+            accumulator -= timeStep;
+            numSteps++;
+        }
+
+        // Drop the time that could not be caught up on
+        if (accumulator >= timeStep) {
+            accumulator %= timeStep;
+        }
+
+        return numSteps;
+    }
+
+    /**
+     * Simulates the world for one step, split into the substeps
+     */
+    private void step() {
+        double substep = timeStep / numSubsteps;
+        for (int i = 0; i < numSubsteps; i++) {
+            world.simulate(substep);
+        }
+    }
+}
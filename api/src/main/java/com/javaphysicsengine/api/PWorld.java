@@ -1,30 +1,206 @@
 package com.javaphysicsengine.api;
 
 import com.javaphysicsengine.api.body.PBody;
-import com.javaphysicsengine.api.body.PCollidable;
+import com.javaphysicsengine.api.body.PBodyStore;
 import com.javaphysicsengine.api.body.PConstraints;
+import com.javaphysicsengine.api.body.PWakeListener;
+import com.javaphysicsengine.api.broadphase.PBroadphase;
+import com.javaphysicsengine.api.broadphase.PPairBuffer;
 import com.javaphysicsengine.api.collision.PCollisionResult;
+import com.javaphysicsengine.api.collision.PCollisionDispatcher;
+import com.javaphysicsengine.api.collision.PNarrowphase;
+import com.javaphysicsengine.api.collision.PTimeOfImpact;
+import com.javaphysicsengine.api.integrator.PForces;
+import com.javaphysicsengine.api.integrator.PIntegrator;
+import com.javaphysicsengine.api.integrator.PSemiImplicitEulerIntegrator;
+import com.javaphysicsengine.api.solver.PContactSolver;
+import com.javaphysicsengine.api.solver.PIslands;
 import com.javaphysicsengine.utils.Vector;
-import org.javatuples.Pair;
 
 import java.awt.Color;
 import java.awt.Graphics;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class PWorld {
     // Physic properties about this world
-    private static final Vector GRAVITY = Vector.of(0, -9.81);
-    private static final double SCALE = 1;
+    private final PWorldConfig config;
+    private final Vector gravity;
 
     // List containing the physical bodies and joints
-    private ArrayList<PBody> bodies = new ArrayList<>();
+    private final PBodyList bodies = new PBodyList();
     private ArrayList<PConstraints> constraints = new ArrayList<>();
 
+    // The bodies that are awake, and the bodies that fell asleep in the last time step until their shapes and
+    // broadphase proxies are brought up to date, along with their indices in the list of bodies.
+    // The bodies tell the world when they wake up, so all of the bodies are only looked at when the list changes
+    private final ArrayList<PBody> activeBodies = new ArrayList<>();
+    private int[] activeIndices = new int[0];
+    private boolean[] isBodyActive = new boolean[0];
+    private final Map<PBody, Integer> bodyIndices = new IdentityHashMap<>();
+    private final PWakeListener wakeListener = this::activateBody;
+    private int numKnownBodyChanges = -1;
+
+    // Kept across time steps so that it only needs to be updated with the bodies that moved
+    private final PBroadphase broadphase;
+
+    // The pairs of body indices found by the broadphase, reused across time steps to avoid allocating
+    private final PPairBuffer potentialPairs = new PPairBuffer();
+
+    // Finds the contacts between the pairs of bodies found by the broadphase
+    private final PNarrowphase narrowphase;
+
+    // Resolves the contacts found by the narrowphase
+    private final PContactSolver contactSolver;
+
+    // Groups the bodies that touch or are joined so that each group can be solved and put to sleep on its own
+    private final PIslands islands = new PIslands();
+
+    // Integrates the bodies with loops over arrays of their kinematic properties (only used when the world stores
+    // its bodies in arrays)
+    private final PBodyStore bodyStore;
+
+    // Moves the bodies forward in time from the forces acting on them
+    private PIntegrator integrator = new PSemiImplicitEulerIntegrator();
+    private final PForces forces = this::evaluateForces;
+
+    private boolean isSleepingEnabled = true;
+
+    // Whether pairs that could touch within a time step are stopped before they go into each other
+    private boolean isSpeculativeContactsEnabled = true;
+
+    // Whether the contact points of the last time step are copied into pointsToDraw
+    private boolean isDrawingContactPts = false;
+
+    // The number of time steps simulated so far, and the snapshots published after each of them for another thread
+    private long stepNumber = 0;
+    private boolean isPublishingSnapshots = false;
+    private final PSnapshotBuffer snapshotBuffer = new PSnapshotBuffer();
+
+    // The number of bullets being swept in the current time step, and the time of impact of each body by index
+    private int numSweepingBodies = 0;
+    private double[] timesOfImpact = new double[0];
+
+    // A scratch vector reused across time steps to avoid allocating
+    private final Vector displacement = Vector.of(0, 0);
+
     public ConcurrentLinkedQueue<Vector> pointsToDraw = new ConcurrentLinkedQueue<>();
 
+    /**
+     * Creates a world with the default config, which uses a quad tree to find the bodies that could be colliding
+     */
+    public PWorld() {
+        this(PWorldConfig.DEFAULT);
+    }
+
+    /**
+     * Creates a world with certain physics parameters, which uses the broadphase chosen in the config
+     * Pre-condition: "config" must not be null
+     * @param config The physics parameters of the world
+     */
+    public PWorld(PWorldConfig config) {
+        this(config, false, new PNarrowphase(), new PContactSolver());
+    }
+
+    /**
+     * Creates a world with certain physics parameters, which uses the broadphase chosen in the config
+     * Pre-condition: "config", "narrowphase" and "contactSolver" must not be null, and "narrowphase" and
+     * "contactSolver" must not be shared with another world
+     * @param config The physics parameters of the world
+     * @param isStoringBodiesInArrays {@code true} if the velocities, forces and angles of the bodies
+     *                                are copied into arrays owned by the world to be integrated
+     *                                with tight loops; else {@code false}
+     * @param narrowphase The narrowphase, which decides which threads the collision tests run on
+     * @param contactSolver The contact solver, which decides which threads the islands are solved on, and which
+     *                      is given the config
+     */
+    public PWorld(PWorldConfig config, boolean isStoringBodiesInArrays, PNarrowphase narrowphase,
+                  PContactSolver contactSolver) {
+        this(config, config.createBroadphase(), isStoringBodiesInArrays, narrowphase, contactSolver);
+    }
+
+    /**
+     * Creates a world with the default config that uses a certain broadphase to find the bodies that could be colliding
+     * Pre-condition: "broadphase" must not be null and must not be shared with another world
+     * @param broadphase The broadphase
+     */
+    public PWorld(PBroadphase broadphase) {
+        this(broadphase, false);
+    }
+
+    /**
+     * Creates a world that uses a certain broadphase to find the bodies that could be colliding
+     * Pre-condition: "broadphase" must not be null and must not be shared with another world
+     * @param broadphase The broadphase
+     * @param isStoringBodiesInArrays {@code true} if the velocities, forces and angles of the bodies
+     *                                are copied into arrays owned by the world to be integrated
+     *                                with tight loops; else {@code false}
+     */
+    public PWorld(PBroadphase broadphase, boolean isStoringBodiesInArrays) {
+        this(broadphase, isStoringBodiesInArrays, new PNarrowphase());
+    }
+
+    /**
+     * Creates a world that uses a certain broadphase and narrowphase to find the bodies that are colliding
+     * Pre-condition: "broadphase" and "narrowphase" must not be null and must not be shared with another world
+     * @param broadphase The broadphase
+     * @param isStoringBodiesInArrays {@code true} if the velocities, forces and angles of the bodies
+     *                                are copied into arrays owned by the world to be integrated
+     *                                with tight loops; else {@code false}
+     * @param narrowphase The narrowphase, which decides which threads the collision tests run on
+     */
+    public PWorld(PBroadphase broadphase, boolean isStoringBodiesInArrays, PNarrowphase narrowphase) {
+        this(broadphase, isStoringBodiesInArrays, narrowphase, new PContactSolver());
+    }
+
+    /**
+     * Creates a world that uses a certain broadphase and narrowphase to find the bodies that are colliding,
+     * and a certain contact solver to push them apart
+     * Pre-condition: "broadphase", "narrowphase" and "contactSolver" must not be null and must not be shared
+     * with another world
+     * @param broadphase The broadphase
+     * @param isStoringBodiesInArrays {@code true} if the velocities, forces and angles of the bodies
+     *                                are copied into arrays owned by the world to be integrated
+     *                                with tight loops; else {@code false}
+     * @param narrowphase The narrowphase, which decides which threads the collision tests run on
+     * @param contactSolver The contact solver, which decides which threads the islands are solved on
+     */
+    public PWorld(PBroadphase broadphase, boolean isStoringBodiesInArrays, PNarrowphase narrowphase,
+                  PContactSolver contactSolver) {
+        this(PWorldConfig.DEFAULT, broadphase, isStoringBodiesInArrays, narrowphase, contactSolver);
+    }
+
+    /**
+     * Creates a world with certain physics parameters and a certain broadphase, narrowphase and contact solver
+     * @param config The physics parameters of the world
+     * @param broadphase The broadphase, which is used instead of the one chosen in the config
+     * @param isStoringBodiesInArrays {@code true} if the bodies are integrated in arrays owned by the world
+     * @param narrowphase The narrowphase
+     * @param contactSolver The contact solver, which is given the config
+     */
+    private PWorld(PWorldConfig config, PBroadphase broadphase, boolean isStoringBodiesInArrays,
+                   PNarrowphase narrowphase, PContactSolver contactSolver) {
+        this.config = config;
+        this.gravity = Vector.of(config.getGravityX(), config.getGravityY());
+        this.broadphase = broadphase;
+        this.narrowphase = narrowphase;
+        this.contactSolver = contactSolver;
+        this.contactSolver.setConfig(config);
+        this.bodyStore = isStoringBodiesInArrays ? new PBodyStore() : null;
+    }
+
+    /**
+     * Returns the physics parameters of the world
+     * @return The config of the world
+     */
+    public PWorldConfig getConfig() {
+        return config;
+    }
+
     /**
      * Returns the list of bodies added to the world
      * @return Returns the list of bodies added to the world
@@ -33,6 +209,35 @@ public class PWorld {
         return bodies;
     }
 
+    /**
+     * Adds copies of bodies and of the constraints between them to the world.
+     * Each copied constraint is attached to the copies of the bodies that the original is attached to
+     * Pre-condition: the bodies that the constraints are attached to must be in "bodies"
+     * @param bodies The bodies to copy
+     * @param constraints The constraints to copy
+     * @throws UnsupportedOperationException if a body cannot be copied
+     * @throws IllegalArgumentException if a constraint is attached to a body that is not in "bodies"
+     */
+    public void addCopiesOf(List<PBody> bodies, List<PConstraints> constraints) {
+        // The constraints find the copies of their bodies by the bodies themselves rather than by their names,
+        // since names do not have to be unique
+        Map<PBody, PBody> copiedBodies = new IdentityHashMap<>();
+        for (PBody body : bodies) {
+            PBody copiedBody = body.copy();
+            copiedBodies.put(body, copiedBody);
+            this.bodies.add(copiedBody);
+        }
+
+        for (PConstraints constraint : constraints) {
+            PBody attachedBody1 = copiedBodies.get(constraint.getAttachedBodies()[0]);
+            PBody attachedBody2 = copiedBodies.get(constraint.getAttachedBodies()[1]);
+            if (attachedBody1 == null || attachedBody2 == null) {
+                throw new IllegalArgumentException("Cannot find body in world!");
+            }
+            this.constraints.add(constraint.copy(attachedBody1, attachedBody2));
+        }
+    }
+
     /**
      * Returns the list of constraints added to the world
      * @return Returns the list of constraints added to the world
@@ -41,6 +246,138 @@ public class PWorld {
         return constraints;
     }
 
+    /**
+     * Returns the broadphase used to find the bodies that could be colliding
+     * @return The broadphase of this world
+     */
+    public PBroadphase getBroadphase() {
+        return broadphase;
+    }
+
+    /**
+     * Returns the integrator that moves the bodies forward in time
+     * @return The integrator of this world
+     */
+    public PIntegrator getIntegrator() {
+        return integrator;
+    }
+
+    /**
+     * Sets the integrator that moves the bodies forward in time
+     * Pre-condition: "integrator" must not be null
+     * @param integrator The new integrator
+     */
+    public void setIntegrator(PIntegrator integrator) {
+        this.integrator = integrator;
+    }
+
+    /**
+     * Returns the solver that resolves the contacts, whose number of iterations can be changed
+     * @return The contact solver of this world
+     */
+    public PContactSolver getContactSolver() {
+        return contactSolver;
+    }
+
+    /**
+     * Determines if bodies that come to rest are put to sleep, so that they are skipped until something wakes them up
+     * @return {@code true} if bodies can fall asleep; else {@code false}
+     */
+    public boolean isSleepingEnabled() {
+        return isSleepingEnabled;
+    }
+
+    /**
+     * Sets whether bodies that come to rest are put to sleep. Turning it off wakes up all of the bodies
+     * @param isSleepingEnabled {@code true} if bodies can fall asleep; else {@code false}
+     */
+    public void setSleepingEnabled(boolean isSleepingEnabled) {
+        this.isSleepingEnabled = isSleepingEnabled;
+        if (!isSleepingEnabled) {
+            for (PBody body : bodies) {
+                body.setAwake(true);
+            }
+        }
+    }
+
+    /**
+     * Determines if bodies that do not touch yet, but that could touch within a time step, are found as speculative
+     * contacts, so that they are slowed down before they go into each other instead of being pushed apart after
+     * @return {@code true} if speculative contacts are found; else {@code false}
+     */
+    public boolean isSpeculativeContactsEnabled() {
+        return isSpeculativeContactsEnabled;
+    }
+
+    /**
+     * Sets whether bodies that do not touch yet, but that could touch within a time step, are found as speculative
+     * contacts. They let larger time steps be taken without the bodies going into or through each other
+     * @param isSpeculativeContactsEnabled {@code true} if speculative contacts are found; else {@code false}
+     */
+    public void setSpeculativeContactsEnabled(boolean isSpeculativeContactsEnabled) {
+        this.isSpeculativeContactsEnabled = isSpeculativeContactsEnabled;
+    }
+
+    /**
+     * Determines if the contact points of the last time step are kept in pointsToDraw
+     * @return {@code true} if the contact points are drawn; else {@code false}
+     */
+    public boolean isDrawingContactPts() {
+        return isDrawingContactPts;
+    }
+
+    /**
+     * Sets whether the contact points of the last time step are kept in pointsToDraw and in the published snapshots.
+     * The points are copied, so this allocates memory on every time step and is meant for debugging
+     * @param isDrawingContactPts {@code true} to draw the contact points; else {@code false}
+     */
+    public void setDrawingContactPts(boolean isDrawingContactPts) {
+        this.isDrawingContactPts = isDrawingContactPts;
+    }
+
+    /**
+     * Returns the number of time steps that the world has simulated
+     * @return The step number
+     */
+    public long getStepNumber() {
+        return stepNumber;
+    }
+
+    /**
+     * Determines if a snapshot of the bodies and constraints is published after each time step
+     * @return {@code true} if snapshots are published; else {@code false}
+     */
+    public boolean isPublishingSnapshots() {
+        return isPublishingSnapshots;
+    }
+
+    /**
+     * Sets whether a snapshot of the bodies and constraints is published after each time step, so that they can be
+     * drawn on another thread while the world is simulated
+     * @param isPublishingSnapshots {@code true} if snapshots should be published; else {@code false}
+     */
+    public void setPublishingSnapshots(boolean isPublishingSnapshots) {
+        this.isPublishingSnapshots = isPublishingSnapshots;
+    }
+
+    /**
+     * Publishes a snapshot of where the bodies and constraints are now, such as before the first time step.
+     * If the world is drawing contact points, the contact points of the last time step are in it too.
+     * It must only be called on the thread that simulates the world
+     */
+    public void publishSnapshot() {
+        snapshotBuffer.publish(stepNumber, bodies, constraints, isDrawingContactPts ? narrowphase : null);
+    }
+
+    /**
+     * Returns the latest snapshot published by the world, without waiting for the time step that is being simulated.
+     * It must only be called on one thread, and the snapshot is only valid until the next call
+     * @return The latest snapshot, which has no bodies if none has been published yet
+     */
+    public PWorldSnapshot getLatestSnapshot() {
+        return snapshotBuffer.getLatest();
+    }
+
     /**
      * Draws the bodies and constraints to the screen
      * @param g The Graphics Object
@@ -69,212 +406,382 @@ public class PWorld {
      * @param timeEllapsed The time that has ellapsed in seconds
      */
     public void simulate(double timeEllapsed) {
-        // Clear all the forces from all the bodies
-        for (PBody body : bodies) {
-            body.getNetForce().setX(0);
-            body.getNetForce().setY(0);
-        }
+        boolean haveBodiesChanged = refreshActiveBodies();
+        wakeJoinedBodies();
+        startSweeps();
 
-        // Add the nessessary forces to all the bodies
-        addForces();
+        // The body store does semi-implicit Euler in its own loops over its arrays
+        if (bodyStore != null && integrator instanceof PSemiImplicitEulerIntegrator) {
+            simulateStoredBodies(timeEllapsed);
 
-        // Translate the bodies based on the forces
-        translateBodies(timeEllapsed);
+        } else {
+            // Translate the bodies based on the forces
+            integrator.integrate(activeBodies, forces, timeEllapsed, config.getScale());
+        }
 
-        PQuadTree tree = new PQuadTree(bodies);
-        for (Pair<PBody, PBody> pair : tree.getPotentialIntersectingBodies()) {
-            PBody body1 = pair.getValue0();
-            PBody body2 = pair.getValue1();
+        // Sleeping bodies have not moved since their shapes and proxies were last brought up to date
+        if (haveBodiesChanged) {
+            updateShapes(bodies);
+            broadphase.update(bodies);
+        } else {
+            updateShapes(activeBodies);
+            broadphase.update(bodies, activeIndices, activeBodies.size());
+        }
+        removeSleepingActiveBodies();
 
-            boolean isCollidable = (body1 instanceof PCollidable && body2 instanceof PCollidable) &&
-                    (body1.isMoving() || body2.isMoving());
+        broadphase.getPotentialIntersectingPairs(potentialPairs);
+        stopBulletsAtImpacts();
 
-            if (isCollidable) {
-                PCollidable collidable1 = (PCollidable) body1;
-                PCollidable collidable2 = (PCollidable) body2;
+        // Find all of the contacts before any of them are resolved, so that finding them can run in parallel
+        double speculativeTimeStep = isSpeculativeContactsEnabled ? timeEllapsed : 0;
+        narrowphase.findContacts(bodies, potentialPairs, speculativeTimeStep);
+        wakeTouchedBodies();
+        islands.build(bodies, constraints, narrowphase);
+        resolveContacts(speculativeTimeStep);
 
-                PCollisionResult result = collidable1.hasCollidedWith(collidable2);
+        if (isSleepingEnabled) {
+            updateSleepTimes(timeEllapsed);
+        }
 
-                if (result.isHasCollided()) {
-                    pointsToDraw.add(result.getContactPt());
+        stepNumber++;
+        if (isPublishingSnapshots) {
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Rebuilds the list of active bodies if bodies were added to, removed from or replaced in the list of bodies
+     * since the last time step
+     * @return {@code true} if the list of bodies changed; else {@code false}
+     */
+    private boolean refreshActiveBodies() {
+        if (bodies.getNumChanges() == numKnownBodyChanges) {
+            return false;
+        }
+        numKnownBodyChanges = bodies.getNumChanges();
 
-                    if (body1.isMoving()) {
-                        body1.translate(result.getBody1Mtv());
-                    }
-                    if (body2.isMoving()) {
-                        body2.translate(result.getBody2Mtv());
-                    }
+        if (isBodyActive.length < bodies.size()) {
+            isBodyActive = new boolean[Math.max(bodies.size(), 2 * isBodyActive.length)];
+            activeIndices = new int[isBodyActive.length];
+        }
+        Arrays.fill(isBodyActive, false);
+        activeBodies.clear();
+        bodyIndices.clear();
 
-                    if (result.getMtv().dot(body2.getCenterPt().minus(body1.getCenterPt())) < 0) {
-                        throw new IllegalArgumentException("MTV's direction should be from body1 to body2!");
-                    }
+        for (int i = 0; i < bodies.size(); i++) {
+            PBody body = bodies.get(i);
+            body.setWakeListener(wakeListener);
+            bodyIndices.put(body, i);
 
-                    positionalCorrection(body1, body2, result.getMtv());
-                    applyImpulse(body1, body2, result.getMtv(), result.getContactPt());
-                }
+            if (body.isAwake()) {
+                addActiveBody(i);
             }
         }
+        return true;
     }
 
     /**
-     * Adds the forces to all the bodies
+     * Adds a body that woke up to the list of active bodies
+     * @param body The body
      */
-    private void addForces() {
-        for (PBody body : bodies) {
-            if (!body.isMoving()) {
-                continue;
-            }
+    private void activateBody(PBody body) {
+        // The whole list of active bodies is rebuilt in the next time step if the list of bodies changed
+        if (bodies.getNumChanges() != numKnownBodyChanges) {
+            return;
+        }
 
-            // Adding gravitational force
-            Vector gravitationalForce = GRAVITY.scale(body.getMass());
-            Vector newNetForce = body.getNetForce().add(gravitationalForce);
-            body.setNetForce(newNetForce);
+        // The body could have been removed from the world
+        Integer index = bodyIndices.get(body);
+        if (index != null) {
+            addActiveBody(index);
         }
+    }
 
-        // Adding forces from constraints
-        for (PConstraints constraint : constraints) {
-            constraint.addTensionForce();
+    private void addActiveBody(int index) {
+        if (isBodyActive[index]) {
+            return;
         }
+
+        isBodyActive[index] = true;
+        activeIndices[activeBodies.size()] = index;
+        activeBodies.add(bodies.get(index));
     }
 
     /**
-     * Translates all the bodies based on a certain time frame
-     * @param timeEllapsed The time that has ellapsed
+     * Removes the bodies that are asleep from the list of active bodies, once their shapes and proxies are up to date
      */
-    private void translateBodies(double timeEllapsed) {
-        for (PBody body : bodies) {
-            if (!body.isMoving()) {
-                continue;
+    private void removeSleepingActiveBodies() {
+        int numKept = 0;
+        for (int i = 0; i < activeBodies.size(); i++) {
+            PBody body = activeBodies.get(i);
+            int index = activeIndices[i];
+
+            if (body.isAwake()) {
+                activeBodies.set(numKept, body);
+                activeIndices[numKept] = index;
+                numKept++;
+            } else {
+                isBodyActive[index] = false;
             }
+        }
 
-            // Getting the acceleration from force ( Force = mass * acceleration )
-            Vector acceleration = body.getNetForce().scale(1 / body.getMass());
-
-            // Calculating the new velocity ( V' = V + at)
-            Vector velocity = body.getVelocity().add(acceleration.scale(timeEllapsed));
-            body.setVelocity(velocity);
-
-            // Getting the amount to translate by (Velocity = displacement / time)
-            Vector translation = velocity.scale(timeEllapsed).scale(SCALE);
-            body.translate(translation);
-
-            // Calculating the new angular velocity (AngularVelocity' = AngularVelocity + torque * (1 / inertia) * time)
-            double angularVelocity = body.getAngularVelocity() + body.getTorque() * (1 / body.getInertia()) * timeEllapsed;
-            body.setAngularVelocity(angularVelocity);
-
-            // Rotate the body (angle += AngularVelocity' * time)
-            double newAngle = body.getAngle() + (body.getAngularVelocity() * timeEllapsed * SCALE);
-            body.rotate(newAngle);
+        while (activeBodies.size() > numKept) {
+            activeBodies.remove(activeBodies.size() - 1);
         }
     }
 
     /**
-     * Calculates and applies the impulse to the two bodies
-     * @param body1 The first body involved in the collision
-     * @param body2 The second body involved in the collision
-     * @param mtv The MTV of the two bodies
-     * @param
+     * Determines if a body is moving fast enough to wake up the bodies it touches or is joined to
+     * @param body The body
+     * @return {@code true} if the body is awake and has not been at rest since the last time step; else {@code false}
      */
-    private void applyImpulse(PBody body1, PBody body2, Vector mtv, Vector contactPt) {
+    private static boolean isWakingOthers(PBody body) {
+        return body.isMoving() && body.isAwake() && body.getSleepTime() == 0;
+    }
 
-        double body1InversedMass = body1.isMoving() ? 1 / body1.getMass() : 0;
-        double body2InversedMass = body2.isMoving() ? 1 / body2.getMass() : 0;
+    /**
+     * Wakes up the sleeping bodies that are joined to a body that is moving
+     */
+    private void wakeJoinedBodies() {
+        for (PConstraints constraint : constraints) {
+            PBody body1 = constraint.getAttachedBodies()[0];
+            PBody body2 = constraint.getAttachedBodies()[1];
 
-        double body1InverseInertia = body1.isMoving() ? body1.getInertia() : 0;
-        double body2InverseInertia = body2.isMoving() ? body2.getInertia() : 0;
+            if (!body1.isAwake() && isWakingOthers(body2)) {
+                body1.setAwake(true);
+            } else if (!body2.isAwake() && isWakingOthers(body1)) {
+                body2.setAwake(true);
+            }
+        }
+    }
 
-        Vector r1 = contactPt.minus(body1.getCenterPt());
-        Vector r2 = contactPt.minus(body2.getCenterPt());
+    /**
+     * Brings the cached world vertices and bounding box of each body up to date with where it has moved, once per
+     * step, so that the narrowphase only reads them while it runs on many threads
+     * @param bodies The bodies that could have moved
+     */
+    private void updateShapes(List<PBody> bodies) {
+        for (PBody body : bodies) {
+            body.getBoundingBox();
+        }
+    }
 
-        Vector newV1 = body1.getVelocity().add(Vector.of(-1 * body1.getAngularVelocity() * r1.getY(), body1.getAngularVelocity() * r1.getX()));
-        Vector newV2 = body2.getVelocity().add(Vector.of(-1 * body2.getAngularVelocity() * r2.getY(), body2.getAngularVelocity() * r2.getX()));
-        Vector relativeVelocity = newV2.minus(newV1);
+    /**
+     * Remembers where each bullet that will move in this time step starts, so that it can be swept
+     */
+    private void startSweeps() {
+        numSweepingBodies = 0;
+        for (PBody body : activeBodies) {
+            if (body.isBullet() && body.isMoving() && body.isAwake() && canBeSwept(body)) {
+                body.startSweep();
+                numSweepingBodies++;
+            }
+        }
+    }
 
-        Vector normal = mtv.normalize();
-        double velAlongNormal = relativeVelocity.dot(normal);
+    /**
+     * Determines if a body has a shape that the time of impact can be found for
+     * @param body The body
+     * @return {@code true} if the body is a circle or a polygon; else {@code false}
+     */
+    private static boolean canBeSwept(PBody body) {
+        return body.getShapeType() == PCollisionDispatcher.CIRCLE_SHAPE || body.getShapeType() == PCollisionDispatcher.POLYGON_SHAPE;
+    }
 
-        if(velAlongNormal > 0) {
+    /**
+     * Moves each bullet back to where it first hits a body that the broadphase paired it with during the time step,
+     * so that it does not go through thin bodies. The rest of the bullet's motion in the time step is dropped
+     */
+    private void stopBulletsAtImpacts() {
+        if (numSweepingBodies == 0) {
             return;
         }
 
-        double r1CrossN = r1.cross(normal);
-        double r2CrossN = r2.cross(normal);
+        if (timesOfImpact.length < bodies.size()) {
+            timesOfImpact = new double[Math.max(bodies.size(), 2 * timesOfImpact.length)];
+        }
+        Arrays.fill(timesOfImpact, 0, bodies.size(), 1);
 
-        // Getting the total impulse of the two bodies as a system
-        double coefficientOfResitution = 0.2;
-        double totalImpulse = -(1 + coefficientOfResitution) * velAlongNormal;
-        totalImpulse /= (body1InversedMass + body2InversedMass +
-                r1CrossN * r1CrossN * body1InverseInertia +
-                r2CrossN * r2CrossN * body2InverseInertia);
+        for (int i = 0; i < potentialPairs.size(); i++) {
+            int index1 = potentialPairs.getBodyIndex1(i);
+            int index2 = potentialPairs.getBodyIndex2(i);
+            PBody body1 = bodies.get(index1);
+            PBody body2 = bodies.get(index2);
 
-        Vector impulse = normal.scale(totalImpulse);
+            if (body1.isSweeping() && canBeSwept(body2)) {
+                timesOfImpact[index1] = Math.min(timesOfImpact[index1], PTimeOfImpact.getTimeOfImpact(body1, body2));
+            }
+            if (body2.isSweeping() && canBeSwept(body1)) {
+                timesOfImpact[index2] = Math.min(timesOfImpact[index2], PTimeOfImpact.getTimeOfImpact(body2, body1));
+            }
+        }
 
-        // Add impulse of each object
-        if (body1.isMoving()) {
-            body1.setVelocity(body1.getVelocity().minus(impulse.scale(body1InversedMass)));
-            body1.setAngularVelocity(body1.getAngularVelocity() - r1CrossN * totalImpulse * body1InverseInertia);
+        // Only awake bodies are swept
+        for (int activeIndex = 0; activeIndex < activeBodies.size(); activeIndex++) {
+            int i = activeIndices[activeIndex];
+            PBody body = activeBodies.get(activeIndex);
+            if (!body.isSweeping()) {
+                continue;
+            }
+
+            if (timesOfImpact[i] < 1) {
+                double time = timesOfImpact[i];
+                Vector startPt = body.getSweepStartPt();
+                displacement.setXY(
+                        startPt.getX() + time * (body.getCenterPt().getX() - startPt.getX()) - body.getCenterPt().getX(),
+                        startPt.getY() + time * (body.getCenterPt().getY() - startPt.getY()) - body.getCenterPt().getY());
+                body.translate(displacement);
+                body.rotate(body.getSweepStartAngle() + time * (body.getAngle() - body.getSweepStartAngle()));
+
+                // The narrowphase only reads the shapes while it runs on many threads
+                body.getBoundingBox();
+            }
+            body.endSweep();
         }
+    }
 
-        if (body2.isMoving()) {
-            body2.setVelocity(body2.getVelocity().add(impulse.scale(body2InversedMass)));
-            body2.setAngularVelocity(body2.getAngularVelocity() + r2CrossN * totalImpulse * body2InverseInertia);
+    /**
+     * Wakes up the sleeping bodies that are touched by a body that is moving, so that they are pushed back
+     */
+    private void wakeTouchedBodies() {
+        for (int i = 0; i < narrowphase.getNumContacts(); i++) {
+            PBody body1 = bodies.get(narrowphase.getBodyIndex1(i));
+            PBody body2 = bodies.get(narrowphase.getBodyIndex2(i));
+
+            if (!body1.isAwake() && isWakingOthers(body2)) {
+                body1.setAwake(true);
+            } else if (!body2.isAwake() && isWakingOthers(body1)) {
+                body2.setAwake(true);
+            }
         }
+    }
+
+    /**
+     * Puts the islands whose bodies have all been at rest for long enough to sleep.
+     * A body is only put to sleep with the rest of its island, so that it does not stop holding up a body that is still moving
+     * @param timeEllapsed The time that has ellapsed in seconds
+     */
+    private void updateSleepTimes(double timeEllapsed) {
+        for (int island = 0; island < islands.getNumIslands(); island++) {
+            double minSleepTime = Double.MAX_VALUE;
 
-        Vector tangent = relativeVelocity.minus(normal.scale(relativeVelocity.dot(normal)));
-        tangent = tangent.normalize().scale(-1);
+            for (int i = 0; i < islands.getNumBodies(island); i++) {
+                PBody body = bodies.get(islands.getBody(island, i));
 
-        double r1CrossT = r1.cross(tangent);
-        double r2CrossT = r2.cross(tangent);
+                boolean isAtRest = body.getVelocity().norm2() <= config.getLinearSleepTolerance() &&
+                        Math.abs(body.getAngularVelocity()) <= config.getAngularSleepTolerance();
 
-        double newFriction = 0.1;
-        double tangentImpulse = -(1 + coefficientOfResitution) * relativeVelocity.dot(tangent) * newFriction;
-        tangentImpulse /= (body1InversedMass + body2InversedMass +
-                r1CrossT * r1CrossT * body1InverseInertia +
-                r2CrossT * r2CrossT * body2InverseInertia);
+                body.setSleepTime(isAtRest ? body.getSleepTime() + timeEllapsed : 0);
+                minSleepTime = Math.min(minSleepTime, body.getSleepTime());
+            }
 
-        if (tangentImpulse > totalImpulse) {
-            tangentImpulse = totalImpulse;
+            if (minSleepTime >= config.getTimeToSleep()) {
+                for (int i = 0; i < islands.getNumBodies(island); i++) {
+                    bodies.get(islands.getBody(island, i)).setAwake(false);
+                }
+            }
         }
+    }
 
-        impulse = tangent.scale(tangentImpulse);
+    /**
+     * Pushes apart and changes the velocities of the bodies in each contact found by the narrowphase
+     * @param timeStep The time step that the speculative contacts were found for, or 0 if there are none
+     */
+    private void resolveContacts(double timeStep) {
+        // Only the points of this time step are drawn. The results are reused in the next time step, so their points
+        // are copied
+        pointsToDraw.clear();
+        for (int i = 0; isDrawingContactPts && i < narrowphase.getNumContacts(); i++) {
+            PCollisionResult result = narrowphase.getResult(i);
+            for (int pt = 0; pt < result.getNumContactPts(); pt++) {
+                pointsToDraw.add(new Vector(result.getContactPt(pt).getX(), result.getContactPt(pt).getY()));
+            }
+        }
+
+        // The time step is assumed to stay the same, since the speculative contacts are for the next time step
+        contactSolver.solve(bodies, narrowphase, islands, timeStep);
+    }
 
-        if (body1.isMoving()) {
-            body1.setVelocity(body1.getVelocity().minus(impulse.scale(body1InversedMass)));
-            body1.setAngularVelocity(body1.getAngularVelocity() - r1CrossT * tangentImpulse * body1InverseInertia);
+    /**
+     * Adds the forces to and translates all the bodies, with the bodies' properties copied into the body store
+     * @param timeEllapsed The time that has ellapsed
+     */
+    private void simulateStoredBodies(double timeEllapsed) {
+        // Gravity is added in the store, so only the forces from constraints are added to the bodies
+        for (PBody body : activeBodies) {
+            body.getNetForce().setXY(0, 0);
+        }
+        for (PConstraints constraint : constraints) {
+            constraint.addTensionForce();
         }
 
-        if (body2.isMoving()) {
-            body2.setVelocity(body2.getVelocity().add(impulse.scale(body2InversedMass)));
-            body2.setAngularVelocity(body2.getAngularVelocity() + r2CrossT * tangentImpulse * body2InverseInertia);
+        bodyStore.load(activeBodies);
+        bodyStore.addGravity(gravity);
+        bodyStore.integrate(timeEllapsed, config.getScale());
+
+        // Moving a body also moves its shape, so this cannot be done in the store
+        for (int i = 0; i < bodyStore.size(); i++) {
+            PBody body = bodyStore.getBody(i);
+            if (!body.isMoving() || !body.isAwake()) {
+                continue;
+            }
+
+            displacement.setXY(bodyStore.getDisplacementX(i), bodyStore.getDisplacementY(i));
+            body.translate(displacement);
+            body.rotate(bodyStore.getNewAngle(i));
         }
     }
 
     /**
-     * Moves the two bodies by a slight bit after a collision occured (to prevent gittering)
-     *
-     * @param body1 The first body involved in the collision
-     * @param body2 The second body involved in the collision
-     * @param mtv The MTD of the two bodies
+     * Clears the forces from all the active bodies and then adds the nessessary forces to them
      */
-    private void positionalCorrection(PBody body1, PBody body2, Vector mtv) {
-        final double PERCENT = 0.2; // usually 20% to 80%
-        final double SLOP = 0.01; // usually 0.01 to 0.1
+    private void evaluateForces() {
+        for (PBody body : activeBodies) {
+            body.getNetForce().setX(0);
+            body.getNetForce().setY(0);
+        }
+        addForces();
+    }
 
-        double body1InversedMass = body1.isMoving() ? 1 / body1.getMass() : 0;
-        double body2InversedMass = body2.isMoving() ? 1 / body2.getMass() : 0;
+    /**
+     * Adds the forces to all the active bodies
+     */
+    private void addForces() {
+        Vector gravitationalForce = displacement;
+        for (PBody body : activeBodies) {
+            if (!body.isMoving() || !body.isAwake()) {
+                continue;
+            }
 
-        double penetrationDepth = mtv.norm2();
-        Vector normal = mtv.normalize();
+            // Adding gravitational force
+            Vector.scale(gravity, body.getMass(), gravitationalForce);
+            body.getNetForce().addLocal(gravitationalForce);
+        }
 
-        double correctionDepth = Math.max(penetrationDepth - SLOP, 0) / (body1InversedMass + body2InversedMass) * PERCENT;
-        Vector correction = normal.scale(correctionDepth);
+        // Adding forces from constraints
+        for (PConstraints constraint : constraints) {
+            constraint.addTensionForce();
+        }
+    }
 
-        if (body1.isMoving()) {
-            body1.translate(correction.scale(-1 * body1InversedMass));
+    /**
+     * A list of bodies that counts the changes made to it, including bodies that are replaced, so that the world
+     * knows when the indices of its active bodies are no longer valid
+     */
+    private static class PBodyList extends ArrayList<PBody> {
+
+        /**
+         * Returns the number of times the list has been changed
+         * @return The number of changes
+         */
+        int getNumChanges() {
+            return modCount;
         }
 
-        if (body2.isMoving()) {
-            body2.translate(correction.scale(body2InversedMass));
+        @Override
+        public PBody set(int index, PBody body) {
+            modCount++;
+            return super.set(index, body);
         }
     }
-}
\ No newline at end of file
+}
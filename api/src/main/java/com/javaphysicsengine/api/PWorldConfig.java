@@ -0,0 +1,380 @@
+package com.javaphysicsengine.api;
+
+import com.javaphysicsengine.api.broadphase.PBroadphase;
+import com.javaphysicsengine.api.broadphase.PDynamicAABBTree;
+import com.javaphysicsengine.api.broadphase.PQuadTree;
+import com.javaphysicsengine.api.broadphase.PSpatialHashGrid;
+import com.javaphysicsengine.api.broadphase.PSweepAndPrune;
+
+/**
+ * The physics parameters of a world, which are given to it when it is made.
+ *
+ * A config cannot be changed once it is built, so one config can be shared by many worlds, even ones that are
+ * simulated on different threads. To try out other parameters, a config is turned back into a builder with
+ * {@link #toBuilder()}, changed, and built into a new config.
+ *
+ * The restitution and friction are only used for the bodies that do not have their own
+ */
+public class PWorldConfig {
+
+    // The broadphases that a world can use to find the bodies that could be colliding
+    public static final int QUAD_TREE = 0;
+    public static final int SPATIAL_HASH_GRID = 1;
+    public static final int DYNAMIC_AABB_TREE = 2;
+    public static final int SWEEP_AND_PRUNE = 3;
+
+    // The config of a world that is made without one
+    public static final PWorldConfig DEFAULT = new PBuilder().build();
+
+    private final double gravityX;
+    private final double gravityY;
+    private final double scale;
+
+    private final double restitution;
+    private final double friction;
+    private final double restitutionThreshold;
+
+    private final double baumgarte;
+    private final double slop;
+    private final int velocityIterations;
+    private final int positionIterations;
+
+    private final double linearSleepTolerance;
+    private final double angularSleepTolerance;
+    private final double timeToSleep;
+
+    private final int broadphaseType;
+
+    /**
+     * Creates a config from the parameters set in a builder
+     * @param builder The builder
+     */
+    private PWorldConfig(PBuilder builder) {
+        this.gravityX = builder.gravityX;
+        this.gravityY = builder.gravityY;
+        this.scale = builder.scale;
+        this.restitution = builder.restitution;
+        this.friction = builder.friction;
+        this.restitutionThreshold = builder.restitutionThreshold;
+        this.baumgarte = builder.baumgarte;
+        this.slop = builder.slop;
+        this.velocityIterations = builder.velocityIterations;
+        this.positionIterations = builder.positionIterations;
+        this.linearSleepTolerance = builder.linearSleepTolerance;
+        this.angularSleepTolerance = builder.angularSleepTolerance;
+        this.timeToSleep = builder.timeToSleep;
+        this.broadphaseType = builder.broadphaseType;
+    }
+
+    /**
+     * Returns a builder that starts with the parameters of this config
+     * @return The builder
+     */
+    public PBuilder toBuilder() {
+        PBuilder builder = new PBuilder();
+        builder.gravityX = gravityX;
+        builder.gravityY = gravityY;
+        builder.scale = scale;
+        builder.restitution = restitution;
+        builder.friction = friction;
+        builder.restitutionThreshold = restitutionThreshold;
+        builder.baumgarte = baumgarte;
+        builder.slop = slop;
+        builder.velocityIterations = velocityIterations;
+        builder.positionIterations = positionIterations;
+        builder.linearSleepTolerance = linearSleepTolerance;
+        builder.angularSleepTolerance = angularSleepTolerance;
+        builder.timeToSleep = timeToSleep;
+        builder.broadphaseType = broadphaseType;
+        return builder;
+    }
+
+    /**
+     * Returns the x value of the acceleration of the bodies from gravity
+     * @return The x value of gravity
+     */
+    public double getGravityX() {
+        return gravityX;
+    }
+
+    /**
+     * Returns the y value of the acceleration of the bodies from gravity
+     * @return The y value of gravity
+     */
+    public double getGravityY() {
+        return gravityY;
+    }
+
+    /**
+     * Returns how much the velocities of the bodies are scaled by when they are moved
+     * @return The scale
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Returns how much of their speed the bodies keep when they bounce off of each other
+     * @return The restitution, from 0 for no bounce to 1 for a perfect bounce
+     */
+    public double getRestitution() {
+        return restitution;
+    }
+
+    /**
+     * Returns how strong friction is compared to the force that pushes the bodies apart
+     * @return The friction coefficient
+     */
+    public double getFriction() {
+        return friction;
+    }
+
+    /**
+     * Returns how fast the bodies have to hit each other to bounce, so that resting bodies can settle
+     * @return The restitution threshold
+     */
+    public double getRestitutionThreshold() {
+        return restitutionThreshold;
+    }
+
+    /**
+     * Returns the fraction of the overlap of the bodies that is corrected in each position iteration
+     * @return The Baumgarte factor
+     */
+    public double getBaumgarte() {
+        return baumgarte;
+    }
+
+    /**
+     * Returns how far the bodies are allowed to overlap without being pushed apart
+     * @return The slop
+     */
+    public double getSlop() {
+        return slop;
+    }
+
+    /**
+     * Returns the number of times the impulses of all the contacts are refined in a time step
+     * @return The number of velocity iterations
+     */
+    public int getVelocityIterations() {
+        return velocityIterations;
+    }
+
+    /**
+     * Returns the most times the bodies in all the contacts are pushed apart in a time step
+     * @return The number of position iterations
+     */
+    public int getPositionIterations() {
+        return positionIterations;
+    }
+
+    /**
+     * Returns the speed that a body has to stay under to fall asleep
+     * @return The linear sleep tolerance
+     */
+    public double getLinearSleepTolerance() {
+        return linearSleepTolerance;
+    }
+
+    /**
+     * Returns the angular speed that a body has to stay under to fall asleep
+     * @return The angular sleep tolerance, in radians per second
+     */
+    public double getAngularSleepTolerance() {
+        return angularSleepTolerance;
+    }
+
+    /**
+     * Returns how long a body has to stay under the sleep tolerances to fall asleep
+     * @return The time to sleep, in seconds
+     */
+    public double getTimeToSleep() {
+        return timeToSleep;
+    }
+
+    /**
+     * Returns the broadphase that the world uses to find the bodies that could be colliding
+     * @return QUAD_TREE, SPATIAL_HASH_GRID, DYNAMIC_AABB_TREE or SWEEP_AND_PRUNE
+     */
+    public int getBroadphaseType() {
+        return broadphaseType;
+    }
+
+    /**
+     * Makes a new broadphase of the type in the config
+     * @return The broadphase, which is not shared with any other world
+     * @throws IllegalArgumentException if the broadphase type is not known
+     */
+    public PBroadphase createBroadphase() {
+        switch (broadphaseType) {
+            case QUAD_TREE:
+                return new PQuadTree();
+            case SPATIAL_HASH_GRID:
+                return new PSpatialHashGrid();
+            case DYNAMIC_AABB_TREE:
+                return new PDynamicAABBTree();
+            case SWEEP_AND_PRUNE:
+                return new PSweepAndPrune();
+            default:
+                throw new IllegalArgumentException("Broadphase type " + broadphaseType + " is not known!");
+        }
+    }
+
+    /**
+     * Sets the parameters of a config before it is built. Parameters that are not set keep their defaults
+     */
+    public static class PBuilder {
+        private double gravityX = 0;
+        private double gravityY = -9.81;
+        private double scale = 1;
+
+        private double restitution = 0.2;
+        private double friction = 0.1;
+        private double restitutionThreshold = 1;
+
+        private double baumgarte = 0.2; // usually 20% to 80%
+        private double slop = 0.01; // usually 0.01 to 0.1
+        private int velocityIterations = 8;
+        private int positionIterations = 3;
+
+        private double linearSleepTolerance = 0.25;
+        private double angularSleepTolerance = 2 * Math.PI / 180;
+        private double timeToSleep = 0.5;
+
+        private int broadphaseType = QUAD_TREE;
+
+        /**
+         * Sets the acceleration of the bodies from gravity
+         * @param gravityX The x value of gravity
+         * @param gravityY The y value of gravity
+         * @return The builder
+         */
+        public PBuilder setGravity(double gravityX, double gravityY) {
+            this.gravityX = gravityX;
+            this.gravityY = gravityY;
+            return this;
+        }
+
+        /**
+         * Sets how much the velocities of the bodies are scaled by when they are moved
+         * @param scale The scale
+         * @return The builder
+         */
+        public PBuilder setScale(double scale) {
+            this.scale = scale;
+            return this;
+        }
+
+        /**
+         * Sets how much of their speed the bodies keep when they bounce off of each other
+         * Pre-condition: "restitution" must be between 0 and 1
+         * @param restitution The restitution
+         * @return The builder
+         */
+        public PBuilder setRestitution(double restitution) {
+            this.restitution = restitution;
+            return this;
+        }
+
+        /**
+         * Sets how strong friction is compared to the force that pushes the bodies apart
+         * Pre-condition: "friction" must be at least 0
+         * @param friction The friction coefficient
+         * @return The builder
+         */
+        public PBuilder setFriction(double friction) {
+            this.friction = friction;
+            return this;
+        }
+
+        /**
+         * Sets how fast the bodies have to hit each other to bounce
+         * Pre-condition: "restitutionThreshold" must be at least 0
+         * @param restitutionThreshold The restitution threshold
+         * @return The builder
+         */
+        public PBuilder setRestitutionThreshold(double restitutionThreshold) {
+            this.restitutionThreshold = restitutionThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of the overlap of the bodies that is corrected in each position iteration
+         * Pre-condition: "baumgarte" must be between 0 and 1
+         * @param baumgarte The Baumgarte factor
+         * @return The builder
+         */
+        public PBuilder setBaumgarte(double baumgarte) {
+            this.baumgarte = baumgarte;
+            return this;
+        }
+
+        /**
+         * Sets how far the bodies are allowed to overlap without being pushed apart
+         * Pre-condition: "slop" must be at least 0
+         * @param slop The slop
+         * @return The builder
+         */
+        public PBuilder setSlop(double slop) {
+            this.slop = slop;
+            return this;
+        }
+
+        /**
+         * Sets the number of times the impulses of all the contacts are refined in a time step
+         * Pre-condition: "velocityIterations" must be at least 1
+         * @param velocityIterations The number of velocity iterations
+         * @return The builder
+         */
+        public PBuilder setVelocityIterations(int velocityIterations) {
+            this.velocityIterations = velocityIterations;
+            return this;
+        }
+
+        /**
+         * Sets the most times the bodies in all the contacts are pushed apart in a time step
+         * Pre-condition: "positionIterations" must be at least 0
+         * @param positionIterations The number of position iterations
+         * @return The builder
+         */
+        public PBuilder setPositionIterations(int positionIterations) {
+            this.positionIterations = positionIterations;
+            return this;
+        }
+
+        /**
+         * Sets how slow a body has to move, and for how long, to fall asleep
+         * Pre-condition: the tolerances and "timeToSleep" must be at least 0
+         * @param linearSleepTolerance The speed that the body has to stay under
+         * @param angularSleepTolerance The angular speed that the body has to stay under, in radians per second
+         * @param timeToSleep The time that the body has to stay under both, in seconds
+         * @return The builder
+         */
+        public PBuilder setSleepTolerances(double linearSleepTolerance, double angularSleepTolerance, double timeToSleep) {
+            this.linearSleepTolerance = linearSleepTolerance;
+            this.angularSleepTolerance = angularSleepTolerance;
+            this.timeToSleep = timeToSleep;
+            return this;
+        }
+
+        /**
+         * Sets the broadphase that the world uses to find the bodies that could be colliding
+         * Pre-condition: "broadphaseType" must be QUAD_TREE, SPATIAL_HASH_GRID, DYNAMIC_AABB_TREE or SWEEP_AND_PRUNE
+         * @param broadphaseType The type of broadphase
+         * @return The builder
+         */
+        public PBuilder setBroadphaseType(int broadphaseType) {
+            this.broadphaseType = broadphaseType;
+            return this;
+        }
+
+        /**
+         * Builds a config with the parameters set so far
+         * @return The config
+         */
+        public PWorldConfig build() {
+            return new PWorldConfig(this);
+        }
+    }
+}
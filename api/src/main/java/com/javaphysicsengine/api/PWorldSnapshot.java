@@ -0,0 +1,254 @@
+package com.javaphysicsengine.api;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PConstraints;
+import com.javaphysicsengine.api.collision.PCollisionResult;
+import com.javaphysicsengine.api.collision.PNarrowphase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Where the bodies and constraints of a world were at the end of a time step, kept in arrays of primitives so that
+ * they can be read on another thread while the world moves on.
+ *
+ * The bodies themselves are only kept so that their shapes and colors can be drawn, which do not change while
+ * the world is simulated. Their center points and angles must be read from the snapshot instead.
+ *
+ * A snapshot is taken from a {@link PSnapshotBuffer}, and is reused by it for a later time step once the reader
+ * has taken a newer one. Readers should therefore not keep a snapshot past their next call to getLatest()
+ */
+public class PWorldSnapshot {
+    private long stepNumber = 0;
+
+    private int numBodies = 0;
+    private PBody[] bodies = new PBody[0];
+    private double[] centerXs = new double[0];
+    private double[] centerYs = new double[0];
+    private double[] angles = new double[0];
+
+    // The center points of the two bodies attached to each constraint
+    private int numConstraints = 0;
+    private PConstraints[] constraints = new PConstraints[0];
+    private double[] constraintX1s = new double[0];
+    private double[] constraintY1s = new double[0];
+    private double[] constraintX2s = new double[0];
+    private double[] constraintY2s = new double[0];
+
+    // The contact points found in the time step, if the world is drawing them
+    private int numContactPts = 0;
+    private double[] contactXs = new double[0];
+    private double[] contactYs = new double[0];
+
+    /**
+     * Copies where the bodies and constraints are into the snapshot. The arrays only grow, so once they are big
+     * enough nothing is allocated
+     * @param stepNumber The number of time steps that the world has simulated
+     * @param bodies The bodies of the world
+     * @param constraints The constraints of the world
+     * @param narrowphase The narrowphase with the contacts of the time step, or null to leave out the contact points
+     */
+    void capture(long stepNumber, List<PBody> bodies, List<PConstraints> constraints, PNarrowphase narrowphase) {
+        this.stepNumber = stepNumber;
+
+        numBodies = bodies.size();
+        if (this.bodies.length < numBodies) {
+            int capacity = Math.max(numBodies, 2 * this.bodies.length);
+            this.bodies = new PBody[capacity];
+            centerXs = new double[capacity];
+            centerYs = new double[capacity];
+            angles = new double[capacity];
+        }
+        for (int i = 0; i < numBodies; i++) {
+            PBody body = bodies.get(i);
+            this.bodies[i] = body;
+            centerXs[i] = body.getCenterPt().getX();
+            centerYs[i] = body.getCenterPt().getY();
+            angles[i] = body.getAngle();
+        }
+
+        numConstraints = constraints.size();
+        if (this.constraints.length < numConstraints) {
+            int capacity = Math.max(numConstraints, 2 * this.constraints.length);
+            this.constraints = new PConstraints[capacity];
+            constraintX1s = new double[capacity];
+            constraintY1s = new double[capacity];
+            constraintX2s = new double[capacity];
+            constraintY2s = new double[capacity];
+        }
+        for (int i = 0; i < numConstraints; i++) {
+            PConstraints constraint = constraints.get(i);
+            PBody[] attachedBodies = constraint.getAttachedBodies();
+            this.constraints[i] = constraint;
+            constraintX1s[i] = attachedBodies[0].getCenterPt().getX();
+            constraintY1s[i] = attachedBodies[0].getCenterPt().getY();
+            constraintX2s[i] = attachedBodies[1].getCenterPt().getX();
+            constraintY2s[i] = attachedBodies[1].getCenterPt().getY();
+        }
+
+        numContactPts = 0;
+        for (int c = 0; narrowphase != null && c < narrowphase.getNumContacts(); c++) {
+            PCollisionResult result = narrowphase.getResult(c);
+            if (contactXs.length < numContactPts + result.getNumContactPts()) {
+                int capacity = Math.max(numContactPts + result.getNumContactPts(), 2 * contactXs.length);
+                contactXs = Arrays.copyOf(contactXs, capacity);
+                contactYs = Arrays.copyOf(contactYs, capacity);
+            }
+            for (int pt = 0; pt < result.getNumContactPts(); pt++) {
+                contactXs[numContactPts] = result.getContactPt(pt).getX();
+                contactYs[numContactPts] = result.getContactPt(pt).getY();
+                numContactPts++;
+            }
+        }
+
+        // Let go of the bodies and constraints that have been removed from the world since the arrays grew
+        for (int i = numBodies; i < this.bodies.length && this.bodies[i] != null; i++) {
+            this.bodies[i] = null;
+        }
+        for (int i = numConstraints; i < this.constraints.length && this.constraints[i] != null; i++) {
+            this.constraints[i] = null;
+        }
+    }
+
+    /**
+     * Returns the number of time steps that the world had simulated when the snapshot was taken
+     * @return The step number, which is 0 before the first time step
+     */
+    public long getStepNumber() {
+        return stepNumber;
+    }
+
+    /**
+     * Returns the number of bodies in the snapshot
+     * @return The number of bodies
+     */
+    public int getNumBodies() {
+        return numBodies;
+    }
+
+    /**
+     * Returns a body in the snapshot, whose shape and colors can be drawn
+     * Pre-condition: "i" must be between 0 and getNumBodies() - 1
+     * @param i The index of the body
+     * @return The body
+     */
+    public PBody getBody(int i) {
+        return bodies[i];
+    }
+
+    /**
+     * Returns the x value of the center point of a body in the snapshot
+     * Pre-condition: "i" must be between 0 and getNumBodies() - 1
+     * @param i The index of the body
+     * @return The x value of the center point
+     */
+    public double getCenterX(int i) {
+        return centerXs[i];
+    }
+
+    /**
+     * Returns the y value of the center point of a body in the snapshot
+     * Pre-condition: "i" must be between 0 and getNumBodies() - 1
+     * @param i The index of the body
+     * @return The y value of the center point
+     */
+    public double getCenterY(int i) {
+        return centerYs[i];
+    }
+
+    /**
+     * Returns the angle of a body in the snapshot
+     * Pre-condition: "i" must be between 0 and getNumBodies() - 1
+     * @param i The index of the body
+     * @return The angle in radians
+     */
+    public double getAngle(int i) {
+        return angles[i];
+    }
+
+    /**
+     * Returns the number of constraints in the snapshot
+     * @return The number of constraints
+     */
+    public int getNumConstraints() {
+        return numConstraints;
+    }
+
+    /**
+     * Returns a constraint in the snapshot, which can be drawn
+     * Pre-condition: "i" must be between 0 and getNumConstraints() - 1
+     * @param i The index of the constraint
+     * @return The constraint
+     */
+    public PConstraints getConstraint(int i) {
+        return constraints[i];
+    }
+
+    /**
+     * Returns the x value of the center point of the first body attached to a constraint in the snapshot
+     * Pre-condition: "i" must be between 0 and getNumConstraints() - 1
+     * @param i The index of the constraint
+     * @return The x value of the center point
+     */
+    public double getConstraintX1(int i) {
+        return constraintX1s[i];
+    }
+
+    /**
+     * Returns the y value of the center point of the first body attached to a constraint in the snapshot
+     * Pre-condition: "i" must be between 0 and getNumConstraints() - 1
+     * @param i The index of the constraint
+     * @return The y value of the center point
+     */
+    public double getConstraintY1(int i) {
+        return constraintY1s[i];
+    }
+
+    /**
+     * Returns the x value of the center point of the second body attached to a constraint in the snapshot
+     * Pre-condition: "i" must be between 0 and getNumConstraints() - 1
+     * @param i The index of the constraint
+     * @return The x value of the center point
+     */
+    public double getConstraintX2(int i) {
+        return constraintX2s[i];
+    }
+
+    /**
+     * Returns the y value of the center point of the second body attached to a constraint in the snapshot
+     * Pre-condition: "i" must be between 0 and getNumConstraints() - 1
+     * @param i The index of the constraint
+     * @return The y value of the center point
+     */
+    public double getConstraintY2(int i) {
+        return constraintY2s[i];
+    }
+
+    /**
+     * Returns the number of contact points in the snapshot
+     * @return The number of contact points, which is 0 if the world was not drawing them
+     */
+    public int getNumContactPts() {
+        return numContactPts;
+    }
+
+    /**
+     * Returns the x value of a contact point in the snapshot
+     * Pre-condition: "i" must be between 0 and getNumContactPts() - 1
+     * @param i The index of the contact point
+     * @return The x value of the contact point
+     */
+    public double getContactX(int i) {
+        return contactXs[i];
+    }
+
+    /**
+     * Returns the y value of a contact point in the snapshot
+     * Pre-condition: "i" must be between 0 and getNumContactPts() - 1
+     * @param i The index of the contact point
+     * @return The y value of the contact point
+     */
+    public double getContactY(int i) {
+        return contactYs[i];
+    }
+}
@@ -32,6 +32,7 @@ public class PhysicsDebuggerPanel extends JPanel implements ActionListener {
      */
     public PhysicsDebuggerPanel() {
         // Initialise the physic engine
+        pEngine.setDrawingContactPts(true);
 //
 //    polygon = new PPolygon("Hehe");
 //    polygon.getVertices().add(new Vector(110, 510));
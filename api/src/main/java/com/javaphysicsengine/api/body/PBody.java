@@ -1,21 +1,26 @@
 package com.javaphysicsengine.api.body;
 
+import com.javaphysicsengine.api.collision.PCollisionDispatcher;
 import com.javaphysicsengine.utils.Vector;
 
 import java.awt.Color;
 import java.awt.Graphics;
 
 public abstract class PBody {
+
+    // The restitution or friction of a body that uses the world's
+    public static final double WORLD_MATERIAL = -1;
+
     // The basic properties of a physical object
 
     private double mass = 1;  // In kg
 
-    private Vector centerPt = new Vector(0, 0);  // The center of mass
+    private final Vector centerPt = new Vector(0, 0);  // The center of mass
 
     // The kinematic properties of the physical object
 
-    private Vector netForce = new Vector(0, 0);
-    private Vector velocity = new Vector(0, 0);
+    private final Vector netForce = new Vector(0, 0);
+    private final Vector velocity = new Vector(0, 0);
     private double angle = 0; // In radians
 
     private double angularVelocity = 0; // In radians
@@ -24,6 +29,22 @@ public abstract class PBody {
     private String name;
     private boolean isMoving = true;
 
+    // A sleeping body is not simulated until something wakes it up
+    private boolean isAwake = true;
+    private double sleepTime = 0; // In seconds
+    private PWakeListener wakeListener = null;
+
+    // The material of the body, where WORLD_MATERIAL means that the world's restitution or friction is used
+    private double restitution = WORLD_MATERIAL;
+    private double friction = WORLD_MATERIAL;
+
+    // A bullet is swept from where it starts each time step to where it ends it, so that it does not tunnel
+    private boolean isBullet = false;
+    private boolean isSweeping = false;
+    private final Vector sweepStartPt = new Vector(0, 0);
+    private double sweepStartAngle = 0;
+    private final PBoundingBox sweptBox = new PBoundingBox(0, 0, 0, 0);
+
     // The graphic properties of the object
     private Color outlineColor = Color.BLACK;
     private Color fillColor = Color.BLUE;
@@ -58,7 +79,11 @@ public abstract class PBody {
         this.setNetForce(new Vector(existingBody.getNetForce().getX(), existingBody.getNetForce().getY()));
         this.setVelocity(new Vector(existingBody.getVelocity().getX(), existingBody.getVelocity().getY()));
         this.setAngle(existingBody.getAngle());
+        this.setAngularVelocity(existingBody.getAngularVelocity());
         this.setMoveable(existingBody.isMoving());
+        this.setBullet(existingBody.isBullet());
+        this.setRestitution(existingBody.getRestitution());
+        this.setFriction(existingBody.getFriction());
         this.setOutlineColor(new Color(existingBody.getOutlineColor().getRed(), existingBody.getOutlineColor().getGreen(), existingBody.getOutlineColor().getBlue(), existingBody.getOutlineColor().getAlpha()));
         this.setFillColor(new Color(existingBody.getFillColor().getRed(), existingBody.getFillColor().getGreen(), existingBody.getFillColor().getBlue(), existingBody.getFillColor().getAlpha()));
     }
@@ -105,11 +130,11 @@ public abstract class PBody {
     }
 
     /**
-     * Sets the new center point of the body
+     * Sets the new center point of the body. Its value is copied, so the given vector can be reused
      * @param newCenterPt The new center point of the body
      */
     public void setCenterPt(Vector newCenterPt) {
-        this.centerPt = newCenterPt;
+        this.centerPt.setXY(newCenterPt);
     }
 
     /**
@@ -121,11 +146,11 @@ public abstract class PBody {
     }
 
     /**
-     * Sets the net force of the body
+     * Sets the net force of the body, copying its value
      * @param newNetForce The new net force of the body
      */
     public void setNetForce(Vector newNetForce) {
-        this.netForce = newNetForce;
+        this.netForce.setXY(newNetForce);
     }
 
     /**
@@ -137,11 +162,13 @@ public abstract class PBody {
     }
 
     /**
-     * Sets the velocity of the body
+     * Sets the velocity of the body. Its value is copied, since the velocity is changed in place while the body
+     * is simulated and other bodies may have been given the same vector
      * @param newVelocity The new velocity of the body
      */
     public void setVelocity(Vector newVelocity) {
-        this.velocity = newVelocity;
+        this.velocity.setXY(newVelocity);
+        setAwake(true);
     }
 
     /**
@@ -190,6 +217,181 @@ public abstract class PBody {
         this.isMoving = isMoving;
     }
 
+    /**
+     * Determines if the body is awake. A body that is asleep is not moved, and does not collide with other bodies
+     * that are asleep or that cannot move
+     * @return {@code true} if the body is awake; else {@code false}
+     */
+    public boolean isAwake() {
+        return isAwake;
+    }
+
+    /**
+     * Wakes up or puts the body to sleep. A body that is put to sleep stops moving and turning.
+     * Note that a sleeping body must be woken up before it is moved by anything other than the world
+     * @param isAwake {@code true} if the body should be awake; else {@code false}
+     */
+    public void setAwake(boolean isAwake) {
+        if (!isAwake && this.isAwake) {
+            getVelocity().setXY(0, 0);
+            setAngularVelocity(0);
+        }
+
+        boolean isWakingUp = isAwake && !this.isAwake;
+        this.isAwake = isAwake;
+        this.sleepTime = 0;
+
+        if (isWakingUp && wakeListener != null) {
+            wakeListener.onWake(this);
+        }
+    }
+
+    /**
+     * Sets what is told when the body wakes up. A body only has one listener, which is set by the world it is in
+     * @param wakeListener The listener, or null if nothing should be told
+     */
+    public void setWakeListener(PWakeListener wakeListener) {
+        this.wakeListener = wakeListener;
+    }
+
+    /**
+     * Returns how long the body has been moving slowly enough to fall asleep
+     * @return The time in seconds
+     */
+    public double getSleepTime() {
+        return sleepTime;
+    }
+
+    /**
+     * Sets how long the body has been moving slowly enough to fall asleep
+     * Pre-condition: "sleepTime" must be at least 0
+     * @param sleepTime The time in seconds
+     */
+    public void setSleepTime(double sleepTime) {
+        this.sleepTime = sleepTime;
+    }
+
+    /**
+     * Returns how much of its speed the body keeps when it bounces off of another body. When two bodies touch,
+     * the bouncier one decides how much they bounce
+     * @return The restitution, or WORLD_MATERIAL if the body uses the world's
+     */
+    public double getRestitution() {
+        return restitution;
+    }
+
+    /**
+     * Sets how much of its speed the body keeps when it bounces off of another body
+     * Pre-condition: "restitution" must be between 0 and 1, or be WORLD_MATERIAL
+     * @param restitution The restitution, or WORLD_MATERIAL to use the world's
+     */
+    public void setRestitution(double restitution) {
+        this.restitution = restitution;
+    }
+
+    /**
+     * Returns how strong friction is on the body compared to the force that pushes it away from another body.
+     * When two bodies touch, the friction between them is the geometric mean of theirs
+     * @return The friction coefficient, or WORLD_MATERIAL if the body uses the world's
+     */
+    public double getFriction() {
+        return friction;
+    }
+
+    /**
+     * Sets how strong friction is on the body compared to the force that pushes it away from another body
+     * Pre-condition: "friction" must be at least 0, or be WORLD_MATERIAL
+     * @param friction The friction coefficient, or WORLD_MATERIAL to use the world's
+     */
+    public void setFriction(double friction) {
+        this.friction = friction;
+    }
+
+    /**
+     * Determines if the body is a bullet, which is a fast body that is stopped where it first hits another body
+     * during a time step instead of going through it
+     * @return {@code true} if the body is a bullet; else {@code false}
+     */
+    public boolean isBullet() {
+        return isBullet;
+    }
+
+    /**
+     * Sets whether the body is a bullet. Bullets cost more to simulate, so only fast bodies should be bullets
+     * @param isBullet {@code true} if the body is a bullet; else {@code false}
+     */
+    public void setBullet(boolean isBullet) {
+        this.isBullet = isBullet;
+    }
+
+    /**
+     * Remembers where the body is at the start of a time step, so that the box it sweeps through while it moves
+     * can be found
+     */
+    public void startSweep() {
+        PBoundingBox box = getBoundingBox();
+        sweptBox.setMinX(box.getMinX());
+        sweptBox.setMaxX(box.getMaxX());
+        sweptBox.setMinY(box.getMinY());
+        sweptBox.setMaxY(box.getMaxY());
+
+        sweepStartPt.setXY(getCenterPt().getX(), getCenterPt().getY());
+        sweepStartAngle = getAngle();
+        isSweeping = true;
+    }
+
+    /**
+     * Forgets where the body was at the start of the time step
+     */
+    public void endSweep() {
+        isSweeping = false;
+    }
+
+    /**
+     * Determines if the body is being swept, which is from startSweep() to endSweep()
+     * @return {@code true} if the body is being swept; else {@code false}
+     */
+    public boolean isSweeping() {
+        return isSweeping;
+    }
+
+    /**
+     * Returns where the center point of the body was when the sweep started
+     * Pre-condition: the body must be being swept
+     * @return The center point at the start of the sweep
+     */
+    public Vector getSweepStartPt() {
+        return sweepStartPt;
+    }
+
+    /**
+     * Returns the angle of the body when the sweep started
+     * Pre-condition: the body must be being swept
+     * @return The angle at the start of the sweep
+     */
+    public double getSweepStartAngle() {
+        return sweepStartAngle;
+    }
+
+    /**
+     * Returns the box that the body has swept through since the sweep started, which is the box around both where
+     * it started and where it is now. The box is reused, so it must not be kept
+     * @return The swept box, or the bounding box if the body is not being swept
+     */
+    public PBoundingBox getSweptBoundingBox() {
+        PBoundingBox box = getBoundingBox();
+        if (!isSweeping) {
+            return box;
+        }
+
+        // The start of the sweep is kept in the swept box, which only ever grows to take in the body
+        sweptBox.setMinX(Math.min(sweptBox.getMinX(), box.getMinX()));
+        sweptBox.setMaxX(Math.max(sweptBox.getMaxX(), box.getMaxX()));
+        sweptBox.setMinY(Math.min(sweptBox.getMinY(), box.getMinY()));
+        sweptBox.setMaxY(Math.max(sweptBox.getMaxY(), box.getMaxY()));
+        return sweptBox;
+    }
+
     /**
      * Move the body to a new point such that the point is its new center point
      * @param newCenterPt The new center point
@@ -242,6 +444,24 @@ public abstract class PBody {
 
     public abstract PBoundingBox getBoundingBox();
 
+    /**
+     * Makes a hard copy of the body, which is not added to any world
+     * @return The copy of the body
+     * @throws UnsupportedOperationException if the body cannot be copied
+     */
+    public PBody copy() {
+        throw new UnsupportedOperationException("The class type " + getClass() + " cannot be copied!");
+    }
+
+    /**
+     * Returns the shape type of the body, which picks the collision tests it is given to.
+     * New shapes get their own shape type from PCollisionDispatcher.registerShapeType()
+     * @return The shape type, or PCollisionDispatcher.NO_SHAPE if the body cannot collide
+     */
+    public int getShapeType() {
+        return PCollisionDispatcher.NO_SHAPE;
+    }
+
     /**
      * Draws the outline of the center point
      * Pre-condition: The param "windowHeight" must be greater than 0
@@ -249,10 +469,35 @@ public abstract class PBody {
      * @param windowHeight The height of the window containing the body being displayed
      */
     public void drawOutline(Graphics g, int windowHeight) {
-        g.drawOval((int) getCenterPt().getX() - 2, windowHeight - (int) getCenterPt().getY() - 2, 4, 4);
+        drawCenterOutline(g, windowHeight, getCenterPt().getX(), getCenterPt().getY());
+    }
+
+    /**
+     * Draws the outline of the center point where the body was in a snapshot of its world. Only the name, shape
+     * and colors of the body are read, so it can be drawn while it is simulated on another thread
+     * Pre-condition: The param "windowHeight" must be greater than 0
+     * @param g The Graphics Object
+     * @param windowHeight The height of the window containing the body being displayed
+     * @param centerX The x value of the center point of the body in the snapshot
+     * @param centerY The y value of the center point of the body in the snapshot
+     * @param angle The angle of the body in the snapshot
+     */
+    public void drawOutline(Graphics g, int windowHeight, double centerX, double centerY, double angle) {
+        drawCenterOutline(g, windowHeight, centerX, centerY);
+    }
+
+    /**
+     * Draws the outline of a center point, and the name of the body next to it
+     * @param g The Graphics Object
+     * @param windowHeight The height of the window containing the body being displayed
+     * @param centerX The x value of the center point
+     * @param centerY The y value of the center point
+     */
+    private void drawCenterOutline(Graphics g, int windowHeight, double centerX, double centerY) {
+        g.drawOval((int) centerX - 2, windowHeight - (int) centerY - 2, 4, 4);
 
         // Draw the name
-        g.drawString(this.getName(), (int) this.getCenterPt().getX(), windowHeight - (int) this.getCenterPt().getY());
+        g.drawString(this.getName(), (int) centerX, windowHeight - (int) centerY);
     }
 
     /**
@@ -265,6 +510,20 @@ public abstract class PBody {
         g.fillOval((int) getCenterPt().getX() - 2, windowHeight - (int) getCenterPt().getY() - 2, 4, 4);
     }
 
+    /**
+     * Draws the fill of the center point where the body was in a snapshot of its world. Only the shape and colors
+     * of the body are read, so it can be drawn while it is simulated on another thread
+     * Pre-condition: The param "windowHeight" must be greater than 0
+     * @param g The Graphics Object
+     * @param windowHeight The height of the window containing the body being displayed
+     * @param centerX The x value of the center point of the body in the snapshot
+     * @param centerY The y value of the center point of the body in the snapshot
+     * @param angle The angle of the body in the snapshot
+     */
+    public void drawFill(Graphics g, int windowHeight, double centerX, double centerY, double angle) {
+        g.fillOval((int) centerX - 2, windowHeight - (int) centerY - 2, 4, 4);
+    }
+
     /**
      * Draws the bounding box outline of the center point
      * Pre-condition: The param "windowHeight" must be greater than 0
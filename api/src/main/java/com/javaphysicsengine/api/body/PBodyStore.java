@@ -0,0 +1,211 @@
+package com.javaphysicsengine.api.body;
+
+import com.javaphysicsengine.utils.Vector;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Integrates a list of bodies with tight loops over parallel arrays of their kinematic state, indexed by the body's
+ * position in the list.
+ *
+ * The bodies keep their own state. load() copies it into the arrays, and integrate() copies the new velocities and
+ * forces back, so that the bodies' vectors stay plain vectors and only a world that uses a store pays for the copies.
+ */
+public class PBodyStore {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private PBody[] bodies = new PBody[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private double[] velocityXs = new double[INITIAL_CAPACITY];
+    private double[] velocityYs = new double[INITIAL_CAPACITY];
+    private double[] forceXs = new double[INITIAL_CAPACITY];
+    private double[] forceYs = new double[INITIAL_CAPACITY];
+    private double[] angles = new double[INITIAL_CAPACITY];
+    private double[] angularVelocities = new double[INITIAL_CAPACITY];
+    private double[] torques = new double[INITIAL_CAPACITY];
+
+    // 0 for bodies that do not move, so that the loops do not need to branch on them
+    private double[] masses = new double[INITIAL_CAPACITY];
+    private double[] inverseMasses = new double[INITIAL_CAPACITY];
+    private double[] inverseInertias = new double[INITIAL_CAPACITY];
+    private double[] movingFactors = new double[INITIAL_CAPACITY];
+
+    // The displacement and new angle of each body from the last call to integrate()
+    private double[] displacementXs = new double[INITIAL_CAPACITY];
+    private double[] displacementYs = new double[INITIAL_CAPACITY];
+    private double[] newAngles = new double[INITIAL_CAPACITY];
+
+    /**
+     * Copies the velocities, forces, angles and mass properties of the bodies into the store, in the same order.
+     * The mass and inertia are re-read each time, since they can depend on the body's shape.
+     * Bodies that are asleep are treated like bodies that cannot move
+     * @param bodies The bodies to store
+     */
+    public void load(List<PBody> bodies) {
+        ensureCapacity(bodies.size());
+        size = bodies.size();
+
+        for (int i = 0; i < size; i++) {
+            PBody body = bodies.get(i);
+            this.bodies[i] = body;
+
+            velocityXs[i] = body.getVelocity().getX();
+            velocityYs[i] = body.getVelocity().getY();
+            forceXs[i] = body.getNetForce().getX();
+            forceYs[i] = body.getNetForce().getY();
+            angles[i] = body.getAngle();
+            angularVelocities[i] = body.getAngularVelocity();
+            torques[i] = body.getTorque();
+
+            boolean isMoving = body.isMoving() && body.isAwake();
+            masses[i] = isMoving ? body.getMass() : 0;
+            inverseMasses[i] = isMoving ? 1 / body.getMass() : 0;
+            inverseInertias[i] = isMoving ? 1 / body.getInertia() : 0;
+            movingFactors[i] = isMoving ? 1 : 0;
+        }
+
+        // Let go of the bodies that have been removed since the arrays grew
+        for (int i = size; i < this.bodies.length && this.bodies[i] != null; i++) {
+            this.bodies[i] = null;
+        }
+    }
+
+    /**
+     * Returns the number of bodies in the store
+     * @return The number of bodies in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a body in the store
+     * Pre-condition: "index" must be between 0 and size() - 1
+     * @param index The index of the body
+     * @return The body
+     */
+    public PBody getBody(int index) {
+        return bodies[index];
+    }
+
+    /**
+     * Adds a gravitational force to every body that moves
+     * Pre-condition: load() must have been called since the bodies last changed
+     * @param gravity The gravitational acceleration
+     */
+    public void addGravity(Vector gravity) {
+        double gravityX = gravity.getX();
+        double gravityY = gravity.getY();
+
+        for (int i = 0; i < size; i++) {
+            forceXs[i] += gravityX * masses[i];
+            forceYs[i] += gravityY * masses[i];
+        }
+    }
+
+    /**
+     * Updates the velocity of every body from its net force, and computes how far each body should move and turn.
+     * The new velocities, angular velocities and net forces are copied back to the bodies, but the bodies are not
+     * moved, since moving a body also moves its shape; use {@link #getDisplacementX(int)},
+     * {@link #getDisplacementY(int)} and {@link #getNewAngle(int)} to move them
+     * Pre-condition: load() must have been called since the bodies last changed
+     * @param timeEllapsed The time that has ellapsed in seconds
+     * @param scale The number of units in the world per meter
+     */
+    public void integrate(double timeEllapsed, double scale) {
+        // V' = V + (F / m) * t
+        for (int i = 0; i < size; i++) {
+            velocityXs[i] += forceXs[i] * inverseMasses[i] * timeEllapsed;
+            velocityYs[i] += forceYs[i] * inverseMasses[i] * timeEllapsed;
+        }
+
+        // Bodies that do not move keep their velocity but are not displaced
+        for (int i = 0; i < size; i++) {
+            displacementXs[i] = velocityXs[i] * timeEllapsed * scale * movingFactors[i];
+            displacementYs[i] = velocityYs[i] * timeEllapsed * scale * movingFactors[i];
+        }
+
+        // AngularVelocity' = AngularVelocity + torque * (1 / inertia) * t
+        for (int i = 0; i < size; i++) {
+            angularVelocities[i] += torques[i] * inverseInertias[i] * timeEllapsed;
+            newAngles[i] = angles[i] + angularVelocities[i] * timeEllapsed * scale * movingFactors[i];
+        }
+
+        for (int i = 0; i < size; i++) {
+            PBody body = bodies[i];
+            body.getVelocity().setXY(velocityXs[i], velocityYs[i]);
+            body.getNetForce().setXY(forceXs[i], forceYs[i]);
+            body.setAngularVelocity(angularVelocities[i]);
+        }
+    }
+
+    /**
+     * Returns how far a body should move along the x axis, as of the last call to integrate()
+     * @param index The index of the body
+     * @return The displacement along the x axis
+     */
+    public double getDisplacementX(int index) {
+        return displacementXs[index];
+    }
+
+    /**
+     * Returns how far a body should move along the y axis, as of the last call to integrate()
+     * @param index The index of the body
+     * @return The displacement along the y axis
+     */
+    public double getDisplacementY(int index) {
+        return displacementYs[index];
+    }
+
+    /**
+     * Returns the angle a body should be rotated to, as of the last call to integrate()
+     * @param index The index of the body
+     * @return The new angle in radians
+     */
+    public double getNewAngle(int index) {
+        return newAngles[index];
+    }
+
+    /**
+     * Returns the inverse mass of a body, or 0 if it does not move, as of the last call to load()
+     * @param index The index of the body
+     * @return The inverse mass of the body
+     */
+    public double getInverseMass(int index) {
+        return inverseMasses[index];
+    }
+
+    /**
+     * Returns the inverse inertia of a body, or 0 if it does not move, as of the last call to load()
+     * @param index The index of the body
+     * @return The inverse inertia of the body
+     */
+    public double getInverseInertia(int index) {
+        return inverseInertias[index];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= bodies.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, 2 * bodies.length);
+        bodies = Arrays.copyOf(bodies, newCapacity);
+        velocityXs = new double[newCapacity];
+        velocityYs = new double[newCapacity];
+        forceXs = new double[newCapacity];
+        forceYs = new double[newCapacity];
+        angles = new double[newCapacity];
+        angularVelocities = new double[newCapacity];
+        torques = new double[newCapacity];
+        masses = new double[newCapacity];
+        inverseMasses = new double[newCapacity];
+        inverseInertias = new double[newCapacity];
+        movingFactors = new double[newCapacity];
+        displacementXs = new double[newCapacity];
+        displacementYs = new double[newCapacity];
+        newAngles = new double[newCapacity];
+    }
+}
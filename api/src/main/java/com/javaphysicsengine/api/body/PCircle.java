@@ -1,8 +1,6 @@
 package com.javaphysicsengine.api.body;
 
-import com.javaphysicsengine.api.collision.PBoxBoxCollision;
-import com.javaphysicsengine.api.collision.PCircleCircleCollision;
-import com.javaphysicsengine.api.collision.PCirclePolyCollision;
+import com.javaphysicsengine.api.collision.PCollisionDispatcher;
 import com.javaphysicsengine.api.collision.PCollisionResult;
 import com.javaphysicsengine.utils.Vector;
 
@@ -12,6 +10,12 @@ public class PCircle extends PBody implements PCollidable {
 
     private double radius = 10;
 
+    // The bounding box is reused, along with the center point and radius that it was last computed for
+    private final PBoundingBox boundingBox = new PBoundingBox(0, 0, 0, 0);
+    private double boxCenterX = Double.NaN;
+    private double boxCenterY = Double.NaN;
+    private double boxRadius = Double.NaN;
+
     /**
      * Creates a PCircle object with a certain name attached
      * @param name The name of the circle
@@ -29,6 +33,15 @@ public class PCircle extends PBody implements PCollidable {
         this.radius = existingCircle.radius;
     }
 
+    /**
+     * Makes a hard copy of the circle
+     * @return The copy of the circle
+     */
+    @Override
+    public PCircle copy() {
+        return new PCircle(this);
+    }
+
     /**
      * Returns the radius of the circle
      * @return Returns the radius of the circle
@@ -76,14 +89,28 @@ public class PCircle extends PBody implements PCollidable {
         return (this.getMass()) * (this.radius * this.radius) / 12;
     }
 
+    /**
+     * Gets the bounding box of this circle. The box is only recomputed after the circle has moved or changed
+     * its radius, so that once it is up to date it can be read on many threads
+     * @return the bounding box
+     */
     @Override
     public PBoundingBox getBoundingBox() {
-        return new PBoundingBox(
-                this.getCenterPt().getX() - this.getRadius(),
-                this.getCenterPt().getX() + this.getRadius(),
-                this.getCenterPt().getY() - this.getRadius(),
-                this.getCenterPt().getY() + this.getRadius()
-        );
+        double centerX = getCenterPt().getX();
+        double centerY = getCenterPt().getY();
+        if (centerX == boxCenterX && centerY == boxCenterY && radius == boxRadius) {
+            return boundingBox;
+        }
+
+        boundingBox.setMinX(centerX - radius);
+        boundingBox.setMaxX(centerX + radius);
+        boundingBox.setMinY(centerY - radius);
+        boundingBox.setMaxY(centerY + radius);
+
+        boxCenterX = centerX;
+        boxCenterY = centerY;
+        boxRadius = radius;
+        return boundingBox;
     }
 
     /**
@@ -94,14 +121,27 @@ public class PCircle extends PBody implements PCollidable {
      */
     @Override
     public void drawFill(Graphics g, int windowHeight) {
+        drawFill(g, windowHeight, getCenterPt().getX(), getCenterPt().getY(), getAngle());
+    }
+
+    /**
+     * Draws the fill of the circle where it was in a snapshot of its world
+     * @param g The Graphics Object
+     * @param windowHeight The height of the window containing the body being displayed
+     * @param centerX The x value of the center point of the circle in the snapshot
+     * @param centerY The y value of the center point of the circle in the snapshot
+     * @param angle The angle of the circle in the snapshot
+     */
+    @Override
+    public void drawFill(Graphics g, int windowHeight, double centerX, double centerY, double angle) {
         // Draws a circle in middle of coordinate
-        int topLeftX = (int) (getCenterPt().getX() - radius);
-        int topLeftY = windowHeight - (int) (getCenterPt().getY() + radius);
+        int topLeftX = (int) (centerX - radius);
+        int topLeftY = windowHeight - (int) (centerY + radius);
         g.setColor(getFillColor());
         g.fillOval(topLeftX, topLeftY, (int) (radius * 2), (int) (radius * 2));
 
         // Draw the center of mass
-        super.drawFill(g, windowHeight);
+        super.drawFill(g, windowHeight, centerX, centerY, angle);
     }
 
     /**
@@ -112,19 +152,32 @@ public class PCircle extends PBody implements PCollidable {
      */
     @Override
     public void drawOutline(Graphics g, int windowHeight) {
+        drawOutline(g, windowHeight, getCenterPt().getX(), getCenterPt().getY(), getAngle());
+    }
+
+    /**
+     * Draws the outline of the circle where it was in a snapshot of its world
+     * @param g The Graphics Object
+     * @param windowHeight The height of the window containing the body being displayed
+     * @param centerX The x value of the center point of the circle in the snapshot
+     * @param centerY The y value of the center point of the circle in the snapshot
+     * @param angle The angle of the circle in the snapshot
+     */
+    @Override
+    public void drawOutline(Graphics g, int windowHeight, double centerX, double centerY, double angle) {
         // Draws a circle in middle of coordinate
-        int topLeftX = (int) (getCenterPt().getX() - radius);
-        int topLeftY = windowHeight - (int) (getCenterPt().getY() + radius);
+        int topLeftX = (int) (centerX - radius);
+        int topLeftY = windowHeight - (int) (centerY + radius);
         g.setColor(getOutlineColor());
         g.drawOval(topLeftX, topLeftY, (int) (radius * 2), (int) (radius * 2));
 
         // Draw the center of mass
-        super.drawOutline(g, windowHeight);
+        super.drawOutline(g, windowHeight, centerX, centerY, angle);
 
         // Draw its orientation
-        double x = radius * Math.cos(getAngle()) + getCenterPt().getX();
-        double y = radius * Math.sin(getAngle()) + getCenterPt().getY();
-        g.drawLine((int) getCenterPt().getX(), windowHeight - (int) getCenterPt().getY(), (int) x, windowHeight - (int) y);
+        double x = radius * Math.cos(angle) + centerX;
+        double y = radius * Math.sin(angle) + centerY;
+        g.drawLine((int) centerX, windowHeight - (int) centerY, (int) x, windowHeight - (int) y);
     }
 
     /**
@@ -138,22 +191,15 @@ public class PCircle extends PBody implements PCollidable {
     }
 
     @Override
-    public PCollisionResult hasCollidedWith(PCollidable body) {
-        PCollisionResult result = new PCollisionResult(false, null, null, null, null);
-
-        if (body instanceof PCircle) {
-            result = PCircleCircleCollision.doBodiesCollide(this, (PCircle) body);
-
-        } else if (body instanceof PPolygon) {
-            PPolygon polygon = (PPolygon) body;
-            if (PBoxBoxCollision.doBodiesCollide(polygon.getBoundingBox(), this.getBoundingBox())) {
-                result = PCirclePolyCollision.doBodiesCollide(this, polygon);
-            }
+    public int getShapeType() {
+        return PCollisionDispatcher.CIRCLE_SHAPE;
+    }
 
-        } else {
+    @Override
+    public PCollisionResult hasCollidedWith(PCollidable body) {
+        if (!(body instanceof PBody)) {
             throw new IllegalArgumentException("Body cannot detect and handle collisions!");
         }
-
-        return result;
+        return PCollisionDispatcher.collide(this, (PBody) body);
     }
-}
\ No newline at end of file
+}
@@ -54,6 +54,15 @@ public abstract class PConstraints {
         this.length = newLength;
     }
 
+    /**
+     * Pre-condition: "body1" and "body2" must not be null
+     * Post-condition: Returns a copy of the constraint that is attached to other bodies
+     * @param body1 The body that the copy is attached to instead of the first body
+     * @param body2 The body that the copy is attached to instead of the second body
+     * @return Returns the copy of the constraint
+     */
+    public abstract PConstraints copy(PBody body1, PBody body2);
+
     /**
      * Post-condition: Adds the tension forces to the attached bodies
      */
@@ -67,6 +76,18 @@ public abstract class PConstraints {
      */
     public abstract void drawConstraints(Graphics g, int windowHeight);
 
+    /**
+     * Pre-condition: The "g" must not be null and the "windowHeight" must be greater than 0
+     * Post-condition: Draws a line between where the two attached bodies were in a snapshot of their world
+     * @param g The Graphics Object
+     * @param windowHeight The height of the window that is containing the body being displayed
+     * @param x1 The x value of the center point of the first body in the snapshot
+     * @param y1 The y value of the center point of the first body in the snapshot
+     * @param x2 The x value of the center point of the second body in the snapshot
+     * @param y2 The y value of the center point of the second body in the snapshot
+     */
+    public abstract void drawConstraints(Graphics g, int windowHeight, double x1, double y1, double x2, double y2);
+
     /**
      * Post-condition: Returns the properties of the constraints in a string where each property is stored in format { propertyType:propertyValue; } (excluding the curly brackets)
      * @return Returns the properties of the constraints in a string
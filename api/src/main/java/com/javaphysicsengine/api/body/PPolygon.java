@@ -1,9 +1,7 @@
 package com.javaphysicsengine.api.body;
 
-import com.javaphysicsengine.api.collision.PBoxBoxCollision;
-import com.javaphysicsengine.api.collision.PCirclePolyCollision;
+import com.javaphysicsengine.api.collision.PCollisionDispatcher;
 import com.javaphysicsengine.api.collision.PCollisionResult;
-import com.javaphysicsengine.api.collision.PPolyPolyCollision;
 import com.javaphysicsengine.utils.Vector;
 
 import java.awt.Graphics;
@@ -14,6 +12,24 @@ public class PPolygon extends PBody implements PCollidable {
     private ArrayList<Vector> vertices = new ArrayList<>();
     private PBoundingBox boundingBox;
 
+    // Whether collisions with this polygon are found with GJK and EPA instead of SAT
+    private boolean isUsingGjk = false;
+
+    // The vertices relative to the center point when the polygon is not rotated, and the unit normal of the edge from
+    // each vertex to the next, as x and y values one after the other. They are set by computeCenterOfMass()
+    private double[] localVertices = null;
+    private double[] localNormals = null;
+
+    // The vertices and normals in world space, and the center point and angle that they were last computed for
+    private double[] worldVertices = null;
+    private double[] worldNormals = null;
+    private double worldCenterX = Double.NaN;
+    private double worldCenterY = Double.NaN;
+    private double worldAngle = Double.NaN;
+
+    // Whether the list of vertices is behind the world vertices
+    private boolean isVertexListStale = false;
+
     /**
      * Constructs the polygon with a given name
      * @param name the name of the polygon
@@ -28,9 +44,10 @@ public class PPolygon extends PBody implements PCollidable {
      */
     public PPolygon(PPolygon existingPolygon) {
         super(existingPolygon);
+        this.isUsingGjk = existingPolygon.isUsingGjk;
 
         // Make a copy of its vertices
-        for (Vector vertexCopy : existingPolygon.vertices) {
+        for (Vector vertexCopy : existingPolygon.getVertices()) {
             vertices.add(new Vector(vertexCopy.getX(), vertexCopy.getY()));
         }
 
@@ -38,41 +55,203 @@ public class PPolygon extends PBody implements PCollidable {
     }
 
     /**
-     * Gets all the vertices of this polygon
+     * Makes a hard copy of the polygon
+     * @return The copy of the polygon
+     */
+    @Override
+    public PPolygon copy() {
+        return new PPolygon(this);
+    }
+
+    /**
+     * Gets all the vertices of this polygon.
+     * Vertices that are added or changed only take effect once computeCenterOfMass() is called again
      * @return the vertices of this polygon
      */
     public ArrayList<Vector> getVertices() {
+        updateWorldVertices();
+
+        if (isVertexListStale) {
+            int numVertices = Math.min(vertices.size(), getNumVertices());
+            for (int i = 0; i < numVertices; i++) {
+                vertices.get(i).setXY(worldVertices[2 * i], worldVertices[2 * i + 1]);
+            }
+            isVertexListStale = false;
+        }
         return vertices;
     }
 
+    /**
+     * Returns the number of vertices in the shape of this polygon
+     * @return the number of vertices
+     */
+    public int getNumVertices() {
+        return localVertices != null ? localVertices.length / 2 : vertices.size();
+    }
+
+    /**
+     * Returns the vertices of this polygon in world space, as x and y values one after the other.
+     * The array is reused, and is only recomputed after the polygon has moved or rotated
+     * Pre-condition: computeCenterOfMass() must have been called
+     * @return the world vertices
+     */
+    public double[] getWorldVertices() {
+        updateWorldVertices();
+        return worldVertices;
+    }
+
+    /**
+     * Returns the unit normal of the edge from each vertex to the next in world space, as x and y values one after
+     * the other. The array is reused, and is only recomputed after the polygon has rotated
+     * Pre-condition: computeCenterOfMass() must have been called
+     * @return the world normals
+     */
+    public double[] getWorldNormals() {
+        updateWorldVertices();
+        return worldNormals;
+    }
+
+    /**
+     * Recomputes the world vertices, world normals and the bounding box from the local shape if the polygon has moved
+     * or rotated since they were last computed
+     */
+    private void updateWorldVertices() {
+        if (localVertices == null) {
+            return;
+        }
+
+        double centerX = getCenterPt().getX();
+        double centerY = getCenterPt().getY();
+        double angle = getAngle();
+        boolean hasRotated = angle != worldAngle;
+        if (centerX == worldCenterX && centerY == worldCenterY && !hasRotated) {
+            return;
+        }
+
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+
+        for (int i = 0; i < localVertices.length; i += 2) {
+            double x = cos * localVertices[i] - sin * localVertices[i + 1] + centerX;
+            double y = sin * localVertices[i] + cos * localVertices[i + 1] + centerY;
+            worldVertices[i] = x;
+            worldVertices[i + 1] = y;
+
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+
+            // The normals only change when the polygon rotates
+            if (hasRotated) {
+                worldNormals[i] = cos * localNormals[i] - sin * localNormals[i + 1];
+                worldNormals[i + 1] = sin * localNormals[i] + cos * localNormals[i + 1];
+            }
+        }
+
+        boundingBox.setMinX(minX);
+        boundingBox.setMaxX(maxX);
+        boundingBox.setMinY(minY);
+        boundingBox.setMaxY(maxY);
+
+        worldCenterX = centerX;
+        worldCenterY = centerY;
+        worldAngle = angle;
+        isVertexListStale = true;
+    }
+
+    /**
+     * Returns whether collisions with this polygon are found with GJK and EPA instead of SAT
+     * @return {@code true} if GJK and EPA are used; else {@code false}
+     */
+    public boolean isUsingGjk() {
+        return isUsingGjk;
+    }
+
+    /**
+     * Sets whether collisions with this polygon are found with GJK and EPA instead of SAT. GJK and EPA are faster
+     * for polygons with many vertices, and find the distance to bodies that the polygon does not touch.
+     * A pair of bodies is tested with GJK and EPA if either of them is a polygon that uses them
+     * Pre-condition: the polygon must be convex
+     * @param isUsingGjk {@code true} to use GJK and EPA; {@code false} to use SAT
+     */
+    public void setUsingGjk(boolean isUsingGjk) {
+        this.isUsingGjk = isUsingGjk;
+    }
+
     /**
      * Gets the bounding box of this polygon
      * @return the bounding box
      */
     @Override
     public PBoundingBox getBoundingBox() {
+        updateWorldVertices();
         return boundingBox;
     }
 
     /**
-     * Computes the center of mass
+     * Computes the center of mass, and stores the vertices and edge normals relative to it so that moving and
+     * rotating the polygon does not need to change them
      */
     public void computeCenterOfMass() {
+        getVertices();
         boundingBox = new PBoundingBox(vertices);
         getCenterPt().setXY(
                 (boundingBox.getMinX() + boundingBox.getMaxX()) / 2,
                 (boundingBox.getMinY() + boundingBox.getMaxY()) / 2
         );
+
+        int numVertices = vertices.size();
+        localVertices = new double[2 * numVertices];
+        localNormals = new double[2 * numVertices];
+        worldVertices = new double[2 * numVertices];
+        worldNormals = new double[2 * numVertices];
+
+        // Undo the current rotation so that the local shape is at an angle of 0
+        double cos = Math.cos(getAngle());
+        double sin = Math.sin(getAngle());
+        for (int i = 0; i < numVertices; i++) {
+            double x = vertices.get(i).getX() - getCenterPt().getX();
+            double y = vertices.get(i).getY() - getCenterPt().getY();
+            localVertices[2 * i] = cos * x + sin * y;
+            localVertices[2 * i + 1] = -sin * x + cos * y;
+        }
+
+        // The normal of each edge is the edge turned clockwise
+        for (int i = 0; i < numVertices; i++) {
+            int next = (i + 1) % numVertices;
+            double edgeX = localVertices[2 * next] - localVertices[2 * i];
+            double edgeY = localVertices[2 * next + 1] - localVertices[2 * i + 1];
+            double length = Math.sqrt(edgeX * edgeX + edgeY * edgeY);
+            if (length > 0) {
+                localNormals[2 * i] = edgeY / length;
+                localNormals[2 * i + 1] = -edgeX / length;
+            }
+        }
+
+        worldAngle = Double.NaN;
+        updateWorldVertices();
     }
 
     @Override
     public double getInertia() {
-        double inertia = 0;
-        for (Vector vertex : vertices) {
-            inertia = vertex.minus(this.getCenterPt()).norm1();
+        if (localVertices == null || localVertices.length == 0) {
+            double inertia = 0;
+            for (Vector vertex : vertices) {
+                inertia = vertex.minus(this.getCenterPt()).norm1();
+            }
+            return (inertia / vertices.size()) * getMass();
         }
 
-        inertia = (inertia / vertices.size()) * getMass();
+        // The distance from the center to the last vertex does not change as the polygon moves
+        int last = localVertices.length - 2;
+        double inertia = localVertices[last] * localVertices[last] + localVertices[last + 1] * localVertices[last + 1];
+
+        inertia = (inertia / getNumVertices()) * getMass();
         return inertia;
     }
 
@@ -81,6 +260,13 @@ public class PPolygon extends PBody implements PCollidable {
      * @param displacement The amount to move the body by
      */
     public void translate(Vector displacement) {
+        // Once the shape is stored, moving the centerPt moves the world vertices the next time they are needed
+        if (localVertices != null) {
+            getCenterPt().setX(getCenterPt().getX() + displacement.getX());
+            getCenterPt().setY(getCenterPt().getY() + displacement.getY());
+            return;
+        }
+
         // Moving all the vertices
         for (Vector vertex : vertices) {
             vertex.setX(vertex.getX() + displacement.getX());
@@ -92,6 +278,9 @@ public class PPolygon extends PBody implements PCollidable {
         getCenterPt().setY(getCenterPt().getY() + displacement.getY());
 
         // Move the bounding box
+        if (boundingBox == null) {
+            return;
+        }
         boundingBox.setMinX(boundingBox.getMinX() + displacement.getX());
         boundingBox.setMaxX(boundingBox.getMaxX() + displacement.getX());
         boundingBox.setMinY(boundingBox.getMinY() + displacement.getY());
@@ -103,6 +292,12 @@ public class PPolygon extends PBody implements PCollidable {
      * @param newAngle The angle of the body in radians
      */
     public void rotate(double newAngle) {
+        // Once the shape is stored, changing the angle rotates the world vertices the next time they are needed
+        if (localVertices != null) {
+            super.setAngle(newAngle);
+            return;
+        }
+
         double amountToRotate = newAngle - this.getAngle();
 
         for (Vector vertex : vertices) {
@@ -139,7 +334,7 @@ public class PPolygon extends PBody implements PCollidable {
      */
     @Override
     public void drawBoundingBox(Graphics g, int windowHeight) {
-        boundingBox.drawBoundingBox(g, windowHeight);
+        getBoundingBox().drawBoundingBox(g, windowHeight);
         super.drawBoundingBox(g, windowHeight);
     }
 
@@ -150,6 +345,8 @@ public class PPolygon extends PBody implements PCollidable {
      */
     @Override
     public void drawFill(Graphics g, int windowHeight) {
+        ArrayList<Vector> vertices = getVertices();
+
         // Convert the vertices to x and y coordinates
         int[] xCoords = new int[vertices.size()];
         int[] yCoords = new int[vertices.size()];
@@ -173,6 +370,8 @@ public class PPolygon extends PBody implements PCollidable {
      */
     @Override
     public void drawOutline(Graphics g, int windowHeight) {
+        ArrayList<Vector> vertices = getVertices();
+
         // Convert the vertices to x and y coordinates
         int[] xCoords = new int[vertices.size()];
         int[] yCoords = new int[vertices.size()];
@@ -208,6 +407,108 @@ public class PPolygon extends PBody implements PCollidable {
         }
     }
 
+    /**
+     * Draws the color of the polygon where it was in a snapshot of its world. A polygon whose shape has not been
+     * computed yet is drawn where it is now
+     * @param g The Graphics Object
+     * @param windowHeight The height of the window containing the body being displayed
+     * @param centerX The x value of the center point of the polygon in the snapshot
+     * @param centerY The y value of the center point of the polygon in the snapshot
+     * @param angle The angle of the polygon in the snapshot
+     */
+    @Override
+    public void drawFill(Graphics g, int windowHeight, double centerX, double centerY, double angle) {
+        if (localVertices == null) {
+            drawFill(g, windowHeight);
+            return;
+        }
+
+        double[] vertices = getVerticesAt(centerX, centerY, angle);
+        int[] xCoords = new int[vertices.length / 2];
+        int[] yCoords = new int[vertices.length / 2];
+        for (int i = 0; i < xCoords.length; i++) {
+            xCoords[i] = (int) vertices[2 * i];
+            yCoords[i] = windowHeight - (int) vertices[2 * i + 1];
+        }
+
+        // Draw the polygon onto the screen
+        g.setColor(getFillColor());
+        g.fillPolygon(xCoords, yCoords, xCoords.length);
+
+        // Draw the center of mass
+        super.drawFill(g, windowHeight, centerX, centerY, angle);
+    }
+
+    /**
+     * Draws the outline of the polygon where it was in a snapshot of its world. A polygon whose shape has not been
+     * computed yet is drawn where it is now
+     * @param g The Graphics Object
+     * @param windowHeight The height of the window containing the body being displayed
+     * @param centerX The x value of the center point of the polygon in the snapshot
+     * @param centerY The y value of the center point of the polygon in the snapshot
+     * @param angle The angle of the polygon in the snapshot
+     */
+    @Override
+    public void drawOutline(Graphics g, int windowHeight, double centerX, double centerY, double angle) {
+        if (localVertices == null) {
+            drawOutline(g, windowHeight);
+            return;
+        }
+
+        double[] vertices = getVerticesAt(centerX, centerY, angle);
+        int numVertices = vertices.length / 2;
+        int[] xCoords = new int[numVertices];
+        int[] yCoords = new int[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            xCoords[i] = (int) vertices[2 * i];
+            yCoords[i] = windowHeight - (int) vertices[2 * i + 1];
+        }
+
+        // Draw the polygon onto the screen
+        g.setColor(this.getOutlineColor());
+        g.drawPolygon(xCoords, yCoords, xCoords.length);
+
+        // Draw the center of mass
+        super.drawOutline(g, windowHeight, centerX, centerY, angle);
+
+        // Draw the normals
+        g.setColor(this.getNormalVectorColor());
+        for (int i = 0; i < numVertices; i++) {
+            int next = (i + 1) % numVertices;
+            double sideX = vertices[2 * next] - vertices[2 * i];
+            double sideY = vertices[2 * next + 1] - vertices[2 * i + 1];
+            double sideLength = Math.sqrt(sideX * sideX + sideY * sideY);
+
+            double midX = (vertices[2 * i] + vertices[2 * next]) / 2;
+            double midY = (vertices[2 * i + 1] + vertices[2 * next + 1]) / 2;
+            double endX = midX + 10 * sideY / sideLength;
+            double endY = midY - 10 * sideX / sideLength;
+
+            g.drawLine((int) midX, windowHeight - (int) midY, (int) endX, windowHeight - (int) endY);
+        }
+    }
+
+    /**
+     * Returns where the vertices of the polygon are when it is at a certain center point and angle, as x and y
+     * values one after the other. Only the local shape is read, so the polygon can be simulated at the same time
+     * Pre-condition: computeCenterOfMass() must have been called
+     * @param centerX The x value of the center point
+     * @param centerY The y value of the center point
+     * @param angle The angle
+     * @return The vertices in a new array
+     */
+    private double[] getVerticesAt(double centerX, double centerY, double angle) {
+        double[] localVertices = this.localVertices;
+        double[] vertices = new double[localVertices.length];
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        for (int i = 0; i < localVertices.length; i += 2) {
+            vertices[i] = cos * localVertices[i] - sin * localVertices[i + 1] + centerX;
+            vertices[i + 1] = sin * localVertices[i] + cos * localVertices[i + 1] + centerY;
+        }
+        return vertices;
+    }
+
     /**
      * Returns the polygon as a string.
      * It should be used only for debugging purposes.
@@ -215,6 +516,7 @@ public class PPolygon extends PBody implements PCollidable {
      */
     @Override
     public String toString() {
+        ArrayList<Vector> vertices = getVertices();
         StringBuilder propertiesLine = new StringBuilder(super.toString() + "Vertices:");
         for (int i = 0; i < vertices.size(); i++) {
             propertiesLine.append(vertices.get(i).getX())
@@ -228,33 +530,15 @@ public class PPolygon extends PBody implements PCollidable {
     }
 
     @Override
-    public PCollisionResult hasCollidedWith(PCollidable body) {
-        PCollisionResult result = new PCollisionResult(false, null, null, null, null);
-
-        if (body instanceof PCircle) {
-            PCircle circle = (PCircle) body;
-
-            if (PBoxBoxCollision.doBodiesCollide(circle.getBoundingBox(), this.getBoundingBox())) {
-                result = PCirclePolyCollision.doBodiesCollide(circle, this);
-
-                // Note: since we are not comparing this obj with the incoming obj, the directions are flipped
-                if (result.isHasCollided()) {
-                    result = new PCollisionResult(result.isHasCollided(), result.getBody2Mtv(),
-                            result.getBody1Mtv(), result.getMtv().scale(-1), result.getContactPt());
-                }
-            }
-
-        } else if (body instanceof PPolygon) {
-            PPolygon polygon = (PPolygon) body;
-
-            if (PBoxBoxCollision.doBodiesCollide(polygon.getBoundingBox(), this.getBoundingBox())) {
-                result = PPolyPolyCollision.doBodiesCollide(this, polygon);
-            }
+    public int getShapeType() {
+        return PCollisionDispatcher.POLYGON_SHAPE;
+    }
 
-        } else {
+    @Override
+    public PCollisionResult hasCollidedWith(PCollidable body) {
+        if (!(body instanceof PBody)) {
             throw new IllegalArgumentException("Body cannot detect and handle collisions!");
         }
-
-        return result;
+        return PCollisionDispatcher.collide(this, (PBody) body);
     }
-}
\ No newline at end of file
+}
@@ -18,6 +18,20 @@ public class PSpring extends PConstraints {
         setLength(50);
     }
 
+    /**
+     * Makes a copy of the spring that is attached to other bodies
+     * @param body1 The body that the copy is attached to instead of the first body
+     * @param body2 The body that the copy is attached to instead of the second body
+     * @return The copy of the spring
+     */
+    @Override
+    public PSpring copy(PBody body1, PBody body2) {
+        PSpring springCopy = new PSpring(body1, body2);
+        springCopy.setKValue(kValue);
+        springCopy.setLength(getLength());
+        return springCopy;
+    }
+
     /**
      * The k value of the spring
      * @return The k value of the spring
@@ -78,15 +92,24 @@ public class PSpring extends PConstraints {
      * @param windowHeight The height of the window that is containing the body being displayed
      */
     public void drawConstraints(Graphics g, int windowHeight) {
-        // Draw a line in between the two objects
-        g.setColor(Color.GREEN);
         PBody[] bodies = super.getAttachedBodies();
+        drawConstraints(g, windowHeight, bodies[0].getCenterPt().getX(), bodies[0].getCenterPt().getY(),
+                bodies[1].getCenterPt().getX(), bodies[1].getCenterPt().getY());
+    }
 
-        int x1 = (int) bodies[0].getCenterPt().getX();
-        int y1 = (int) bodies[0].getCenterPt().getY();
-        int x2 = (int) bodies[1].getCenterPt().getX();
-        int y2 = (int) bodies[1].getCenterPt().getY();
-        g.drawLine(x1, windowHeight - y1, x2, windowHeight - y2);
+    /**
+     * Draws a line between where the two attached bodies were in a snapshot of their world
+     * @param g The Graphics Object
+     * @param windowHeight The height of the window that is containing the body being displayed
+     * @param x1 The x value of the center point of the first body in the snapshot
+     * @param y1 The y value of the center point of the first body in the snapshot
+     * @param x2 The x value of the center point of the second body in the snapshot
+     * @param y2 The y value of the center point of the second body in the snapshot
+     */
+    public void drawConstraints(Graphics g, int windowHeight, double x1, double y1, double x2, double y2) {
+        // Draw a line in between the two objects
+        g.setColor(Color.GREEN);
+        g.drawLine((int) x1, windowHeight - (int) y1, (int) x2, windowHeight - (int) y2);
     }
 
     /**
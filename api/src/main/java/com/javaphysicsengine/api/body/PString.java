@@ -18,7 +18,20 @@ public class PString extends PConstraints {
         // Compute the distance between the two center pts of the two bodies
         double bodyDist = Math.sqrt(Math.pow(body1.getCenterPt().getX() - body2.getCenterPt().getX(), 2) + Math.pow(body1.getCenterPt().getY() - body2.getCenterPt().getY(), 2));
         setLength(bodyDist);
-        System.out.println("Distance Set: " + bodyDist);
+    }
+
+    /**
+     * Pre-condition: "body1" and "body2" must not be null
+     * Post-condition: Returns a copy of the string that is attached to other bodies
+     * @param body1 The body that the copy is attached to instead of the first body
+     * @param body2 The body that the copy is attached to instead of the second body
+     * @return Returns the copy of the string
+     */
+    @Override
+    public PString copy(PBody body1, PBody body2) {
+        PString stringCopy = new PString(body1, body2);
+        stringCopy.setLength(getLength());
+        return stringCopy;
     }
 
     /**
@@ -30,7 +43,6 @@ public class PString extends PConstraints {
 
         // Computing the length of the string
         double lengthPerBody = getLength() / 2.0;
-        System.out.println("L:" + getLength());
 
         if (!bodies[0].isMoving() || !bodies[1].isMoving())
             lengthPerBody = getLength();
@@ -76,10 +88,24 @@ public class PString extends PConstraints {
      * @param windowHeight The height of the window that is containing the body being displayed
      */
     public void drawConstraints(Graphics g, int windowHeight) {
+        PBody[] bodies = super.getAttachedBodies();
+        drawConstraints(g, windowHeight, bodies[0].getCenterPt().getX(), bodies[0].getCenterPt().getY(),
+                bodies[1].getCenterPt().getX(), bodies[1].getCenterPt().getY());
+    }
+
+    /**
+     * Pre-condition: The "g" must not be null and the "windowHeight" must be greater than 0
+     * Post-condition: Draws a line between where the two attached bodies were in a snapshot of their world
+     * @param g The Graphics Object
+     * @param windowHeight The height of the window that is containing the body being displayed
+     * @param x1 The x value of the center point of the first body in the snapshot
+     * @param y1 The y value of the center point of the first body in the snapshot
+     * @param x2 The x value of the center point of the second body in the snapshot
+     * @param y2 The y value of the center point of the second body in the snapshot
+     */
+    public void drawConstraints(Graphics g, int windowHeight, double x1, double y1, double x2, double y2) {
         // Draw a line in between the two objects
         g.setColor(Color.WHITE);
-        PBody[] bodies = super.getAttachedBodies();
-        g.drawLine((int) bodies[0].getCenterPt().getX(), windowHeight - (int) bodies[0].getCenterPt().getY(),
-                (int) bodies[1].getCenterPt().getX(), windowHeight - (int) bodies[1].getCenterPt().getY());
+        g.drawLine((int) x1, windowHeight - (int) y1, (int) x2, windowHeight - (int) y2);
     }
 }
\ No newline at end of file
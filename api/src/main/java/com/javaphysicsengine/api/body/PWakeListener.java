@@ -0,0 +1,14 @@
+package com.javaphysicsengine.api.body;
+
+/**
+ * Is told when a body that was asleep wakes up, so that the body's world only needs to keep track of the bodies
+ * that are awake
+ */
+public interface PWakeListener {
+
+    /**
+     * Called after a body that was asleep wakes up
+     * @param body The body that woke up
+     */
+    void onWake(PBody body);
+}
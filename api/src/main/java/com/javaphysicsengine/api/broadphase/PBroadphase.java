@@ -0,0 +1,51 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import org.javatuples.Pair;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the pairs of bodies that could be intersecting, so that only those pairs
+ * need to be checked for collisions.
+ * A broadphase lives as long as its world and is updated once per time step.
+ */
+public interface PBroadphase {
+
+    /**
+     * Updates the broadphase so that it contains exactly the bodies in the list, at their current positions.
+     * A body that is being swept covers its whole swept box, so that it is paired with what it could have passed
+     * @param bodies The bodies in the world
+     */
+    void update(List<PBody> bodies);
+
+    /**
+     * Updates the broadphase when only some of the bodies could have moved since the last update, so that the
+     * others do not need to be visited. They keep their place in the broadphase, so the pairs between them and the
+     * bodies that moved are still found. The broadphases that rebuild themselves on every update visit every body
+     * Pre-condition: "bodies" must hold the same bodies in the same order as in the last update, and only the
+     * bodies at the first "numMovedBodies" indices in "movedIndices" can have moved
+     * @param bodies The bodies in the world
+     * @param movedIndices The indices of the bodies that could have moved
+     * @param numMovedBodies The number of bodies that could have moved
+     */
+    default void update(List<PBody> bodies, int[] movedIndices, int numMovedBodies) {
+        update(bodies);
+    }
+
+    /**
+     * Returns the pairs of bodies that could be intersecting since the last call to {@link #update(List)}.
+     * Each pair is returned once, with the body that was added to the broadphase first as the first value
+     * @return The pairs of bodies that could be intersecting
+     */
+    Set<Pair<PBody, PBody>> getPotentialIntersectingBodies();
+
+    /**
+     * Replaces the contents of a buffer with the pairs of bodies that could be intersecting since the last call
+     * to {@link #update(List)}, as indices into the list that was given to it. Each pair is added once.
+     * Unlike {@link #getPotentialIntersectingBodies()}, no object is allocated per pair
+     * @param pairs The buffer to fill
+     */
+    void getPotentialIntersectingPairs(PPairBuffer pairs);
+}
@@ -0,0 +1,615 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PBoundingBox;
+import com.javaphysicsengine.api.collision.PBoxBoxCollision;
+import com.javaphysicsengine.utils.Vector;
+import org.javatuples.Pair;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A dynamic bounding volume hierarchy, similar to the one in Box2D.
+ *
+ * Each body is stored in a leaf along with a fattened copy of its bounding box. A body is only re-inserted
+ * when its bounding box leaves the fattened box, and only the re-inserted bodies have their pairs recomputed,
+ * so bodies that are resting cost almost nothing per time step. The tree is kept balanced with rotations.
+ *
+ * Each leaf keeps a list of the leaves it overlaps instead of a set of pair objects, and the nodes and lists
+ * used by an update are reused, so moving bodies around does not allocate any objects once the lists are
+ * large enough.
+ */
+public class PDynamicAABBTree implements PBroadphase {
+    private static final double DEFAULT_MARGIN = 2;
+
+    private PAABBTreeNode root = null;
+
+    private final Map<PBody, PAABBTreeNode> leaves = new IdentityHashMap<>();
+    private final double margin;
+
+    // The leaf of each body, in the order of the list given to update()
+    private PAABBTreeNode[] leavesByIndex = new PAABBTreeNode[0];
+    private int numLeaves = 0;
+
+    // Reused by update() and findPairs()
+    private final List<PAABBTreeNode> movedLeaves = new ArrayList<>();
+    private final List<PAABBTreeNode> stack = new ArrayList<>();
+
+    // Parent nodes that were removed from the tree, to be reused by insertLeaf()
+    private final List<PAABBTreeNode> freeNodes = new ArrayList<>();
+
+    // Only created when the pairs are asked for as a set
+    private Set<Pair<PBody, PBody>> pairs = null;
+
+    private int nextLeafId = 0;
+    private int curStamp = 0;
+
+    private static class PAABBTreeNode {
+        PAABBTreeNode parent;
+        PAABBTreeNode child1;
+        PAABBTreeNode child2;
+
+        // The fattened box of the body for leaves, and the box around both children otherwise
+        PBoundingBox box;
+        int height;
+
+        // Only used by leaves
+        PBody body;
+        int id;
+        int stamp;
+        int bodyIndex;
+        List<PAABBTreeNode> partners;
+
+        PAABBTreeNode(PBoundingBox box) {
+            this.box = box;
+        }
+
+        boolean isLeaf() {
+            return child1 == null;
+        }
+    }
+
+    /**
+     * Creates an empty tree
+     */
+    public PDynamicAABBTree() {
+        this(DEFAULT_MARGIN);
+    }
+
+    /**
+     * Creates an empty tree
+     * Pre-condition: "margin" must be at least 0
+     * @param margin The amount each body's bounding box is fattened by before it is stored in the tree
+     */
+    public PDynamicAABBTree(double margin) {
+        this.margin = margin;
+    }
+
+    /**
+     * Updates the tree so that it contains exactly the bodies in the list.
+     * Only the bodies that are new or whose bounding box left their fattened box are re-inserted,
+     * and only their pairs are recomputed.
+     * @param bodies The bodies in the world
+     */
+    @Override
+    public void update(List<PBody> bodies) {
+        curStamp++;
+
+        // Let go of the bodies that were removed
+        for (int i = bodies.size(); i < numLeaves; i++) {
+            leavesByIndex[i] = null;
+        }
+        numLeaves = bodies.size();
+        if (leavesByIndex.length < numLeaves) {
+            leavesByIndex = new PAABBTreeNode[Math.max(numLeaves, 2 * leavesByIndex.length)];
+        }
+
+        movedLeaves.clear();
+        for (int i = 0; i < bodies.size(); i++) {
+            PBody body = bodies.get(i);
+            PAABBTreeNode leaf = leaves.get(body);
+
+            if (leaf == null) {
+                leaf = new PAABBTreeNode(getFattenedBox(body.getSweptBoundingBox()));
+                leaf.body = body;
+                leaf.id = nextLeafId++;
+                leaf.partners = new ArrayList<>();
+                leaves.put(body, leaf);
+
+                insertLeaf(leaf);
+                movedLeaves.add(leaf);
+
+            } else if (body.isAwake()) {
+                reinsertIfMoved(leaf);
+            }
+
+            leaf.stamp = curStamp;
+            leaf.bodyIndex = i;
+            leavesByIndex[i] = leaf;
+        }
+
+        // Remove the bodies that are no longer in the list
+        if (leaves.size() != bodies.size()) {
+            Iterator<PAABBTreeNode> iterator = leaves.values().iterator();
+            while (iterator.hasNext()) {
+                PAABBTreeNode leaf = iterator.next();
+                if (leaf.stamp != curStamp) {
+                    removePairs(leaf);
+                    removeLeaf(leaf);
+                    iterator.remove();
+                }
+            }
+        }
+
+        updatePairs();
+    }
+
+    /**
+     * Re-inserts the bodies that could have moved and left their fattened box, without looking up the other bodies
+     * @param bodies The bodies in the world
+     * @param movedIndices The indices of the bodies that could have moved
+     * @param numMovedBodies The number of bodies that could have moved
+     */
+    @Override
+    public void update(List<PBody> bodies, int[] movedIndices, int numMovedBodies) {
+        movedLeaves.clear();
+        for (int i = 0; i < numMovedBodies; i++) {
+            reinsertIfMoved(leavesByIndex[movedIndices[i]]);
+        }
+
+        updatePairs();
+    }
+
+    /**
+     * Returns the pairs of bodies whose fattened bounding boxes overlap.
+     * Each pair is returned once, with the body that was added to the tree first as the first value.
+     * The set is created from the pairs found in the last call to {@link #update(List)}, so
+     * {@link #getPotentialIntersectingPairs(PPairBuffer)} should be used instead when allocations matter
+     * @return The pairs of bodies that could be intersecting
+     */
+    @Override
+    public Set<Pair<PBody, PBody>> getPotentialIntersectingBodies() {
+        if (pairs == null) {
+            Set<Pair<PBody, PBody>> newPairs = new LinkedHashSet<>();
+            for (int i = 0; i < numLeaves; i++) {
+                PAABBTreeNode leaf = leavesByIndex[i];
+                for (int j = 0; j < leaf.partners.size(); j++) {
+                    PAABBTreeNode partner = leaf.partners.get(j);
+                    if (leaf.id < partner.id) {
+                        newPairs.add(new Pair<>(leaf.body, partner.body));
+                    }
+                }
+            }
+            pairs = Collections.unmodifiableSet(newPairs);
+        }
+        return pairs;
+    }
+
+    /**
+     * Replaces the contents of a buffer with the indices of the bodies whose fattened bounding boxes overlap.
+     * The leaves are visited in the order of the bodies, so the pairs come out in the same order on every run
+     * @param pairs The buffer to fill
+     */
+    @Override
+    public void getPotentialIntersectingPairs(PPairBuffer pairs) {
+        pairs.clear();
+        for (int i = 0; i < numLeaves; i++) {
+            PAABBTreeNode leaf = leavesByIndex[i];
+            for (int j = 0; j < leaf.partners.size(); j++) {
+                PAABBTreeNode partner = leaf.partners.get(j);
+                if (leaf.id < partner.id) {
+                    pairs.add(i, partner.bodyIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the bodies whose bounding box overlaps a region, as of the last call to {@link #update(List)}
+     * @param region The region
+     * @return The bodies in the region
+     */
+    public List<PBody> query(PBoundingBox region) {
+        List<PBody> bodiesInRegion = new ArrayList<>();
+        if (root == null) {
+            return bodiesInRegion;
+        }
+
+        List<PAABBTreeNode> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            PAABBTreeNode node = stack.remove(stack.size() - 1);
+
+            if (!PBoxBoxCollision.doBodiesCollide(node.box, region)) {
+                continue;
+            }
+
+            if (node.isLeaf()) {
+                if (PBoxBoxCollision.doBodiesCollide(node.body.getBoundingBox(), region)) {
+                    bodiesInRegion.add(node.body);
+                }
+            } else {
+                stack.add(node.child1);
+                stack.add(node.child2);
+            }
+        }
+
+        return bodiesInRegion;
+    }
+
+    /**
+     * Returns the bodies whose bounding box is hit by a ray, ordered from the closest to the farthest hit
+     * Pre-condition: "direction" must not be a zero vector
+     * @param origin The start of the ray
+     * @param direction The direction of the ray
+     * @param maxDistance The length of the ray, in multiples of the direction's length
+     * @return The bodies hit by the ray
+     */
+    public List<PBody> raycast(Vector origin, Vector direction, double maxDistance) {
+        List<Pair<Double, PBody>> hits = new ArrayList<>();
+
+        if (root != null) {
+            List<PAABBTreeNode> stack = new ArrayList<>();
+            stack.add(root);
+            while (!stack.isEmpty()) {
+                PAABBTreeNode node = stack.remove(stack.size() - 1);
+
+                if (getRayHitDistance(origin, direction, maxDistance, node.box) < 0) {
+                    continue;
+                }
+
+                if (node.isLeaf()) {
+                    double hitDistance = getRayHitDistance(origin, direction, maxDistance, node.body.getBoundingBox());
+                    if (hitDistance >= 0) {
+                        hits.add(new Pair<>(hitDistance, node.body));
+                    }
+                } else {
+                    stack.add(node.child1);
+                    stack.add(node.child2);
+                }
+            }
+        }
+
+        hits.sort((hit1, hit2) -> Double.compare(hit1.getValue0(), hit2.getValue0()));
+
+        List<PBody> hitBodies = new ArrayList<>(hits.size());
+        for (Pair<Double, PBody> hit : hits) {
+            hitBodies.add(hit.getValue1());
+        }
+        return hitBodies;
+    }
+
+    /**
+     * Returns the height of the tree, where a tree with a single body has a height of 0
+     * @return The height of the tree, or -1 if the tree is empty
+     */
+    public int getHeight() {
+        return root == null ? -1 : root.height;
+    }
+
+    /**
+     * Finds where a ray enters a box using the slab method
+     * @param origin The start of the ray
+     * @param direction The direction of the ray
+     * @param maxDistance The length of the ray
+     * @param box The box
+     * @return The distance along the ray where it enters the box, or -1 if the ray misses the box
+     */
+    private static double getRayHitDistance(Vector origin, Vector direction, double maxDistance, PBoundingBox box) {
+        double tMin = 0;
+        double tMax = maxDistance;
+
+        double[] origins = { origin.getX(), origin.getY() };
+        double[] directions = { direction.getX(), direction.getY() };
+        double[] mins = { box.getMinX(), box.getMinY() };
+        double[] maxs = { box.getMaxX(), box.getMaxY() };
+
+        for (int axis = 0; axis < 2; axis++) {
+            if (directions[axis] == 0) {
+                if (origins[axis] < mins[axis] || origins[axis] > maxs[axis]) {
+                    return -1;
+                }
+                continue;
+            }
+
+            double t1 = (mins[axis] - origins[axis]) / directions[axis];
+            double t2 = (maxs[axis] - origins[axis]) / directions[axis];
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+
+            if (tMin > tMax) {
+                return -1;
+            }
+        }
+
+        return tMin;
+    }
+
+    /**
+     * Re-inserts a leaf if its body's bounding box left the leaf's fattened box
+     * @param leaf The leaf
+     */
+    private void reinsertIfMoved(PAABBTreeNode leaf) {
+        if (isContainedIn(leaf.body.getSweptBoundingBox(), leaf.box)) {
+            return;
+        }
+
+        removeLeaf(leaf);
+        setToFattenedBox(leaf.box, leaf.body.getSweptBoundingBox());
+        insertLeaf(leaf);
+        movedLeaves.add(leaf);
+    }
+
+    /**
+     * Recomputes the pairs of the leaves that were re-inserted, since only their pairs could have changed
+     */
+    private void updatePairs() {
+        for (int i = 0; i < movedLeaves.size(); i++) {
+            removePairs(movedLeaves.get(i));
+        }
+        for (int i = 0; i < movedLeaves.size(); i++) {
+            findPairs(movedLeaves.get(i));
+        }
+
+        pairs = null;
+    }
+
+    /**
+     * Adds a pair for every leaf whose box overlaps a leaf's box
+     * @param leaf The leaf
+     */
+    private void findPairs(PAABBTreeNode leaf) {
+        stack.clear();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            PAABBTreeNode node = stack.remove(stack.size() - 1);
+
+            if (node == leaf || !PBoxBoxCollision.doBodiesCollide(node.box, leaf.box)) {
+                continue;
+            }
+
+            if (node.isLeaf()) {
+                // Both leaves could have moved, in which case the pair was already found by the other leaf
+                if (!leaf.partners.contains(node)) {
+                    leaf.partners.add(node);
+                    node.partners.add(leaf);
+                }
+            } else {
+                stack.add(node.child1);
+                stack.add(node.child2);
+            }
+        }
+    }
+
+    private void removePairs(PAABBTreeNode leaf) {
+        for (int i = 0; i < leaf.partners.size(); i++) {
+            leaf.partners.get(i).partners.remove(leaf);
+        }
+        leaf.partners.clear();
+    }
+
+    /**
+     * Inserts a leaf next to the sibling that grows the tree's perimeter the least
+     * @param leaf The leaf to insert
+     */
+    private void insertLeaf(PAABBTreeNode leaf) {
+        leaf.height = 0;
+
+        if (root == null) {
+            root = leaf;
+            root.parent = null;
+            return;
+        }
+
+        // Find the best sibling for the leaf
+        PBoundingBox leafBox = leaf.box;
+        PAABBTreeNode sibling = root;
+        while (!sibling.isLeaf()) {
+            double perimeter = getPerimeter(sibling.box);
+            double combinedPerimeter = getPerimeter(sibling.box, leafBox);
+
+            // Cost of creating a new parent for this node and the new leaf
+            double cost = 2 * combinedPerimeter;
+
+            // Minimum cost of pushing the leaf further down the tree
+            double inheritanceCost = 2 * (combinedPerimeter - perimeter);
+
+            double cost1 = getDescendCost(sibling.child1, leafBox, inheritanceCost);
+            double cost2 = getDescendCost(sibling.child2, leafBox, inheritanceCost);
+
+            if (cost < cost1 && cost < cost2) {
+                break;
+            }
+
+            sibling = cost1 < cost2 ? sibling.child1 : sibling.child2;
+        }
+
+        // Create a new parent for the sibling and the leaf
+        PAABBTreeNode oldParent = sibling.parent;
+        PAABBTreeNode newParent = freeNodes.isEmpty()
+                ? new PAABBTreeNode(new PBoundingBox(0, 0, 0, 0))
+                : freeNodes.remove(freeNodes.size() - 1);
+        newParent.parent = oldParent;
+        setToUnion(newParent.box, sibling.box, leafBox);
+        newParent.height = sibling.height + 1;
+        newParent.child1 = sibling;
+        newParent.child2 = leaf;
+        sibling.parent = newParent;
+        leaf.parent = newParent;
+
+        if (oldParent == null) {
+            root = newParent;
+        } else if (oldParent.child1 == sibling) {
+            oldParent.child1 = newParent;
+        } else {
+            oldParent.child2 = newParent;
+        }
+
+        refitAncestors(leaf.parent);
+    }
+
+    private double getDescendCost(PAABBTreeNode child, PBoundingBox leafBox, double inheritanceCost) {
+        if (child.isLeaf()) {
+            return getPerimeter(child.box, leafBox) + inheritanceCost;
+        }
+        return getPerimeter(child.box, leafBox) - getPerimeter(child.box) + inheritanceCost;
+    }
+
+    /**
+     * Removes a leaf from the tree, replacing its parent with its sibling
+     * @param leaf The leaf to remove
+     */
+    private void removeLeaf(PAABBTreeNode leaf) {
+        if (leaf == root) {
+            root = null;
+            return;
+        }
+
+        PAABBTreeNode parent = leaf.parent;
+        PAABBTreeNode grandParent = parent.parent;
+        PAABBTreeNode sibling = parent.child1 == leaf ? parent.child2 : parent.child1;
+
+        if (grandParent == null) {
+            root = sibling;
+            sibling.parent = null;
+        } else {
+            if (grandParent.child1 == parent) {
+                grandParent.child1 = sibling;
+            } else {
+                grandParent.child2 = sibling;
+            }
+            sibling.parent = grandParent;
+            refitAncestors(grandParent);
+        }
+
+        leaf.parent = null;
+        parent.parent = null;
+        parent.child1 = null;
+        parent.child2 = null;
+        freeNodes.add(parent);
+    }
+
+    /**
+     * Rebalances and recomputes the boxes and heights of a node and all of its ancestors
+     * @param node The first node to refit
+     */
+    private void refitAncestors(PAABBTreeNode node) {
+        while (node != null) {
+            node = balance(node);
+
+            node.height = 1 + Math.max(node.child1.height, node.child2.height);
+            setToUnion(node.box, node.child1.box, node.child2.box);
+
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Performs a left or right rotation if a node is imbalanced
+     * @param a The node to balance
+     * @return The node that took the place of "a" in the tree
+     */
+    private PAABBTreeNode balance(PAABBTreeNode a) {
+        if (a.isLeaf() || a.height < 2) {
+            return a;
+        }
+
+        PAABBTreeNode b = a.child1;
+        PAABBTreeNode c = a.child2;
+        int balance = c.height - b.height;
+
+        if (balance > 1) {
+            return rotateUp(a, c, b);
+        }
+        if (balance < -1) {
+            return rotateUp(a, b, c);
+        }
+        return a;
+    }
+
+    /**
+     * Rotates a child up to take the place of its parent
+     * @param a The parent
+     * @param tallChild The taller child of "a", which will take its place
+     * @param shortChild The shorter child of "a"
+     * @return The tall child
+     */
+    private PAABBTreeNode rotateUp(PAABBTreeNode a, PAABBTreeNode tallChild, PAABBTreeNode shortChild) {
+        PAABBTreeNode f = tallChild.child1;
+        PAABBTreeNode g = tallChild.child2;
+
+        // Swap "a" and its tall child
+        tallChild.child1 = a;
+        tallChild.parent = a.parent;
+        a.parent = tallChild;
+
+        if (tallChild.parent == null) {
+            root = tallChild;
+        } else if (tallChild.parent.child1 == a) {
+            tallChild.parent.child1 = tallChild;
+        } else {
+            tallChild.parent.child2 = tallChild;
+        }
+
+        // The taller grandchild stays with the tall child, and the other one moves under "a"
+        PAABBTreeNode keptChild = f.height > g.height ? f : g;
+        PAABBTreeNode movedChild = f.height > g.height ? g : f;
+
+        tallChild.child2 = keptChild;
+        if (a.child1 == tallChild) {
+            a.child1 = movedChild;
+        } else {
+            a.child2 = movedChild;
+        }
+        movedChild.parent = a;
+
+        setToUnion(a.box, shortChild.box, movedChild.box);
+        setToUnion(tallChild.box, a.box, keptChild.box);
+        a.height = 1 + Math.max(shortChild.height, movedChild.height);
+        tallChild.height = 1 + Math.max(a.height, keptChild.height);
+
+        return tallChild;
+    }
+
+    private PBoundingBox getFattenedBox(PBoundingBox box) {
+        PBoundingBox fattenedBox = new PBoundingBox(0, 0, 0, 0);
+        setToFattenedBox(fattenedBox, box);
+        return fattenedBox;
+    }
+
+    private void setToFattenedBox(PBoundingBox result, PBoundingBox box) {
+        result.setMinX(box.getMinX() - margin);
+        result.setMaxX(box.getMaxX() + margin);
+        result.setMinY(box.getMinY() - margin);
+        result.setMaxY(box.getMaxY() + margin);
+    }
+
+    private static boolean isContainedIn(PBoundingBox innerBox, PBoundingBox outerBox) {
+        return outerBox.getMinX() <= innerBox.getMinX() && innerBox.getMaxX() <= outerBox.getMaxX() &&
+                outerBox.getMinY() <= innerBox.getMinY() && innerBox.getMaxY() <= outerBox.getMaxY();
+    }
+
+    private static void setToUnion(PBoundingBox result, PBoundingBox box1, PBoundingBox box2) {
+        result.setMinX(Math.min(box1.getMinX(), box2.getMinX()));
+        result.setMaxX(Math.max(box1.getMaxX(), box2.getMaxX()));
+        result.setMinY(Math.min(box1.getMinY(), box2.getMinY()));
+        result.setMaxY(Math.max(box1.getMaxY(), box2.getMaxY()));
+    }
+
+    private static double getPerimeter(PBoundingBox box) {
+        return 2 * ((box.getMaxX() - box.getMinX()) + (box.getMaxY() - box.getMinY()));
+    }
+
+    private static double getPerimeter(PBoundingBox box1, PBoundingBox box2) {
+        double width = Math.max(box1.getMaxX(), box2.getMaxX()) - Math.min(box1.getMinX(), box2.getMinX());
+        double height = Math.max(box1.getMaxY(), box2.getMaxY()) - Math.min(box1.getMinY(), box2.getMinY());
+        return 2 * (width + height);
+    }
+}
@@ -0,0 +1,155 @@
+package com.javaphysicsengine.api.broadphase;
+
+/**
+ * A growable list of pairs of body indices that is meant to be reused across time steps.
+ *
+ * Each pair is packed into a single long, with the lower body index in the upper 32 bits, so that the
+ * pairs can be sorted and have their duplicates removed without allocating any objects.
+ */
+public class PPairBuffer {
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private long[] pairs;
+    private int size = 0;
+
+    /**
+     * Creates an empty buffer
+     */
+    public PPairBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty buffer
+     * Pre-condition: "capacity" must be greater than 0
+     * @param capacity The number of pairs the buffer can hold before it needs to grow
+     */
+    public PPairBuffer(int capacity) {
+        this.pairs = new long[capacity];
+    }
+
+    /**
+     * Adds a pair of body indices to the buffer
+     * Pre-condition: "bodyIndex1" and "bodyIndex2" must be at least 0 and must not be equal
+     * @param bodyIndex1 The index of one body
+     * @param bodyIndex2 The index of the other body
+     */
+    public void add(int bodyIndex1, int bodyIndex2) {
+        if (size == pairs.length) {
+            long[] newPairs = new long[2 * pairs.length];
+            System.arraycopy(pairs, 0, newPairs, 0, size);
+            pairs = newPairs;
+        }
+
+        int lowerIndex = Math.min(bodyIndex1, bodyIndex2);
+        int upperIndex = Math.max(bodyIndex1, bodyIndex2);
+        pairs[size++] = ((long) lowerIndex << 32) | upperIndex;
+    }
+
+    /**
+     * Removes all of the pairs, keeping the buffer's capacity
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the number of pairs in the buffer
+     * @return The number of pairs in the buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the lower body index of a pair
+     * Pre-condition: "pairIndex" must be between 0 and size() - 1
+     * @param pairIndex The index of the pair
+     * @return The lower body index of the pair
+     */
+    public int getBodyIndex1(int pairIndex) {
+        return (int) (pairs[pairIndex] >>> 32);
+    }
+
+    /**
+     * Returns the upper body index of a pair
+     * Pre-condition: "pairIndex" must be between 0 and size() - 1
+     * @param pairIndex The index of the pair
+     * @return The upper body index of the pair
+     */
+    public int getBodyIndex2(int pairIndex) {
+        return (int) pairs[pairIndex];
+    }
+
+    /**
+     * Sorts the pairs by their lower and then upper body index, and removes the pairs that appear more than once
+     */
+    public void sortAndRemoveDuplicates() {
+        sort(0, size - 1);
+
+        int numUniquePairs = 0;
+        for (int i = 0; i < size; i++) {
+            if (numUniquePairs == 0 || pairs[numUniquePairs - 1] != pairs[i]) {
+                pairs[numUniquePairs++] = pairs[i];
+            }
+        }
+        size = numUniquePairs;
+    }
+
+    /**
+     * Sorts a range of the pairs in place with a quick sort.
+     * Recursing on the smaller half keeps the stack depth logarithmic
+     * @param low The first index of the range
+     * @param high The last index of the range
+     */
+    private void sort(int low, int high) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            long pivot = getMedian(pairs[low], pairs[(low + high) >>> 1], pairs[high]);
+
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (pairs[i] < pivot) {
+                    i++;
+                }
+                while (pairs[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    long temp = pairs[i];
+                    pairs[i] = pairs[j];
+                    pairs[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+
+        // Insertion sort is faster on small ranges
+        for (int i = low + 1; i <= high; i++) {
+            long pair = pairs[i];
+            int j = i - 1;
+            while (j >= low && pairs[j] > pair) {
+                pairs[j + 1] = pairs[j];
+                j--;
+            }
+            pairs[j + 1] = pair;
+        }
+    }
+
+    private static long getMedian(long a, long b, long c) {
+        if (a < b) {
+            return b < c ? b : Math.max(a, c);
+        }
+        return a < c ? a : Math.max(b, c);
+    }
+}
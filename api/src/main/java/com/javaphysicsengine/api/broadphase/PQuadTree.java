@@ -0,0 +1,450 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PBoundingBox;
+import org.javatuples.Pair;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PQuadTree implements PBroadphase {
+    private static final int MAX_DEPTH = 5;
+    private static final int MAX_LEAF_SIZE = 8;
+    private static final double DEFAULT_MARGIN = 2;
+
+    private PQuadTreeNode node;
+
+    // The bodies stored in the tree (only used when the tree is kept across time steps)
+    private final Map<PBody, PQuadTreeProxy> proxies = new IdentityHashMap<>();
+
+    // The proxy of each body, in the order of the list given to update()
+    private PQuadTreeProxy[] proxiesByIndex = new PQuadTreeProxy[0];
+    private int numProxies = 0;
+    private final double margin;
+    private int nextProxyId = 0;
+    private int curStamp = 0;
+
+    /**
+     * A body stored in the tree, along with the (fattened) bounding box it was inserted with
+     */
+    private static class PQuadTreeProxy {
+        final PBody body;
+        final int id;
+        final List<PQuadTreeNode> leaves = new ArrayList<>(4);
+        PBoundingBox fatBox;
+        int stamp;
+
+        // The index of the body in the list given to update()
+        int bodyIndex;
+
+        PQuadTreeProxy(PBody body, int id, PBoundingBox fatBox) {
+            this.body = body;
+            this.id = id;
+            this.fatBox = fatBox;
+        }
+    }
+
+    private class PQuadTreeNode {
+        PQuadTreeNode topLeft;
+        PQuadTreeNode topRight;
+        PQuadTreeNode bottomLeft;
+        PQuadTreeNode bottomRight;
+
+        List<PQuadTreeProxy> proxies;
+
+        double midX;
+        double midY;
+        int depth;
+
+        public PQuadTreeNode(PQuadTreeNode topLeft,
+                             PQuadTreeNode topRight,
+                             PQuadTreeNode bottomLeft,
+                             PQuadTreeNode bottomRight,
+                             PBoundingBox box,
+                             int depth) {
+            this.topLeft = topLeft;
+            this.topRight = topRight;
+            this.bottomLeft = bottomLeft;
+            this.bottomRight = bottomRight;
+
+            this.proxies = null;
+
+            this.midX = (box.getMaxX() + box.getMinX()) / 2;
+            this.midY = (box.getMaxY() + box.getMinY()) / 2;
+            this.depth = depth;
+        }
+
+        public PQuadTreeNode(List<PQuadTreeProxy> proxies, int depth) {
+            this.topLeft = null;
+            this.topRight = null;
+            this.bottomLeft = null;
+            this.bottomRight = null;
+
+            this.proxies = proxies;
+            this.depth = depth;
+
+            for (PQuadTreeProxy proxy : proxies) {
+                proxy.leaves.add(this);
+            }
+        }
+
+        public boolean isLeaf() {
+            return this.proxies != null;
+        }
+    }
+
+    /**
+     * Creates an empty quad tree that is meant to live across time steps.
+     * Bodies are added, moved and removed from the tree through {@link #update(List)}
+     */
+    public PQuadTree() {
+        this(DEFAULT_MARGIN);
+    }
+
+    /**
+     * Creates an empty quad tree that is meant to live across time steps
+     * Pre-condition: "margin" must be at least 0
+     * @param margin The amount each body's bounding box is fattened by before it is stored in the tree.
+     *               A body is only re-inserted when its bounding box moves outside of its fattened box
+     */
+    public PQuadTree(double margin) {
+        this.margin = margin;
+        this.node = new PQuadTreeNode(new ArrayList<>(), 0);
+    }
+
+    /**
+     * Builds a quad tree from scratch over a list of bodies
+     * @param bodies The bodies to store in the tree
+     */
+    public PQuadTree(List<PBody> bodies) {
+        this.margin = 0;
+
+        List<PQuadTreeProxy> newProxies = new ArrayList<>(bodies.size());
+        for (int i = 0; i < bodies.size(); i++) {
+            PBody body = bodies.get(i);
+            PQuadTreeProxy proxy = new PQuadTreeProxy(body, nextProxyId++, getFattenedBox(body.getSweptBoundingBox()));
+            proxy.bodyIndex = i;
+            proxies.put(body, proxy);
+            newProxies.add(proxy);
+        }
+        this.node = buildTree(newProxies, 0);
+    }
+
+    /**
+     * Updates the tree so that it contains exactly the bodies in the list.
+     * New bodies are inserted, bodies no longer in the list are removed, and bodies
+     * whose bounding box has left their fattened box are re-inserted. All other bodies are left untouched.
+     * @param bodies The bodies that should be in the tree
+     */
+    @Override
+    public void update(List<PBody> bodies) {
+        curStamp++;
+
+        // Let go of the bodies that were removed
+        for (int i = bodies.size(); i < numProxies; i++) {
+            proxiesByIndex[i] = null;
+        }
+        numProxies = bodies.size();
+        if (proxiesByIndex.length < numProxies) {
+            proxiesByIndex = new PQuadTreeProxy[Math.max(numProxies, 2 * proxiesByIndex.length)];
+        }
+
+        List<PQuadTreeProxy> addedProxies = new ArrayList<>();
+        for (int i = 0; i < bodies.size(); i++) {
+            PBody body = bodies.get(i);
+            PQuadTreeProxy proxy = proxies.get(body);
+
+            if (proxy == null) {
+                proxy = new PQuadTreeProxy(body, nextProxyId++, getFattenedBox(body.getSweptBoundingBox()));
+                proxies.put(body, proxy);
+                addedProxies.add(proxy);
+
+            } else if (body.isAwake()) {
+                reinsertIfMoved(proxy);
+            }
+
+            proxy.stamp = curStamp;
+            proxy.bodyIndex = i;
+            proxiesByIndex[i] = proxy;
+        }
+
+        // Remove the bodies that are no longer in the list
+        if (proxies.size() != bodies.size()) {
+            Iterator<PQuadTreeProxy> iterator = proxies.values().iterator();
+            while (iterator.hasNext()) {
+                PQuadTreeProxy proxy = iterator.next();
+                if (proxy.stamp != curStamp) {
+                    removeProxy(proxy);
+                    iterator.remove();
+                }
+            }
+        }
+
+        // When the tree starts off empty it is cheaper (and gives better splits) to build it top-down
+        boolean isTreeEmpty = proxies.size() == addedProxies.size();
+        if (isTreeEmpty && !addedProxies.isEmpty()) {
+            this.node = buildTree(addedProxies, 0);
+        } else {
+            for (PQuadTreeProxy proxy : addedProxies) {
+                insertProxy(this.node, proxy);
+            }
+        }
+    }
+
+    /**
+     * Re-inserts the bodies that could have moved and left their fattened box, without looking up the other bodies
+     * @param bodies The bodies that should be in the tree
+     * @param movedIndices The indices of the bodies that could have moved
+     * @param numMovedBodies The number of bodies that could have moved
+     */
+    @Override
+    public void update(List<PBody> bodies, int[] movedIndices, int numMovedBodies) {
+        for (int i = 0; i < numMovedBodies; i++) {
+            reinsertIfMoved(proxiesByIndex[movedIndices[i]]);
+        }
+    }
+
+    /**
+     * Re-inserts a proxy if its body's bounding box left the proxy's fattened box
+     * @param proxy The proxy
+     */
+    private void reinsertIfMoved(PQuadTreeProxy proxy) {
+        if (isContainedIn(proxy.body.getSweptBoundingBox(), proxy.fatBox)) {
+            return;
+        }
+
+        removeProxy(proxy);
+        proxy.fatBox = getFattenedBox(proxy.body.getSweptBoundingBox());
+        insertProxy(this.node, proxy);
+    }
+
+    private PQuadTreeNode buildTree(List<PQuadTreeProxy> proxies, int curDepth) {
+        if (proxies.size() == 0 || curDepth >= MAX_DEPTH) {
+            return new PQuadTreeNode(proxies, curDepth);
+
+        } else {
+
+            // Get the bounding box that wraps around all the objects
+            PBoundingBox box = proxies.get(0).fatBox;
+            for (int i = 1; i < proxies.size(); i++) {
+                box = extendBox(box, proxies.get(i).fatBox);
+            }
+
+            // Divide the objects into 1/2 by the dimension with the largest variance
+            List<PQuadTreeProxy> topleftProxies = new ArrayList<>();
+            List<PQuadTreeProxy> toprightProxies = new ArrayList<>();
+            List<PQuadTreeProxy> bottomleftProxies = new ArrayList<>();
+            List<PQuadTreeProxy> bottomrightProxies = new ArrayList<>();
+
+            double midXRange = (box.getMaxX() + box.getMinX()) / 2;
+            double midYRange = (box.getMaxY() + box.getMinY()) / 2;
+            for (PQuadTreeProxy proxy : proxies) {
+                PBoundingBox bodyBox = proxy.fatBox;
+
+                if (bodyBox.getMinX() < midXRange && bodyBox.getMinY() < midYRange) {
+                    bottomleftProxies.add(proxy);
+                }
+
+                if (bodyBox.getMinX() < midXRange && bodyBox.getMaxY() >= midYRange) {
+                    topleftProxies.add(proxy);
+                }
+
+                if (bodyBox.getMaxX() >= midXRange && bodyBox.getMinY() < midYRange) {
+                    bottomrightProxies.add(proxy);
+                }
+
+                if (bodyBox.getMaxX() >= midXRange && bodyBox.getMaxY() >= midYRange) {
+                    toprightProxies.add(proxy);
+                }
+            }
+
+            boolean shouldDivideBox = topleftProxies.size() < proxies.size() ||
+                    toprightProxies.size() < proxies.size() ||
+                    bottomleftProxies.size() < proxies.size() ||
+                    bottomrightProxies.size() < proxies.size();
+
+            if (shouldDivideBox) {
+                PQuadTreeNode topleftTree = buildTree(topleftProxies, curDepth + 1);
+                PQuadTreeNode toprightTree = buildTree(toprightProxies, curDepth + 1);
+                PQuadTreeNode bottomleftTree = buildTree(bottomleftProxies, curDepth + 1);
+                PQuadTreeNode bottomrightTree = buildTree(bottomrightProxies, curDepth + 1);
+
+                return new PQuadTreeNode(
+                        topleftTree, toprightTree, bottomleftTree, bottomrightTree, box, curDepth
+                );
+            } else {
+                return new PQuadTreeNode(proxies, curDepth);
+            }
+        }
+    }
+
+    /**
+     * Inserts a proxy into every leaf under a node that its fattened box overlaps.
+     * Leaves that become too full are subdivided.
+     * @param curNode The node to insert the proxy under
+     * @param proxy The proxy to insert
+     */
+    private void insertProxy(PQuadTreeNode curNode, PQuadTreeProxy proxy) {
+        if (curNode.isLeaf()) {
+            curNode.proxies.add(proxy);
+            proxy.leaves.add(curNode);
+
+            if (curNode.proxies.size() > MAX_LEAF_SIZE && curNode.depth < MAX_DEPTH) {
+                splitLeaf(curNode);
+            }
+            return;
+        }
+
+        PBoundingBox box = proxy.fatBox;
+        if (box.getMinX() < curNode.midX && box.getMinY() < curNode.midY) {
+            insertProxy(curNode.bottomLeft, proxy);
+        }
+
+        if (box.getMinX() < curNode.midX && box.getMaxY() >= curNode.midY) {
+            insertProxy(curNode.topLeft, proxy);
+        }
+
+        if (box.getMaxX() >= curNode.midX && box.getMinY() < curNode.midY) {
+            insertProxy(curNode.bottomRight, proxy);
+        }
+
+        if (box.getMaxX() >= curNode.midX && box.getMaxY() >= curNode.midY) {
+            insertProxy(curNode.topRight, proxy);
+        }
+    }
+
+    /**
+     * Turns a leaf into an inner node by rebuilding the sub-tree under it
+     * @param leaf The leaf to split
+     */
+    private void splitLeaf(PQuadTreeNode leaf) {
+        for (PQuadTreeProxy proxy : leaf.proxies) {
+            proxy.leaves.remove(leaf);
+        }
+
+        PQuadTreeNode subTree = buildTree(leaf.proxies, leaf.depth);
+        leaf.topLeft = subTree.topLeft;
+        leaf.topRight = subTree.topRight;
+        leaf.bottomLeft = subTree.bottomLeft;
+        leaf.bottomRight = subTree.bottomRight;
+        leaf.midX = subTree.midX;
+        leaf.midY = subTree.midY;
+        leaf.proxies = subTree.proxies;
+
+        // The sub-tree could not be divided, so the leaf registered with the proxies is the sub-tree's root
+        if (subTree.isLeaf()) {
+            for (PQuadTreeProxy proxy : subTree.proxies) {
+                proxy.leaves.remove(subTree);
+                proxy.leaves.add(leaf);
+            }
+        }
+    }
+
+    /**
+     * Removes a proxy from all the leaves it is stored in
+     * @param proxy The proxy to remove
+     */
+    private void removeProxy(PQuadTreeProxy proxy) {
+        for (PQuadTreeNode leaf : proxy.leaves) {
+            leaf.proxies.remove(proxy);
+        }
+        proxy.leaves.clear();
+    }
+
+    private PBoundingBox getFattenedBox(PBoundingBox box) {
+        return new PBoundingBox(
+                box.getMinX() - margin,
+                box.getMaxX() + margin,
+                box.getMinY() - margin,
+                box.getMaxY() + margin
+        );
+    }
+
+    private boolean isContainedIn(PBoundingBox innerBox, PBoundingBox outerBox) {
+        return outerBox.getMinX() <= innerBox.getMinX() && innerBox.getMaxX() <= outerBox.getMaxX() &&
+                outerBox.getMinY() <= innerBox.getMinY() && innerBox.getMaxY() <= outerBox.getMaxY();
+    }
+
+    private PBoundingBox extendBox(PBoundingBox box1, PBoundingBox box2) {
+        return new PBoundingBox(
+                Math.min(box1.getMinX(), box2.getMinX()),
+                Math.max(box1.getMaxX(), box2.getMaxX()),
+                Math.min(box1.getMinY(), box2.getMinY()),
+                Math.max(box1.getMaxY(), box2.getMaxY())
+        );
+    }
+
+    /**
+     * Returns the pairs of bodies that share a leaf in the tree.
+     * Each pair is returned once, with the body that was added to the tree first as the first value
+     * @return The pairs of bodies that could be intersecting
+     */
+    @Override
+    public Set<Pair<PBody, PBody>> getPotentialIntersectingBodies() {
+        Set<Pair<PBody, PBody>> lst = new LinkedHashSet<>();
+        getPotentialIntersectingBodies(this.node, lst);
+
+        return lst;
+    }
+
+    private void getPotentialIntersectingBodies(PQuadTreeNode curNode, Set<Pair<PBody, PBody>> curPairs) {
+        if (curNode.isLeaf()) {
+            for (int i = 0; i < curNode.proxies.size(); i++) {
+                PQuadTreeProxy proxy1 = curNode.proxies.get(i);
+
+                for (int j = i + 1; j < curNode.proxies.size(); j++) {
+                    PQuadTreeProxy proxy2 = curNode.proxies.get(j);
+
+                    if (proxy1.id < proxy2.id) {
+                        curPairs.add(new Pair<>(proxy1.body, proxy2.body));
+                    } else {
+                        curPairs.add(new Pair<>(proxy2.body, proxy1.body));
+                    }
+                }
+            }
+
+            return;
+        }
+
+        getPotentialIntersectingBodies(curNode.topLeft, curPairs);
+        getPotentialIntersectingBodies(curNode.topRight, curPairs);
+        getPotentialIntersectingBodies(curNode.bottomLeft, curPairs);
+        getPotentialIntersectingBodies(curNode.bottomRight, curPairs);
+    }
+
+    /**
+     * Replaces the contents of a buffer with the indices of the bodies that share a leaf in the tree.
+     * Bodies can share more than one leaf, so the duplicate pairs are removed by sorting the buffer
+     * @param pairs The buffer to fill
+     */
+    @Override
+    public void getPotentialIntersectingPairs(PPairBuffer pairs) {
+        pairs.clear();
+        getPotentialIntersectingPairs(this.node, pairs);
+        pairs.sortAndRemoveDuplicates();
+    }
+
+    private void getPotentialIntersectingPairs(PQuadTreeNode curNode, PPairBuffer pairs) {
+        if (curNode.isLeaf()) {
+            for (int i = 0; i < curNode.proxies.size(); i++) {
+                int bodyIndex1 = curNode.proxies.get(i).bodyIndex;
+
+                for (int j = i + 1; j < curNode.proxies.size(); j++) {
+                    pairs.add(bodyIndex1, curNode.proxies.get(j).bodyIndex);
+                }
+            }
+
+            return;
+        }
+
+        getPotentialIntersectingPairs(curNode.topLeft, pairs);
+        getPotentialIntersectingPairs(curNode.topRight, pairs);
+        getPotentialIntersectingPairs(curNode.bottomLeft, pairs);
+        getPotentialIntersectingPairs(curNode.bottomRight, pairs);
+    }
+}
@@ -0,0 +1,269 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PBoundingBox;
+import org.javatuples.Pair;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A uniform grid of square cells, hashed into a fixed number of buckets.
+ *
+ * It works best when the bodies are of similar size and the cell size is close to the size of a body,
+ * such as in scenes with many small particles. All of its state is kept in primitive arrays that are
+ * reused across time steps, and the pairs are stored as body indices rather than as {@link Pair} objects.
+ */
+public class PSpatialHashGrid implements PBroadphase {
+    private static final double DEFAULT_CELL_SIZE = 50;
+    private static final int MIN_NUM_BUCKETS = 16;
+
+    private final double cellSize;
+
+    // The bodies and their bounding boxes, in the order of the list given to update()
+    private PBody[] bodies = new PBody[0];
+    private int numBodies = 0;
+    private double[] minXs = new double[0];
+    private double[] maxXs = new double[0];
+    private double[] minYs = new double[0];
+    private double[] maxYs = new double[0];
+
+    // The range of cells each body covers
+    private int[] minCellXs = new int[0];
+    private int[] maxCellXs = new int[0];
+    private int[] minCellYs = new int[0];
+    private int[] maxCellYs = new int[0];
+
+    // The (body, cell) entries, sorted by bucket. The entries of bucket i are in [bucketStarts[i], bucketStarts[i + 1])
+    private int[] bucketStarts = new int[0];
+    private int[] entryBodies = new int[0];
+    private int[] entryCellXs = new int[0];
+    private int[] entryCellYs = new int[0];
+    private int numBuckets = 0;
+    private int numEntries = 0;
+
+    // The pairs of body indices, with pair i at [2 * i] and [2 * i + 1]
+    private int[] pairIndices = new int[0];
+    private int numPairs = 0;
+
+    // Only created when the pairs are asked for as a set
+    private Set<Pair<PBody, PBody>> pairs = null;
+
+    /**
+     * Creates an empty grid with the default cell size
+     */
+    public PSpatialHashGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Creates an empty grid
+     * Pre-condition: "cellSize" must be greater than 0, and should be close to the size of a typical body
+     * @param cellSize The width and height of a cell
+     */
+    public PSpatialHashGrid(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Re-buckets all of the bodies and finds the pairs of bodies whose bounding boxes overlap
+     * @param bodies The bodies in the world
+     */
+    @Override
+    public void update(List<PBody> bodies) {
+        // Let go of the bodies that were removed
+        for (int i = bodies.size(); i < numBodies; i++) {
+            this.bodies[i] = null;
+        }
+
+        numBodies = bodies.size();
+        ensureBodyCapacity(numBodies);
+
+        // Compute the range of cells each body covers
+        numEntries = 0;
+        for (int i = 0; i < numBodies; i++) {
+            PBody body = bodies.get(i);
+
+            // Sleeping bodies do not move, so the cells they covered last time are still up to date
+            if (this.bodies[i] != body || body.isAwake()) {
+                PBoundingBox box = body.getSweptBoundingBox();
+
+                this.bodies[i] = body;
+                minXs[i] = box.getMinX();
+                maxXs[i] = box.getMaxX();
+                minYs[i] = box.getMinY();
+                maxYs[i] = box.getMaxY();
+
+                minCellXs[i] = (int) Math.floor(minXs[i] / cellSize);
+                maxCellXs[i] = (int) Math.floor(maxXs[i] / cellSize);
+                minCellYs[i] = (int) Math.floor(minYs[i] / cellSize);
+                maxCellYs[i] = (int) Math.floor(maxYs[i] / cellSize);
+            }
+
+            numEntries += (maxCellXs[i] - minCellXs[i] + 1) * (maxCellYs[i] - minCellYs[i] + 1);
+        }
+
+        bucketEntries();
+        findPairs();
+
+        pairs = null;
+    }
+
+    /**
+     * Returns the pairs of bodies whose bounding boxes overlap.
+     * The set is created from the pairs found in the last call to {@link #update(List)}, so
+     * {@link #getPotentialIntersectingPairs(PPairBuffer)} should be used instead when allocations matter
+     * @return The pairs of bodies that could be intersecting
+     */
+    @Override
+    public Set<Pair<PBody, PBody>> getPotentialIntersectingBodies() {
+        if (pairs == null) {
+            Set<Pair<PBody, PBody>> newPairs = new LinkedHashSet<>();
+            for (int i = 0; i < numPairs; i++) {
+                newPairs.add(new Pair<>(bodies[pairIndices[2 * i]], bodies[pairIndices[2 * i + 1]]));
+            }
+            pairs = Collections.unmodifiableSet(newPairs);
+        }
+        return pairs;
+    }
+
+    /**
+     * Replaces the contents of a buffer with the indices of the bodies whose bounding boxes overlap
+     * @param pairs The buffer to fill
+     */
+    @Override
+    public void getPotentialIntersectingPairs(PPairBuffer pairs) {
+        pairs.clear();
+        for (int i = 0; i < numPairs; i++) {
+            pairs.add(pairIndices[2 * i], pairIndices[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Sorts the (body, cell) entries by bucket with a counting sort
+     */
+    private void bucketEntries() {
+        int newNumBuckets = MIN_NUM_BUCKETS;
+        while (newNumBuckets < 2 * numEntries) {
+            newNumBuckets *= 2;
+        }
+        numBuckets = newNumBuckets;
+
+        if (bucketStarts.length < numBuckets + 1) {
+            bucketStarts = new int[numBuckets + 1];
+        }
+        if (entryBodies.length < numEntries) {
+            int newCapacity = Math.max(numEntries, 2 * entryBodies.length);
+            entryBodies = new int[newCapacity];
+            entryCellXs = new int[newCapacity];
+            entryCellYs = new int[newCapacity];
+        }
+
+        // Count the number of entries in each bucket
+        for (int i = 0; i <= numBuckets; i++) {
+            bucketStarts[i] = 0;
+        }
+        for (int i = 0; i < numBodies; i++) {
+            for (int cellX = minCellXs[i]; cellX <= maxCellXs[i]; cellX++) {
+                for (int cellY = minCellYs[i]; cellY <= maxCellYs[i]; cellY++) {
+                    bucketStarts[getBucket(cellX, cellY)]++;
+                }
+            }
+        }
+
+        // Make each bucket start point to the end of its bucket
+        for (int i = 1; i <= numBuckets; i++) {
+            bucketStarts[i] += bucketStarts[i - 1];
+        }
+
+        // Fill the buckets from the back so that each bucket is sorted by body index, and each bucket start
+        // ends up pointing to the start of its bucket
+        for (int i = numBodies - 1; i >= 0; i--) {
+            for (int cellX = maxCellXs[i]; cellX >= minCellXs[i]; cellX--) {
+                for (int cellY = maxCellYs[i]; cellY >= minCellYs[i]; cellY--) {
+                    int entry = --bucketStarts[getBucket(cellX, cellY)];
+                    entryBodies[entry] = i;
+                    entryCellXs[entry] = cellX;
+                    entryCellYs[entry] = cellY;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the pairs of overlapping bodies in each cell.
+     * Two bodies can share many cells, so a pair is only added in the cell with the smallest coordinates
+     * that both bodies cover
+     */
+    private void findPairs() {
+        numPairs = 0;
+
+        for (int bucket = 0; bucket < numBuckets; bucket++) {
+            int bucketEnd = bucketStarts[bucket + 1];
+
+            for (int entry1 = bucketStarts[bucket]; entry1 < bucketEnd; entry1++) {
+                int body1 = entryBodies[entry1];
+                int cellX = entryCellXs[entry1];
+                int cellY = entryCellYs[entry1];
+
+                for (int entry2 = entry1 + 1; entry2 < bucketEnd; entry2++) {
+                    int body2 = entryBodies[entry2];
+
+                    // Different cells can be hashed into the same bucket
+                    if (entryCellXs[entry2] != cellX || entryCellYs[entry2] != cellY) {
+                        continue;
+                    }
+
+                    if (cellX != Math.max(minCellXs[body1], minCellXs[body2]) ||
+                            cellY != Math.max(minCellYs[body1], minCellYs[body2])) {
+                        continue;
+                    }
+
+                    if (doBoxesOverlap(body1, body2)) {
+                        addPair(body1, body2);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean doBoxesOverlap(int body1, int body2) {
+        return maxXs[body1] >= minXs[body2] && minXs[body1] <= maxXs[body2] &&
+                maxYs[body1] >= minYs[body2] && minYs[body1] <= maxYs[body2];
+    }
+
+    private void addPair(int body1, int body2) {
+        if (2 * numPairs + 2 > pairIndices.length) {
+            int[] newPairIndices = new int[Math.max(64, 2 * pairIndices.length)];
+            System.arraycopy(pairIndices, 0, newPairIndices, 0, 2 * numPairs);
+            pairIndices = newPairIndices;
+        }
+
+        pairIndices[2 * numPairs] = body1;
+        pairIndices[2 * numPairs + 1] = body2;
+        numPairs++;
+    }
+
+    private int getBucket(int cellX, int cellY) {
+        return ((cellX * 73856093) ^ (cellY * 19349663)) & (numBuckets - 1);
+    }
+
+    private void ensureBodyCapacity(int capacity) {
+        if (bodies.length >= capacity) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, 2 * bodies.length);
+        bodies = new PBody[newCapacity];
+        minXs = new double[newCapacity];
+        maxXs = new double[newCapacity];
+        minYs = new double[newCapacity];
+        maxYs = new double[newCapacity];
+        minCellXs = new int[newCapacity];
+        maxCellXs = new int[newCapacity];
+        minCellYs = new int[newCapacity];
+        maxCellYs = new int[newCapacity];
+    }
+}
@@ -0,0 +1,538 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PBoundingBox;
+import org.javatuples.Pair;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A sort-and-sweep broadphase.
+ *
+ * The min and max of every body's bounding box is kept as an endpoint in a sorted array for each axis.
+ * Since bodies barely move between time steps the arrays are almost sorted, so they are re-sorted with an
+ * insertion sort. Each time a min endpoint passes a max endpoint (or the other way around) two bodies start
+ * (or stop) overlapping on that axis, which is used to keep the set of overlapping pairs up to date.
+ * An update therefore costs O(n + number of swaps).
+ *
+ * The overlapping pairs are kept in an open addressing hash table of slot pairs packed into longs, and the
+ * scratch arrays are reused across time steps, so an update does not allocate any objects once the arrays are
+ * large enough.
+ */
+public class PSweepAndPrune implements PBroadphase {
+    private static final int X_AXIS = 0;
+    private static final int Y_AXIS = 1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long EMPTY_KEY = -1;
+
+    // The bodies, bounding boxes and ids of each proxy, indexed by the proxy's slot
+    private PBody[] slotBodies = new PBody[INITIAL_CAPACITY];
+    private int[] slotIds = new int[INITIAL_CAPACITY];
+    private int[] slotStamps = new int[INITIAL_CAPACITY];
+    private int[] slotBodyIndices = new int[INITIAL_CAPACITY];
+    private double[][] slotMins = new double[2][INITIAL_CAPACITY];
+    private double[][] slotMaxs = new double[2][INITIAL_CAPACITY];
+    private int numSlots = 0;
+
+    // Slots that were freed by removed bodies
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int numFreeSlots = 0;
+
+    // The sorted endpoints for each axis. An endpoint is stored as (slot << 1) | (1 if it is a max else 0)
+    private double[][] endpointValues = new double[2][2 * INITIAL_CAPACITY];
+    private int[][] endpoints = new int[2][2 * INITIAL_CAPACITY];
+    private int numEndpoints = 0;
+
+    // Reused by mergeSortAxis() and recomputePairs()
+    private double[] tmpValues = new double[2 * INITIAL_CAPACITY];
+    private int[] tmpEndpoints = new int[2 * INITIAL_CAPACITY];
+    private int[] activeSlots = new int[INITIAL_CAPACITY];
+
+    // The overlapping pairs, each stored as (lower slot << 32) | upper slot with linear probing.
+    // The table is kept at most half full
+    private long[] pairKeys = new long[4 * INITIAL_CAPACITY];
+    private long[] tmpPairKeys = new long[4 * INITIAL_CAPACITY];
+    private int numPairs = 0;
+
+    // Only created when the pairs are asked for as a set
+    private Set<Pair<PBody, PBody>> pairs = null;
+
+    private final Map<PBody, Integer> bodyToSlot = new IdentityHashMap<>();
+
+    // The slot of each body, in the order of the list given to update()
+    private int[] bodySlots = new int[INITIAL_CAPACITY];
+    private int nextProxyId = 0;
+    private int curStamp = 0;
+
+    /**
+     * Creates an empty broadphase
+     */
+    public PSweepAndPrune() {
+        Arrays.fill(pairKeys, EMPTY_KEY);
+    }
+
+    /**
+     * Updates the endpoint arrays and the overlapping pairs to match the bodies' current bounding boxes
+     * @param bodies The bodies in the world
+     */
+    @Override
+    public void update(List<PBody> bodies) {
+        curStamp++;
+
+        if (bodySlots.length < bodies.size()) {
+            bodySlots = new int[Math.max(bodies.size(), 2 * bodySlots.length)];
+        }
+
+        int numAddedBodies = 0;
+        for (int i = 0; i < bodies.size(); i++) {
+            PBody body = bodies.get(i);
+            Integer slot = bodyToSlot.get(body);
+            boolean isAdded = slot == null;
+            if (isAdded) {
+                slot = addProxy(body);
+                numAddedBodies++;
+            }
+
+            slotStamps[slot] = curStamp;
+            slotBodyIndices[slot] = i;
+            bodySlots[i] = slot;
+
+            // Sleeping bodies do not move, so their boxes are still up to date
+            if (!body.isAwake() && !isAdded) {
+                continue;
+            }
+
+            refreshSlotBox(slot, body);
+        }
+
+        if (bodyToSlot.size() != bodies.size()) {
+            removeStaleProxies();
+        }
+
+        refreshEndpointValues(X_AXIS);
+        refreshEndpointValues(Y_AXIS);
+
+        // Adding a lot of bodies at once would cause a lot of swaps, so it is cheaper to start over
+        boolean isMostlyNew = numAddedBodies > bodyToSlot.size() / 2;
+        if (isMostlyNew) {
+            mergeSortAxis(X_AXIS);
+            mergeSortAxis(Y_AXIS);
+            recomputePairs();
+        } else {
+            insertionSortAxis(X_AXIS);
+            insertionSortAxis(Y_AXIS);
+        }
+
+        pairs = null;
+    }
+
+    /**
+     * Updates the boxes of the bodies that could have moved, without looking up the other bodies.
+     * The endpoints are still re-sorted with a pass over each axis, but that pass only reads arrays
+     * @param bodies The bodies in the world
+     * @param movedIndices The indices of the bodies that could have moved
+     * @param numMovedBodies The number of bodies that could have moved
+     */
+    @Override
+    public void update(List<PBody> bodies, int[] movedIndices, int numMovedBodies) {
+        for (int i = 0; i < numMovedBodies; i++) {
+            refreshSlotBox(bodySlots[movedIndices[i]], bodies.get(movedIndices[i]));
+        }
+
+        refreshEndpointValues(X_AXIS);
+        refreshEndpointValues(Y_AXIS);
+        insertionSortAxis(X_AXIS);
+        insertionSortAxis(Y_AXIS);
+
+        pairs = null;
+    }
+
+    /**
+     * Returns the pairs of bodies whose bounding boxes overlap.
+     * The set is created from the pairs found in the last call to {@link #update(List)}, so
+     * {@link #getPotentialIntersectingPairs(PPairBuffer)} should be used instead when allocations matter
+     * @return The pairs of bodies whose bounding boxes overlap
+     */
+    @Override
+    public Set<Pair<PBody, PBody>> getPotentialIntersectingBodies() {
+        if (pairs == null) {
+            Set<Pair<PBody, PBody>> newPairs = new LinkedHashSet<>();
+            for (long key : pairKeys) {
+                if (key == EMPTY_KEY) {
+                    continue;
+                }
+
+                int slot1 = (int) (key >>> 32);
+                int slot2 = (int) key;
+                if (slotIds[slot1] < slotIds[slot2]) {
+                    newPairs.add(new Pair<>(slotBodies[slot1], slotBodies[slot2]));
+                } else {
+                    newPairs.add(new Pair<>(slotBodies[slot2], slotBodies[slot1]));
+                }
+            }
+            pairs = Collections.unmodifiableSet(newPairs);
+        }
+        return pairs;
+    }
+
+    /**
+     * Replaces the contents of a buffer with the indices of the bodies whose bounding boxes overlap.
+     * The buffer is sorted so that its order does not depend on the size of the hash table
+     * @param pairs The buffer to fill
+     */
+    @Override
+    public void getPotentialIntersectingPairs(PPairBuffer pairs) {
+        pairs.clear();
+        for (long key : pairKeys) {
+            if (key != EMPTY_KEY) {
+                pairs.add(slotBodyIndices[(int) (key >>> 32)], slotBodyIndices[(int) key]);
+            }
+        }
+        pairs.sortAndRemoveDuplicates();
+    }
+
+    /**
+     * Adds a new body, placing its endpoints at the end of each axis so that sorting moves them into place
+     * @param body The new body
+     * @return The slot of the new body
+     */
+    private int addProxy(PBody body) {
+        int slot;
+        if (numFreeSlots > 0) {
+            slot = freeSlots[--numFreeSlots];
+        } else {
+            ensureSlotCapacity(numSlots + 1);
+            slot = numSlots++;
+        }
+
+        slotBodies[slot] = body;
+        slotIds[slot] = nextProxyId++;
+        bodyToSlot.put(body, slot);
+
+        ensureEndpointCapacity(numEndpoints + 2);
+        for (int axis = 0; axis < 2; axis++) {
+            endpoints[axis][numEndpoints] = slot << 1;
+            endpoints[axis][numEndpoints + 1] = (slot << 1) | 1;
+        }
+        numEndpoints += 2;
+
+        return slot;
+    }
+
+    /**
+     * Removes the bodies that were not in the last list of bodies, along with their endpoints and pairs
+     */
+    private void removeStaleProxies() {
+        Iterator<Integer> iterator = bodyToSlot.values().iterator();
+        while (iterator.hasNext()) {
+            int slot = iterator.next();
+            if (slotStamps[slot] != curStamp) {
+                slotBodies[slot] = null;
+                freeSlots[numFreeSlots++] = slot;
+                iterator.remove();
+            }
+        }
+
+        // Remove their endpoints
+        int numKept = 0;
+        for (int axis = 0; axis < 2; axis++) {
+            numKept = 0;
+            for (int i = 0; i < numEndpoints; i++) {
+                if (slotBodies[endpoints[axis][i] >> 1] != null) {
+                    endpoints[axis][numKept] = endpoints[axis][i];
+                    endpointValues[axis][numKept] = endpointValues[axis][i];
+                    numKept++;
+                }
+            }
+        }
+        numEndpoints = numKept;
+
+        // Remove their pairs
+        rehashPairs(pairKeys.length, true);
+    }
+
+    private void refreshSlotBox(int slot, PBody body) {
+        PBoundingBox box = body.getSweptBoundingBox();
+        slotMins[X_AXIS][slot] = box.getMinX();
+        slotMaxs[X_AXIS][slot] = box.getMaxX();
+        slotMins[Y_AXIS][slot] = box.getMinY();
+        slotMaxs[Y_AXIS][slot] = box.getMaxY();
+    }
+
+    private void refreshEndpointValues(int axis) {
+        double[] values = endpointValues[axis];
+        int[] axisEndpoints = endpoints[axis];
+        double[] mins = slotMins[axis];
+        double[] maxs = slotMaxs[axis];
+
+        for (int i = 0; i < numEndpoints; i++) {
+            int endpoint = axisEndpoints[i];
+            values[i] = (endpoint & 1) == 1 ? maxs[endpoint >> 1] : mins[endpoint >> 1];
+        }
+    }
+
+    /**
+     * Sorts the endpoints of an axis with an insertion sort, updating the pairs on every swap
+     * @param axis The axis to sort
+     */
+    private void insertionSortAxis(int axis) {
+        double[] values = endpointValues[axis];
+        int[] axisEndpoints = endpoints[axis];
+
+        for (int i = 1; i < numEndpoints; i++) {
+            double value = values[i];
+            int endpoint = axisEndpoints[i];
+            boolean isMax = (endpoint & 1) == 1;
+
+            int j = i - 1;
+            while (j >= 0 && isBefore(value, endpoint, values[j], axisEndpoints[j])) {
+                int otherEndpoint = axisEndpoints[j];
+                boolean isOtherMax = (otherEndpoint & 1) == 1;
+
+                if (!isMax && isOtherMax) {
+                    // A min moved below a max, so the two boxes may have started to overlap
+                    if (doSlotsOverlap(endpoint >> 1, otherEndpoint >> 1)) {
+                        addPair(endpoint >> 1, otherEndpoint >> 1);
+                    }
+                } else if (isMax && !isOtherMax) {
+                    // A max moved below a min, so the two boxes stopped overlapping
+                    removePair(endpoint >> 1, otherEndpoint >> 1);
+                }
+
+                values[j + 1] = values[j];
+                axisEndpoints[j + 1] = otherEndpoint;
+                j--;
+            }
+
+            values[j + 1] = value;
+            axisEndpoints[j + 1] = endpoint;
+        }
+    }
+
+    /**
+     * Sorts the endpoints of an axis from scratch without updating the pairs
+     * @param axis The axis to sort
+     */
+    private void mergeSortAxis(int axis) {
+        double[] values = endpointValues[axis];
+        int[] axisEndpoints = endpoints[axis];
+
+        for (int width = 1; width < numEndpoints; width *= 2) {
+            for (int left = 0; left < numEndpoints - width; left += 2 * width) {
+                int mid = left + width;
+                int right = Math.min(left + 2 * width, numEndpoints);
+
+                int i = left, j = mid, k = left;
+                while (i < mid && j < right) {
+                    if (isBefore(values[j], axisEndpoints[j], values[i], axisEndpoints[i])) {
+                        tmpValues[k] = values[j];
+                        tmpEndpoints[k++] = axisEndpoints[j++];
+                    } else {
+                        tmpValues[k] = values[i];
+                        tmpEndpoints[k++] = axisEndpoints[i++];
+                    }
+                }
+                while (i < mid) {
+                    tmpValues[k] = values[i];
+                    tmpEndpoints[k++] = axisEndpoints[i++];
+                }
+                while (j < right) {
+                    tmpValues[k] = values[j];
+                    tmpEndpoints[k++] = axisEndpoints[j++];
+                }
+
+                System.arraycopy(tmpValues, left, values, left, right - left);
+                System.arraycopy(tmpEndpoints, left, axisEndpoints, left, right - left);
+            }
+        }
+    }
+
+    /**
+     * Determines if an endpoint should be sorted before another endpoint.
+     * Mins are placed before maxes with the same value so that touching boxes count as overlapping
+     * @param value1 The value of the first endpoint
+     * @param endpoint1 The first endpoint
+     * @param value2 The value of the second endpoint
+     * @param endpoint2 The second endpoint
+     * @return {@code true} if the first endpoint should be before the second endpoint; else {@code false}
+     */
+    private static boolean isBefore(double value1, int endpoint1, double value2, int endpoint2) {
+        return value1 < value2 || (value1 == value2 && (endpoint1 & 1) == 0 && (endpoint2 & 1) == 1);
+    }
+
+    /**
+     * Recomputes all the pairs by sweeping along the x axis, which must already be sorted
+     */
+    private void recomputePairs() {
+        Arrays.fill(pairKeys, EMPTY_KEY);
+        numPairs = 0;
+
+        int numActiveSlots = 0;
+
+        for (int i = 0; i < numEndpoints; i++) {
+            int endpoint = endpoints[X_AXIS][i];
+            int slot = endpoint >> 1;
+
+            if ((endpoint & 1) == 0) {
+                for (int j = 0; j < numActiveSlots; j++) {
+                    if (doSlotsOverlapOnAxis(slot, activeSlots[j], Y_AXIS)) {
+                        addPair(slot, activeSlots[j]);
+                    }
+                }
+                activeSlots[numActiveSlots++] = slot;
+
+            } else {
+                for (int j = 0; j < numActiveSlots; j++) {
+                    if (activeSlots[j] == slot) {
+                        activeSlots[j] = activeSlots[--numActiveSlots];
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean doSlotsOverlap(int slot1, int slot2) {
+        return doSlotsOverlapOnAxis(slot1, slot2, X_AXIS) && doSlotsOverlapOnAxis(slot1, slot2, Y_AXIS);
+    }
+
+    private boolean doSlotsOverlapOnAxis(int slot1, int slot2, int axis) {
+        return slotMins[axis][slot1] <= slotMaxs[axis][slot2] && slotMins[axis][slot2] <= slotMaxs[axis][slot1];
+    }
+
+    private void addPair(int slot1, int slot2) {
+        long key = getPairKey(slot1, slot2);
+        int index = findPairIndex(key);
+        if (pairKeys[index] == key) {
+            return;
+        }
+
+        pairKeys[index] = key;
+        numPairs++;
+
+        if (2 * numPairs > pairKeys.length) {
+            rehashPairs(2 * pairKeys.length, false);
+        }
+    }
+
+    /**
+     * Removes a pair, shifting back the pairs after it so that no probe sequence is broken
+     * @param slot1 The slot of one body
+     * @param slot2 The slot of the other body
+     */
+    private void removePair(int slot1, int slot2) {
+        int index = findPairIndex(getPairKey(slot1, slot2));
+        if (pairKeys[index] == EMPTY_KEY) {
+            return;
+        }
+
+        int mask = pairKeys.length - 1;
+        int nextIndex = (index + 1) & mask;
+        while (pairKeys[nextIndex] != EMPTY_KEY) {
+            // A pair can only fill the gap if its home index is not between the gap and itself
+            int homeIndex = getHomeIndex(pairKeys[nextIndex]);
+            if (((nextIndex - homeIndex) & mask) >= ((nextIndex - index) & mask)) {
+                pairKeys[index] = pairKeys[nextIndex];
+                index = nextIndex;
+            }
+            nextIndex = (nextIndex + 1) & mask;
+        }
+
+        pairKeys[index] = EMPTY_KEY;
+        numPairs--;
+    }
+
+    /**
+     * Finds the index of a pair in the hash table, or the empty index where it would go
+     * @param key The pair
+     * @return The index
+     */
+    private int findPairIndex(long key) {
+        int mask = pairKeys.length - 1;
+        int index = getHomeIndex(key);
+
+        while (pairKeys[index] != EMPTY_KEY && pairKeys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private int getHomeIndex(long key) {
+        return (int) ((key ^ (key >>> 29)) * 0x9E3779B97F4A7C15L >>> 40) & (pairKeys.length - 1);
+    }
+
+    /**
+     * Re-inserts every pair into a hash table of a given capacity
+     * Pre-condition: "capacity" must be a power of 2 that is at least twice the number of pairs
+     * @param capacity The new capacity of the table
+     * @param isRemovingStalePairs {@code true} if the pairs of removed bodies should be dropped
+     */
+    private void rehashPairs(int capacity, boolean isRemovingStalePairs) {
+        int numOldPairs = 0;
+        if (tmpPairKeys.length < numPairs) {
+            tmpPairKeys = new long[capacity];
+        }
+        for (long key : pairKeys) {
+            if (key == EMPTY_KEY) {
+                continue;
+            }
+            if (isRemovingStalePairs && (slotBodies[(int) (key >>> 32)] == null || slotBodies[(int) key] == null)) {
+                continue;
+            }
+            tmpPairKeys[numOldPairs++] = key;
+        }
+
+        if (pairKeys.length != capacity) {
+            pairKeys = new long[capacity];
+        }
+        Arrays.fill(pairKeys, EMPTY_KEY);
+        numPairs = numOldPairs;
+
+        for (int i = 0; i < numOldPairs; i++) {
+            pairKeys[findPairIndex(tmpPairKeys[i])] = tmpPairKeys[i];
+        }
+    }
+
+    private static long getPairKey(int slot1, int slot2) {
+        return ((long) Math.min(slot1, slot2) << 32) | Math.max(slot1, slot2);
+    }
+
+    private void ensureSlotCapacity(int capacity) {
+        if (capacity <= slotBodies.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, slotBodies.length * 2);
+        slotBodies = Arrays.copyOf(slotBodies, newCapacity);
+        slotIds = Arrays.copyOf(slotIds, newCapacity);
+        slotStamps = Arrays.copyOf(slotStamps, newCapacity);
+        slotBodyIndices = Arrays.copyOf(slotBodyIndices, newCapacity);
+        freeSlots = Arrays.copyOf(freeSlots, newCapacity);
+        activeSlots = new int[newCapacity];
+        for (int axis = 0; axis < 2; axis++) {
+            slotMins[axis] = Arrays.copyOf(slotMins[axis], newCapacity);
+            slotMaxs[axis] = Arrays.copyOf(slotMaxs[axis], newCapacity);
+        }
+    }
+
+    private void ensureEndpointCapacity(int capacity) {
+        if (capacity <= endpoints[X_AXIS].length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, endpoints[X_AXIS].length * 2);
+        for (int axis = 0; axis < 2; axis++) {
+            endpoints[axis] = Arrays.copyOf(endpoints[axis], newCapacity);
+            endpointValues[axis] = Arrays.copyOf(endpointValues[axis], newCapacity);
+        }
+        tmpValues = new double[newCapacity];
+        tmpEndpoints = new int[newCapacity];
+    }
+}
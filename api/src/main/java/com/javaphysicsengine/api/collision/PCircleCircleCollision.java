@@ -8,6 +8,7 @@ package com.javaphysicsengine.api.collision;
 
 import com.javaphysicsengine.api.body.PCircle;
 import com.javaphysicsengine.utils.Vector;
+import com.javaphysicsengine.utils.VectorPool;
 
 public class PCircleCircleCollision {
 
@@ -18,6 +19,19 @@ public class PCircleCircleCollision {
      * @return A PCollisionResult
      */
     public static PCollisionResult doBodiesCollide(PCircle circle1, PCircle circle2) {
+        PCollisionResult result = new PCollisionResult();
+        doBodiesCollide(circle1, circle2, result);
+        return result;
+    }
+
+    /**
+     * Determines if two circles collide, without allocating
+     * @param circle1 the first circle
+     * @param circle2 the second circle
+     * @param result the result to reset and store the collision in
+     */
+    public static void doBodiesCollide(PCircle circle1, PCircle circle2, PCollisionResult result) {
+        result.reset();
 
 //        Vector vFrom1to2 = circle2.getCenterPt().minus(circle1.getCenterPt());
 //        double rSum = circle1.getRadius() + circle2.getRadius();
@@ -61,8 +75,12 @@ public class PCircleCircleCollision {
 //
 //        return new PCollisionResult(true, circle1Trans, circle2Trans, mtv, contactPt);
 
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
+
         // The distance between the two circles' center pts squared
-        double centerPtDistSqed = Vector.minus(circle1.getCenterPt(), circle2.getCenterPt()).norm1();
+        Vector circle2To1 = Vector.minus(circle1.getCenterPt(), circle2.getCenterPt(), pool.obtain());
+        double centerPtDistSqed = circle2To1.norm1();
 
         double radiusSum = circle1.getRadius() + circle2.getRadius();
 
@@ -73,26 +91,29 @@ public class PCircleCircleCollision {
             double mtd = radiusSum - Math.sqrt(centerPtDistSqed); //(circle1.getRadius() + circle2.getRadius()) - circle1.getCenterPt().minus(circle2.getCenterPt()).norm2();
 
             // Calculate the MTV:
-            Vector mtv = circle1.getCenterPt().minus(circle2.getCenterPt()).normalize().scale(mtd);
+            Vector mtv = Vector.normalize(circle2To1, pool.obtain()).scaleLocal(mtd);
 
             // Compute how much MTV each object gets
-            double f1 = circle1.isMoving() ? circle1.getVelocity().norm2() / (circle1.getVelocity().norm2() + circle2.getVelocity().norm2()) : 0;
-            double f2 = circle2.isMoving() ? circle2.getVelocity().norm2() / (circle1.getVelocity().norm2() + circle2.getVelocity().norm2()) : 0;
+            double speed1 = circle1.getVelocity().norm2();
+            double speed2 = circle2.getVelocity().norm2();
+            double f1 = PGjkEpaCollision.getShareOfMtv(circle1.isMoving(), speed1, circle2.isMoving(), speed2);
+            double f2 = PGjkEpaCollision.getShareOfMtv(circle2.isMoving(), speed2, circle1.isMoving(), speed1);
 
             // Get the translation vector
-            Vector circle1Trans = mtv.scale(f1);
-            Vector circle2Trans = mtv.scale(-1).scale(f2);
+            Vector circle1Trans = Vector.scale(mtv, f1, pool.obtain());
+            Vector circle2Trans = Vector.scale(mtv, -f2, pool.obtain());
 
             // Calculate the contact point
-            Vector contactPt = mtv.normalize().scale(-1 * circle1.getRadius()).add(circle1.getCenterPt());
-            contactPt = contactPt.add(circle1Trans);
+            Vector contactPt = Vector.normalize(mtv, pool.obtain()).scaleLocal(-1 * circle1.getRadius()).addLocal(circle1.getCenterPt());
+            contactPt.addLocal(circle1Trans);
 
-            if (mtv.dot(circle2.getCenterPt().minus(circle1.getCenterPt())) < 0) {
-                mtv = mtv.scale(-1);
+            if (mtv.dot(Vector.minus(circle2.getCenterPt(), circle1.getCenterPt(), circle2To1)) < 0) {
+                mtv.scaleLocal(-1);
             }
 
-            return new PCollisionResult(true, circle1Trans, circle2Trans, mtv, contactPt);
+            result.setCollision(circle1Trans, circle2Trans, mtv, contactPt);
         }
-        return new PCollisionResult(false, null, null, null, null);
+
+        pool.release(mark);
     }
 }
\ No newline at end of file
@@ -10,12 +10,11 @@ package com.javaphysicsengine.api.collision;
 import com.javaphysicsengine.api.body.PCircle;
 import com.javaphysicsengine.api.body.PPolygon;
 import com.javaphysicsengine.utils.Vector;
-
-import java.util.ArrayList;
+import com.javaphysicsengine.utils.VectorPool;
 
 public class PCirclePolyCollision extends PPolyPolyCollision {
-    private static double isRayHitCircle(Vector rayOrigin, Vector rayDir, Vector origin, double radius) {
-        Vector shiftedOrigin = rayOrigin.minus(origin);
+    private static double isRayHitCircle(Vector rayOrigin, Vector rayDir, Vector origin, double radius, Vector shiftedOrigin) {
+        Vector.minus(rayOrigin, origin, shiftedOrigin);
 
         // See where it hits the circle
         double a = rayDir.dot(rayDir);
@@ -64,69 +63,108 @@ public class PCirclePolyCollision extends PPolyPolyCollision {
      * @return Returns the results of the collision
      */
     public static PCollisionResult doBodiesCollide(PCircle circle, PPolygon poly) {
+        PCollisionResult result = new PCollisionResult();
+        doBodiesCollide(circle, poly, result);
+        return result;
+    }
+
+    /**
+     * Determines whether a circle and polygon is colliding, without allocating
+     * @param circle The circle
+     * @param poly The polygon
+     * @param result The result to reset and store the collision in
+     */
+    public static void doBodiesCollide(PCircle circle, PPolygon poly, PCollisionResult result) {
+        result.reset();
+
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
+
         // Saving the properties of the bodies to the global variables
         Vector circleCenterPt = circle.getCenterPt();
         double circleRadius = circle.getRadius();
-        ArrayList<Vector> polyVertices = poly.getVertices();
+        double[] polyVertices = poly.getWorldVertices();
+        double[] polyNormals = poly.getWorldNormals();
+        int numVertices = polyVertices.length / 2;
 
         double bestOverlapDistance = Double.MAX_VALUE;
-        Vector bestMtv = Vector.of(0, 0);
+        int bestEdge = 0;
+        Vector bestMtv = pool.obtain().set(0, 0);
+
+        Vector normal = pool.obtain();
+        Vector sidePt1 = pool.obtain();
+        Vector sidePt2 = pool.obtain();
+        Vector edgeDir1 = pool.obtain();
+        Vector edgeDir2 = pool.obtain();
+        Vector vectorProj = pool.obtain();
+        Vector temp = pool.obtain();
 
         // Going through all the sides in the polygon
-        for (int i = 0; i < polyVertices.size(); i++) {
+        for (int i = 0; i < numVertices; i++) {
 
             // The two points that make up an edge
-            Vector sidePt1 = polyVertices.get(i);
-            Vector sidePt2 = i + 1 < polyVertices.size() ? polyVertices.get(i + 1) : polyVertices.get(0);
+            int next = i + 1 < numVertices ? i + 1 : 0;
+            sidePt1.set(polyVertices[2 * i], polyVertices[2 * i + 1]);
+            sidePt2.set(polyVertices[2 * next], polyVertices[2 * next + 1]);
+
+            // The normal of the edge is cached by the polygon
+            normal.set(polyNormals[2 * i], polyNormals[2 * i + 1]);
+            if (normal.getX() == 0 && normal.getY() == 0) {
+                continue;
+            }
 
-            // Compute the normal of the edge
-            Vector normal = Vector.of(sidePt2.getY() - sidePt1.getY(), -1 * (sidePt2.getX() - sidePt1.getX())).normalize();
+            // Compute the two edge directions, which are the normal turned counter-clockwise and clockwise
+            edgeDir1.set(-normal.getY(), normal.getX());
+            edgeDir2.set(normal.getY(), -normal.getX());
 
             // Compute the length of the edge
-            double edgeLength = sidePt2.minus(sidePt1).norm2();
-
-            // Compute the two edge directions
-            Vector edgeDir1 = sidePt2.minus(sidePt1).normalize();
-            Vector edgeDir2 = sidePt1.minus(sidePt2).normalize();
+            double edgeLength = edgeDir1.dot(Vector.minus(sidePt2, sidePt1, temp));
 
-            double edgeDir1_t = isRayHitCircle(sidePt1, edgeDir1, circle.getCenterPt(), circle.getRadius());
-            double edgeDir2_t = isRayHitCircle(sidePt2, edgeDir2, circle.getCenterPt(), circle.getRadius());
+            double edgeDir1_t = isRayHitCircle(sidePt1, edgeDir1, circle.getCenterPt(), circle.getRadius(), temp);
+            double edgeDir2_t = isRayHitCircle(sidePt2, edgeDir2, circle.getCenterPt(), circle.getRadius(), temp);
             boolean isIntersect = (0 <= edgeDir1_t && edgeDir1_t <= edgeLength) ||
                     (0 <= edgeDir2_t && edgeDir2_t <= edgeLength);
 
             if (isIntersect) {
 
                 // Project the center of the circle to the edgeDir
-                double scalarProj = edgeDir1.dot(circleCenterPt.minus(sidePt1)) / edgeDir1.norm1();
-                Vector vectorProj = edgeDir1.scale(scalarProj).add(sidePt1);
+                double scalarProj = edgeDir1.dot(Vector.minus(circleCenterPt, sidePt1, temp)) / edgeDir1.norm1();
+                Vector.scale(edgeDir1, scalarProj, vectorProj).addLocal(sidePt1);
 
                 // Compute the mtd
-                double mtd = circleRadius - vectorProj.minus(circleCenterPt).norm2();
+                double mtd = circleRadius - Vector.minus(vectorProj, circleCenterPt, temp).norm2();
 
                 if (0 < mtd && mtd < bestOverlapDistance) {
                     bestOverlapDistance = mtd;
-                    bestMtv = normal.scale(mtd);
+                    bestEdge = i;
+                    Vector.scale(normal, mtd, bestMtv);
                 }
             }
         }
 
         if (bestMtv.norm1() > 0) {
-            double f1 = circle.isMoving() ? circle.getVelocity().norm1() / (circle.getVelocity().norm1() + poly.getVelocity().norm1()) : 0;
-            double f2 = poly.isMoving() ? poly.getVelocity().norm1() / (circle.getVelocity().norm1() + poly.getVelocity().norm1()) : 0;
+            double circleSpeed = circle.getVelocity().norm1();
+            double polySpeed = poly.getVelocity().norm1();
+            double f1 = PGjkEpaCollision.getShareOfMtv(circle.isMoving(), circleSpeed, poly.isMoving(), polySpeed);
+            double f2 = PGjkEpaCollision.getShareOfMtv(poly.isMoving(), polySpeed, circle.isMoving(), circleSpeed);
 
-            Vector bestCircleMtv = circle.isMoving() ? bestMtv.scale(f1) : Vector.of(0, 0);
-            Vector bestPolyMtv = poly.isMoving() ? bestMtv.scale(-1 * f2) : Vector.of(0, 0);
+            Vector bestCircleMtv = circle.isMoving() ? Vector.scale(bestMtv, f1, pool.obtain()) : pool.obtain().set(0, 0);
+            Vector bestPolyMtv = poly.isMoving() ? Vector.scale(bestMtv, -1 * f2, pool.obtain()) : pool.obtain().set(0, 0);
 
-            Vector contactPt = bestMtv.normalize().scale(-1 * circle.getRadius()).add(circle.getCenterPt());
-            contactPt = contactPt.add(bestCircleMtv);
+            Vector contactPt = Vector.normalize(bestMtv, pool.obtain()).scaleLocal(-1 * circle.getRadius()).addLocal(circle.getCenterPt());
+            contactPt.addLocal(bestCircleMtv);
 
-            if (bestMtv.dot(poly.getCenterPt().minus(circle.getCenterPt())) < 0) {
-                bestMtv = bestMtv.scale(-1);
+            Vector mtv = pool.obtain().set(bestMtv);
+            if (mtv.dot(Vector.minus(poly.getCenterPt(), circle.getCenterPt(), temp)) < 0) {
+                mtv.scaleLocal(-1);
             }
 
-            return new PCollisionResult(true, bestCircleMtv, bestPolyMtv, bestMtv, contactPt);
+            // The circle only touches the polygon at one point, which is identified by the edge it touches
+            result.setCollision(bestCircleMtv, bestPolyMtv, mtv, contactPt);
+            result.clearContactPts();
+            result.addContactPt(contactPt, bestOverlapDistance, bestEdge);
         }
 
-        return new PCollisionResult(false, null, null, null, null);
+        pool.release(mark);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,182 @@
+package com.javaphysicsengine.api.collision;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.body.PPolygon;
+
+/**
+ * Picks the collision test for a pair of bodies from a table indexed by the shape types of the two bodies.
+ *
+ * Each pair of shape types has one test, which is stored under the canonical order of the pair: the body with the
+ * lower shape type always comes first. Callers that put the bodies of a pair in that order get a result that
+ * already goes from the first body to the second, so it never has to be flipped.
+ *
+ * New shapes are added by registering a shape type, returning it from the body's getShapeType(), and registering
+ * a test against each shape type it can collide with. The existing shape classes do not need to change
+ */
+public class PCollisionDispatcher {
+
+    // The shape type of bodies that cannot collide
+    public static final int NO_SHAPE = -1;
+
+    public static final int CIRCLE_SHAPE = 0;
+    public static final int POLYGON_SHAPE = 1;
+
+    /**
+     * Tests two bodies for a collision
+     */
+    public interface PCollisionTest {
+
+        /**
+         * Tests two bodies for a collision
+         * Pre-condition: the shape type of "body1" must not be greater than the shape type of "body2"
+         * @param body1 The first body
+         * @param body2 The second body
+         * @param result The result to reset and store the collision in, with the mtv going from body1 to body2
+         */
+        void collide(PBody body1, PBody body2, PCollisionResult result);
+    }
+
+    private static int numShapeTypes = 2;
+
+    // The test of each pair of shape types, under [lower shape type][higher shape type]. The table is replaced
+    // rather than changed, so that it can be read on many threads without locking
+    private static volatile PCollisionTest[][] tests = new PCollisionTest[numShapeTypes][numShapeTypes];
+
+    static {
+        register(CIRCLE_SHAPE, CIRCLE_SHAPE, (body1, body2, result) ->
+                PCircleCircleCollision.doBodiesCollide((PCircle) body1, (PCircle) body2, result));
+
+        register(CIRCLE_SHAPE, POLYGON_SHAPE, (body1, body2, result) -> {
+            PCircle circle = (PCircle) body1;
+            PPolygon polygon = (PPolygon) body2;
+
+            if (!PBoxBoxCollision.doBodiesCollide(circle.getBoundingBox(), polygon.getBoundingBox())) {
+                result.reset();
+            } else if (polygon.isUsingGjk()) {
+                PGjkEpaCollision.doBodiesCollide(circle, polygon, result);
+            } else {
+                PCirclePolyCollision.doBodiesCollide(circle, polygon, result);
+            }
+        });
+
+        register(POLYGON_SHAPE, POLYGON_SHAPE, (body1, body2, result) -> {
+            PPolygon polygon1 = (PPolygon) body1;
+            PPolygon polygon2 = (PPolygon) body2;
+
+            if (!PBoxBoxCollision.doBodiesCollide(polygon1.getBoundingBox(), polygon2.getBoundingBox())) {
+                result.reset();
+            } else if (polygon1.isUsingGjk() || polygon2.isUsingGjk()) {
+                PGjkEpaCollision.doBodiesCollide(polygon1, polygon2, result);
+            } else {
+                PPolyPolyCollision.doBodiesCollide(polygon1, polygon2, result);
+            }
+        });
+    }
+
+    /**
+     * Makes a new shape type, which comes after all of the existing shape types in the canonical order
+     * @return The new shape type
+     */
+    public static synchronized int registerShapeType() {
+        int shapeType = numShapeTypes;
+        numShapeTypes++;
+
+        PCollisionTest[][] newTests = new PCollisionTest[numShapeTypes][numShapeTypes];
+        for (int i = 0; i < tests.length; i++) {
+            System.arraycopy(tests[i], 0, newTests[i], 0, tests[i].length);
+        }
+        tests = newTests;
+
+        return shapeType;
+    }
+
+    /**
+     * Sets the test of a pair of shape types, replacing the test that it had before
+     * Pre-condition: "test" must not be null
+     * @param shapeType1 The lower shape type of the pair
+     * @param shapeType2 The higher shape type of the pair
+     * @param test The test, which is given the body with "shapeType1" first
+     * @throws IllegalArgumentException if the shape types are not registered, or are not in canonical order
+     */
+    public static synchronized void register(int shapeType1, int shapeType2, PCollisionTest test) {
+        if (shapeType1 < 0 || shapeType2 >= numShapeTypes) {
+            throw new IllegalArgumentException("Shape type is not registered!");
+        }
+        if (shapeType1 > shapeType2) {
+            throw new IllegalArgumentException("Shape types must be in canonical order!");
+        }
+
+        PCollisionTest[][] newTests = new PCollisionTest[numShapeTypes][];
+        for (int i = 0; i < numShapeTypes; i++) {
+            newTests[i] = tests[i].clone();
+        }
+        newTests[shapeType1][shapeType2] = test;
+        tests = newTests;
+    }
+
+    /**
+     * Returns the test of a pair of shape types
+     * @param shapeType1 The lower shape type of the pair
+     * @param shapeType2 The higher shape type of the pair
+     * @return The test, or null if the shapes cannot collide or are not in canonical order
+     */
+    public static PCollisionTest getTest(int shapeType1, int shapeType2) {
+        PCollisionTest[][] tests = PCollisionDispatcher.tests;
+        if (shapeType1 < 0 || shapeType1 > shapeType2 || shapeType2 >= tests.length) {
+            return null;
+        }
+        return tests[shapeType1][shapeType2];
+    }
+
+    /**
+     * Determines if a pair of bodies is in canonical order, which is when the first body's shape type is not
+     * greater than the second body's
+     * @param body1 The first body
+     * @param body2 The second body
+     * @return {@code true} if the bodies are in canonical order; else {@code false}
+     */
+    public static boolean isInCanonicalOrder(PBody body1, PBody body2) {
+        return body1.getShapeType() <= body2.getShapeType();
+    }
+
+    /**
+     * Tests two bodies for a collision in any order. If they are not in canonical order, the result of the test
+     * is flipped so that it still goes from body1 to body2
+     * @param body1 The first body
+     * @param body2 The second body
+     * @return The result of the collision
+     * @throws IllegalArgumentException if the bodies cannot collide with each other
+     */
+    public static PCollisionResult collide(PBody body1, PBody body2) {
+        PCollisionResult result = new PCollisionResult();
+        collide(body1, body2, result);
+        return result;
+    }
+
+    /**
+     * Tests two bodies for a collision in any order, without allocating. If they are not in canonical order,
+     * the result of the test is flipped so that it still goes from body1 to body2
+     * @param body1 The first body
+     * @param body2 The second body
+     * @param result The result to reset and store the collision in
+     * @throws IllegalArgumentException if the bodies cannot collide with each other
+     */
+    public static void collide(PBody body1, PBody body2, PCollisionResult result) {
+        boolean isFlipped = !isInCanonicalOrder(body1, body2);
+        PCollisionTest test = isFlipped
+                ? getTest(body2.getShapeType(), body1.getShapeType())
+                : getTest(body1.getShapeType(), body2.getShapeType());
+
+        if (test == null) {
+            throw new IllegalArgumentException("Body cannot detect and handle collisions!");
+        }
+
+        if (!isFlipped) {
+            test.collide(body1, body2, result);
+        } else {
+            test.collide(body2, body1, result);
+            result.flip();
+        }
+    }
+}
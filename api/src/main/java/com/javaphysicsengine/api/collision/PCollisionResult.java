@@ -5,8 +5,24 @@ import com.javaphysicsengine.utils.Vector;
 /**
  * Stores the result of a collision
  * Note that the mtv must go in the direction of body1Mtv
+ *
+ * Besides the single contact point, a collision has a manifold of up to {@link #MAX_CONTACT_PTS} contact points.
+ * Each of them has how far the bodies go into each other there, and an ID of the features (edges and vertices)
+ * of the bodies that touch there, so that the same point can be found again in the next time step
+ *
+ * Collision tests that measure it also store the distance between the bodies, and the closest points
+ * on the bodies when they do not touch
+ *
+ * A speculative result is of bodies that do not touch yet, but that are close enough to touch within a time step.
+ * Its mtv is only the unit normal from body1 to body2, since the bodies do not go into each other, and the
+ * penetrations of its manifold are minus how far apart the bodies are there
+ *
+ * A result owns the vectors that it returns, and copies values into them, so that it can be reset and reused
+ * by the next collision test without allocating. Vectors returned by a result are only valid until it is reused
  */
 public class PCollisionResult {
+    public static final int MAX_CONTACT_PTS = 2;
+
     public void setHasCollided(boolean hasCollided) {
         this.hasCollided = hasCollided;
     }
@@ -28,11 +44,37 @@ public class PCollisionResult {
     }
 
     private boolean hasCollided;
+    private boolean isSpeculative;
     private Vector body1Mtv;
     private Vector body2Mtv;
     private Vector mtv;
     private Vector contactPt;
 
+    // The vectors that the fields above point to while they are set
+    private final Vector ownedBody1Mtv = new Vector(0, 0);
+    private final Vector ownedBody2Mtv = new Vector(0, 0);
+    private final Vector ownedMtv = new Vector(0, 0);
+    private final Vector ownedContactPt = new Vector(0, 0);
+    private final Vector ownedClosestPt1 = new Vector(0, 0);
+    private final Vector ownedClosestPt2 = new Vector(0, 0);
+
+    private int numContactPts = 0;
+    private final Vector[] contactPts = { new Vector(0, 0), new Vector(0, 0) };
+    private final double[] penetrations = new double[MAX_CONTACT_PTS];
+    private final int[] featureIds = new int[MAX_CONTACT_PTS];
+
+    // The distance between the bodies, which is negative when they go into each other
+    private double distance;
+    private Vector closestPt1;
+    private Vector closestPt2;
+
+    /**
+     * Constructs a PCollisionResult of bodies that have not collided, to be filled in by a collision test
+     */
+    public PCollisionResult() {
+        reset();
+    }
+
     /**
      * Constructs a PCollisionResult from the collision of body1 and body2
      *
@@ -44,11 +86,224 @@ public class PCollisionResult {
      * @param contactPt the point of contact body1 and body2 touched each other
      */
     public PCollisionResult(boolean hasCollided, Vector body1Mtv, Vector body2Mtv, Vector mtv, Vector contactPt) {
-        this.hasCollided = hasCollided;
-        this.body1Mtv = body1Mtv;
-        this.body2Mtv = body2Mtv;
-        this.mtv = mtv;
-        this.contactPt = contactPt;
+        reset();
+        if (hasCollided) {
+            setCollision(body1Mtv, body2Mtv, mtv, contactPt);
+        }
+    }
+
+    /**
+     * Turns the result back into the result of bodies that have not collided, with no manifold or distance
+     */
+    public void reset() {
+        hasCollided = false;
+        isSpeculative = false;
+        body1Mtv = null;
+        body2Mtv = null;
+        mtv = null;
+        contactPt = null;
+        numContactPts = 0;
+        distance = Double.POSITIVE_INFINITY;
+        closestPt1 = null;
+        closestPt2 = null;
+    }
+
+    /**
+     * Sets the result to a collision of body1 and body2. The values of the vectors are copied, so they can be
+     * scratch vectors. The manifold becomes the contact point, and the distance becomes minus the length of the mtv
+     * Pre-condition: "mtv" must not be null
+     * @param body1Mtv the amount to translate body1 by so that it is not touching body2, or null
+     * @param body2Mtv the amount to translate body2 by so that it is not touching body1, or null
+     * @param mtv the amount and direction to move body2 away from body1 so that they don't touch
+     * @param contactPt the point of contact body1 and body2 touched each other, or null
+     */
+    public void setCollision(Vector body1Mtv, Vector body2Mtv, Vector mtv, Vector contactPt) {
+        this.hasCollided = true;
+        this.isSpeculative = false;
+        this.body1Mtv = body1Mtv != null ? ownedBody1Mtv.set(body1Mtv) : null;
+        this.body2Mtv = body2Mtv != null ? ownedBody2Mtv.set(body2Mtv) : null;
+        this.mtv = ownedMtv.set(mtv);
+        this.contactPt = contactPt != null ? ownedContactPt.set(contactPt) : null;
+
+        // Until a manifold is found, the contact point is all that touches
+        clearContactPts();
+        if (contactPt != null) {
+            addContactPt(contactPt, mtv.norm2(), 0);
+        }
+
+        // How far apart the bodies are is only known when they go into each other
+        distance = -mtv.norm2();
+        closestPt1 = null;
+        closestPt2 = null;
+    }
+
+    /**
+     * Sets the result to bodies that do not touch yet, but that could touch within a time step. The mtv becomes the
+     * unit normal from body1 to body2, and the manifold becomes the point halfway between the closest points.
+     * The values of the vectors are copied
+     * Pre-condition: "distance" must be at least 0, and "normal" must have a length of 1
+     * @param distance The distance between the bodies
+     * @param normal The normal from body1 to body2
+     * @param closestPt1 The point on body1 that is the closest to body2
+     * @param closestPt2 The point on body2 that is the closest to body1
+     */
+    public void setSpeculativeContact(double distance, Vector normal, Vector closestPt1, Vector closestPt2) {
+        reset();
+        isSpeculative = true;
+
+        mtv = ownedMtv.set(normal);
+        contactPt = ownedContactPt.set((closestPt1.getX() + closestPt2.getX()) / 2, (closestPt1.getY() + closestPt2.getY()) / 2);
+        addContactPt(contactPt, -distance, 0);
+        setDistance(distance, closestPt1, closestPt2);
+    }
+
+    /**
+     * Determines if the result is of bodies that do not touch yet, but that could touch within a time step
+     * @return {@code true} if the result is speculative; else {@code false}
+     */
+    public boolean isSpeculative() {
+        return isSpeculative;
+    }
+
+    /**
+     * Sets how far apart the bodies are, and the points on each body that are the closest to the other body.
+     * The values of the points are copied
+     * @param distance The distance between the bodies, or minus how far they go into each other
+     * @param closestPt1 The point on body1 that is the closest to body2, or null if it is not known
+     * @param closestPt2 The point on body2 that is the closest to body1, or null if it is not known
+     */
+    public void setDistance(double distance, Vector closestPt1, Vector closestPt2) {
+        this.distance = distance;
+        this.closestPt1 = closestPt1 != null ? ownedClosestPt1.set(closestPt1) : null;
+        this.closestPt2 = closestPt2 != null ? ownedClosestPt2.set(closestPt2) : null;
+    }
+
+    /**
+     * Returns how far apart the bodies are
+     * @return The distance between the bodies, minus how far they go into each other if they have collided,
+     *         or Double.POSITIVE_INFINITY if the collision test did not measure it
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * Returns the point on body1 that is the closest to body2
+     * @return The closest point, or null if the collision test did not find it
+     */
+    public Vector getClosestPt1() {
+        return closestPt1;
+    }
+
+    /**
+     * Returns the point on body2 that is the closest to body1
+     * @return The closest point, or null if the collision test did not find it
+     */
+    public Vector getClosestPt2() {
+        return closestPt2;
+    }
+
+    /**
+     * Turns the result into the result of the same collision with body1 and body2 swapped.
+     * The manifold stays the same, since the bodies touch at the same points
+     */
+    void flip() {
+        Vector oldBody1Mtv = body1Mtv;
+        body1Mtv = body2Mtv;
+        body2Mtv = oldBody1Mtv;
+
+        if (mtv != null) {
+            mtv.scaleLocal(-1);
+        }
+
+        Vector oldClosestPt1 = closestPt1;
+        closestPt1 = closestPt2;
+        closestPt2 = oldClosestPt1;
+    }
+
+    /**
+     * Removes all of the points in the manifold
+     */
+    public void clearContactPts() {
+        numContactPts = 0;
+    }
+
+    /**
+     * Adds a point to the manifold. The value of the point is copied
+     * Pre-condition: there must be less than MAX_CONTACT_PTS points in the manifold
+     * @param contactPt The point where the bodies touch
+     * @param penetration How far the bodies go into each other at the point, along the mtv
+     * @param featureId The ID of the features of the bodies that touch at the point
+     */
+    public void addContactPt(Vector contactPt, double penetration, int featureId) {
+        addContactPt(contactPt.getX(), contactPt.getY(), penetration, featureId);
+    }
+
+    /**
+     * Adds a point to the manifold
+     * Pre-condition: there must be less than MAX_CONTACT_PTS points in the manifold
+     * @param x The x value of the point where the bodies touch
+     * @param y The y value of the point where the bodies touch
+     * @param penetration How far the bodies go into each other at the point, along the mtv
+     * @param featureId The ID of the features of the bodies that touch at the point
+     */
+    public void addContactPt(double x, double y, double penetration, int featureId) {
+        contactPts[numContactPts].setXY(x, y);
+        penetrations[numContactPts] = penetration;
+        featureIds[numContactPts] = featureId;
+        numContactPts++;
+    }
+
+    /**
+     * Replaces the points in the manifold with the points in another collision's manifold
+     * @param other The other collision
+     */
+    public void copyContactPts(PCollisionResult other) {
+        if (other == this) {
+            return;
+        }
+        clearContactPts();
+        for (int i = 0; i < other.numContactPts; i++) {
+            addContactPt(other.contactPts[i], other.penetrations[i], other.featureIds[i]);
+        }
+    }
+
+    /**
+     * Returns the number of points in the manifold
+     * @return The number of contact points
+     */
+    public int getNumContactPts() {
+        return numContactPts;
+    }
+
+    /**
+     * Returns a point in the manifold
+     * Pre-condition: "i" must be between 0 and getNumContactPts() - 1
+     * @param i The index of the point
+     * @return The contact point
+     */
+    public Vector getContactPt(int i) {
+        return contactPts[i];
+    }
+
+    /**
+     * Returns how far the bodies go into each other at a point in the manifold
+     * Pre-condition: "i" must be between 0 and getNumContactPts() - 1
+     * @param i The index of the point
+     * @return The penetration depth along the mtv
+     */
+    public double getPenetration(int i) {
+        return penetrations[i];
+    }
+
+    /**
+     * Returns the ID of the features that touch at a point in the manifold
+     * Pre-condition: "i" must be between 0 and getNumContactPts() - 1
+     * @param i The index of the point
+     * @return The feature ID
+     */
+    public int getFeatureId(int i) {
+        return featureIds[i];
     }
 
     public boolean isHasCollided() {
@@ -0,0 +1,645 @@
+package com.javaphysicsengine.api.collision;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.utils.Vector;
+import com.javaphysicsengine.utils.VectorPool;
+
+import java.util.Arrays;
+
+/**
+ * Detects collisions between convex bodies with GJK (Gilbert-Johnson-Keerthi) and EPA (Expanding Polytope Algorithm).
+ *
+ * Both algorithms work on the Minkowski difference of the two bodies (every point of body1 minus every point of
+ * body2), which contains the origin exactly when the bodies overlap. They only need the point of each body that
+ * is the farthest along a direction, so a polygon costs O(n) per step instead of the O(n * m) edge projections
+ * of SAT, and a pair that does not touch still gets the distance between its closest points.
+ *
+ * A body is treated as a core (the vertices of a polygon, or the center of a circle) grown by a radius:
+ *  GJK finds the distance between the cores. If it is more than the radii, the bodies are apart by the difference.
+ *  Otherwise, if the cores overlap, EPA expands a polygon inside the Minkowski difference until it reaches the edge
+ *  that is the closest to the origin, which gives the direction and depth of the penetration.
+ */
+public class PGjkEpaCollision {
+    private static final int MAX_GJK_ITERATIONS = 32;
+    private static final int MAX_EPA_ITERATIONS = 32;
+
+    // How close GJK's distance or EPA's depth must get to the true value, relative to the value, to stop
+    private static final double TOLERANCE = 1e-9;
+
+    // Cores that are closer than this are treated as overlapping
+    private static final double MIN_DISTANCE = 1e-9;
+
+    private static final int INITIAL_POLYTOPE_CAPACITY = 16;
+
+    // Each thread has its own workspace, since collisions are tested on many threads at once
+    private static final ThreadLocal<PGjkEpaCollision> WORKSPACES = ThreadLocal.withInitial(PGjkEpaCollision::new);
+
+    // The cores and radii of the bodies being tested, with the cores as x and y values one after the other
+    private double[] vertices1;
+    private double[] vertices2;
+    private double radius1;
+    private double radius2;
+
+    // The cores of circles, which are only their center points
+    private final double[] circleCore1 = new double[2];
+    private final double[] circleCore2 = new double[2];
+
+    // The points of the simplex (or polytope), with the points on each body that they are the difference of
+    private int numPts;
+    private double[] xs = new double[INITIAL_POLYTOPE_CAPACITY];
+    private double[] ys = new double[INITIAL_POLYTOPE_CAPACITY];
+    private double[] xs1 = new double[INITIAL_POLYTOPE_CAPACITY];
+    private double[] ys1 = new double[INITIAL_POLYTOPE_CAPACITY];
+    private double[] xs2 = new double[INITIAL_POLYTOPE_CAPACITY];
+    private double[] ys2 = new double[INITIAL_POLYTOPE_CAPACITY];
+
+    // The vertex of each body that each point of the simplex came from, and its weight in the closest point
+    private final int[] vertexIndices1 = new int[3];
+    private final int[] vertexIndices2 = new int[3];
+    private final double[] weights = new double[3];
+
+    // The vertices that the simplex came from in the last GJK iteration, to tell when it stops changing
+    private final int[] lastIndices1 = new int[3];
+    private final int[] lastIndices2 = new int[3];
+
+    // The output of the last query: the closest (or deepest) points of the cores, and the normal from body1 to body2
+    private double closestX1;
+    private double closestY1;
+    private double closestX2;
+    private double closestY2;
+    private double normalX;
+    private double normalY;
+
+    /**
+     * Determines if two convex bodies collide. If they do not, the result still has the distance between them
+     * and their closest points
+     * Pre-condition: "body1" and "body2" must each be a PCircle or a convex PPolygon
+     * @param body1 The first body
+     * @param body2 The second body
+     * @return The result of the collision
+     */
+    public static PCollisionResult doBodiesCollide(PBody body1, PBody body2) {
+        PCollisionResult result = new PCollisionResult();
+        doBodiesCollide(body1, body2, result);
+        return result;
+    }
+
+    /**
+     * Determines if two convex bodies collide, without allocating. If they do not, the result still has the
+     * distance between them and their closest points
+     * Pre-condition: "body1" and "body2" must each be a PCircle or a convex PPolygon
+     * @param body1 The first body
+     * @param body2 The second body
+     * @param result The result to reset and store the collision in
+     */
+    public static void doBodiesCollide(PBody body1, PBody body2, PCollisionResult result) {
+        result.reset();
+
+        PGjkEpaCollision workspace = WORKSPACES.get();
+        double distance = workspace.query(body1, body2);
+
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
+
+        Vector closestPt1 = pool.obtain().set(workspace.closestX1, workspace.closestY1);
+        Vector closestPt2 = pool.obtain().set(workspace.closestX2, workspace.closestY2);
+
+        if (distance >= 0) {
+            result.setDistance(distance, closestPt1, closestPt2);
+            workspace.clear();
+            pool.release(mark);
+            return;
+        }
+
+        // The mtv must go from body1 to body2, like the mtv of the other collision tests
+        Vector mtv = pool.obtain().set(workspace.normalX, workspace.normalY).scaleLocal(-distance);
+        Vector body1ToBody2 = Vector.minus(body2.getCenterPt(), body1.getCenterPt(), pool.obtain());
+        if (mtv.dot(body1ToBody2) < 0) {
+            mtv.scaleLocal(-1);
+        }
+
+        // Compute how much mtv each body gets
+        double speed1 = body1.getVelocity().norm2();
+        double speed2 = body2.getVelocity().norm2();
+        double f1 = getShareOfMtv(body1.isMoving(), speed1, body2.isMoving(), speed2);
+        double f2 = getShareOfMtv(body2.isMoving(), speed2, body1.isMoving(), speed1);
+        Vector body1Mtv = Vector.scale(mtv, -f1, pool.obtain());
+        Vector body2Mtv = Vector.scale(mtv, f2, pool.obtain());
+
+        // The contact point is halfway between the deepest points of the two bodies
+        Vector contactPt = pool.obtain().set((workspace.closestX1 + workspace.closestX2) / 2, (workspace.closestY1 + workspace.closestY2) / 2);
+
+        result.setCollision(body1Mtv, body2Mtv, mtv, contactPt);
+        result.setDistance(distance, closestPt1, closestPt2);
+
+        // Two polygons can touch along an edge, so their manifold is clipped the same way as with SAT
+        if (body1 instanceof PPolygon && body2 instanceof PPolygon) {
+            PPolyPolyCollision.addClippedContactPts(workspace.vertices1, ((PPolygon) body1).getWorldNormals(),
+                    workspace.vertices2, ((PPolygon) body2).getWorldNormals(), result.getMtv(), result);
+        }
+
+        workspace.clear();
+        pool.release(mark);
+    }
+
+    /**
+     * Computes the distance between two convex bodies, and the points on each body that are the closest to the other
+     * Pre-condition: "body1" and "body2" must each be a PCircle or a convex PPolygon
+     * @param body1 The first body
+     * @param body2 The second body
+     * @param closestPt1 The vector to store the point on body1 that is the closest to body2 in
+     * @param closestPt2 The vector to store the point on body2 that is the closest to body1 in
+     * @return The distance between the bodies, or minus how far they go into each other if they overlap.
+     *         When they overlap, the closest points are the points of each body that are the deepest in the other
+     */
+    public static double getDistance(PBody body1, PBody body2, Vector closestPt1, Vector closestPt2) {
+        PGjkEpaCollision workspace = WORKSPACES.get();
+        double distance = workspace.query(body1, body2);
+        closestPt1.setXY(workspace.closestX1, workspace.closestY1);
+        closestPt2.setXY(workspace.closestX2, workspace.closestY2);
+        workspace.clear();
+        return distance;
+    }
+
+    /**
+     * Computes the distance between two convex bodies, the points on each body that are the closest to the other,
+     * and the normal from body1 to body2. Unlike the line between the closest points, the normal is still known
+     * when the bodies just touch
+     * Pre-condition: "body1" and "body2" must each be a PCircle or a convex PPolygon
+     * @param body1 The first body
+     * @param body2 The second body
+     * @param closestPt1 The vector to store the point on body1 that is the closest to body2 in
+     * @param closestPt2 The vector to store the point on body2 that is the closest to body1 in
+     * @param normal The vector to store the unit normal from body1 to body2 in
+     * @return The distance between the bodies, or minus how far they go into each other if they overlap
+     */
+    public static double getDistance(PBody body1, PBody body2, Vector closestPt1, Vector closestPt2, Vector normal) {
+        PGjkEpaCollision workspace = WORKSPACES.get();
+        double distance = workspace.query(body1, body2);
+        closestPt1.setXY(workspace.closestX1, workspace.closestY1);
+        closestPt2.setXY(workspace.closestX2, workspace.closestY2);
+        normal.setXY(workspace.normalX, workspace.normalY);
+        workspace.clear();
+        return distance;
+    }
+
+    /**
+     * Returns the share of the mtv that a body is moved by, which depends on how fast it is going.
+     * If neither body is going anywhere, the mtv is split evenly between the bodies that can move
+     * @param isMoving Whether the body can move
+     * @param speed The speed of the body
+     * @param isOtherMoving Whether the other body can move
+     * @param otherSpeed The speed of the other body
+     * @return The share of the mtv, from 0 to 1
+     */
+    static double getShareOfMtv(boolean isMoving, double speed, boolean isOtherMoving, double otherSpeed) {
+        if (!isMoving) {
+            return 0;
+        }
+        if (!isOtherMoving) {
+            return 1;
+        }
+        return speed + otherSpeed > 0 ? speed / (speed + otherSpeed) : 0.5;
+    }
+
+    /**
+     * Finds the distance between two bodies, and their closest points and the normal from body1 to body2
+     * @param body1 The first body
+     * @param body2 The second body
+     * @return The distance between the bodies, or minus how far they go into each other
+     */
+    private double query(PBody body1, PBody body2) {
+        setCore(body1, true);
+        setCore(body2, false);
+
+        double coreDistance = getCoreDistance();
+
+        // The cores are apart, so the closest points are on the line between the closest points of the cores
+        if (coreDistance > MIN_DISTANCE) {
+            normalX = (closestX2 - closestX1) / coreDistance;
+            normalY = (closestY2 - closestY1) / coreDistance;
+            closestX1 += normalX * radius1;
+            closestY1 += normalY * radius1;
+            closestX2 -= normalX * radius2;
+            closestY2 -= normalY * radius2;
+            return coreDistance - radius1 - radius2;
+        }
+
+        // The cores overlap, so the bodies go into each other by as far as the cores do, plus the radii
+        double depth = getCorePenetration();
+        closestX1 += normalX * radius1;
+        closestY1 += normalY * radius1;
+        closestX2 -= normalX * radius2;
+        closestY2 -= normalY * radius2;
+        return -(depth + radius1 + radius2);
+    }
+
+    private void setCore(PBody body, boolean isBody1) {
+        double[] vertices;
+        double radius;
+
+        if (body instanceof PPolygon) {
+            vertices = ((PPolygon) body).getWorldVertices();
+            radius = 0;
+        } else if (body instanceof PCircle) {
+            vertices = isBody1 ? circleCore1 : circleCore2;
+            vertices[0] = body.getCenterPt().getX();
+            vertices[1] = body.getCenterPt().getY();
+            radius = ((PCircle) body).getRadius();
+        } else {
+            throw new IllegalArgumentException("Body is not a convex shape!");
+        }
+
+        if (isBody1) {
+            vertices1 = vertices;
+            radius1 = radius;
+        } else {
+            vertices2 = vertices;
+            radius2 = radius;
+        }
+    }
+
+    private void clear() {
+        vertices1 = null;
+        vertices2 = null;
+    }
+
+    /**
+     * Runs GJK on the cores: the simplex is moved towards the origin one support point at a time, until it either
+     * contains the origin or no point gets it any closer
+     * @return The distance between the cores, or 0 if they overlap; the closest points of the cores are also stored
+     */
+    private double getCoreDistance() {
+        // Every point of the simplex must be on the boundary of the Minkowski difference, so that EPA can grow it
+        numPts = 1;
+        setSupportPt(0, 1, 0);
+        weights[0] = 1;
+
+        for (int iteration = 0; iteration < MAX_GJK_ITERATIONS; iteration++) {
+            int numLastPts = numPts;
+            for (int i = 0; i < numPts; i++) {
+                lastIndices1[i] = vertexIndices1[i];
+                lastIndices2[i] = vertexIndices2[i];
+            }
+
+            // Keep the part of the simplex that is the closest to the origin
+            if (numPts == 2) {
+                solveSegment();
+            } else if (numPts == 3) {
+                solveTriangle();
+            }
+
+            if (numPts == 3) {
+                break;
+            }
+
+            double closestX = 0;
+            double closestY = 0;
+            for (int i = 0; i < numPts; i++) {
+                closestX += weights[i] * xs[i];
+                closestY += weights[i] * ys[i];
+            }
+            double closestDistanceSqed = closestX * closestX + closestY * closestY;
+            if (closestDistanceSqed < MIN_DISTANCE * MIN_DISTANCE) {
+                break;
+            }
+
+            // Look for a point that is closer to the origin, in the direction of the origin
+            setSupportPt(numPts, -closestX, -closestY);
+
+            // Stop once the new point is already in the simplex, or gets no closer to the origin
+            boolean isDuplicate = false;
+            for (int i = 0; i < numLastPts; i++) {
+                isDuplicate |= lastIndices1[i] == vertexIndices1[numPts] && lastIndices2[i] == vertexIndices2[numPts];
+            }
+            double progress = closestDistanceSqed - (closestX * xs[numPts] + closestY * ys[numPts]);
+            if (isDuplicate || progress <= TOLERANCE * closestDistanceSqed) {
+                break;
+            }
+
+            weights[numPts] = 0;
+            numPts++;
+        }
+
+        closestX1 = 0;
+        closestY1 = 0;
+        closestX2 = 0;
+        closestY2 = 0;
+        for (int i = 0; i < numPts; i++) {
+            closestX1 += weights[i] * xs1[i];
+            closestY1 += weights[i] * ys1[i];
+            closestX2 += weights[i] * xs2[i];
+            closestY2 += weights[i] * ys2[i];
+        }
+
+        if (numPts == 3) {
+            return 0;
+        }
+        double dx = closestX1 - closestX2;
+        double dy = closestY1 - closestY2;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Reduces a simplex of two points to the part of it that is the closest to the origin
+     */
+    private void solveSegment() {
+        double edgeX = xs[1] - xs[0];
+        double edgeY = ys[1] - ys[0];
+
+        // The origin is past the first point
+        double weight2 = -(xs[0] * edgeX + ys[0] * edgeY);
+        if (weight2 <= 0) {
+            weights[0] = 1;
+            numPts = 1;
+            return;
+        }
+
+        // The origin is past the second point
+        double weight1 = xs[1] * edgeX + ys[1] * edgeY;
+        if (weight1 <= 0) {
+            copyPt(1, 0);
+            weights[0] = 1;
+            numPts = 1;
+            return;
+        }
+
+        weights[0] = weight1 / (weight1 + weight2);
+        weights[1] = weight2 / (weight1 + weight2);
+    }
+
+    /**
+     * Reduces a simplex of three points to the part of it that is the closest to the origin, which is the whole
+     * triangle if it contains the origin
+     */
+    private void solveTriangle() {
+        double edge12X = xs[1] - xs[0];
+        double edge12Y = ys[1] - ys[0];
+        double weight12_1 = xs[1] * edge12X + ys[1] * edge12Y;
+        double weight12_2 = -(xs[0] * edge12X + ys[0] * edge12Y);
+
+        double edge13X = xs[2] - xs[0];
+        double edge13Y = ys[2] - ys[0];
+        double weight13_1 = xs[2] * edge13X + ys[2] * edge13Y;
+        double weight13_2 = -(xs[0] * edge13X + ys[0] * edge13Y);
+
+        double edge23X = xs[2] - xs[1];
+        double edge23Y = ys[2] - ys[1];
+        double weight23_1 = xs[2] * edge23X + ys[2] * edge23Y;
+        double weight23_2 = -(xs[1] * edge23X + ys[1] * edge23Y);
+
+        // The weights of the points in the triangle, signed by which way the triangle winds
+        double area = cross(edge12X, edge12Y, edge13X, edge13Y);
+        double weight123_1 = area * cross(xs[1], ys[1], xs[2], ys[2]);
+        double weight123_2 = area * cross(xs[2], ys[2], xs[0], ys[0]);
+        double weight123_3 = area * cross(xs[0], ys[0], xs[1], ys[1]);
+
+        // The first point is the closest
+        if (weight12_2 <= 0 && weight13_2 <= 0) {
+            weights[0] = 1;
+            numPts = 1;
+            return;
+        }
+
+        // The edge from the first to the second point is the closest
+        if (weight12_1 > 0 && weight12_2 > 0 && weight123_3 <= 0) {
+            weights[0] = weight12_1 / (weight12_1 + weight12_2);
+            weights[1] = weight12_2 / (weight12_1 + weight12_2);
+            numPts = 2;
+            return;
+        }
+
+        // The edge from the first to the third point is the closest
+        if (weight13_1 > 0 && weight13_2 > 0 && weight123_2 <= 0) {
+            weights[0] = weight13_1 / (weight13_1 + weight13_2);
+            weights[1] = weight13_2 / (weight13_1 + weight13_2);
+            copyPt(2, 1);
+            numPts = 2;
+            return;
+        }
+
+        // The second point is the closest
+        if (weight12_1 <= 0 && weight23_2 <= 0) {
+            copyPt(1, 0);
+            weights[0] = 1;
+            numPts = 1;
+            return;
+        }
+
+        // The third point is the closest
+        if (weight13_1 <= 0 && weight23_1 <= 0) {
+            copyPt(2, 0);
+            weights[0] = 1;
+            numPts = 1;
+            return;
+        }
+
+        // The edge from the second to the third point is the closest
+        if (weight23_1 > 0 && weight23_2 > 0 && weight123_1 <= 0) {
+            copyPt(2, 0);
+            weights[0] = weight23_2 / (weight23_1 + weight23_2);
+            weights[1] = weight23_1 / (weight23_1 + weight23_2);
+            numPts = 2;
+            return;
+        }
+
+        // The origin is in the triangle
+        double totalWeight = weight123_1 + weight123_2 + weight123_3;
+        weights[0] = weight123_1 / totalWeight;
+        weights[1] = weight123_2 / totalWeight;
+        weights[2] = weight123_3 / totalWeight;
+    }
+
+    /**
+     * Runs EPA on the cores, which must overlap: the simplex left by GJK is grown into a polygon inside the
+     * Minkowski difference, by pushing out the edge that is the closest to the origin until it is on the boundary
+     * @return How far the cores go into each other; the deepest points of the cores and the normal are also stored
+     */
+    private double getCorePenetration() {
+        if (!makeTriangle()) {
+
+            // The Minkowski difference has no area, so the cores only touch
+            normalX = 0;
+            normalY = 1;
+            return 0;
+        }
+
+        // Wind the triangle counter-clockwise, so that the outside of each edge is to its right
+        if (cross(xs[1] - xs[0], ys[1] - ys[0], xs[2] - xs[0], ys[2] - ys[0]) < 0) {
+            swapPts(1, 2);
+        }
+
+        int closestEdge = 0;
+        double closestDistance = 0;
+        for (int iteration = 0; iteration < MAX_EPA_ITERATIONS; iteration++) {
+
+            // Find the edge that is the closest to the origin
+            closestDistance = Double.MAX_VALUE;
+            for (int i = 0; i < numPts; i++) {
+                int next = (i + 1) % numPts;
+                double edgeX = xs[next] - xs[i];
+                double edgeY = ys[next] - ys[i];
+                double length = Math.sqrt(edgeX * edgeX + edgeY * edgeY);
+                if (length == 0) {
+                    continue;
+                }
+                double distance = (edgeY * xs[i] - edgeX * ys[i]) / length;
+                if (distance < closestDistance) {
+                    closestDistance = distance;
+                    closestEdge = i;
+                    normalX = edgeY / length;
+                    normalY = -edgeX / length;
+                }
+            }
+
+            // Stop once the edge cannot be pushed out any further
+            ensurePolytopeCapacity(numPts + 1);
+            setSupportPt(numPts, normalX, normalY);
+            double supportDistance = normalX * xs[numPts] + normalY * ys[numPts];
+            if (supportDistance - closestDistance <= TOLERANCE * Math.max(1, closestDistance)) {
+                break;
+            }
+
+            // Put the new point between the ends of the edge
+            insertPt(closestEdge + 1, numPts);
+        }
+
+        // The deepest points are where the origin is on the closest edge, taken from each body
+        int next = (closestEdge + 1) % numPts;
+        double edgeX = xs[next] - xs[closestEdge];
+        double edgeY = ys[next] - ys[closestEdge];
+        double edgeLengthSqed = edgeX * edgeX + edgeY * edgeY;
+        double t = edgeLengthSqed > 0 ? -(xs[closestEdge] * edgeX + ys[closestEdge] * edgeY) / edgeLengthSqed : 0;
+        t = Math.max(0, Math.min(1, t));
+        closestX1 = xs1[closestEdge] + (xs1[next] - xs1[closestEdge]) * t;
+        closestY1 = ys1[closestEdge] + (ys1[next] - ys1[closestEdge]) * t;
+        closestX2 = xs2[closestEdge] + (xs2[next] - xs2[closestEdge]) * t;
+        closestY2 = ys2[closestEdge] + (ys2[next] - ys2[closestEdge]) * t;
+
+        // The Minkowski difference is body1 - body2, so its outward normal points from body1 to body2
+        return closestDistance;
+    }
+
+    /**
+     * Grows the simplex left by GJK into a triangle, if it is not one already
+     * @return {@code true} if the simplex is a triangle with an area; else {@code false}
+     */
+    private boolean makeTriangle() {
+        if (numPts == 1) {
+            setSupportPt(1, 1, 0);
+            if (xs[1] == xs[0] && ys[1] == ys[0]) {
+                setSupportPt(1, -1, 0);
+            }
+            numPts = 2;
+        }
+
+        if (numPts == 2) {
+            double edgeX = xs[1] - xs[0];
+            double edgeY = ys[1] - ys[0];
+            if (edgeX == 0 && edgeY == 0) {
+                return false;
+            }
+
+            // Look to either side of the segment for a point off of it
+            setSupportPt(2, -edgeY, edgeX);
+            if (Math.abs(cross(edgeX, edgeY, xs[2] - xs[0], ys[2] - ys[0])) <= MIN_DISTANCE) {
+                setSupportPt(2, edgeY, -edgeX);
+            }
+            numPts = 3;
+        }
+
+        return Math.abs(cross(xs[1] - xs[0], ys[1] - ys[0], xs[2] - xs[0], ys[2] - ys[0])) > MIN_DISTANCE;
+    }
+
+    /**
+     * Finds the point of the Minkowski difference that is the farthest along a direction, which is the farthest
+     * vertex of body1 along the direction minus the farthest vertex of body2 against it
+     * @param i The index to store the point at
+     * @param dirX The x value of the direction
+     * @param dirY The y value of the direction
+     */
+    private void setSupportPt(int i, double dirX, double dirY) {
+        int index1 = getFarthestVertex(vertices1, dirX, dirY);
+        int index2 = getFarthestVertex(vertices2, -dirX, -dirY);
+        setPt(i, vertices1[2 * index1], vertices1[2 * index1 + 1], vertices2[2 * index2], vertices2[2 * index2 + 1]);
+
+        if (i < 3) {
+            vertexIndices1[i] = index1;
+            vertexIndices2[i] = index2;
+        }
+    }
+
+    private static int getFarthestVertex(double[] vertices, double dirX, double dirY) {
+        int farthestIndex = 0;
+        double maxProj = -Double.MAX_VALUE;
+        for (int i = 0; i < vertices.length / 2; i++) {
+            double proj = vertices[2 * i] * dirX + vertices[2 * i + 1] * dirY;
+            if (proj > maxProj) {
+                maxProj = proj;
+                farthestIndex = i;
+            }
+        }
+        return farthestIndex;
+    }
+
+    private void setPt(int i, double x1, double y1, double x2, double y2) {
+        xs1[i] = x1;
+        ys1[i] = y1;
+        xs2[i] = x2;
+        ys2[i] = y2;
+        xs[i] = x1 - x2;
+        ys[i] = y1 - y2;
+    }
+
+    private void copyPt(int from, int to) {
+        setPt(to, xs1[from], ys1[from], xs2[from], ys2[from]);
+        vertexIndices1[to] = vertexIndices1[from];
+        vertexIndices2[to] = vertexIndices2[from];
+    }
+
+    private void swapPts(int i, int j) {
+        double x1 = xs1[i];
+        double y1 = ys1[i];
+        double x2 = xs2[i];
+        double y2 = ys2[i];
+        setPt(i, xs1[j], ys1[j], xs2[j], ys2[j]);
+        setPt(j, x1, y1, x2, y2);
+    }
+
+    /**
+     * Moves a point of the polytope to an index, shifting the points from that index on up by one
+     * @param i The index to put the point at
+     * @param from The index of the point, which must be numPts
+     */
+    private void insertPt(int i, int from) {
+        double x1 = xs1[from];
+        double y1 = ys1[from];
+        double x2 = xs2[from];
+        double y2 = ys2[from];
+        for (int j = numPts; j > i; j--) {
+            setPt(j, xs1[j - 1], ys1[j - 1], xs2[j - 1], ys2[j - 1]);
+        }
+        setPt(i, x1, y1, x2, y2);
+        numPts++;
+    }
+
+    private void ensurePolytopeCapacity(int capacity) {
+        if (capacity <= xs.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, 2 * xs.length);
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+        xs1 = Arrays.copyOf(xs1, newCapacity);
+        ys1 = Arrays.copyOf(ys1, newCapacity);
+        xs2 = Arrays.copyOf(xs2, newCapacity);
+        ys2 = Arrays.copyOf(ys2, newCapacity);
+    }
+
+    private static double cross(double x1, double y1, double x2, double y2) {
+        return x1 * y2 - y1 * x2;
+    }
+}
@@ -0,0 +1,343 @@
+package com.javaphysicsengine.api.collision;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PBoundingBox;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.api.broadphase.PPairBuffer;
+import com.javaphysicsengine.utils.Vector;
+import com.javaphysicsengine.utils.VectorPool;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the exact collision tests on the pairs of bodies found by a broadphase, and keeps the pairs that touch
+ * as a list of contacts.
+ *
+ * Finding the contacts only reads the bodies, so the pairs are split up and tested in parallel on a
+ * {@link ForkJoinPool}. The contacts are always listed in the same order as their pairs, no matter how
+ * the work was split up, so that resolving them afterwards gives the same results every time.
+ *
+ * Each pair is tested with the {@link PCollisionDispatcher} test of its shape types, with its bodies in canonical
+ * order. A contact lists its bodies in that order too, which can be the reverse of its pair, so that its result
+ * never has to be flipped.
+ *
+ * When given the length of the time step, pairs that do not touch yet but are close enough to touch within it are
+ * kept as speculative contacts, so that the solver can stop the bodies before they go into each other. How close
+ * is how far the bodies move towards each other in the time step, which is found with the GJK distance.
+ *
+ * The results are kept in a pool with one result for each pair, which the collision tests write into. The pool is
+ * reused by every call to findContacts(), so once it is big enough for the pairs, finding contacts does not allocate.
+ */
+public class PNarrowphase {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Below this many pairs, splitting up the work costs more than it saves
+    private static final int DEFAULT_PAIRS_PER_TASK = 256;
+
+    private final ForkJoinPool forkJoinPool;
+    private final int pairsPerTask;
+
+    // The bodies and pairs being tested by the current call to findContacts(), and its time step
+    private List<PBody> bodies;
+    private PPairBuffer pairs;
+    private double timeStep;
+
+    // The pooled result of each pair, and whether its bodies were tested in reverse
+    private PCollisionResult[] results = createResults(new PCollisionResult[0], INITIAL_CAPACITY);
+    private boolean[] isReversed = new boolean[INITIAL_CAPACITY];
+
+    // The pairs that are touching and their results
+    private int[] bodyIndex1s = new int[INITIAL_CAPACITY];
+    private int[] bodyIndex2s = new int[INITIAL_CAPACITY];
+    private PCollisionResult[] contactResults = new PCollisionResult[INITIAL_CAPACITY];
+    private int numContacts = 0;
+
+    /**
+     * Creates a narrowphase that runs on the common fork join pool
+     */
+    public PNarrowphase() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a narrowphase that runs on a certain fork join pool
+     * Pre-condition: "forkJoinPool" must not be null
+     * @param forkJoinPool The pool to run the collision tests on
+     */
+    public PNarrowphase(ForkJoinPool forkJoinPool) {
+        this(forkJoinPool, DEFAULT_PAIRS_PER_TASK);
+    }
+
+    /**
+     * Creates a narrowphase that runs on a certain fork join pool
+     * Pre-condition: "forkJoinPool" must not be null, and "pairsPerTask" must be greater than 0
+     * @param forkJoinPool The pool to run the collision tests on
+     * @param pairsPerTask The most pairs to test in a single task; no tasks are made for fewer pairs than this
+     */
+    public PNarrowphase(ForkJoinPool forkJoinPool, int pairsPerTask) {
+        this.forkJoinPool = forkJoinPool;
+        this.pairsPerTask = pairsPerTask;
+    }
+
+    /**
+     * Tests every pair of bodies for a collision and replaces the contacts with the pairs that are touching.
+     * The bodies are not changed
+     * Pre-condition: the indices in "pairs" must be indices into "bodies"
+     * @param bodies The bodies
+     * @param pairs The pairs of body indices that could be colliding
+     * @throws IllegalArgumentException if a collision's MTV does not go from the first body to the second
+     */
+    public void findContacts(List<PBody> bodies, PPairBuffer pairs) {
+        findContacts(bodies, pairs, 0);
+    }
+
+    /**
+     * Tests every pair of bodies for a collision and replaces the contacts with the pairs that are touching, and
+     * with the pairs that could touch within a time step as speculative contacts. The bodies are not changed
+     * Pre-condition: the indices in "pairs" must be indices into "bodies", and "timeStep" must be at least 0
+     * @param bodies The bodies
+     * @param pairs The pairs of body indices that could be colliding
+     * @param timeStep The length of the time step in seconds, or 0 to only find the pairs that are touching
+     * @throws IllegalArgumentException if a collision's MTV does not go from the first body to the second
+     */
+    public void findContacts(List<PBody> bodies, PPairBuffer pairs, double timeStep) {
+        this.bodies = bodies;
+        this.pairs = pairs;
+        this.timeStep = timeStep;
+
+        int numPairs = pairs.size();
+        if (results.length < numPairs) {
+            int newCapacity = Math.max(numPairs, 2 * results.length);
+            results = createResults(results, newCapacity);
+            isReversed = new boolean[newCapacity];
+            bodyIndex1s = new int[newCapacity];
+            bodyIndex2s = new int[newCapacity];
+            contactResults = new PCollisionResult[newCapacity];
+        }
+
+        try {
+            if (numPairs <= pairsPerTask) {
+                findContacts(0, numPairs);
+            } else {
+                forkJoinPool.invoke(new PFindContactsTask(0, numPairs));
+            }
+
+            // Keep the pairs that are touching or could touch, in the order of the pairs
+            numContacts = 0;
+            for (int i = 0; i < numPairs; i++) {
+                if (results[i].isHasCollided() || results[i].isSpeculative()) {
+                    bodyIndex1s[numContacts] = isReversed[i] ? pairs.getBodyIndex2(i) : pairs.getBodyIndex1(i);
+                    bodyIndex2s[numContacts] = isReversed[i] ? pairs.getBodyIndex1(i) : pairs.getBodyIndex2(i);
+                    contactResults[numContacts] = results[i];
+                    numContacts++;
+                }
+            }
+
+        } finally {
+            this.bodies = null;
+            this.pairs = null;
+        }
+    }
+
+    /**
+     * Makes a bigger pool of results, which keeps the results of the old pool
+     * @param oldResults The old pool
+     * @param capacity The number of results in the new pool
+     * @return The new pool
+     */
+    private static PCollisionResult[] createResults(PCollisionResult[] oldResults, int capacity) {
+        PCollisionResult[] newResults = Arrays.copyOf(oldResults, capacity);
+        for (int i = oldResults.length; i < capacity; i++) {
+            newResults[i] = new PCollisionResult();
+        }
+        return newResults;
+    }
+
+    /**
+     * Returns the number of contacts found by the last call to findContacts()
+     * @return The number of contacts
+     */
+    public int getNumContacts() {
+        return numContacts;
+    }
+
+    /**
+     * Returns the index of the first body in a contact, which is the body with the lower shape type
+     * Pre-condition: "contact" must be between 0 and getNumContacts() - 1
+     * @param contact The index of the contact
+     * @return The index of the first body in the list given to findContacts()
+     */
+    public int getBodyIndex1(int contact) {
+        return bodyIndex1s[contact];
+    }
+
+    /**
+     * Returns the index of the second body in a contact, which is the body with the higher shape type
+     * Pre-condition: "contact" must be between 0 and getNumContacts() - 1
+     * @param contact The index of the contact
+     * @return The index of the second body in the list given to findContacts()
+     */
+    public int getBodyIndex2(int contact) {
+        return bodyIndex2s[contact];
+    }
+
+    /**
+     * Returns the result of the collision test of a contact. The result is reused by the next call to findContacts()
+     * Pre-condition: "contact" must be between 0 and getNumContacts() - 1
+     * @param contact The index of the contact
+     * @return The result of the collision test, which has collided or is speculative
+     */
+    public PCollisionResult getResult(int contact) {
+        return contactResults[contact];
+    }
+
+    /**
+     * Tests a range of the pairs for collisions
+     * @param start The index of the first pair to test
+     * @param end One past the index of the last pair to test
+     */
+    private void findContacts(int start, int end) {
+        for (int i = start; i < end; i++) {
+            PBody body1 = bodies.get(pairs.getBodyIndex1(i));
+            PBody body2 = bodies.get(pairs.getBodyIndex2(i));
+
+            isReversed[i] = !PCollisionDispatcher.isInCanonicalOrder(body1, body2);
+            if (isReversed[i]) {
+                collide(body2, body1, timeStep, results[i]);
+            } else {
+                collide(body1, body2, timeStep, results[i]);
+            }
+        }
+    }
+
+    /**
+     * Tests two bodies for a collision
+     * Pre-condition: the bodies must be in canonical order
+     * @param body1 The first body
+     * @param body2 The second body
+     * @param timeStep The length of the time step, or 0 if speculative contacts are not wanted
+     * @param result The result to store the collision in, which has not collided if the bodies cannot collide
+     */
+    private static void collide(PBody body1, PBody body2, double timeStep, PCollisionResult result) {
+        result.reset();
+
+        boolean isCollidable = (body1.isMoving() && body1.isAwake()) || (body2.isMoving() && body2.isAwake());
+        if (!isCollidable) {
+            return;
+        }
+
+        PCollisionDispatcher.PCollisionTest test = PCollisionDispatcher.getTest(body1.getShapeType(), body2.getShapeType());
+        if (test == null) {
+            return;
+        }
+
+        test.collide(body1, body2, result);
+
+        if (result.isHasCollided()) {
+            VectorPool pool = VectorPool.get();
+            int mark = pool.mark();
+
+            // The MTV is computed from the positions before the bodies are pushed apart
+            Vector body1ToBody2 = Vector.minus(body2.getCenterPt(), body1.getCenterPt(), pool.obtain());
+            boolean isMtvFromBody1ToBody2 = result.getMtv().dot(body1ToBody2) >= 0;
+            pool.release(mark);
+
+            if (!isMtvFromBody1ToBody2) {
+                throw new IllegalArgumentException("MTV's direction should be from body1 to body2!");
+            }
+
+        } else if (timeStep > 0) {
+            findSpeculativeContact(body1, body2, timeStep, result);
+        }
+    }
+
+    /**
+     * Makes the result of two bodies that do not touch speculative if they are close enough to touch within a time
+     * step, which is when they are closer than how far they move towards each other in it
+     * Pre-condition: the bodies must be in canonical order, and must not touch
+     * @param body1 The first body
+     * @param body2 The second body
+     * @param timeStep The length of the time step
+     * @param result The result to store the speculative contact in
+     */
+    private static void findSpeculativeContact(PBody body1, PBody body2, double timeStep, PCollisionResult result) {
+        // The distance can only be found between circles and polygons
+        if (body2.getShapeType() > PCollisionDispatcher.POLYGON_SHAPE) {
+            return;
+        }
+
+        // Bodies that do not move have no velocity that brings them closer
+        double velocityX = getSimulatedVelocityX(body2) - getSimulatedVelocityX(body1);
+        double velocityY = getSimulatedVelocityY(body2) - getSimulatedVelocityY(body1);
+        double margin = Math.hypot(velocityX, velocityY) * timeStep;
+        if (margin == 0) {
+            return;
+        }
+
+        // Most pairs are further apart than the margin along an axis, which is cheaper to check than the distance
+        PBoundingBox box1 = body1.getBoundingBox();
+        PBoundingBox box2 = body2.getBoundingBox();
+        double gapX = Math.max(box2.getMinX() - box1.getMaxX(), box1.getMinX() - box2.getMaxX());
+        double gapY = Math.max(box2.getMinY() - box1.getMaxY(), box1.getMinY() - box2.getMaxY());
+        if (gapX >= margin || gapY >= margin) {
+            return;
+        }
+
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
+        Vector closestPt1 = pool.obtain();
+        Vector closestPt2 = pool.obtain();
+        Vector normal = pool.obtain();
+
+        // Bodies that just touch are not found by every collision test, so they are kept as speculative contacts too
+        double distance = PGjkEpaCollision.getDistance(body1, body2, closestPt1, closestPt2, normal);
+        if (distance < margin) {
+            result.setSpeculativeContact(Math.max(distance, 0), normal, closestPt1, closestPt2);
+
+            // Polygons that are about to land flat on each other need both ends of the edge to stay flat
+            if (body1 instanceof PPolygon && body2 instanceof PPolygon) {
+                PPolygon polygon1 = (PPolygon) body1;
+                PPolygon polygon2 = (PPolygon) body2;
+                PPolyPolyCollision.addClippedContactPts(polygon1.getWorldVertices(), polygon1.getWorldNormals(),
+                        polygon2.getWorldVertices(), polygon2.getWorldNormals(), result.getMtv(), -margin, result);
+            }
+        }
+
+        pool.release(mark);
+    }
+
+    private static double getSimulatedVelocityX(PBody body) {
+        return body.isMoving() && body.isAwake() ? body.getVelocity().getX() : 0;
+    }
+
+    private static double getSimulatedVelocityY(PBody body) {
+        return body.isMoving() && body.isAwake() ? body.getVelocity().getY() : 0;
+    }
+
+    /**
+     * Tests a range of the pairs, splitting it in half until it is small enough
+     */
+    private class PFindContactsTask extends RecursiveAction {
+        private final int start;
+        private final int end;
+
+        PFindContactsTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= pairsPerTask) {
+                findContacts(start, end);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new PFindContactsTask(start, middle), new PFindContactsTask(middle, end));
+        }
+    }
+}
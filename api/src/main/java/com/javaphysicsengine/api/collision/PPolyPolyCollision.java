@@ -2,47 +2,27 @@ package com.javaphysicsengine.api.collision;
 
 import com.javaphysicsengine.api.body.PPolygon;
 import com.javaphysicsengine.utils.Vector;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.javaphysicsengine.utils.VectorPool;
 
 public class PPolyPolyCollision {
 
-    /**
-     * A class used to store the min/max scalar values when projecting
-     * points onto a line
-     */
-    private static class Bounds {
-
-        private final double min;
-        private final double max;
-
-        public Bounds(double min, double max) {
-            this.min = min;
-            this.max = max;
-        }
-
-        public double getMin() {
-            return min;
-        }
-
-        public double getMax() {
-            return max;
-        }
-    }
+    // How much closer to perpendicular poly2's edge must be than poly1's to be used as the reference edge
+    private static final double REFERENCE_EDGE_TOLERANCE = 0.05;
 
     /**
      * Get the minimum and max. bounds when projecting the vertices onto a line
-     * @param vertices the vertices
-     * @param proj the line to project the vertices on
-     * @return the min/max distances away from the projected line
+     * @param vertices the vertices, as x and y values one after the other
+     * @param projX the x value of the line to project the vertices on
+     * @param projY the y value of the line to project the vertices on
+     * @param bounds the vector to store the min/max distances away from the projected line in, as its x/y values
+     * @return the bounds
      */
-    private static Bounds getProjectionBounds(List<Vector> vertices, Vector proj) {
+    private static Vector getProjectionBounds(double[] vertices, double projX, double projY, Vector bounds) {
         double minScalar = 1000000000;
         double maxScalar = -1000000000;
 
-        for (Vector poly1Vertex : vertices) {
-            double scalarProj = proj.dot(poly1Vertex);
+        for (int i = 0; i < vertices.length; i += 2) {
+            double scalarProj = projX * vertices[i] + projY * vertices[i + 1];
 
             if (scalarProj < minScalar) {
                 minScalar = scalarProj;
@@ -53,60 +33,69 @@ public class PPolyPolyCollision {
             }
         }
 
-        return new Bounds(minScalar, maxScalar);
+        return bounds.set(minScalar, maxScalar);
     }
 
     /**
      * Computes the MTV for polygon2 using the separating axis theorem
      * It also computes the contact point on polygon2
      *
-     * @param poly1Vertices the vertices for polygon1
-     * @param poly2Vertices the vertices for polygon2
-     * @return the mtv
+     * @param poly1 the polygon whose edge normals are tested
+     * @param poly2 the other polygon
+     * @param bestMtv the vector to store the mtv in
+     * @return true if there is no separating axis; else false
      */
-    private static Vector getSeparatingAxis(List<Vector> poly1Vertices, List<Vector> poly2Vertices) {
+    private static boolean getSeparatingAxis(PPolygon poly1, PPolygon poly2, Vector bestMtv) {
+        double[] poly1Vertices = poly1.getWorldVertices();
+        double[] poly1Normals = poly1.getWorldNormals();
+        double[] poly2Vertices = poly2.getWorldVertices();
 
-        double bestMtd = 10000000;
-        Vector bestMtv = null;
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
 
-        // Going through each side in poly1 and see if poly2 intersects it
-        for (int i = 0; i < poly1Vertices.size(); i++) {
+        Vector bounds1 = pool.obtain();
+        Vector bounds2 = pool.obtain();
 
-            Vector sidePt1 = poly1Vertices.get(i);
-            Vector sidePt2 = i + 1 < poly1Vertices.size() ? poly1Vertices.get(i + 1) : poly1Vertices.get(0);
-            Vector edge = sidePt2.minus(sidePt1);
+        double bestMtd = 10000000;
+        boolean hasBestMtv = false;
 
-            Vector normal = Vector.of(edge.getY(), -1 * edge.getX()).normalize();
+        // Going through each side in poly1 and see if poly2 intersects it
+        for (int i = 0; i < poly1Normals.length; i += 2) {
+            double normalX = poly1Normals[i];
+            double normalY = poly1Normals[i + 1];
 
-            // Project all poly1's vertices onto the normal and get its bounds
-            Bounds bounds1 = getProjectionBounds(poly1Vertices, normal);
+            // Project all poly1's vertices onto the normal and get its bounds (x is the min, y is the max)
+            getProjectionBounds(poly1Vertices, normalX, normalY, bounds1);
 
             // Project all poly2's vertices onto the normal and get its bounds
-            Bounds bounds2 = getProjectionBounds(poly2Vertices, normal);
+            getProjectionBounds(poly2Vertices, normalX, normalY, bounds2);
 
-            boolean isIntersecting = bounds1.getMin() < bounds2.getMax() && bounds1.getMax() > bounds2.getMin();
+            boolean isIntersecting = bounds1.getX() < bounds2.getY() && bounds1.getY() > bounds2.getX();
 
             if (isIntersecting) {
                 double mtd;
 
-                if (bounds1.getMin() < bounds2.getMax()) {
-                    mtd = bounds1.getMax() - bounds2.getMin();
+                if (bounds1.getX() < bounds2.getY()) {
+                    mtd = bounds1.getY() - bounds2.getX();
 
                 } else {
-                    mtd = bounds2.getMax() - bounds1.getMin();
+                    mtd = bounds2.getY() - bounds1.getX();
                 }
 
                 if (mtd < bestMtd) {
                     bestMtd = mtd;
-                    bestMtv = normal.scale(mtd);
+                    bestMtv.set(normalX * mtd, normalY * mtd);
+                    hasBestMtv = true;
                 }
 
             } else {
-                return null;
+                pool.release(mark);
+                return false;
             }
         }
 
-        return bestMtv;
+        pool.release(mark);
+        return hasBestMtv;
     }
 
     /**
@@ -120,82 +109,299 @@ public class PPolyPolyCollision {
      *
      * @param poly1 the vertices of a moving polygon
      * @param body1Mtv the mtv of that moving polygon
+     * @param contactPt the vector to store the contact point in
      * @return the contact point
      */
-    private static Vector getContactPt(PPolygon poly1, Vector body1Mtv) {
+    private static Vector getContactPt(PPolygon poly1, Vector body1Mtv, Vector contactPt) {
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
+
         Vector origin = poly1.getCenterPt();
-        Vector rayDir = body1Mtv.normalize().scale(-1);
+        Vector rayDir = Vector.normalize(body1Mtv, pool.obtain()).scaleLocal(-1);
+        Vector temp = pool.obtain();
 
         double maxProj = -1000000000;
-        Vector maxProjPt = null;
 
-        for (Vector vertex : poly1.getVertices()) {
+        double[] vertices = poly1.getWorldVertices();
+        for (int i = 0; i < vertices.length; i += 2) {
 
-            double scalarProj = rayDir.dot(vertex.minus(origin));
-            Vector projectedPt = origin.add(rayDir.normalize().scale(scalarProj));
+            double scalarProj = rayDir.getX() * (vertices[i] - origin.getX()) + rayDir.getY() * (vertices[i + 1] - origin.getY());
 
             if (scalarProj > maxProj) {
                 maxProj = scalarProj;
-                maxProjPt = projectedPt;
             }
         }
 
-        return maxProjPt.add(body1Mtv);
+        // Only the farthest point needs to be projected
+        Vector.normalize(rayDir, temp).scaleLocal(maxProj);
+        Vector.add(temp, origin, contactPt);
+
+        pool.release(mark);
+        return contactPt.addLocal(body1Mtv);
     }
 
     public static PCollisionResult doBodiesCollide(PPolygon body1, PPolygon body2) {
+        PCollisionResult result = new PCollisionResult();
+        doBodiesCollide(body1, body2, result);
+        return result;
+    }
 
-        ArrayList<Vector> poly1Vertices = body1.getVertices();
-        ArrayList<Vector> poly2Vertices = body2.getVertices();
+    /**
+     * Determines whether two polygons collide using the separating axis theorem, without allocating
+     * @param body1 the first polygon
+     * @param body2 the second polygon
+     * @param result the result to reset and store the collision in
+     */
+    public static void doBodiesCollide(PPolygon body1, PPolygon body2, PCollisionResult result) {
+        result.reset();
 
         // The weighted velocities
-        double f1 = body1.isMoving() ? body1.getVelocity().norm2() / (body1.getVelocity().norm2() + body2.getVelocity().norm2()) : 0;
-        double f2 = body2.isMoving() ? body2.getVelocity().norm2() / (body1.getVelocity().norm2() + body2.getVelocity().norm2()) : 0;
+        double speed1 = body1.getVelocity().norm2();
+        double speed2 = body2.getVelocity().norm2();
+        double f1 = PGjkEpaCollision.getShareOfMtv(body1.isMoving(), speed1, body2.isMoving(), speed2);
+        double f2 = PGjkEpaCollision.getShareOfMtv(body2.isMoving(), speed2, body1.isMoving(), speed1);
 
-        // Note: with SAT we can terminate early as soon as there is a separating axis
-        Vector mtv1 = getSeparatingAxis(poly1Vertices, poly2Vertices);
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
 
-        if (mtv1 == null) {
-            return new PCollisionResult(false, null, null, null, null);
+        // Note: with SAT we can terminate early as soon as there is a separating axis
+        Vector mtv1 = pool.obtain().set(0, 0);
+        Vector mtv2 = pool.obtain().set(0, 0);
+        if (!getSeparatingAxis(body1, body2, mtv1) || !getSeparatingAxis(body2, body1, mtv2)) {
+            pool.release(mark);
+            return;
         }
 
-        Vector mtv2 = getSeparatingAxis(poly2Vertices, poly1Vertices);
-
-        if (mtv2 == null) {
-            return new PCollisionResult(false, null, null, null, null);
-        }
+        Vector bestMtv = pool.obtain();
+        Vector body1Mtv = pool.obtain();
+        Vector body2Mtv = pool.obtain();
 
-        Vector bestMtv;
-        Vector body1Mtv;
-        Vector body2Mtv;
+        // The direction that body2 would be pushed in if it was the only body that moved
+        Vector body2Dir = pool.obtain();
 
         if (mtv2.norm1() <= mtv1.norm1()) {
-            bestMtv = mtv2;
-            body1Mtv = mtv2.scale(f1);
-            body2Mtv = mtv2.scale(-1).scale(f2);
+            bestMtv.set(mtv2);
+            Vector.scale(mtv2, f1, body1Mtv);
+            Vector.scale(mtv2, -f2, body2Mtv);
+            Vector.scale(mtv2, -1, body2Dir);
 
         } else {
-            bestMtv = mtv1.scale(-1);
-            body1Mtv = mtv1.scale(-1).scale(f1);
-            body2Mtv = mtv1.scale(f2);
+            Vector.scale(mtv1, -1, bestMtv);
+            Vector.scale(mtv1, -f1, body1Mtv);
+            Vector.scale(mtv1, f2, body2Mtv);
+            body2Dir.set(mtv1);
         }
 
-        Vector contactPt;
+        Vector contactPt = pool.obtain();
         if (body2Mtv.norm1() > 0) {
-            contactPt = getContactPt(body2, body2Mtv);
+            getContactPt(body2, body2Mtv, contactPt);
 
         } else if (body1Mtv.norm1() > 0) {
-            contactPt = getContactPt(body1, body1Mtv);
+            getContactPt(body1, body1Mtv, contactPt);
 
         } else {
-            throw new IllegalArgumentException("HELP");
+            // Neither body can be pushed, so the contact point is the deepest point of body2 where it is now
+            Vector.minus(getContactPt(body2, body2Dir, contactPt), body2Dir, contactPt);
+        }
+
+        Vector body1ToBody2 = Vector.minus(body2.getCenterPt(), body1.getCenterPt(), pool.obtain());
+        if (bestMtv.dot(body1ToBody2) < 0) {
+            bestMtv.scaleLocal(-1);
         }
 
-        if (bestMtv.dot(body2.getCenterPt().minus(body1.getCenterPt())) < 0) {
-            bestMtv = bestMtv.scale(-1);
+        result.setCollision(body1Mtv, body2Mtv, bestMtv, contactPt);
+        addClippedContactPts(body1.getWorldVertices(), body1.getWorldNormals(), body2.getWorldVertices(),
+                body2.getWorldNormals(), result.getMtv(), result);
+
+        pool.release(mark);
+    }
+
+    /**
+     * Finds the edge of a polygon that is the most perpendicular to a direction, out of the two edges of the vertex
+     * that is the farthest along the direction
+     * @param vertices The vertices of the polygon, as x and y values one after the other
+     * @param normals The unit normals of the edges of the polygon, as x and y values one after the other
+     * @param dirX The x value of the direction
+     * @param dirY The y value of the direction
+     * @return The index of the first vertex of the edge; the edge goes to the next vertex
+     */
+    private static int getBestEdge(double[] vertices, double[] normals, double dirX, double dirY) {
+        int numVertices = vertices.length / 2;
+        int farthestIndex = 0;
+        double maxProj = -Double.MAX_VALUE;
+        for (int i = 0; i < numVertices; i++) {
+            double proj = vertices[2 * i] * dirX + vertices[2 * i + 1] * dirY;
+            if (proj > maxProj) {
+                maxProj = proj;
+                farthestIndex = i;
+            }
         }
 
+        int prevIndex = (farthestIndex + numVertices - 1) % numVertices;
+        double prevDot = getEdgeDot(normals, prevIndex, dirX, dirY);
+        double nextDot = getEdgeDot(normals, farthestIndex, dirX, dirY);
+        return prevDot <= nextDot ? prevIndex : farthestIndex;
+    }
 
-        return new PCollisionResult(true, body1Mtv, body2Mtv, bestMtv, contactPt);
+    /**
+     * Returns how far an edge is from being perpendicular to a direction
+     * @param normals The unit normals of the edges of the polygon, as x and y values one after the other
+     * @param edge The index of the edge
+     * @param dirX The x value of the direction
+     * @param dirY The y value of the direction
+     * @return The absolute dot product of the direction and the unit vector along the edge
+     */
+    private static double getEdgeDot(double[] normals, int edge, double dirX, double dirY) {
+        double normalX = normals[2 * edge];
+        double normalY = normals[2 * edge + 1];
+        if (normalX == 0 && normalY == 0) {
+            return 1;
+        }
+
+        // The edge is its normal turned counter-clockwise
+        return Math.abs(-normalY * dirX + normalX * dirY);
+    }
+
+    /**
+     * Replaces the single point of a collision's manifold with up to two points, by clipping the edge of one polygon
+     * that faces the other (the incident edge) to the sides of the other polygon's facing edge (the reference edge).
+     * The points left that are behind the reference edge are the contact points.
+     *
+     * The feature ID of each point is made up of which polygon has the reference edge, the index of the reference
+     * edge, the index of the incident edge, and which end of the reference edge the point is closer to. The last part
+     * does not depend on whether the point was clipped, so that a point keeps its ID as the bodies slide over each other
+     *
+     * @param poly1Vertices The world vertices of the first polygon, as x and y values one after the other
+     * @param poly1Normals The world edge normals of the first polygon, as x and y values one after the other
+     * @param poly2Vertices The world vertices of the second polygon, as x and y values one after the other
+     * @param poly2Normals The world edge normals of the second polygon, as x and y values one after the other
+     * @param mtv The mtv from the first polygon to the second
+     * @param result The result of the collision
+     */
+    static void addClippedContactPts(double[] poly1Vertices, double[] poly1Normals, double[] poly2Vertices,
+                                     double[] poly2Normals, Vector mtv, PCollisionResult result) {
+        addClippedContactPts(poly1Vertices, poly1Normals, poly2Vertices, poly2Normals, mtv, 0, result);
+    }
+
+    /**
+     * Replaces the single point of a collision's manifold with up to two points, like
+     * {@link #addClippedContactPts(double[], double[], double[], double[], Vector, PCollisionResult)}, but also keeps
+     * the points that are in front of the reference edge by no more than a certain distance. Their penetration is
+     * minus how far in front they are, which is how the manifold of polygons that do not touch yet is found
+     * @param poly1Vertices The world vertices of the first polygon, as x and y values one after the other
+     * @param poly1Normals The world edge normals of the first polygon, as x and y values one after the other
+     * @param poly2Vertices The world vertices of the second polygon, as x and y values one after the other
+     * @param poly2Normals The world edge normals of the second polygon, as x and y values one after the other
+     * @param mtv The mtv from the first polygon to the second, or the line between them if they do not touch
+     * @param minDepth The smallest penetration of a point that is kept, which is at most 0
+     * @param result The result of the collision
+     */
+    static void addClippedContactPts(double[] poly1Vertices, double[] poly1Normals, double[] poly2Vertices,
+                                     double[] poly2Normals, Vector mtv, double minDepth, PCollisionResult result) {
+        double penetration = mtv.norm2();
+        if (penetration == 0) {
+            return;
+        }
+        double normalX = mtv.getX() / penetration;
+        double normalY = mtv.getY() / penetration;
+
+        int edge1 = getBestEdge(poly1Vertices, poly1Normals, normalX, normalY);
+        int edge2 = getBestEdge(poly2Vertices, poly2Normals, -normalX, -normalY);
+
+        // The reference edge is the one that is the most perpendicular to the normal. Edges that are almost parallel
+        // count as a tie that poly1 wins, so that the manifold of a resting stack does not flip back and forth
+        double dot1 = getEdgeDot(poly1Normals, edge1, normalX, normalY);
+        double dot2 = getEdgeDot(poly2Normals, edge2, normalX, normalY);
+        boolean isFlipped = dot2 < dot1 - REFERENCE_EDGE_TOLERANCE;
+
+        double[] refVertices = isFlipped ? poly2Vertices : poly1Vertices;
+        double[] refNormals = isFlipped ? poly2Normals : poly1Normals;
+        double[] incVertices = isFlipped ? poly1Vertices : poly2Vertices;
+        int refEdge = isFlipped ? edge2 : edge1;
+        int incEdge = isFlipped ? edge1 : edge2;
+
+        int refNext = (refEdge + 1) % (refVertices.length / 2);
+        int incNext = (incEdge + 1) % (incVertices.length / 2);
+        double refPt1X = refVertices[2 * refEdge];
+        double refPt1Y = refVertices[2 * refEdge + 1];
+        double refPt2X = refVertices[2 * refNext];
+        double refPt2Y = refVertices[2 * refNext + 1];
+
+        // The normal of the reference edge that points towards the incident polygon, and the direction along the edge
+        double refNormalX = refNormals[2 * refEdge];
+        double refNormalY = refNormals[2 * refEdge + 1];
+        if (refNormalX == 0 && refNormalY == 0) {
+            return;
+        }
+        double refDirX = -refNormalY;
+        double refDirY = refNormalX;
+        double towardsIncident = isFlipped ? -1 : 1;
+        if ((refNormalX * normalX + refNormalY * normalY) * towardsIncident < 0) {
+            refNormalX = -refNormalX;
+            refNormalY = -refNormalY;
+        }
+
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
+
+        // Clip the incident edge to the side of the reference edge's first vertex, then to its second vertex
+        Vector clippedPt1 = pool.obtain().set(incVertices[2 * incEdge], incVertices[2 * incEdge + 1]);
+        Vector clippedPt2 = pool.obtain().set(incVertices[2 * incNext], incVertices[2 * incNext + 1]);
+        double offset1 = refDirX * refPt1X + refDirY * refPt1Y;
+        double offset2 = refDirX * refPt2X + refDirY * refPt2Y;
+        if (!clip(clippedPt1, clippedPt2, refDirX, refDirY, offset1) || !clip(clippedPt1, clippedPt2, -refDirX, -refDirY, -offset2)) {
+            pool.release(mark);
+            return;
+        }
+
+        // Whether the first point is closer to the first end of the reference edge than the second point is
+        boolean isFirstPtNearRefPt1 = refDirX * clippedPt1.getX() + refDirY * clippedPt1.getY() <=
+                refDirX * clippedPt2.getX() + refDirY * clippedPt2.getY();
+
+        // Keep the points that are behind the reference edge, or close enough in front of it
+        double refOffset = refNormalX * refPt1X + refNormalY * refPt1Y;
+        int idPrefix = ((isFlipped ? 1 : 0) << 24) | ((refEdge & 0xFF) << 16) | ((incEdge & 0xFF) << 8);
+        int numPts = 0;
+        for (int i = 0; i < 2; i++) {
+            Vector clippedPt = i == 0 ? clippedPt1 : clippedPt2;
+            double depth = refOffset - (refNormalX * clippedPt.getX() + refNormalY * clippedPt.getY());
+            if (depth >= minDepth) {
+                if (numPts == 0) {
+                    result.clearContactPts();
+                }
+                int side = (i == 0) == isFirstPtNearRefPt1 ? 0 : 1;
+                result.addContactPt(clippedPt.getX(), clippedPt.getY(), depth, idPrefix | side);
+                numPts++;
+            }
+        }
+
+        pool.release(mark);
+    }
+
+    /**
+     * Cuts off the part of a segment that is behind a line
+     * @param pt1 The first end of the segment, which is replaced with the clipped end
+     * @param pt2 The second end of the segment, which is replaced with the clipped end
+     * @param dirX The x value of the direction that is in front of the line
+     * @param dirY The y value of the direction that is in front of the line
+     * @param offset How far along the direction the line is
+     * @return {@code true} if part of the segment is in front of the line; else {@code false}
+     */
+    private static boolean clip(Vector pt1, Vector pt2, double dirX, double dirY, double offset) {
+        double distance1 = dirX * pt1.getX() + dirY * pt1.getY() - offset;
+        double distance2 = dirX * pt2.getX() + dirY * pt2.getY() - offset;
+
+        if (distance1 < 0 && distance2 < 0) {
+            return false;
+        }
+
+        if (distance1 * distance2 < 0) {
+            double t = distance1 / (distance1 - distance2);
+            double x = pt1.getX() + (pt2.getX() - pt1.getX()) * t;
+            double y = pt1.getY() + (pt2.getY() - pt1.getY()) * t;
+            Vector end = distance1 < 0 ? pt1 : pt2;
+            end.set(x, y);
+        }
+        return true;
     }
-}
\ No newline at end of file
+}
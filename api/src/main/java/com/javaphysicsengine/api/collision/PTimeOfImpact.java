@@ -0,0 +1,129 @@
+package com.javaphysicsengine.api.collision;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PBoundingBox;
+import com.javaphysicsengine.utils.Vector;
+import com.javaphysicsengine.utils.VectorPool;
+
+/**
+ * Finds when a bullet first hits another body during a time step, so that it can be stopped there instead of going
+ * through the other body when it moves further than the other body is thick.
+ *
+ * The bullet is swept from where it started the time step to where it is now, while the other body stays where it is
+ * now. The time of impact is found by conservative advancement: the bullet is moved forward by the distance between
+ * the bodies over how fast any point of the bullet closes in on the other body, which can never move it past the
+ * other body, until the bodies touch
+ */
+public class PTimeOfImpact {
+    private static final int MAX_ITERATIONS = 32;
+
+    // The bullet is stopped slightly inside the other body, so that the narrowphase finds the contact and it is resolved
+    private static final double TARGET_PENETRATION = 0.05;
+    private static final double TOLERANCE = 0.01;
+
+    // Closest points nearer than this do not have a reliable line between them
+    private static final double MIN_NORMAL_LENGTH = 1e-6;
+
+    /**
+     * Returns the time in the time step at which a bullet first hits another body. The bullet is left where it is
+     * Pre-condition: "bullet" must be being swept, and "bullet" and "other" must each be a PCircle or a convex PPolygon
+     * @param bullet The bullet
+     * @param other The other body
+     * @return The share of the time step from the start of the sweep to the impact, from 0 to 1,
+     *         or 1 if the bullet does not hit the other body. A bullet that touches the other body at the start of
+     *         the sweep only hits it if it goes further into it
+     */
+    public static double getTimeOfImpact(PBody bullet, PBody other) {
+        double endX = bullet.getCenterPt().getX();
+        double endY = bullet.getCenterPt().getY();
+        double endAngle = bullet.getAngle();
+
+        double startX = bullet.getSweepStartPt().getX();
+        double startY = bullet.getSweepStartPt().getY();
+        double startAngle = bullet.getSweepStartAngle();
+
+        // How far the center of the bullet moves in the whole time step, and how far its farthest corner turns.
+        // Turning a circle does not move its outline
+        double moveX = endX - startX;
+        double moveY = endY - startY;
+        double turnMotion = 0;
+        if (bullet.getShapeType() != PCollisionDispatcher.CIRCLE_SHAPE) {
+            PBoundingBox box = bullet.getBoundingBox();
+            double radiusX = Math.max(box.getMaxX() - endX, endX - box.getMinX());
+            double radiusY = Math.max(box.getMaxY() - endY, endY - box.getMinY());
+            turnMotion = Math.abs(endAngle - startAngle) * Math.hypot(radiusX, radiusY);
+        }
+
+        if (moveX == 0 && moveY == 0 && turnMotion == 0) {
+            return 1;
+        }
+
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
+        Vector closestPt1 = pool.obtain();
+        Vector closestPt2 = pool.obtain();
+        Vector displacement = pool.obtain();
+
+        double time = 0;
+        moveTo(bullet, startX, startY, startAngle, displacement);
+        double distance = PGjkEpaCollision.getDistance(bullet, other, closestPt1, closestPt2);
+
+        // A bullet that already touches the other body at the start can slide along it, but not go much further into it
+        double targetDistance = Math.min(distance, 0) - TARGET_PENETRATION;
+
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double distanceToTarget = distance - targetDistance;
+            if (distanceToTarget < TOLERANCE) {
+                break;
+            }
+
+            // No point of the bullet gets closer to the other body faster than its center moves along the line
+            // between their closest points, plus how far its corners turn
+            double normalX = closestPt2.getX() - closestPt1.getX();
+            double normalY = closestPt2.getY() - closestPt1.getY();
+            double normalLength = Math.hypot(normalX, normalY);
+            double approach = Math.hypot(moveX, moveY);
+            if (normalLength > MIN_NORMAL_LENGTH) {
+
+                // When the bodies overlap, the closest points are the deepest points, which are the other way around
+                approach = (moveX * normalX + moveY * normalY) / (distance < 0 ? -normalLength : normalLength);
+            }
+
+            double maxApproach = Math.max(approach, 0) + turnMotion;
+            if (maxApproach == 0) {
+                time = 1;
+                break;
+            }
+
+            time += distanceToTarget / maxApproach;
+            if (time >= 1) {
+                break;
+            }
+
+            moveTo(bullet, startX + time * (endX - startX), startY + time * (endY - startY),
+                    startAngle + time * (endAngle - startAngle), displacement);
+            distance = PGjkEpaCollision.getDistance(bullet, other, closestPt1, closestPt2);
+        }
+
+        // Running out of iterations still leaves the bullet before the impact
+        double timeOfImpact = Math.min(time, 1);
+
+        moveTo(bullet, endX, endY, endAngle, displacement);
+        pool.release(mark);
+        return timeOfImpact;
+    }
+
+    /**
+     * Moves and turns a body to a pose
+     * @param body The body
+     * @param x The x value of the new center point
+     * @param y The y value of the new center point
+     * @param angle The new angle
+     * @param displacement A scratch vector
+     */
+    private static void moveTo(PBody body, double x, double y, double angle, Vector displacement) {
+        displacement.setXY(x - body.getCenterPt().getX(), y - body.getCenterPt().getY());
+        body.translate(displacement);
+        body.rotate(angle);
+    }
+}
@@ -0,0 +1,135 @@
+package com.javaphysicsengine.api.integrator;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.utils.Vector;
+
+import java.util.List;
+
+/**
+ * Copies the state of a list of bodies into arrays so that the integrators can step them with tight loops,
+ * and moves the bodies to the states that the integrators compute
+ */
+class PBodyStates {
+    private static final int INITIAL_CAPACITY = 16;
+
+    int size = 0;
+
+    double[] xs = new double[INITIAL_CAPACITY];
+    double[] ys = new double[INITIAL_CAPACITY];
+    double[] velocityXs = new double[INITIAL_CAPACITY];
+    double[] velocityYs = new double[INITIAL_CAPACITY];
+    double[] angles = new double[INITIAL_CAPACITY];
+    double[] angularVelocities = new double[INITIAL_CAPACITY];
+
+    // The accelerations from the last call to readAccelerations()
+    double[] accelerationXs = new double[INITIAL_CAPACITY];
+    double[] accelerationYs = new double[INITIAL_CAPACITY];
+    double[] angularAccelerations = new double[INITIAL_CAPACITY];
+
+    // 0 for bodies that do not move or are asleep, so that the loops do not need to branch on them
+    private double[] inverseMasses = new double[INITIAL_CAPACITY];
+    private double[] inverseInertias = new double[INITIAL_CAPACITY];
+    double[] movingFactors = new double[INITIAL_CAPACITY];
+
+    // A scratch vector reused to move the bodies without allocating
+    private final Vector displacement = Vector.of(0, 0);
+
+    /**
+     * Copies the state of the bodies into the arrays
+     * @param bodies The bodies
+     */
+    void load(List<PBody> bodies) {
+        size = bodies.size();
+        ensureCapacity(size);
+
+        for (int i = 0; i < size; i++) {
+            PBody body = bodies.get(i);
+            boolean isMoving = body.isMoving() && body.isAwake();
+
+            xs[i] = body.getCenterPt().getX();
+            ys[i] = body.getCenterPt().getY();
+            velocityXs[i] = body.getVelocity().getX();
+            velocityYs[i] = body.getVelocity().getY();
+            angles[i] = body.getAngle();
+            angularVelocities[i] = body.getAngularVelocity();
+
+            inverseMasses[i] = isMoving ? 1 / body.getMass() : 0;
+            inverseInertias[i] = isMoving ? 1 / body.getInertia() : 0;
+            movingFactors[i] = isMoving ? 1 : 0;
+        }
+    }
+
+    /**
+     * Copies the accelerations from the net forces and torques of the bodies into the arrays
+     * Pre-condition: load() must have been called with the same bodies
+     * @param bodies The bodies
+     */
+    void readAccelerations(List<PBody> bodies) {
+        // Acceleration = Force / mass
+        for (int i = 0; i < size; i++) {
+            PBody body = bodies.get(i);
+            accelerationXs[i] = body.getNetForce().getX() * inverseMasses[i];
+            accelerationYs[i] = body.getNetForce().getY() * inverseMasses[i];
+            angularAccelerations[i] = body.getTorque() * inverseInertias[i];
+        }
+    }
+
+    /**
+     * Moves and rotates the bodies that move
+     * @param bodies The bodies
+     * @param displacementXs How far to move each body along the x axis
+     * @param displacementYs How far to move each body along the y axis
+     * @param newAngles The new angles in radians
+     */
+    void moveBodies(List<PBody> bodies, double[] displacementXs, double[] displacementYs, double[] newAngles) {
+        for (int i = 0; i < size; i++) {
+            if (movingFactors[i] == 0) {
+                continue;
+            }
+
+            PBody body = bodies.get(i);
+            displacement.setXY(displacementXs[i], displacementYs[i]);
+            body.translate(displacement);
+            body.rotate(newAngles[i]);
+        }
+    }
+
+    /**
+     * Sets the velocities of the bodies that move
+     * @param bodies The bodies
+     * @param newVelocityXs The x values of the new velocities
+     * @param newVelocityYs The y values of the new velocities
+     * @param newAngularVelocities The new angular velocities
+     */
+    void setVelocities(List<PBody> bodies, double[] newVelocityXs, double[] newVelocityYs, double[] newAngularVelocities) {
+        for (int i = 0; i < size; i++) {
+            if (movingFactors[i] == 0) {
+                continue;
+            }
+
+            PBody body = bodies.get(i);
+            body.getVelocity().setXY(newVelocityXs[i], newVelocityYs[i]);
+            body.setAngularVelocity(newAngularVelocities[i]);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= xs.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, 2 * xs.length);
+        xs = new double[newCapacity];
+        ys = new double[newCapacity];
+        velocityXs = new double[newCapacity];
+        velocityYs = new double[newCapacity];
+        angles = new double[newCapacity];
+        angularVelocities = new double[newCapacity];
+        accelerationXs = new double[newCapacity];
+        accelerationYs = new double[newCapacity];
+        angularAccelerations = new double[newCapacity];
+        inverseMasses = new double[newCapacity];
+        inverseInertias = new double[newCapacity];
+        movingFactors = new double[newCapacity];
+    }
+}
@@ -0,0 +1,12 @@
+package com.javaphysicsengine.api.integrator;
+
+/**
+ * Computes the forces acting on the bodies of a world at their current state
+ */
+public interface PForces {
+
+    /**
+     * Clears the net force of every body and then adds all of the forces acting on it
+     */
+    void evaluate();
+}
@@ -0,0 +1,25 @@
+package com.javaphysicsengine.api.integrator;
+
+import com.javaphysicsengine.api.body.PBody;
+
+import java.util.List;
+
+/**
+ * Moves bodies forward in time from the forces acting on them.
+ * The integrators differ in how many times they evaluate the forces in a time step and how well they keep
+ * the energy of the bodies over many time steps, which decides how large the time step can be before
+ * springs and orbits blow up.
+ */
+public interface PIntegrator {
+
+    /**
+     * Updates the velocities, positions and angles of the bodies that move and are awake over a time step.
+     * The forces are evaluated as many times as the integrator needs, with the bodies moved to where the forces
+     * are needed each time
+     * @param bodies The bodies
+     * @param forces Clears and then adds the forces acting on the bodies at their current state
+     * @param timeEllapsed The time that has ellapsed in seconds
+     * @param scale The number of units in the world per meter
+     */
+    void integrate(List<PBody> bodies, PForces forces, double timeEllapsed, double scale);
+}
@@ -0,0 +1,128 @@
+package com.javaphysicsengine.api.integrator;
+
+import com.javaphysicsengine.api.body.PBody;
+
+import java.util.List;
+
+/**
+ * The classic fourth order Runge-Kutta method: evaluates the forces at the start, twice half-way through and at the
+ * end of the time step, and moves the bodies by a weighted average of the velocities and accelerations found.
+ * This is the most accurate integrator but evaluates the forces four times per time step, and slowly loses energy
+ * over long runs instead of keeping it
+ */
+public class PRK4Integrator implements PIntegrator {
+
+    // How far into the time step each stage is, and how much each stage counts towards the final state
+    private static final double[] STAGE_TIMES = {0, 0.5, 0.5, 1};
+    private static final double[] STAGE_WEIGHTS = {1, 2, 2, 1};
+
+    private final PBodyStates states = new PBodyStates();
+
+    // The state of the bodies at the start of the time step
+    private double[] startVelocityXs = new double[0];
+    private double[] startVelocityYs = new double[0];
+    private double[] startAngularVelocities = new double[0];
+    private double[] startAngles = new double[0];
+
+    // The weighted sums of the velocities and accelerations of the stages
+    private double[] velocityXSums = new double[0];
+    private double[] velocityYSums = new double[0];
+    private double[] angularVelocitySums = new double[0];
+    private double[] accelerationXSums = new double[0];
+    private double[] accelerationYSums = new double[0];
+    private double[] angularAccelerationSums = new double[0];
+
+    // How far each body is from where it started, and how far it is moved next
+    private double[] offsetXs = new double[0];
+    private double[] offsetYs = new double[0];
+    private double[] displacementXs = new double[0];
+    private double[] displacementYs = new double[0];
+
+    @Override
+    public void integrate(List<PBody> bodies, PForces forces, double timeEllapsed, double scale) {
+        states.load(bodies);
+        int size = states.size;
+        ensureCapacity(size);
+
+        System.arraycopy(states.velocityXs, 0, startVelocityXs, 0, size);
+        System.arraycopy(states.velocityYs, 0, startVelocityYs, 0, size);
+        System.arraycopy(states.angularVelocities, 0, startAngularVelocities, 0, size);
+        System.arraycopy(states.angles, 0, startAngles, 0, size);
+        for (int i = 0; i < size; i++) {
+            velocityXSums[i] = velocityYSums[i] = angularVelocitySums[i] = 0;
+            accelerationXSums[i] = accelerationYSums[i] = angularAccelerationSums[i] = 0;
+            offsetXs[i] = offsetYs[i] = 0;
+        }
+
+        for (int stage = 0; stage < STAGE_TIMES.length; stage++) {
+            // Move the bodies to the state of this stage using the velocities and accelerations of the last stage
+            if (stage > 0) {
+                double stageTime = STAGE_TIMES[stage] * timeEllapsed;
+                for (int i = 0; i < size; i++) {
+                    double offsetX = states.velocityXs[i] * stageTime * scale;
+                    double offsetY = states.velocityYs[i] * stageTime * scale;
+                    displacementXs[i] = offsetX - offsetXs[i];
+                    displacementYs[i] = offsetY - offsetYs[i];
+                    offsetXs[i] = offsetX;
+                    offsetYs[i] = offsetY;
+                    states.angles[i] = startAngles[i] + states.angularVelocities[i] * stageTime * scale;
+
+                    states.velocityXs[i] = startVelocityXs[i] + states.accelerationXs[i] * stageTime;
+                    states.velocityYs[i] = startVelocityYs[i] + states.accelerationYs[i] * stageTime;
+                    states.angularVelocities[i] = startAngularVelocities[i] + states.angularAccelerations[i] * stageTime;
+                }
+                states.moveBodies(bodies, displacementXs, displacementYs, states.angles);
+                states.setVelocities(bodies, states.velocityXs, states.velocityYs, states.angularVelocities);
+            }
+
+            forces.evaluate();
+            states.readAccelerations(bodies);
+
+            double weight = STAGE_WEIGHTS[stage];
+            for (int i = 0; i < size; i++) {
+                velocityXSums[i] += weight * states.velocityXs[i];
+                velocityYSums[i] += weight * states.velocityYs[i];
+                angularVelocitySums[i] += weight * states.angularVelocities[i];
+                accelerationXSums[i] += weight * states.accelerationXs[i];
+                accelerationYSums[i] += weight * states.accelerationYs[i];
+                angularAccelerationSums[i] += weight * states.angularAccelerations[i];
+            }
+        }
+
+        // Move the bodies from where they started by the weighted averages
+        double sumTime = timeEllapsed / 6;
+        for (int i = 0; i < size; i++) {
+            displacementXs[i] = velocityXSums[i] * sumTime * scale - offsetXs[i];
+            displacementYs[i] = velocityYSums[i] * sumTime * scale - offsetYs[i];
+            states.angles[i] = startAngles[i] + angularVelocitySums[i] * sumTime * scale;
+
+            states.velocityXs[i] = startVelocityXs[i] + accelerationXSums[i] * sumTime;
+            states.velocityYs[i] = startVelocityYs[i] + accelerationYSums[i] * sumTime;
+            states.angularVelocities[i] = startAngularVelocities[i] + angularAccelerationSums[i] * sumTime;
+        }
+        states.moveBodies(bodies, displacementXs, displacementYs, states.angles);
+        states.setVelocities(bodies, states.velocityXs, states.velocityYs, states.angularVelocities);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= startVelocityXs.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, 2 * startVelocityXs.length);
+        startVelocityXs = new double[newCapacity];
+        startVelocityYs = new double[newCapacity];
+        startAngularVelocities = new double[newCapacity];
+        startAngles = new double[newCapacity];
+        velocityXSums = new double[newCapacity];
+        velocityYSums = new double[newCapacity];
+        angularVelocitySums = new double[newCapacity];
+        accelerationXSums = new double[newCapacity];
+        accelerationYSums = new double[newCapacity];
+        angularAccelerationSums = new double[newCapacity];
+        offsetXs = new double[newCapacity];
+        offsetYs = new double[newCapacity];
+        displacementXs = new double[newCapacity];
+        displacementYs = new double[newCapacity];
+    }
+}
@@ -0,0 +1,51 @@
+package com.javaphysicsengine.api.integrator;
+
+import com.javaphysicsengine.api.body.PBody;
+
+import java.util.List;
+
+/**
+ * Updates the velocity of each body first and then moves it with the new velocity.
+ * This evaluates the forces once per time step and, unlike updating the position with the old velocity,
+ * keeps the energy of springs and orbits from growing over time
+ */
+public class PSemiImplicitEulerIntegrator implements PIntegrator {
+    private final PBodyStates states = new PBodyStates();
+
+    // How far each body moves in the time step
+    private double[] displacementXs = new double[0];
+    private double[] displacementYs = new double[0];
+
+    @Override
+    public void integrate(List<PBody> bodies, PForces forces, double timeEllapsed, double scale) {
+        // The forces can move the bodies (like strings do), so the state is read after them
+        forces.evaluate();
+        states.load(bodies);
+        states.readAccelerations(bodies);
+        ensureCapacity(states.size);
+
+        // V' = V + at
+        for (int i = 0; i < states.size; i++) {
+            states.velocityXs[i] += states.accelerationXs[i] * timeEllapsed;
+            states.velocityYs[i] += states.accelerationYs[i] * timeEllapsed;
+            states.angularVelocities[i] += states.angularAccelerations[i] * timeEllapsed;
+        }
+
+        // Displacement = V' * t
+        for (int i = 0; i < states.size; i++) {
+            displacementXs[i] = states.velocityXs[i] * timeEllapsed * scale;
+            displacementYs[i] = states.velocityYs[i] * timeEllapsed * scale;
+            states.angles[i] += states.angularVelocities[i] * timeEllapsed * scale;
+        }
+
+        states.setVelocities(bodies, states.velocityXs, states.velocityYs, states.angularVelocities);
+        states.moveBodies(bodies, displacementXs, displacementYs, states.angles);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > displacementXs.length) {
+            displacementXs = new double[Math.max(capacity, 2 * displacementXs.length)];
+            displacementYs = new double[displacementXs.length];
+        }
+    }
+}
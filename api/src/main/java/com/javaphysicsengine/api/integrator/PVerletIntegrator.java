@@ -0,0 +1,64 @@
+package com.javaphysicsengine.api.integrator;
+
+import com.javaphysicsengine.api.body.PBody;
+
+import java.util.List;
+
+/**
+ * Position Verlet: moves each body for half of the time step, updates its velocity from the forces at that
+ * half-way point, and then moves it for the other half with the new velocity.
+ * This evaluates the forces once per time step like Euler does, but is second order accurate and time reversible,
+ * so springs keep their energy at much larger time steps
+ */
+public class PVerletIntegrator implements PIntegrator {
+    private final PBodyStates states = new PBodyStates();
+
+    // How far each body moves in half of the time step
+    private double[] displacementXs = new double[0];
+    private double[] displacementYs = new double[0];
+
+    @Override
+    public void integrate(List<PBody> bodies, PForces forces, double timeEllapsed, double scale) {
+        double halfTime = timeEllapsed / 2;
+        states.load(bodies);
+        ensureCapacity(states.size);
+
+        // Move to the half-way point with the current velocity
+        drift(halfTime, scale);
+        states.moveBodies(bodies, displacementXs, displacementYs, states.angles);
+
+        // V' = V + a(half-way point) * t
+        forces.evaluate();
+        states.readAccelerations(bodies);
+        for (int i = 0; i < states.size; i++) {
+            states.velocityXs[i] += states.accelerationXs[i] * timeEllapsed;
+            states.velocityYs[i] += states.accelerationYs[i] * timeEllapsed;
+            states.angularVelocities[i] += states.angularAccelerations[i] * timeEllapsed;
+        }
+        states.setVelocities(bodies, states.velocityXs, states.velocityYs, states.angularVelocities);
+
+        // Move the rest of the way with the new velocity
+        drift(halfTime, scale);
+        states.moveBodies(bodies, displacementXs, displacementYs, states.angles);
+    }
+
+    /**
+     * Computes how far each body moves and turns with its current velocity
+     * @param time The time to move for
+     * @param scale The number of units in the world per meter
+     */
+    private void drift(double time, double scale) {
+        for (int i = 0; i < states.size; i++) {
+            displacementXs[i] = states.velocityXs[i] * time * scale;
+            displacementYs[i] = states.velocityYs[i] * time * scale;
+            states.angles[i] += states.angularVelocities[i] * time * scale;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > displacementXs.length) {
+            displacementXs = new double[Math.max(capacity, 2 * displacementXs.length)];
+            displacementYs = new double[displacementXs.length];
+        }
+    }
+}
@@ -0,0 +1,1112 @@
+package com.javaphysicsengine.api.solver;
+
+import com.javaphysicsengine.api.PWorldConfig;
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.collision.PCollisionResult;
+import com.javaphysicsengine.api.collision.PNarrowphase;
+import com.javaphysicsengine.utils.Vector;
+import com.javaphysicsengine.utils.VectorPool;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Resolves the contacts found by the narrowphase with sequential impulses.
+ *
+ * Each velocity iteration applies an impulse at every contact so that the bodies stop moving into each other,
+ * clamping the total impulse of each contact so that it only ever pushes the bodies apart and so that friction
+ * never exceeds what the normal impulse allows. Each position iteration then pushes the bodies apart by a fraction
+ * of how far they still overlap.
+ *
+ * A speculative contact, of bodies that do not touch yet, only stops the bodies from moving towards each other
+ * faster than would close the gap between them in the time step, and is not pushed apart. Since that slows the bodies
+ * down before they touch, the speed they came in at is kept for the next time step, where they bounce off of it.
+ *
+ * Each point in a contact's manifold is solved as its own constraint. The total impulse of each point is kept
+ * for the next time step and applied up front (warm starting), so that the iterations only need to correct
+ * what changed. A point is matched with the one from the last time step by the indices of the contact's bodies
+ * and the point's feature ID.
+ *
+ * When given the islands of the bodies, each island is solved on its own, and islands are solved in parallel
+ * on a {@link ForkJoinPool}. Each island's contacts are solved in the same order however the islands are split up,
+ * so the results do not depend on the number of threads.
+ *
+ * An island with many contacts (like a big pile of boxes) is split up further by coloring its contacts so that
+ * no two contacts of the same color share a body that can move. The contacts of each color are then solved in
+ * parallel, one color after another. Since the contacts of a color never write to the same body, the results
+ * do not depend on the order they are solved in, and so neither on the number of threads.
+ */
+public class PContactSolver {
+    private static final int INITIAL_CAPACITY = 16;
+
+    public static final int DEFAULT_VELOCITY_ITERATIONS = PWorldConfig.DEFAULT.getVelocityIterations();
+    public static final int DEFAULT_POSITION_ITERATIONS = PWorldConfig.DEFAULT.getPositionIterations();
+
+    private static final long EMPTY_KEY = -1;
+
+    // The largest condition number of the matrix of a contact's two points for them to be solved together
+    private static final double MAX_BLOCK_CONDITION = 1000;
+
+    // Below this many contacts, splitting up the islands costs more than it saves
+    private static final int CONTACTS_PER_TASK = 128;
+
+    // Islands with at least this many contacts have their contacts colored and solved in parallel
+    private static final int COLORING_THRESHOLD = 4 * CONTACTS_PER_TASK;
+
+    // The number of colors that are solved in parallel; contacts that do not fit in any of them are solved serially
+    // in one last color
+    private static final int MAX_COLORS = 64;
+    private static final int NUM_COLOR_STARTS = MAX_COLORS + 2;
+
+    // The steps that a batch of contacts can be solved with
+    private static final int WARM_START_STEP = 0;
+    private static final int VELOCITY_STEP = 1;
+    private static final int POSITION_STEP = 2;
+
+    private int velocityIterations = DEFAULT_VELOCITY_ITERATIONS;
+    private int positionIterations = DEFAULT_POSITION_ITERATIONS;
+
+    // The restitution and friction of bodies without their own, and how the bodies bounce and are pushed apart
+    private PWorldConfig config = PWorldConfig.DEFAULT;
+
+    private static final int MAX_CONTACT_PTS = PCollisionResult.MAX_CONTACT_PTS;
+
+    // The contact points of the current time step; the objects are reused across time steps.
+    // The points of contact c are at [contactStarts[c], contactStarts[c + 1])
+    private PContactConstraint[] constraints = new PContactConstraint[0];
+    private int numConstraints = 0;
+    private int[] contactStarts = new int[INITIAL_CAPACITY + 1];
+    private int numContacts = 0;
+
+    // The total impulses of the contact points from the last time step, in an open addressing table keyed by
+    // body indices. The points of the contact in slot s are at [s * MAX_CONTACT_PTS, s * MAX_CONTACT_PTS + cachedNumPts[s])
+    private long[] cachedKeys = new long[INITIAL_CAPACITY];
+    private PBody[] cachedBody1s = new PBody[INITIAL_CAPACITY];
+    private PBody[] cachedBody2s = new PBody[INITIAL_CAPACITY];
+    private int[] cachedNumPts = new int[INITIAL_CAPACITY];
+    private int[] cachedFeatureIds = new int[INITIAL_CAPACITY * MAX_CONTACT_PTS];
+    private double[] cachedNormalImpulses = new double[INITIAL_CAPACITY * MAX_CONTACT_PTS];
+    private double[] cachedTangentImpulses = new double[INITIAL_CAPACITY * MAX_CONTACT_PTS];
+
+    // The normal velocity that the bodies of each contact came in at, if a speculative point stopped them
+    // from going into each other in the last time step; else 0
+    private double[] cachedApproachVelocities = new double[INITIAL_CAPACITY];
+
+    // The contacts of the colored islands, at the same place as in the islands but grouped by color.
+    // The colors of island i start at colorStarts[islandColorStarts[i]], which is -1 if the island is not colored
+    private int[] coloredContacts = new int[INITIAL_CAPACITY];
+    private int[] islandColorStarts = new int[INITIAL_CAPACITY];
+    private int[] colorStarts = new int[NUM_COLOR_STARTS];
+
+    // The colors used by the contacts of each body so far, one bit per color, and the color of each contact
+    private long[] bodyColors = new long[INITIAL_CAPACITY];
+    private int[] contactColors = new int[INITIAL_CAPACITY];
+
+    private final ForkJoinPool forkJoinPool;
+
+    /**
+     * Creates a solver that solves islands in parallel on the common fork join pool
+     */
+    public PContactSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a solver that solves islands in parallel on a certain fork join pool
+     * Pre-condition: "forkJoinPool" must not be null
+     * @param forkJoinPool The pool to solve the islands on
+     */
+    public PContactSolver(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+        Arrays.fill(cachedKeys, EMPTY_KEY);
+    }
+
+    /**
+     * Returns the config that the contacts are solved with
+     * @return The config
+     */
+    public PWorldConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Sets the config that the contacts are solved with, which also sets the number of velocity and position
+     * iterations to the config's
+     * Pre-condition: "config" must not be null
+     * @param config The config
+     */
+    public void setConfig(PWorldConfig config) {
+        this.config = config;
+        this.velocityIterations = config.getVelocityIterations();
+        this.positionIterations = config.getPositionIterations();
+    }
+
+    /**
+     * Returns the number of times the impulses of all the contacts are refined in a time step
+     * @return The number of velocity iterations
+     */
+    public int getVelocityIterations() {
+        return velocityIterations;
+    }
+
+    /**
+     * Sets the number of times the impulses of all the contacts are refined in a time step
+     * Pre-condition: "velocityIterations" must be at least 1
+     * @param velocityIterations The number of velocity iterations
+     */
+    public void setVelocityIterations(int velocityIterations) {
+        this.velocityIterations = velocityIterations;
+    }
+
+    /**
+     * Returns the most times the bodies in all the contacts are pushed apart in a time step
+     * @return The number of position iterations
+     */
+    public int getPositionIterations() {
+        return positionIterations;
+    }
+
+    /**
+     * Sets the most times the bodies in all the contacts are pushed apart in a time step
+     * Pre-condition: "positionIterations" must be at least 0
+     * @param positionIterations The number of position iterations
+     */
+    public void setPositionIterations(int positionIterations) {
+        this.positionIterations = positionIterations;
+    }
+
+    /**
+     * Returns the number of contacts solved in the last time step
+     * @return The number of contacts
+     */
+    public int getNumContacts() {
+        return numContacts;
+    }
+
+    /**
+     * Returns the number of points in the manifold of a contact solved in the last time step
+     * Pre-condition: "contact" must be between 0 and getNumContacts() - 1
+     * @param contact The index of the contact, in the same order as the narrowphase's contacts
+     * @return The number of contact points
+     */
+    public int getNumContactPts(int contact) {
+        return contactStarts[contact + 1] - contactStarts[contact];
+    }
+
+    /**
+     * Returns the total normal impulse applied to a contact in the last time step, over all of its points
+     * Pre-condition: "contact" must be between 0 and getNumContacts() - 1
+     * @param contact The index of the contact, in the same order as the narrowphase's contacts
+     * @return The total normal impulse
+     */
+    public double getNormalImpulse(int contact) {
+        double normalImpulse = 0;
+        for (int i = contactStarts[contact]; i < contactStarts[contact + 1]; i++) {
+            normalImpulse += constraints[i].normalImpulse;
+        }
+        return normalImpulse;
+    }
+
+    /**
+     * Returns the total normal impulse applied to a point of a contact in the last time step
+     * Pre-condition: "contact" must be between 0 and getNumContacts() - 1, and "pt" between 0 and getNumContactPts(contact) - 1
+     * @param contact The index of the contact, in the same order as the narrowphase's contacts
+     * @param pt The index of the point, in the same order as the points in the contact's manifold
+     * @return The total normal impulse
+     */
+    public double getNormalImpulse(int contact, int pt) {
+        return constraints[contactStarts[contact] + pt].normalImpulse;
+    }
+
+    /**
+     * Returns the total friction impulse applied to a contact in the last time step, over all of its points
+     * Pre-condition: "contact" must be between 0 and getNumContacts() - 1
+     * @param contact The index of the contact, in the same order as the narrowphase's contacts
+     * @return The total friction impulse
+     */
+    public double getTangentImpulse(int contact) {
+        double tangentImpulse = 0;
+        for (int i = contactStarts[contact]; i < contactStarts[contact + 1]; i++) {
+            tangentImpulse += constraints[i].tangentImpulse;
+        }
+        return tangentImpulse;
+    }
+
+    /**
+     * Returns the total friction impulse applied to a point of a contact in the last time step
+     * Pre-condition: "contact" must be between 0 and getNumContacts() - 1, and "pt" between 0 and getNumContactPts(contact) - 1
+     * @param contact The index of the contact, in the same order as the narrowphase's contacts
+     * @param pt The index of the point, in the same order as the points in the contact's manifold
+     * @return The total friction impulse
+     */
+    public double getTangentImpulse(int contact, int pt) {
+        return constraints[contactStarts[contact] + pt].tangentImpulse;
+    }
+
+    /**
+     * Changes the velocities and positions of the bodies so that they stop going into each other
+     * Pre-condition: "narrowphase" must have last found its contacts in "bodies"
+     * @param bodies The bodies
+     * @param narrowphase The narrowphase with the contacts to solve
+     */
+    public void solve(List<PBody> bodies, PNarrowphase narrowphase) {
+        solve(bodies, narrowphase, null);
+    }
+
+    /**
+     * Changes the velocities and positions of the bodies so that they stop going into each other.
+     * The islands are solved separately, and in parallel when there are enough contacts
+     * Pre-condition: "narrowphase" must have last found its contacts in "bodies", and "islands" must have last
+     * been built from the same contacts
+     * @param bodies The bodies
+     * @param narrowphase The narrowphase with the contacts to solve
+     * @param islands The islands of the bodies, or null to solve all the contacts together
+     */
+    public void solve(List<PBody> bodies, PNarrowphase narrowphase, PIslands islands) {
+        solve(bodies, narrowphase, islands, 0);
+    }
+
+    /**
+     * Changes the velocities and positions of the bodies so that they stop going into each other, and so that the
+     * bodies of speculative contacts do not go into each other in the next time step.
+     * The islands are solved separately, and in parallel when there are enough contacts
+     * Pre-condition: "narrowphase" must have last found its contacts in "bodies", and "islands" must have last
+     * been built from the same contacts
+     * @param bodies The bodies
+     * @param narrowphase The narrowphase with the contacts to solve
+     * @param islands The islands of the bodies, or null to solve all the contacts together
+     * @param timeStep The length of the next time step in seconds, or 0 to treat speculative contacts as touching
+     */
+    public void solve(List<PBody> bodies, PNarrowphase narrowphase, PIslands islands, double timeStep) {
+        prepareConstraints(bodies, narrowphase, timeStep);
+        colorIslands(bodies.size(), islands);
+
+        if (islands == null) {
+            solveIsland(null, 0);
+
+        } else if (islands.getNumIslands() > 1 && numContacts > CONTACTS_PER_TASK) {
+            forkJoinPool.invoke(new PSolveIslandsTask(islands, 0, islands.getNumIslands()));
+
+        } else {
+            for (int island = 0; island < islands.getNumIslands(); island++) {
+                solveIsland(islands, island);
+            }
+        }
+
+        storeImpulses();
+    }
+
+    /**
+     * Runs the iterations on the contacts of an island
+     * @param islands The islands, or null if all the contacts are in one island
+     * @param island The index of the island
+     */
+    private void solveIsland(PIslands islands, int island) {
+        if (islandColorStarts[island] != -1) {
+            solveColoredIsland(islands, island);
+            return;
+        }
+
+        int numIslandContacts = islands == null ? numContacts : islands.getNumContacts(island);
+
+        for (int i = 0; i < numIslandContacts; i++) {
+            solveContact(WARM_START_STEP, getContact(islands, island, i));
+        }
+
+        for (int iteration = 0; iteration < velocityIterations; iteration++) {
+            for (int i = 0; i < numIslandContacts; i++) {
+                solveContact(VELOCITY_STEP, getContact(islands, island, i));
+            }
+        }
+
+        for (int iteration = 0; iteration < positionIterations; iteration++) {
+            boolean isSolved = true;
+            for (int i = 0; i < numIslandContacts; i++) {
+                isSolved &= solveContact(POSITION_STEP, getContact(islands, island, i));
+            }
+
+            if (isSolved) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Runs the iterations on the contacts of an island one color at a time, solving the contacts of each color in parallel
+     * @param islands The islands, or null if all the contacts are in one island
+     * @param island The index of the island
+     */
+    private void solveColoredIsland(PIslands islands, int island) {
+        int offset = getContactOffset(islands, island);
+        int firstColor = islandColorStarts[island];
+
+        for (int color = 0; color <= MAX_COLORS; color++) {
+            solveColor(WARM_START_STEP, offset, firstColor, color);
+        }
+
+        for (int iteration = 0; iteration < velocityIterations; iteration++) {
+            for (int color = 0; color <= MAX_COLORS; color++) {
+                solveColor(VELOCITY_STEP, offset, firstColor, color);
+            }
+        }
+
+        for (int iteration = 0; iteration < positionIterations; iteration++) {
+            boolean isSolved = true;
+            for (int color = 0; color <= MAX_COLORS; color++) {
+                isSolved &= solveColor(POSITION_STEP, offset, firstColor, color);
+            }
+
+            if (isSolved) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Solves the contacts of a color with a certain step, in parallel unless there are too few of them
+     * or they are the contacts that did not fit in any color
+     * @param step The step to solve the contacts with
+     * @param offset The index of the island's first contact in the colored contacts
+     * @param firstColor The index of the island's first color start in the color starts
+     * @param color The color
+     * @return {@code true} if the step is not the position step, or if the position step left the bodies overlapping
+     *         by no more than a little; else {@code false}
+     */
+    private boolean solveColor(int step, int offset, int firstColor, int color) {
+        int start = offset + colorStarts[firstColor + color];
+        int end = offset + colorStarts[firstColor + color + 1];
+
+        if (color == MAX_COLORS || end - start <= CONTACTS_PER_TASK) {
+            return solveBatch(step, start, end);
+        }
+
+        PSolveBatchTask task = new PSolveBatchTask(step, start, end);
+        return ForkJoinTask.getPool() == forkJoinPool ? task.invoke() : forkJoinPool.invoke(task);
+    }
+
+    /**
+     * Solves a range of the colored contacts with a certain step
+     * @param step The step to solve the contacts with
+     * @param start The index of the first contact in the colored contacts
+     * @param end One past the index of the last contact in the colored contacts
+     * @return {@code true} if the step is not the position step, or if the position step left the bodies overlapping
+     *         by no more than a little; else {@code false}
+     */
+    private boolean solveBatch(int step, int start, int end) {
+        boolean isSolved = true;
+        for (int i = start; i < end; i++) {
+            isSolved &= solveContact(step, coloredContacts[i]);
+        }
+        return isSolved;
+    }
+
+    /**
+     * Solves the points of a contact with a certain step
+     * @param step The step to solve the points with
+     * @param contact The index of the contact
+     * @return {@code true} if the step is not the position step, or if the position step left the bodies overlapping
+     *         by no more than a little; else {@code false}
+     */
+    private boolean solveContact(int step, int contact) {
+        int start = contactStarts[contact];
+        if (step == VELOCITY_STEP && constraints[start].isBlockSolved) {
+            solveFriction(constraints[start]);
+            solveFriction(constraints[start + 1]);
+            solveNormalBlock(constraints[start], constraints[start + 1]);
+            return true;
+        }
+
+        boolean isSolved = true;
+        for (int i = contactStarts[contact]; i < contactStarts[contact + 1]; i++) {
+            if (step == WARM_START_STEP) {
+                warmStart(constraints[i]);
+            } else if (step == VELOCITY_STEP) {
+                solveVelocity(constraints[i]);
+            } else {
+                isSolved &= solvePosition(constraints[i]);
+            }
+        }
+        return isSolved;
+    }
+
+    private PContactConstraint getFirstConstraint(PIslands islands, int island, int i) {
+        return constraints[contactStarts[getContact(islands, island, i)]];
+    }
+
+    private static int getContact(PIslands islands, int island, int i) {
+        return islands == null ? i : islands.getContact(island, i);
+    }
+
+    private static int getContactOffset(PIslands islands, int island) {
+        return islands == null ? 0 : islands.getNumContacts(0, island);
+    }
+
+    /**
+     * Colors the contacts of the islands with enough contacts, so that no two contacts of the same color share a body
+     * that can move. Each contact gets the lowest color that neither of its bodies has yet, so the colors
+     * only depend on the order of the contacts
+     * @param numBodies The number of bodies
+     * @param islands The islands, or null if all the contacts are in one island
+     */
+    private void colorIslands(int numBodies, PIslands islands) {
+        int numIslands = islands == null ? 1 : islands.getNumIslands();
+        if (islandColorStarts.length < numIslands) {
+            islandColorStarts = new int[Math.max(numIslands, 2 * islandColorStarts.length)];
+        }
+        if (coloredContacts.length < numContacts) {
+            coloredContacts = new int[Math.max(numContacts, 2 * coloredContacts.length)];
+            contactColors = new int[coloredContacts.length];
+        }
+        if (bodyColors.length < numBodies) {
+            bodyColors = new long[Math.max(numBodies, 2 * bodyColors.length)];
+        }
+
+        int numColorStarts = 0;
+        for (int island = 0; island < numIslands; island++) {
+            int numIslandContacts = islands == null ? numContacts : islands.getNumContacts(island);
+            if (numIslandContacts < COLORING_THRESHOLD) {
+                islandColorStarts[island] = -1;
+                continue;
+            }
+
+            if (colorStarts.length < numColorStarts + NUM_COLOR_STARTS) {
+                colorStarts = Arrays.copyOf(colorStarts, Math.max(numColorStarts + NUM_COLOR_STARTS, 2 * colorStarts.length));
+            }
+            islandColorStarts[island] = numColorStarts;
+            colorIsland(islands, island, numColorStarts);
+            numColorStarts += NUM_COLOR_STARTS;
+        }
+    }
+
+    /**
+     * Colors the contacts of an island and groups them by color
+     * @param islands The islands, or null if all the contacts are in one island
+     * @param island The index of the island
+     * @param firstColor The index of the island's first color start in the color starts
+     */
+    private void colorIsland(PIslands islands, int island, int firstColor) {
+        int numIslandContacts = islands == null ? numContacts : islands.getNumContacts(island);
+        int offset = getContactOffset(islands, island);
+
+        // Give each contact the lowest color that is free on both of its bodies, and count the contacts of each color
+        Arrays.fill(colorStarts, firstColor, firstColor + NUM_COLOR_STARTS, 0);
+        for (int i = 0; i < numIslandContacts; i++) {
+            PContactConstraint constraint = getFirstConstraint(islands, island, i);
+            int bodyIndex1 = (int) (constraint.key >>> 32);
+            int bodyIndex2 = (int) constraint.key;
+            long usedColors1 = isSimulated(constraint.body1) ? bodyColors[bodyIndex1] : 0;
+            long usedColors2 = isSimulated(constraint.body2) ? bodyColors[bodyIndex2] : 0;
+
+            // This is MAX_COLORS when all the colors are used
+            int color = Long.numberOfTrailingZeros(~(usedColors1 | usedColors2));
+            if (color < MAX_COLORS) {
+                bodyColors[bodyIndex1] |= 1L << color;
+                bodyColors[bodyIndex2] |= 1L << color;
+            }
+
+            contactColors[i] = color;
+            colorStarts[firstColor + color + 1]++;
+        }
+
+        for (int color = 0; color <= MAX_COLORS; color++) {
+            colorStarts[firstColor + color + 1] += colorStarts[firstColor + color];
+        }
+
+        // Place each contact after the contacts of the colors before it, keeping the order of the contacts in each color
+        for (int i = 0; i < numIslandContacts; i++) {
+            int color = contactColors[i];
+            coloredContacts[offset + colorStarts[firstColor + color]++] = getContact(islands, island, i);
+        }
+
+        // Placing the contacts moved each start to the start of the next color
+        for (int color = MAX_COLORS + 1; color > 0; color--) {
+            colorStarts[firstColor + color] = colorStarts[firstColor + color - 1];
+        }
+        colorStarts[firstColor] = 0;
+
+        // Clear the colors of the bodies for the next island
+        for (int i = 0; i < numIslandContacts; i++) {
+            PContactConstraint constraint = getFirstConstraint(islands, island, i);
+            bodyColors[(int) (constraint.key >>> 32)] = 0;
+            bodyColors[(int) constraint.key] = 0;
+        }
+    }
+
+    /**
+     * Computes the properties of each contact point that stay the same through the iterations
+     * @param bodies The bodies
+     * @param narrowphase The narrowphase with the contacts
+     * @param timeStep The length of the next time step
+     */
+    private void prepareConstraints(List<PBody> bodies, PNarrowphase narrowphase, double timeStep) {
+        numContacts = narrowphase.getNumContacts();
+        if (contactStarts.length < numContacts + 1) {
+            contactStarts = new int[Math.max(numContacts + 1, 2 * contactStarts.length)];
+        }
+
+        numConstraints = 0;
+        for (int c = 0; c < numContacts; c++) {
+            contactStarts[c] = numConstraints;
+            numConstraints += narrowphase.getResult(c).getNumContactPts();
+        }
+        contactStarts[numContacts] = numConstraints;
+
+        if (constraints.length < numConstraints) {
+            PContactConstraint[] newConstraints = new PContactConstraint[Math.max(numConstraints, 2 * constraints.length)];
+            System.arraycopy(constraints, 0, newConstraints, 0, constraints.length);
+            for (int i = constraints.length; i < newConstraints.length; i++) {
+                newConstraints[i] = new PContactConstraint();
+            }
+            constraints = newConstraints;
+        }
+
+        for (int c = 0; c < numContacts; c++) {
+            PBody body1 = bodies.get(narrowphase.getBodyIndex1(c));
+            PBody body2 = bodies.get(narrowphase.getBodyIndex2(c));
+            PCollisionResult result = narrowphase.getResult(c);
+            long key = ((long) narrowphase.getBodyIndex1(c) << 32) | narrowphase.getBodyIndex2(c);
+
+            // The impulses from the last time step are only carried over if the contact is between the same bodies
+            int slot = findCachedSlot(key);
+            boolean isCached = cachedKeys[slot] == key && cachedBody1s[slot] == body1 && cachedBody2s[slot] == body2;
+
+            double cachedApproachVelocity = isCached ? cachedApproachVelocities[slot] : 0;
+
+            for (int pt = 0; pt < result.getNumContactPts(); pt++) {
+                PContactConstraint constraint = constraints[contactStarts[c] + pt];
+                prepareConstraint(constraint, key, body1, body2, result, pt, timeStep, cachedApproachVelocity);
+
+                // Carry over the impulses of the same point from the last time step
+                constraint.normalImpulse = 0;
+                constraint.tangentImpulse = 0;
+                for (int cachedPt = slot * MAX_CONTACT_PTS; isCached && cachedPt < slot * MAX_CONTACT_PTS + cachedNumPts[slot]; cachedPt++) {
+                    if (cachedFeatureIds[cachedPt] == constraint.featureId) {
+                        constraint.normalImpulse = cachedNormalImpulses[cachedPt];
+                        constraint.tangentImpulse = cachedTangentImpulses[cachedPt];
+                    }
+                }
+            }
+
+            constraints[contactStarts[c]].isBlockSolved = false;
+            if (result.getNumContactPts() == 2) {
+                prepareBlock(constraints[contactStarts[c]], constraints[contactStarts[c] + 1]);
+            }
+        }
+
+        // Let go of the bodies from earlier time steps that had more contacts
+        for (int i = numConstraints; i < constraints.length && constraints[i].body1 != null; i++) {
+            constraints[i].body1 = null;
+            constraints[i].body2 = null;
+        }
+    }
+
+    /**
+     * Computes the properties of a contact point that stay the same through the iterations
+     * @param constraint The constraint to store the properties in
+     * @param key The key of the contact, made from the indices of its bodies
+     * @param body1 The first body of the contact
+     * @param body2 The second body of the contact
+     * @param result The result of the collision
+     * @param pt The index of the point in the collision's manifold
+     * @param timeStep The length of the next time step
+     * @param cachedApproachVelocity The normal velocity that a speculative point of the contact stopped the bodies
+     *                               from coming in at in the last time step, or 0 if there was none
+     */
+    private void prepareConstraint(PContactConstraint constraint, long key, PBody body1, PBody body2,
+                                   PCollisionResult result, int pt, double timeStep, double cachedApproachVelocity) {
+        constraint.key = key;
+        constraint.featureId = result.getFeatureId(pt);
+        constraint.body1 = body1;
+        constraint.body2 = body2;
+
+        // Bodies that are asleep are treated like bodies that cannot move
+        constraint.inverseMass1 = isSimulated(body1) ? 1 / body1.getMass() : 0;
+        constraint.inverseMass2 = isSimulated(body2) ? 1 / body2.getMass() : 0;
+        constraint.inverseInertia1 = isSimulated(body1) ? 1 / body1.getInertia() : 0;
+        constraint.inverseInertia2 = isSimulated(body2) ? 1 / body2.getInertia() : 0;
+
+        // The normal goes from body1 to body2, and the tangent is perpendicular to it
+        Vector mtv = result.getMtv();
+        double mtvLength = mtv.norm2();
+        constraint.normalX = mtvLength > 0 ? mtv.getX() / mtvLength : 0;
+        constraint.normalY = mtvLength > 0 ? mtv.getY() / mtvLength : 0;
+        constraint.separation = -result.getPenetration(pt);
+
+        Vector contactPt = result.getContactPt(pt);
+        constraint.r1X = contactPt.getX() - body1.getCenterPt().getX();
+        constraint.r1Y = contactPt.getY() - body1.getCenterPt().getY();
+        constraint.r2X = contactPt.getX() - body2.getCenterPt().getX();
+        constraint.r2Y = contactPt.getY() - body2.getCenterPt().getY();
+
+        constraint.startCenter1X = body1.getCenterPt().getX();
+        constraint.startCenter1Y = body1.getCenterPt().getY();
+        constraint.startCenter2X = body2.getCenterPt().getX();
+        constraint.startCenter2Y = body2.getCenterPt().getY();
+        constraint.startAngle1 = body1.getAngle();
+        constraint.startAngle2 = body2.getAngle();
+
+        double r1CrossN = cross(constraint.r1X, constraint.r1Y, constraint.normalX, constraint.normalY);
+        double r2CrossN = cross(constraint.r2X, constraint.r2Y, constraint.normalX, constraint.normalY);
+        double r1CrossT = cross(constraint.r1X, constraint.r1Y, constraint.normalY, -constraint.normalX);
+        double r2CrossT = cross(constraint.r2X, constraint.r2Y, constraint.normalY, -constraint.normalX);
+
+        double inverseMassSum = constraint.inverseMass1 + constraint.inverseMass2;
+        double normalMass = inverseMassSum +
+                r1CrossN * r1CrossN * constraint.inverseInertia1 +
+                r2CrossN * r2CrossN * constraint.inverseInertia2;
+        double tangentMass = inverseMassSum +
+                r1CrossT * r1CrossT * constraint.inverseInertia1 +
+                r2CrossT * r2CrossT * constraint.inverseInertia2;
+        constraint.normalMass = normalMass > 0 ? 1 / normalMass : 0;
+        constraint.tangentMass = tangentMass > 0 ? 1 / tangentMass : 0;
+        constraint.friction = Math.sqrt(getFriction(body1) * getFriction(body2));
+
+        // Bodies that were slowed down by a speculative point bounce off as fast as they came in
+        double velAlongNormal = getRelativeVelocityX(constraint) * constraint.normalX +
+                getRelativeVelocityY(constraint) * constraint.normalY;
+        constraint.approachVelocity = Math.min(velAlongNormal, cachedApproachVelocity);
+
+        // A point that does not touch yet lets the bodies move towards each other until it does
+        if (constraint.separation > 0) {
+            constraint.velocityBias = timeStep > 0 ? -constraint.separation / timeStep : 0;
+            return;
+        }
+
+        // Only bounce off of contacts that the bodies are hitting fast enough
+        double restitution = Math.max(getRestitution(body1), getRestitution(body2));
+        constraint.velocityBias = constraint.approachVelocity < -config.getRestitutionThreshold() ?
+                -restitution * constraint.approachVelocity : 0;
+    }
+
+    /**
+     * Returns the restitution of a body, or the config's if the body does not have its own
+     * @param body The body
+     * @return The restitution
+     */
+    private double getRestitution(PBody body) {
+        return body.getRestitution() != PBody.WORLD_MATERIAL ? body.getRestitution() : config.getRestitution();
+    }
+
+    /**
+     * Returns the friction of a body, or the config's if the body does not have its own
+     * @param body The body
+     * @return The friction coefficient
+     */
+    private double getFriction(PBody body) {
+        return body.getFriction() != PBody.WORLD_MATERIAL ? body.getFriction() : config.getFriction();
+    }
+
+    /**
+     * Applies the impulses carried over from the last time step
+     * @param constraint The contact
+     */
+    private static void warmStart(PContactConstraint constraint) {
+        double impulseX = constraint.normalImpulse * constraint.normalX + constraint.tangentImpulse * constraint.normalY;
+        double impulseY = constraint.normalImpulse * constraint.normalY - constraint.tangentImpulse * constraint.normalX;
+        applyImpulse(constraint, impulseX, impulseY);
+    }
+
+    /**
+     * Refines the friction and normal impulses of a contact point
+     * @param constraint The contact point
+     */
+    private static void solveVelocity(PContactConstraint constraint) {
+        solveFriction(constraint);
+        solveNormal(constraint);
+    }
+
+    /**
+     * Refines the friction impulse of a contact point
+     * @param constraint The contact point
+     */
+    private static void solveFriction(PContactConstraint constraint) {
+        double tangentX = constraint.normalY;
+        double tangentY = -constraint.normalX;
+
+        // Friction can only be as strong as the normal impulse allows
+        double velAlongTangent = getRelativeVelocityX(constraint) * tangentX + getRelativeVelocityY(constraint) * tangentY;
+        double maxFriction = constraint.friction * constraint.normalImpulse;
+        double newTangentImpulse = Math.max(-maxFriction, Math.min(maxFriction,
+                constraint.tangentImpulse - constraint.tangentMass * velAlongTangent));
+        double tangentImpulse = newTangentImpulse - constraint.tangentImpulse;
+        constraint.tangentImpulse = newTangentImpulse;
+        applyImpulse(constraint, tangentImpulse * tangentX, tangentImpulse * tangentY);
+    }
+
+    /**
+     * Refines the normal impulse of a contact point
+     * @param constraint The contact point
+     */
+    private static void solveNormal(PContactConstraint constraint) {
+        // The total normal impulse can only push the bodies apart
+        double newNormalImpulse = Math.max(0,
+                constraint.normalImpulse - constraint.normalMass * (getNormalVelocity(constraint) - constraint.velocityBias));
+        double normalImpulse = newNormalImpulse - constraint.normalImpulse;
+        constraint.normalImpulse = newNormalImpulse;
+        applyImpulse(constraint, normalImpulse * constraint.normalX, normalImpulse * constraint.normalY);
+    }
+
+    /**
+     * Solves the normal impulses of the two points of a contact together, so that they agree on how the bodies
+     * turn. Solving them one after the other makes each point undo part of the other, which makes tall stacks jitter.
+     *
+     * The new impulses x must make the normal velocities vn = K * x + b of both points at least 0, where each
+     * point either has an impulse of 0 or a normal velocity of 0. The four cases of which impulses are 0 are tried
+     * in turn until one of them works
+     * @param constraint1 The first point
+     * @param constraint2 The second point
+     */
+    private static void solveNormalBlock(PContactConstraint constraint1, PContactConstraint constraint2) {
+        double oldImpulse1 = constraint1.normalImpulse;
+        double oldImpulse2 = constraint2.normalImpulse;
+        double k11 = constraint1.blockK11;
+        double k12 = constraint1.blockK12;
+        double k22 = constraint1.blockK22;
+
+        // b = vn - bias - K * oldImpulses, so that vn = K * (newImpulses - oldImpulses) + vn - bias
+        double b1 = getNormalVelocity(constraint1) - constraint1.velocityBias - (k11 * oldImpulse1 + k12 * oldImpulse2);
+        double b2 = getNormalVelocity(constraint2) - constraint2.velocityBias - (k12 * oldImpulse1 + k22 * oldImpulse2);
+
+        // Both points are touching: x = -K^-1 * b
+        double determinant = k11 * k22 - k12 * k12;
+        double newImpulse1 = -(k22 * b1 - k12 * b2) / determinant;
+        double newImpulse2 = -(k11 * b2 - k12 * b1) / determinant;
+        if (newImpulse1 < 0 || newImpulse2 < 0) {
+
+            // Only the first point is touching
+            newImpulse1 = -b1 / k11;
+            newImpulse2 = 0;
+            if (newImpulse1 < 0 || k12 * newImpulse1 + b2 < 0) {
+
+                // Only the second point is touching
+                newImpulse1 = 0;
+                newImpulse2 = -b2 / k22;
+                if (newImpulse2 < 0 || k12 * newImpulse2 + b1 < 0) {
+
+                    // Neither point is touching
+                    newImpulse1 = 0;
+                    newImpulse2 = 0;
+                    if (b1 < 0 || b2 < 0) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        constraint1.normalImpulse = newImpulse1;
+        constraint2.normalImpulse = newImpulse2;
+        double impulse1 = newImpulse1 - oldImpulse1;
+        double impulse2 = newImpulse2 - oldImpulse2;
+        applyImpulse(constraint1, impulse1 * constraint1.normalX, impulse1 * constraint1.normalY);
+        applyImpulse(constraint2, impulse2 * constraint2.normalX, impulse2 * constraint2.normalY);
+    }
+
+    private static double getNormalVelocity(PContactConstraint constraint) {
+        return getRelativeVelocityX(constraint) * constraint.normalX + getRelativeVelocityY(constraint) * constraint.normalY;
+    }
+
+    /**
+     * Computes the matrix K that maps the normal impulses of the two points of a contact to the change in their
+     * normal velocities, and decides if it is safe to solve the points together
+     * @param constraint1 The first point, which the matrix is stored in
+     * @param constraint2 The second point
+     */
+    private static void prepareBlock(PContactConstraint constraint1, PContactConstraint constraint2) {
+        double r1CrossN1 = cross(constraint1.r1X, constraint1.r1Y, constraint1.normalX, constraint1.normalY);
+        double r2CrossN1 = cross(constraint1.r2X, constraint1.r2Y, constraint1.normalX, constraint1.normalY);
+        double r1CrossN2 = cross(constraint2.r1X, constraint2.r1Y, constraint2.normalX, constraint2.normalY);
+        double r2CrossN2 = cross(constraint2.r2X, constraint2.r2Y, constraint2.normalX, constraint2.normalY);
+        double inverseMassSum = constraint1.inverseMass1 + constraint1.inverseMass2;
+
+        double k11 = inverseMassSum + constraint1.inverseInertia1 * r1CrossN1 * r1CrossN1 + constraint1.inverseInertia2 * r2CrossN1 * r2CrossN1;
+        double k22 = inverseMassSum + constraint1.inverseInertia1 * r1CrossN2 * r1CrossN2 + constraint1.inverseInertia2 * r2CrossN2 * r2CrossN2;
+        double k12 = inverseMassSum + constraint1.inverseInertia1 * r1CrossN1 * r1CrossN2 + constraint1.inverseInertia2 * r2CrossN1 * r2CrossN2;
+
+        // When the points are too close together, K can barely be inverted and the points are solved one at a time
+        constraint1.blockK11 = k11;
+        constraint1.blockK12 = k12;
+        constraint1.blockK22 = k22;
+        constraint1.isBlockSolved = k11 > 0 && k11 * k11 < MAX_BLOCK_CONDITION * (k11 * k22 - k12 * k12);
+    }
+
+    /**
+     * Pushes the bodies of a contact apart by a fraction of how far they still overlap
+     * @param constraint The contact
+     * @return {@code true} if the bodies overlap by no more than a little; else {@code false}
+     */
+    private boolean solvePosition(PContactConstraint constraint) {
+        PBody body1 = constraint.body1;
+        PBody body2 = constraint.body2;
+
+        // How far the contact point on each body moved since the contact was found, for the small turns made here
+        double turned1 = body1.getAngle() - constraint.startAngle1;
+        double turned2 = body2.getAngle() - constraint.startAngle2;
+        double moved1X = body1.getCenterPt().getX() - constraint.startCenter1X - turned1 * constraint.r1Y;
+        double moved1Y = body1.getCenterPt().getY() - constraint.startCenter1Y + turned1 * constraint.r1X;
+        double moved2X = body2.getCenterPt().getX() - constraint.startCenter2X - turned2 * constraint.r2Y;
+        double moved2Y = body2.getCenterPt().getY() - constraint.startCenter2Y + turned2 * constraint.r2X;
+        double separation = constraint.separation +
+                (moved2X - moved1X) * constraint.normalX + (moved2Y - moved1Y) * constraint.normalY;
+
+        double slop = config.getSlop();
+        if (separation >= -slop || constraint.normalMass == 0) {
+            return separation >= -3 * slop;
+        }
+
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
+        Vector correction = pool.obtain();
+
+        // Push and turn the bodies apart like an impulse would, so that a tilted body is also turned back
+        double impulse = -config.getBaumgarte() * (separation + slop) * constraint.normalMass;
+        double impulseX = impulse * constraint.normalX;
+        double impulseY = impulse * constraint.normalY;
+        if (isSimulated(body1)) {
+            body1.translate(correction.set(-impulseX * constraint.inverseMass1, -impulseY * constraint.inverseMass1));
+            body1.rotate(body1.getAngle() - cross(constraint.r1X, constraint.r1Y, impulseX, impulseY) * constraint.inverseInertia1);
+        }
+        if (isSimulated(body2)) {
+            body2.translate(correction.set(impulseX * constraint.inverseMass2, impulseY * constraint.inverseMass2));
+            body2.rotate(body2.getAngle() + cross(constraint.r2X, constraint.r2Y, impulseX, impulseY) * constraint.inverseInertia2);
+        }
+
+        pool.release(mark);
+        return false;
+    }
+
+    /**
+     * Applies an impulse to body2 of a contact, and the opposite impulse to body1
+     * @param constraint The contact
+     * @param impulseX The x value of the impulse
+     * @param impulseY The y value of the impulse
+     */
+    private static void applyImpulse(PContactConstraint constraint, double impulseX, double impulseY) {
+        PBody body1 = constraint.body1;
+        PBody body2 = constraint.body2;
+
+        if (isSimulated(body1)) {
+            Vector velocity1 = body1.getVelocity();
+            velocity1.setXY(velocity1.getX() - impulseX * constraint.inverseMass1,
+                    velocity1.getY() - impulseY * constraint.inverseMass1);
+            body1.setAngularVelocity(body1.getAngularVelocity() -
+                    cross(constraint.r1X, constraint.r1Y, impulseX, impulseY) * constraint.inverseInertia1);
+        }
+
+        if (isSimulated(body2)) {
+            Vector velocity2 = body2.getVelocity();
+            velocity2.setXY(velocity2.getX() + impulseX * constraint.inverseMass2,
+                    velocity2.getY() + impulseY * constraint.inverseMass2);
+            body2.setAngularVelocity(body2.getAngularVelocity() +
+                    cross(constraint.r2X, constraint.r2Y, impulseX, impulseY) * constraint.inverseInertia2);
+        }
+    }
+
+    /**
+     * Returns the x value of the velocity of body2's contact point relative to body1's contact point
+     * @param constraint The contact
+     * @return The x value of the relative velocity
+     */
+    private static double getRelativeVelocityX(PContactConstraint constraint) {
+        double velocity1X = constraint.body1.getVelocity().getX() - constraint.body1.getAngularVelocity() * constraint.r1Y;
+        double velocity2X = constraint.body2.getVelocity().getX() - constraint.body2.getAngularVelocity() * constraint.r2Y;
+        return velocity2X - velocity1X;
+    }
+
+    /**
+     * Returns the y value of the velocity of body2's contact point relative to body1's contact point
+     * @param constraint The contact
+     * @return The y value of the relative velocity
+     */
+    private static double getRelativeVelocityY(PContactConstraint constraint) {
+        double velocity1Y = constraint.body1.getVelocity().getY() + constraint.body1.getAngularVelocity() * constraint.r1X;
+        double velocity2Y = constraint.body2.getVelocity().getY() + constraint.body2.getAngularVelocity() * constraint.r2X;
+        return velocity2Y - velocity1Y;
+    }
+
+    private static boolean isSimulated(PBody body) {
+        return body.isMoving() && body.isAwake();
+    }
+
+    private static double cross(double x1, double y1, double x2, double y2) {
+        return x1 * y2 - y1 * x2;
+    }
+
+    /**
+     * Replaces the cached impulses with the impulses of the contact points in this time step
+     */
+    private void storeImpulses() {
+        if (cachedKeys.length < 2 * numContacts) {
+            int newCapacity = cachedKeys.length;
+            while (newCapacity < 2 * numContacts) {
+                newCapacity *= 2;
+            }
+
+            cachedKeys = new long[newCapacity];
+            cachedBody1s = new PBody[newCapacity];
+            cachedBody2s = new PBody[newCapacity];
+            cachedNumPts = new int[newCapacity];
+            cachedFeatureIds = new int[newCapacity * MAX_CONTACT_PTS];
+            cachedNormalImpulses = new double[newCapacity * MAX_CONTACT_PTS];
+            cachedTangentImpulses = new double[newCapacity * MAX_CONTACT_PTS];
+            cachedApproachVelocities = new double[newCapacity];
+        }
+
+        Arrays.fill(cachedKeys, EMPTY_KEY);
+        Arrays.fill(cachedBody1s, null);
+        Arrays.fill(cachedBody2s, null);
+
+        for (int c = 0; c < numContacts; c++) {
+            PContactConstraint firstConstraint = constraints[contactStarts[c]];
+            int slot = findCachedSlot(firstConstraint.key);
+
+            cachedKeys[slot] = firstConstraint.key;
+            cachedBody1s[slot] = firstConstraint.body1;
+            cachedBody2s[slot] = firstConstraint.body2;
+            cachedNumPts[slot] = getNumContactPts(c);
+            cachedApproachVelocities[slot] = 0;
+
+            for (int pt = 0; pt < cachedNumPts[slot]; pt++) {
+                PContactConstraint constraint = constraints[contactStarts[c] + pt];
+                cachedFeatureIds[slot * MAX_CONTACT_PTS + pt] = constraint.featureId;
+                cachedNormalImpulses[slot * MAX_CONTACT_PTS + pt] = constraint.normalImpulse;
+                cachedTangentImpulses[slot * MAX_CONTACT_PTS + pt] = constraint.tangentImpulse;
+
+                // Only a speculative point that pushed on the bodies slowed them down before they touch
+                if (constraint.separation > 0 && constraint.normalImpulse > 0) {
+                    cachedApproachVelocities[slot] = Math.min(cachedApproachVelocities[slot], constraint.approachVelocity);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the slot of a key in the cache, or the empty slot where it would go
+     * @param key The key of a contact
+     * @return The slot
+     */
+    private int findCachedSlot(long key) {
+        int mask = cachedKeys.length - 1;
+        int slot = (int) ((key ^ (key >>> 29)) * 0x9E3779B97F4A7C15L >>> 40) & mask;
+
+        while (cachedKeys[slot] != EMPTY_KEY && cachedKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Solves a range of the islands, splitting it in half until it has few enough contacts.
+     * No two islands share a body that can move, so they can be solved at the same time
+     */
+    private class PSolveIslandsTask extends RecursiveAction {
+        private final PIslands islands;
+        private final int startIsland;
+        private final int endIsland;
+
+        PSolveIslandsTask(PIslands islands, int startIsland, int endIsland) {
+            this.islands = islands;
+            this.startIsland = startIsland;
+            this.endIsland = endIsland;
+        }
+
+        @Override
+        protected void compute() {
+            if (endIsland - startIsland == 1 || islands.getNumContacts(startIsland, endIsland) <= CONTACTS_PER_TASK) {
+                for (int island = startIsland; island < endIsland; island++) {
+                    solveIsland(islands, island);
+                }
+                return;
+            }
+
+            int middleIsland = (startIsland + endIsland) >>> 1;
+            invokeAll(new PSolveIslandsTask(islands, startIsland, middleIsland),
+                    new PSolveIslandsTask(islands, middleIsland, endIsland));
+        }
+    }
+
+    /**
+     * Solves a range of the contacts of one color with a certain step, splitting it in half until it is small enough
+     */
+    private class PSolveBatchTask extends RecursiveTask<Boolean> {
+        private final int step;
+        private final int start;
+        private final int end;
+
+        PSolveBatchTask(int step, int start, int end) {
+            this.step = step;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (end - start <= CONTACTS_PER_TASK) {
+                return solveBatch(step, start, end);
+            }
+
+            int middle = (start + end) >>> 1;
+            PSolveBatchTask firstHalf = new PSolveBatchTask(step, start, middle);
+            PSolveBatchTask secondHalf = new PSolveBatchTask(step, middle, end);
+            firstHalf.fork();
+            boolean isSecondHalfSolved = secondHalf.compute();
+            return firstHalf.join() && isSecondHalfSolved;
+        }
+    }
+
+    /**
+     * The properties of a contact point that the iterations work with
+     */
+    private static class PContactConstraint {
+        private long key;
+        private int featureId;
+        private PBody body1;
+        private PBody body2;
+
+        private double inverseMass1;
+        private double inverseMass2;
+        private double inverseInertia1;
+        private double inverseInertia2;
+
+        // The unit normal from body1 to body2, and how far apart the bodies were at the point when the contact was found
+        private double normalX;
+        private double normalY;
+        private double separation;
+
+        // The contact point relative to the center of each body
+        private double r1X;
+        private double r1Y;
+        private double r2X;
+        private double r2Y;
+
+        // The center and angle of each body when the contact was found
+        private double startCenter1X;
+        private double startCenter1Y;
+        private double startCenter2X;
+        private double startCenter2Y;
+        private double startAngle1;
+        private double startAngle2;
+
+        private double normalMass;
+        private double tangentMass;
+        private double velocityBias;
+        private double friction;
+
+        // The normal velocity that the bodies came in at, which they bounce off of
+        private double approachVelocity;
+
+        // The matrix that maps the normal impulses of a contact's two points to the change in their normal
+        // velocities, only stored in the first point, and whether the two points are solved together
+        private double blockK11;
+        private double blockK12;
+        private double blockK22;
+        private boolean isBlockSolved;
+
+        // The total impulses applied to the contact so far
+        private double normalImpulse;
+        private double tangentImpulse;
+    }
+}
@@ -0,0 +1,299 @@
+package com.javaphysicsengine.api.solver;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PConstraints;
+import com.javaphysicsengine.api.collision.PNarrowphase;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the awake, moving bodies into islands: groups of bodies that are connected through contacts or
+ * constraints. No contact or constraint joins two islands, so each island can be solved on its own,
+ * and an island can only be put to sleep as a whole.
+ *
+ * Bodies that cannot move (or are asleep) do not join islands together, since nothing that happens in one
+ * island can move them and pass it on to another.
+ */
+public class PIslands {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // The parent of each body in the union-find forest, or -1 if the body is not in an island
+    private int[] parents = new int[INITIAL_CAPACITY];
+
+    // The island of each body, or -1 if the body is not in an island
+    private int[] bodyIslands = new int[INITIAL_CAPACITY];
+    private int numBodies = 0;
+
+    // The bodies and contacts of island i are at [starts[i], starts[i + 1]) in the lists below
+    private int numIslands = 0;
+    private int[] bodyStarts = new int[INITIAL_CAPACITY + 1];
+    private int[] islandBodies = new int[INITIAL_CAPACITY];
+    private int[] contactStarts = new int[INITIAL_CAPACITY + 1];
+    private int[] islandContacts = new int[INITIAL_CAPACITY];
+
+    // The index of each body in the last list of bodies, used to find the bodies of the constraints
+    private final Map<PBody, Integer> bodyIndices = new IdentityHashMap<>();
+
+    /**
+     * Finds the islands of the bodies
+     * Pre-condition: "narrowphase" must have last found its contacts in "bodies", and the bodies attached to
+     * the constraints must be in "bodies"
+     * @param bodies The bodies
+     * @param constraints The constraints between the bodies
+     * @param narrowphase The narrowphase with the contacts between the bodies
+     */
+    public void build(List<PBody> bodies, List<PConstraints> constraints, PNarrowphase narrowphase) {
+        numBodies = bodies.size();
+        ensureBodyCapacity(numBodies);
+
+        for (int i = 0; i < numBodies; i++) {
+            PBody body = bodies.get(i);
+            parents[i] = body.isMoving() && body.isAwake() ? i : -1;
+        }
+
+        // Join the bodies that touch or are attached to each other
+        for (int i = 0; i < narrowphase.getNumContacts(); i++) {
+            union(narrowphase.getBodyIndex1(i), narrowphase.getBodyIndex2(i));
+        }
+
+        if (!constraints.isEmpty()) {
+            refreshBodyIndices(bodies);
+            for (PConstraints constraint : constraints) {
+                Integer bodyIndex1 = bodyIndices.get(constraint.getAttachedBodies()[0]);
+                Integer bodyIndex2 = bodyIndices.get(constraint.getAttachedBodies()[1]);
+                if (bodyIndex1 != null && bodyIndex2 != null) {
+                    union(bodyIndex1, bodyIndex2);
+                }
+            }
+        }
+
+        // Number the islands in the order of their first body
+        numIslands = 0;
+        for (int i = 0; i < numBodies; i++) {
+            if (parents[i] == -1) {
+                bodyIslands[i] = -1;
+            } else if (find(i) == i) {
+                bodyIslands[i] = numIslands++;
+            }
+        }
+        for (int i = 0; i < numBodies; i++) {
+            if (parents[i] != -1) {
+                bodyIslands[i] = bodyIslands[find(i)];
+            }
+        }
+
+        groupBodies();
+        groupContacts(narrowphase);
+    }
+
+    /**
+     * Returns the number of islands found by the last call to build()
+     * @return The number of islands
+     */
+    public int getNumIslands() {
+        return numIslands;
+    }
+
+    /**
+     * Returns the island that a body is in
+     * Pre-condition: "bodyIndex" must be an index into the list of bodies given to build()
+     * @param bodyIndex The index of the body
+     * @return The index of the island, or -1 if the body is asleep or cannot move
+     */
+    public int getIsland(int bodyIndex) {
+        return bodyIslands[bodyIndex];
+    }
+
+    /**
+     * Returns the number of bodies in an island
+     * Pre-condition: "island" must be between 0 and getNumIslands() - 1
+     * @param island The index of the island
+     * @return The number of bodies in the island
+     */
+    public int getNumBodies(int island) {
+        return bodyStarts[island + 1] - bodyStarts[island];
+    }
+
+    /**
+     * Returns a body in an island
+     * Pre-condition: "island" must be between 0 and getNumIslands() - 1, and "i" between 0 and getNumBodies(island) - 1
+     * @param island The index of the island
+     * @param i The index of the body within the island
+     * @return The index of the body in the list of bodies given to build()
+     */
+    public int getBody(int island, int i) {
+        return islandBodies[bodyStarts[island] + i];
+    }
+
+    /**
+     * Returns the number of contacts in an island
+     * Pre-condition: "island" must be between 0 and getNumIslands() - 1
+     * @param island The index of the island
+     * @return The number of contacts in the island
+     */
+    public int getNumContacts(int island) {
+        return contactStarts[island + 1] - contactStarts[island];
+    }
+
+    /**
+     * Returns a contact in an island. The contacts of an island are in the same order as the narrowphase's contacts
+     * Pre-condition: "island" must be between 0 and getNumIslands() - 1, and "i" between 0 and getNumContacts(island) - 1
+     * @param island The index of the island
+     * @param i The index of the contact within the island
+     * @return The index of the contact in the narrowphase
+     */
+    public int getContact(int island, int i) {
+        return islandContacts[contactStarts[island] + i];
+    }
+
+    /**
+     * Returns the number of contacts in a range of islands
+     * Pre-condition: 0 &lt;= "startIsland" &lt;= "endIsland" &lt;= getNumIslands()
+     * @param startIsland The index of the first island
+     * @param endIsland One past the index of the last island
+     * @return The number of contacts in the islands
+     */
+    int getNumContacts(int startIsland, int endIsland) {
+        return contactStarts[endIsland] - contactStarts[startIsland];
+    }
+
+    /**
+     * Joins the islands of two bodies, unless one of them is not in an island
+     * @param bodyIndex1 The index of the first body
+     * @param bodyIndex2 The index of the second body
+     */
+    private void union(int bodyIndex1, int bodyIndex2) {
+        if (parents[bodyIndex1] == -1 || parents[bodyIndex2] == -1) {
+            return;
+        }
+
+        int root1 = find(bodyIndex1);
+        int root2 = find(bodyIndex2);
+
+        // The body with the lower index becomes the root so that the islands are numbered in the same order every time
+        if (root1 < root2) {
+            parents[root2] = root1;
+        } else if (root2 < root1) {
+            parents[root1] = root2;
+        }
+    }
+
+    /**
+     * Finds the root of a body's tree, halving the path to it along the way
+     * @param bodyIndex The index of the body
+     * @return The index of the root body
+     */
+    private int find(int bodyIndex) {
+        while (parents[bodyIndex] != bodyIndex) {
+            parents[bodyIndex] = parents[parents[bodyIndex]];
+            bodyIndex = parents[bodyIndex];
+        }
+        return bodyIndex;
+    }
+
+    private void groupBodies() {
+        if (bodyStarts.length < numIslands + 1) {
+            bodyStarts = new int[Math.max(numIslands + 1, 2 * bodyStarts.length)];
+        }
+
+        // Count the bodies in each island, then place each body after the bodies of the islands before it
+        Arrays.fill(bodyStarts, 0, numIslands + 1, 0);
+        for (int i = 0; i < numBodies; i++) {
+            if (bodyIslands[i] != -1) {
+                bodyStarts[bodyIslands[i] + 1]++;
+            }
+        }
+        for (int island = 0; island < numIslands; island++) {
+            bodyStarts[island + 1] += bodyStarts[island];
+        }
+
+        for (int i = 0; i < numBodies; i++) {
+            if (bodyIslands[i] != -1) {
+                islandBodies[bodyStarts[bodyIslands[i]]++] = i;
+            }
+        }
+
+        // Placing the bodies moved each start to the start of the next island
+        for (int island = numIslands; island > 0; island--) {
+            bodyStarts[island] = bodyStarts[island - 1];
+        }
+        bodyStarts[0] = 0;
+    }
+
+    private void groupContacts(PNarrowphase narrowphase) {
+        int numContacts = narrowphase.getNumContacts();
+        if (contactStarts.length < numIslands + 1) {
+            contactStarts = new int[Math.max(numIslands + 1, 2 * contactStarts.length)];
+        }
+        if (islandContacts.length < numContacts) {
+            islandContacts = new int[Math.max(numContacts, 2 * islandContacts.length)];
+        }
+
+        Arrays.fill(contactStarts, 0, numIslands + 1, 0);
+        for (int i = 0; i < numContacts; i++) {
+            int island = getContactIsland(narrowphase, i);
+            if (island != -1) {
+                contactStarts[island + 1]++;
+            }
+        }
+        for (int island = 0; island < numIslands; island++) {
+            contactStarts[island + 1] += contactStarts[island];
+        }
+
+        for (int i = 0; i < numContacts; i++) {
+            int island = getContactIsland(narrowphase, i);
+            if (island != -1) {
+                islandContacts[contactStarts[island]++] = i;
+            }
+        }
+
+        for (int island = numIslands; island > 0; island--) {
+            contactStarts[island] = contactStarts[island - 1];
+        }
+        contactStarts[0] = 0;
+    }
+
+    /**
+     * Returns the island of a contact, which is the island of whichever of its bodies is in one
+     * @param narrowphase The narrowphase
+     * @param contact The index of the contact
+     * @return The index of the island, or -1 if neither body is in an island
+     */
+    private int getContactIsland(PNarrowphase narrowphase, int contact) {
+        int island = bodyIslands[narrowphase.getBodyIndex1(contact)];
+        return island != -1 ? island : bodyIslands[narrowphase.getBodyIndex2(contact)];
+    }
+
+    /**
+     * Updates the index of each body, unless the list of bodies has not changed
+     * @param bodies The bodies
+     */
+    private void refreshBodyIndices(List<PBody> bodies) {
+        boolean isUpToDate = bodyIndices.size() == bodies.size();
+        for (int i = 0; i < bodies.size() && isUpToDate; i++) {
+            Integer bodyIndex = bodyIndices.get(bodies.get(i));
+            isUpToDate = bodyIndex != null && bodyIndex == i;
+        }
+
+        if (!isUpToDate) {
+            bodyIndices.clear();
+            for (int i = 0; i < bodies.size(); i++) {
+                bodyIndices.put(bodies.get(i), i);
+            }
+        }
+    }
+
+    private void ensureBodyCapacity(int capacity) {
+        if (capacity <= parents.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, 2 * parents.length);
+        parents = new int[newCapacity];
+        bodyIslands = new int[newCapacity];
+        islandBodies = new int[newCapacity];
+    }
+}
@@ -1,6 +1,11 @@
 package com.javaphysicsengine.api;
 
 import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.api.broadphase.PBroadphase;
+import com.javaphysicsengine.api.broadphase.PDynamicAABBTree;
+import com.javaphysicsengine.api.broadphase.PQuadTree;
+import com.javaphysicsengine.api.broadphase.PSpatialHashGrid;
+import com.javaphysicsengine.api.broadphase.PSweepAndPrune;
 import com.javaphysicsengine.utils.Vector;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
@@ -18,13 +23,19 @@ public class PWorldPerfTest {
 
         public final static double FPS = 64;
 
+        @Param({"PQuadTree", "PSweepAndPrune", "PDynamicAABBTree", "PSpatialHashGrid"})
+        public String broadphaseName;
+
+        @Param({"false", "true"})
+        public boolean isStoringBodiesInArrays;
+
         public PWorld pWorld;
         public double timeEllapsed;
 
         @Setup(Level.Trial)
         public void setup() {
             timeEllapsed = (1000.0 / FPS) / 1000.0;
-            pWorld = new PWorld();
+            pWorld = new PWorld(createBroadphase(broadphaseName), isStoringBodiesInArrays);
 
             // The walls
             PPolygon ground = new PPolygon("Ground");
@@ -71,6 +82,72 @@ public class PWorldPerfTest {
         }
     }
 
+    @State(Scope.Benchmark)
+    public static class PWorldSleepingBoxesState {
+
+        public final static double FPS = 64;
+        public final static int NUM_BOXES = 1000;
+        public final static int NUM_WOKEN_BOXES = 10;
+
+        @Param({"PQuadTree", "PSweepAndPrune", "PDynamicAABBTree", "PSpatialHashGrid"})
+        public String broadphaseName;
+
+        @Param({"false", "true"})
+        public boolean isStoringBodiesInArrays;
+
+        public PWorld pWorld;
+        public double timeEllapsed;
+        public int nextWokenBox = 0;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            timeEllapsed = (1000.0 / FPS) / 1000.0;
+            pWorld = new PWorld(createBroadphase(broadphaseName), isStoringBodiesInArrays);
+
+            PPolygon ground = new PPolygon("Ground");
+            ground.setMoveable(false);
+            ground.getVertices().add(Vector.of(0, 0));
+            ground.getVertices().add(Vector.of(40 * NUM_BOXES, 0));
+            ground.getVertices().add(Vector.of(40 * NUM_BOXES, 50));
+            ground.getVertices().add(Vector.of(0, 50));
+            ground.computeCenterOfMass();
+            pWorld.getBodies().add(ground);
+
+            // A row of boxes that are far enough apart to fall asleep on their own
+            for (int i = 0; i < NUM_BOXES; i++) {
+                PPolygon box = new PPolygon("Box");
+                box.setMass(10);
+
+                box.getVertices().add(Vector.of(40 * i + 10, 50));
+                box.getVertices().add(Vector.of(40 * i + 30, 50));
+                box.getVertices().add(Vector.of(40 * i + 30, 70));
+                box.getVertices().add(Vector.of(40 * i + 10, 70));
+
+                box.computeCenterOfMass();
+                pWorld.getBodies().add(box);
+            }
+
+            for (int step = 0; step < 200; step++) {
+                pWorld.simulate(timeEllapsed);
+            }
+        }
+    }
+
+    private static PBroadphase createBroadphase(String broadphaseName) {
+        switch (broadphaseName) {
+            case "PQuadTree":
+                return new PQuadTree();
+            case "PSweepAndPrune":
+                return new PSweepAndPrune();
+            case "PDynamicAABBTree":
+                return new PDynamicAABBTree();
+            case "PSpatialHashGrid":
+                return new PSpatialHashGrid();
+            default:
+                throw new IllegalArgumentException("Unknown broadphase " + broadphaseName);
+        }
+    }
+
     @Benchmark
     @BenchmarkMode(Mode.AverageTime)
     @OutputTimeUnit(TimeUnit.SECONDS)
@@ -82,6 +159,24 @@ public class PWorldPerfTest {
         blackhole.consume(state.pWorld);
     }
 
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void measureSimulate_onSleepingBoxes(PWorldSleepingBoxesState state, Blackhole blackhole) {
+        // Only a few boxes are woken up at a time, and they fall back asleep after they land
+        for (int i = 0; i < PWorldSleepingBoxesState.NUM_WOKEN_BOXES; i++) {
+            int box = 1 + state.nextWokenBox;
+            state.pWorld.getBodies().get(box).setVelocity(Vector.of(0, 5));
+            state.nextWokenBox = (state.nextWokenBox + 37) % PWorldSleepingBoxesState.NUM_BOXES;
+        }
+
+        for (int i = 0; i < 10; i++) {
+            state.pWorld.simulate(state.timeEllapsed);
+        }
+
+        blackhole.consume(state.pWorld);
+    }
+
     public static void main(String[] args) throws RunnerException {
 
         Options opt = new OptionsBuilder()
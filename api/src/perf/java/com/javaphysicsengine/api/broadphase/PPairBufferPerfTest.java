@@ -0,0 +1,105 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.utils.Vector;
+import org.javatuples.Pair;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the broadphase's pairs as a set of {@link Pair}s with reading them into a {@link PPairBuffer}.
+ * Run with "-prof gc" to see the allocation rates
+ */
+public class PPairBufferPerfTest {
+
+    @State(Scope.Benchmark)
+    public static class PStackedBoxesState {
+
+        @Param({"4000"})
+        public int numBodies;
+
+        @Param({"PQuadTree", "PSweepAndPrune", "PDynamicAABBTree", "PSpatialHashGrid"})
+        public String broadphaseName;
+
+        public List<PBody> bodies;
+        public PBroadphase broadphase;
+        public PPairBuffer buffer;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            bodies = new ArrayList<>();
+
+            // Boxes that touch their neighbours, like a resting stack
+            int numCols = (int) Math.sqrt(numBodies);
+            for (int i = 0; i < numBodies; i++) {
+                int col = i % numCols;
+                int row = i / numCols;
+
+                PPolygon box = new PPolygon("Box");
+                box.getVertices().add(Vector.of(30 * col, 30 * row));
+                box.getVertices().add(Vector.of(30 * col + 30, 30 * row));
+                box.getVertices().add(Vector.of(30 * col + 30, 30 * row + 30));
+                box.getVertices().add(Vector.of(30 * col, 30 * row + 30));
+                box.computeCenterOfMass();
+                bodies.add(box);
+            }
+
+            switch (broadphaseName) {
+                case "PQuadTree":
+                    broadphase = new PQuadTree();
+                    break;
+                case "PSweepAndPrune":
+                    broadphase = new PSweepAndPrune();
+                    break;
+                case "PDynamicAABBTree":
+                    broadphase = new PDynamicAABBTree();
+                    break;
+                default:
+                    broadphase = new PSpatialHashGrid(30);
+                    break;
+            }
+            broadphase.update(bodies);
+            buffer = new PPairBuffer();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void measureSetOfPairs(PStackedBoxesState state, Blackhole blackhole) {
+        for (Pair<PBody, PBody> pair : state.broadphase.getPotentialIntersectingBodies()) {
+            blackhole.consume(pair.getValue0());
+            blackhole.consume(pair.getValue1());
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void measurePairBuffer(PStackedBoxesState state, Blackhole blackhole) {
+        state.broadphase.getPotentialIntersectingPairs(state.buffer);
+        for (int i = 0; i < state.buffer.size(); i++) {
+            blackhole.consume(state.bodies.get(state.buffer.getBodyIndex1(i)));
+            blackhole.consume(state.bodies.get(state.buffer.getBodyIndex2(i)));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        Options opt = new OptionsBuilder()
+                .include(PPairBufferPerfTest.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
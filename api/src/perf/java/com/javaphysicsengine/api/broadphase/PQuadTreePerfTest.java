@@ -0,0 +1,106 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.utils.Vector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rebuilding the quad tree on every time step with keeping it across time steps,
+ * on a scene where most of the bodies are resting
+ */
+public class PQuadTreePerfTest {
+
+    @State(Scope.Benchmark)
+    public static class PRestingBoxesState {
+
+        @Param({"1000", "4000"})
+        public int numBodies;
+
+        public List<PBody> bodies;
+        public List<PBody> movingBodies;
+        public PQuadTree persistentTree;
+
+        private Random random;
+        private int step;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            random = new Random(1234);
+            bodies = new ArrayList<>();
+            movingBodies = new ArrayList<>();
+
+            int numCols = (int) Math.sqrt(numBodies);
+            for (int i = 0; i < numBodies; i++) {
+                int col = i % numCols;
+                int row = i / numCols;
+
+                PPolygon box = new PPolygon("Box");
+                box.getVertices().add(Vector.of(40 * col, 40 * row));
+                box.getVertices().add(Vector.of(40 * col + 30, 40 * row));
+                box.getVertices().add(Vector.of(40 * col + 30, 40 * row + 30));
+                box.getVertices().add(Vector.of(40 * col, 40 * row + 30));
+                box.computeCenterOfMass();
+                bodies.add(box);
+
+                // Only 5% of the bodies are moving
+                if (i % 20 == 0) {
+                    movingBodies.add(box);
+                }
+            }
+
+            persistentTree = new PQuadTree();
+            persistentTree.update(bodies);
+        }
+
+        /**
+         * Moves the moving bodies back and forth by a small amount, like a time step would
+         */
+        public void step() {
+            double direction = (step++ / 10) % 2 == 0 ? 1 : -1;
+            for (PBody body : movingBodies) {
+                body.translate(Vector.of(direction * random.nextDouble(), direction * random.nextDouble()));
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void measureRebuildTreeEveryStep(PRestingBoxesState state, Blackhole blackhole) {
+        state.step();
+
+        PQuadTree tree = new PQuadTree(state.bodies);
+        blackhole.consume(tree.getPotentialIntersectingBodies());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void measureUpdatePersistentTree(PRestingBoxesState state, Blackhole blackhole) {
+        state.step();
+
+        state.persistentTree.update(state.bodies);
+        blackhole.consume(state.persistentTree.getPotentialIntersectingBodies());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        Options opt = new OptionsBuilder()
+                .include(PQuadTreePerfTest.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.utils.Vector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the broadphases on a scene with many small circles of similar size, where every circle moves
+ */
+public class PSpatialHashGridPerfTest {
+
+    @State(Scope.Benchmark)
+    public static class PParticlesState {
+
+        private static final double RADIUS = 4;
+
+        @Param({"10000", "40000"})
+        public int numBodies;
+
+        @Param({"PQuadTree", "PSpatialHashGrid"})
+        public String broadphaseName;
+
+        public List<PBody> bodies;
+        public PBroadphase broadphase;
+
+        private Random random;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            random = new Random(1234);
+            bodies = new ArrayList<>();
+
+            // Spread the circles out so that each circle touches about one other circle
+            double worldSize = Math.sqrt(numBodies) * 5 * RADIUS;
+            for (int i = 0; i < numBodies; i++) {
+                PCircle circle = new PCircle("Particle");
+                circle.setRadius(RADIUS);
+                circle.setCenterPt(Vector.of(random.nextDouble() * worldSize, random.nextDouble() * worldSize));
+                bodies.add(circle);
+            }
+
+            broadphase = broadphaseName.equals("PQuadTree") ? new PQuadTree() : new PSpatialHashGrid(2 * RADIUS);
+            broadphase.update(bodies);
+        }
+
+        /**
+         * Moves every circle by a small amount, like a time step would
+         */
+        public void step() {
+            for (PBody body : bodies) {
+                body.translate(Vector.of(random.nextDouble() - 0.5, random.nextDouble() - 0.5));
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void measureUpdate(PParticlesState state, Blackhole blackhole) {
+        state.step();
+
+        state.broadphase.update(state.bodies);
+        blackhole.consume(state.broadphase.getPotentialIntersectingBodies());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        Options opt = new OptionsBuilder()
+                .include(PSpatialHashGridPerfTest.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
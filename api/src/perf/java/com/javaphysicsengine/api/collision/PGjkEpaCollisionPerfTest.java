@@ -0,0 +1,69 @@
+package com.javaphysicsengine.api.collision;
+
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.utils.Vector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares SAT with GJK and EPA on pairs of overlapping polygons, as the number of vertices grows
+ */
+public class PGjkEpaCollisionPerfTest {
+
+    @State(Scope.Benchmark)
+    public static class POverlappingPolygonsState {
+
+        @Param({"4", "16", "64", "256"})
+        public int numVertices;
+
+        public PPolygon polygon1;
+        public PPolygon polygon2;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            polygon1 = createRegularPolygon(numVertices, 0, 0, 0);
+            polygon2 = createRegularPolygon(numVertices, 80, 30, 0.3);
+        }
+
+        private static PPolygon createRegularPolygon(int numVertices, double centerX, double centerY, double angle) {
+            PPolygon polygon = new PPolygon("Polygon");
+            for (int i = 0; i < numVertices; i++) {
+                double vertexAngle = angle + 2 * Math.PI * i / numVertices;
+                polygon.getVertices().add(Vector.of(centerX + 50 * Math.cos(vertexAngle), centerY + 50 * Math.sin(vertexAngle)));
+            }
+            polygon.computeCenterOfMass();
+            polygon.setVelocity(Vector.of(0, -1));
+            return polygon;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void measureSat(POverlappingPolygonsState state, Blackhole blackhole) {
+        blackhole.consume(PPolyPolyCollision.doBodiesCollide(state.polygon1, state.polygon2));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void measureGjkEpa(POverlappingPolygonsState state, Blackhole blackhole) {
+        blackhole.consume(PGjkEpaCollision.doBodiesCollide(state.polygon1, state.polygon2));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        Options opt = new OptionsBuilder()
+                .include(PGjkEpaCollisionPerfTest.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.javaphysicsengine.api.collision;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.api.broadphase.PPairBuffer;
+import com.javaphysicsengine.api.broadphase.PSpatialHashGrid;
+import com.javaphysicsengine.utils.Vector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the narrowphase scales with the number of threads it runs on
+ */
+public class PNarrowphasePerfTest {
+
+    @State(Scope.Benchmark)
+    public static class POverlappingBoxesState {
+
+        @Param({"5000"})
+        public int numBodies;
+
+        @Param({"1", "4", "16"})
+        public int numThreads;
+
+        public List<PBody> bodies;
+        public PPairBuffer pairs;
+        public ForkJoinPool forkJoinPool;
+        public PNarrowphase narrowphase;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            bodies = new ArrayList<>();
+
+            // Boxes that overlap their neighbours, like a stack that has just settled
+            int numCols = (int) Math.sqrt(numBodies);
+            for (int i = 0; i < numBodies; i++) {
+                int col = i % numCols;
+                int row = i / numCols;
+
+                PPolygon box = new PPolygon("Box");
+                box.getVertices().add(Vector.of(28 * col, 28 * row));
+                box.getVertices().add(Vector.of(28 * col + 30, 28 * row));
+                box.getVertices().add(Vector.of(28 * col + 30, 28 * row + 30));
+                box.getVertices().add(Vector.of(28 * col, 28 * row + 30));
+                box.computeCenterOfMass();
+                box.setVelocity(Vector.of(0, -1));
+                bodies.add(box);
+            }
+
+            PSpatialHashGrid broadphase = new PSpatialHashGrid(30);
+            broadphase.update(bodies);
+            pairs = new PPairBuffer();
+            broadphase.getPotentialIntersectingPairs(pairs);
+
+            forkJoinPool = new ForkJoinPool(numThreads);
+            narrowphase = new PNarrowphase(forkJoinPool);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void measureFindContacts(POverlappingBoxesState state, Blackhole blackhole) {
+        state.narrowphase.findContacts(state.bodies, state.pairs);
+        blackhole.consume(state.narrowphase.getNumContacts());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        Options opt = new OptionsBuilder()
+                .include(PNarrowphasePerfTest.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.javaphysicsengine.api.solver;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PConstraints;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.api.broadphase.PPairBuffer;
+import com.javaphysicsengine.api.broadphase.PSpatialHashGrid;
+import com.javaphysicsengine.api.collision.PNarrowphase;
+import com.javaphysicsengine.utils.Vector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the contact solver scales with the number of threads on one big island
+ */
+public class PContactSolverPerfTest {
+
+    @State(Scope.Benchmark)
+    public static class PBigPileState {
+
+        @Param({"10000"})
+        public int numBodies;
+
+        @Param({"1", "2", "4", "8", "16"})
+        public int numThreads;
+
+        public List<PBody> bodies;
+        public PNarrowphase narrowphase;
+        public PIslands islands;
+        public ForkJoinPool forkJoinPool;
+        public PContactSolver contactSolver;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            bodies = new ArrayList<>();
+
+            // A pile of boxes on the ground, where each box overlaps its neighbours so that the pile is one island
+            PPolygon ground = createBox(-100, -100, 3000, 100);
+            ground.setMoveable(false);
+            bodies.add(ground);
+
+            int numCols = (int) Math.sqrt(numBodies);
+            for (int i = 0; i < numBodies; i++) {
+                int col = i % numCols;
+                int row = i / numCols;
+
+                PPolygon box = createBox(28 * col, 28 * row - 2, 30, 30);
+                box.setVelocity(Vector.of(0, -1));
+                bodies.add(box);
+            }
+
+            PSpatialHashGrid broadphase = new PSpatialHashGrid(30);
+            broadphase.update(bodies);
+            PPairBuffer pairs = new PPairBuffer();
+            broadphase.getPotentialIntersectingPairs(pairs);
+
+            narrowphase = new PNarrowphase();
+            narrowphase.findContacts(bodies, pairs);
+            islands = new PIslands();
+            islands.build(bodies, new ArrayList<PConstraints>(), narrowphase);
+
+            forkJoinPool = new ForkJoinPool(numThreads);
+            contactSolver = new PContactSolver(forkJoinPool);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            forkJoinPool.shutdown();
+        }
+
+        private static PPolygon createBox(double x, double y, double width, double height) {
+            PPolygon box = new PPolygon("Box");
+            box.getVertices().add(Vector.of(x, y));
+            box.getVertices().add(Vector.of(x + width, y));
+            box.getVertices().add(Vector.of(x + width, y + height));
+            box.getVertices().add(Vector.of(x, y + height));
+            box.computeCenterOfMass();
+            return box;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void measureSolve(PBigPileState state, Blackhole blackhole) {
+        state.contactSolver.solve(state.bodies, state.narrowphase, state.islands);
+        blackhole.consume(state.contactSolver.getNumContacts());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        Options opt = new OptionsBuilder()
+                .include(PContactSolverPerfTest.class.getSimpleName())
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
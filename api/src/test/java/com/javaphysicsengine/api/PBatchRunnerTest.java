@@ -0,0 +1,95 @@
+package com.javaphysicsengine.api;
+
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.utils.Vector;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PBatchRunnerTest {
+
+    private static final int NUM_RUNS = 16;
+    private static final int NUM_STEPS = 60;
+    private static final double TIME_STEP = 1.0 / 60;
+
+    private PWorld scene;
+
+    @Before
+    public void setup() {
+        scene = new PWorld();
+
+        PPolygon ground = createBox(-200, -10, 400, 10);
+        ground.setMoveable(false);
+        scene.getBodies().add(ground);
+
+        for (int i = 0; i < 5; i++) {
+            PCircle ball = new PCircle("Ball");
+            ball.setRadius(5);
+            ball.setCenterPt(Vector.of(-50 + i * 25, 20 + i * 5));
+            scene.getBodies().add(ball);
+        }
+    }
+
+    @Test
+    public void run_should_give_sink_the_same_worlds_as_simulating_each_run_alone() {
+        double[] centerXs = new double[NUM_RUNS];
+        double[] centerYs = new double[NUM_RUNS];
+        AtomicInteger numResults = new AtomicInteger();
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            new PBatchRunner(forkJoinPool).run(scene, NUM_RUNS, TIME_STEP, NUM_STEPS, PBatchRunnerTest::throwBall,
+                    (run, world) -> {
+                        centerXs[run] = world.getBodies().get(1).getCenterPt().getX();
+                        centerYs[run] = world.getBodies().get(1).getCenterPt().getY();
+                        numResults.incrementAndGet();
+                    });
+        } finally {
+            forkJoinPool.shutdown();
+        }
+
+        assertEquals(NUM_RUNS, numResults.get());
+        for (int run = 0; run < NUM_RUNS; run++) {
+            PWorld world = new PWorld();
+            world.addCopiesOf(scene.getBodies(), scene.getConstraints());
+            throwBall(run, world);
+            for (int step = 0; step < NUM_STEPS; step++) {
+                world.simulate(TIME_STEP);
+            }
+
+            assertEquals(world.getBodies().get(1).getCenterPt().getX(), centerXs[run], 0);
+            assertEquals(world.getBodies().get(1).getCenterPt().getY(), centerYs[run], 0);
+        }
+
+        // The runs are thrown at different speeds, so they end up in different places
+        assertTrue(centerXs[NUM_RUNS - 1] > centerXs[0]);
+    }
+
+    @Test
+    public void run_should_not_change_the_scene() {
+        new PBatchRunner().run(scene, NUM_RUNS, TIME_STEP, NUM_STEPS, PBatchRunnerTest::throwBall, (run, world) -> { });
+
+        assertEquals(Vector.of(-50, 20), scene.getBodies().get(1).getCenterPt());
+        assertEquals(Vector.of(0, 0), scene.getBodies().get(1).getVelocity());
+    }
+
+    private static void throwBall(int run, PWorld world) {
+        world.getBodies().get(1).setVelocity(Vector.of(run * 5, 10));
+    }
+
+    private static PPolygon createBox(double x, double y, double width, double height) {
+        PPolygon box = new PPolygon("Box");
+        box.getVertices().addAll(Arrays.asList(
+                Vector.of(x, y), Vector.of(x + width, y), Vector.of(x + width, y + height), Vector.of(x, y + height)
+        ));
+        box.computeCenterOfMass();
+        return box;
+    }
+}
@@ -0,0 +1,94 @@
+package com.javaphysicsengine.api;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.body.PConstraints;
+import com.javaphysicsengine.utils.Vector;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PSnapshotBufferTest {
+
+    private static final int NUM_BODIES = 50;
+
+    private List<PBody> bodies;
+    private List<PConstraints> constraints;
+    private PSnapshotBuffer buffer;
+
+    @Before
+    public void setup() {
+        bodies = new ArrayList<>();
+        for (int i = 0; i < NUM_BODIES; i++) {
+            bodies.add(new PCircle("Ball"));
+        }
+        constraints = Collections.emptyList();
+        buffer = new PSnapshotBuffer();
+    }
+
+    @Test
+    public void getLatest_should_return_the_latest_snapshot_and_keep_it_until_the_next_call() {
+        assertEquals(0, buffer.getLatest().getNumBodies());
+
+        moveBodiesTo(1);
+        buffer.publish(1, bodies, constraints);
+        moveBodiesTo(2);
+        buffer.publish(2, bodies, constraints);
+
+        // The first snapshot was replaced before it was taken
+        PWorldSnapshot snapshot = buffer.getLatest();
+        assertEquals(2, snapshot.getStepNumber());
+        assertEquals(NUM_BODIES, snapshot.getNumBodies());
+        assertEquals(2, snapshot.getCenterX(0), 0);
+
+        // Publishing more snapshots does not write to the one being read
+        for (int step = 3; step < 10; step++) {
+            moveBodiesTo(step);
+            buffer.publish(step, bodies, constraints);
+        }
+        assertEquals(2, snapshot.getStepNumber());
+        assertEquals(2, snapshot.getCenterX(NUM_BODIES - 1), 0);
+
+        assertEquals(9, buffer.getLatest().getStepNumber());
+    }
+
+    @Test
+    public void getLatest_should_never_return_a_torn_snapshot_given_snapshots_are_published_on_another_thread() throws InterruptedException {
+        int numSteps = 20000;
+        Thread writer = new Thread(() -> {
+            for (int step = 1; step <= numSteps; step++) {
+                moveBodiesTo(step);
+                buffer.publish(step, bodies, constraints);
+            }
+        });
+        writer.start();
+
+        long lastStepNumber = 0;
+        while (lastStepNumber < numSteps) {
+            PWorldSnapshot snapshot = buffer.getLatest();
+
+            // Every body in a snapshot was moved to the step it was taken at
+            for (int i = 0; i < snapshot.getNumBodies(); i++) {
+                assertEquals(snapshot.getStepNumber(), snapshot.getCenterX(i), 0);
+                assertEquals(snapshot.getStepNumber(), snapshot.getAngle(i), 0);
+            }
+            assertTrue(snapshot.getStepNumber() >= lastStepNumber);
+            lastStepNumber = snapshot.getStepNumber();
+        }
+
+        writer.join();
+    }
+
+    private void moveBodiesTo(double value) {
+        for (PBody body : bodies) {
+            body.setCenterPt(Vector.of(value, -value));
+            body.setAngle(value);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.javaphysicsengine.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.AdditionalMatchers.eq;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PTimeStepperTest {
+
+    private PWorld world;
+    private PTimeStepper timeStepper;
+
+    @Before
+    public void setUp() {
+        world = mock(PWorld.class);
+        timeStepper = new PTimeStepper(world, 0.01);
+    }
+
+    @Test
+    public void advance_should_not_simulate_given_less_than_a_step_has_passed() {
+        assertEquals(0, timeStepper.advance(0.004));
+        verify(world, never()).simulate(anyDouble());
+        assertEquals(0.4, timeStepper.getAlpha(), 0.00001);
+    }
+
+    @Test
+    public void advance_should_simulate_once_the_time_has_built_up_to_a_step() {
+        timeStepper.advance(0.006);
+        assertEquals(1, timeStepper.advance(0.006));
+
+        verify(world, times(1)).simulate(eq(0.01, 0.00001));
+        assertEquals(0.2, timeStepper.getAlpha(), 0.00001);
+    }
+
+    @Test
+    public void advance_should_run_each_step_in_substeps() {
+        timeStepper.setNumSubsteps(4);
+        assertEquals(2, timeStepper.advance(0.025));
+
+        verify(world, times(8)).simulate(eq(0.0025, 0.00001));
+        assertEquals(0.5, timeStepper.getAlpha(), 0.00001);
+    }
+
+    @Test
+    public void advance_should_drop_the_time_it_cannot_catch_up_on() {
+        timeStepper.setMaxStepsPerFrame(3);
+        assertEquals(3, timeStepper.advance(1.005));
+
+        verify(world, times(3)).simulate(anyDouble());
+        assertEquals(0.5, timeStepper.getAlpha(), 0.00001);
+
+        // The next frame does not try to catch up on the time that was dropped
+        assertEquals(0, timeStepper.advance(0.001));
+    }
+}
@@ -5,6 +5,11 @@ import com.javaphysicsengine.api.body.PCircle;
 import com.javaphysicsengine.api.body.PConstraints;
 import com.javaphysicsengine.api.body.PPolygon;
 import com.javaphysicsengine.api.body.PSpring;
+import com.javaphysicsengine.api.broadphase.PBroadphase;
+import com.javaphysicsengine.api.broadphase.PDynamicAABBTree;
+import com.javaphysicsengine.api.broadphase.PQuadTree;
+import com.javaphysicsengine.api.broadphase.PSpatialHashGrid;
+import com.javaphysicsengine.api.broadphase.PSweepAndPrune;
 import com.javaphysicsengine.utils.Vector;
 import org.junit.Before;
 import org.junit.Test;
@@ -14,6 +19,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
@@ -67,6 +75,345 @@ public class PWorldTest {
         }
     }
 
+    @Test
+    public void simulate_should_move_bodies_the_same_way_when_storing_bodies_in_arrays() {
+        PWorld objectWorld = new PWorld(new PQuadTree());
+        PWorld arrayWorld = new PWorld(new PQuadTree(), true);
+        for (PWorld curWorld : Arrays.asList(objectWorld, arrayWorld)) {
+            for (int i = 0; i < 5; i++) {
+                PPolygon box = new PPolygon("Box");
+                box.getVertices().addAll(Arrays.asList(
+                        Vector.of(20 * i, 10 * i), Vector.of(20 * i + 10, 10 * i),
+                        Vector.of(20 * i + 10, 10 * i + 10), Vector.of(20 * i, 10 * i + 10)
+                ));
+                box.computeCenterOfMass();
+                curWorld.getBodies().add(box);
+            }
+            curWorld.getBodies().get(0).setMoveable(false);
+            curWorld.getConstraints().add(new PSpring(curWorld.getBodies().get(1), curWorld.getBodies().get(2)));
+        }
+
+        for (int step = 0; step < 100; step++) {
+            objectWorld.simulate(0.016);
+            arrayWorld.simulate(0.016);
+        }
+
+        for (int i = 0; i < objectWorld.getBodies().size(); i++) {
+            PBody objectBody = objectWorld.getBodies().get(i);
+            PBody arrayBody = arrayWorld.getBodies().get(i);
+
+            assertEquals(objectBody.getCenterPt(), arrayBody.getCenterPt());
+            assertEquals(objectBody.getVelocity(), arrayBody.getVelocity());
+            assertEquals(objectBody.getAngle(), arrayBody.getAngle(), 0.000001);
+        }
+    }
+
+    @Test
+    public void simulate_should_put_resting_bodies_to_sleep() {
+        PWorld world = createWorldWithBoxOnGround();
+        PBody box = world.getBodies().get(1);
+
+        for (int step = 0; step < 200; step++) {
+            world.simulate(0.016);
+        }
+        Vector centerPt = new Vector(box.getCenterPt());
+        world.simulate(0.016);
+
+        assertFalse(box.isAwake());
+        assertEquals(centerPt, box.getCenterPt());
+    }
+
+    @Test
+    public void simulate_should_wake_sleeping_bodies_when_hit() {
+        PWorld world = createWorldWithBoxOnGround();
+        PBody box = world.getBodies().get(1);
+        for (int step = 0; step < 200; step++) {
+            world.simulate(0.016);
+        }
+
+        PPolygon fallingBox = createBox(0, 12, 10, 10);
+        fallingBox.setVelocity(Vector.of(0, -10));
+        world.getBodies().add(fallingBox);
+
+        boolean isWoken = false;
+        for (int step = 0; step < 50 && !isWoken; step++) {
+            world.simulate(0.016);
+            isWoken = box.isAwake();
+        }
+
+        assertTrue(isWoken);
+        assertTrue(fallingBox.getCenterPt().getY() > box.getCenterPt().getY());
+    }
+
+    @Test
+    public void simulate_should_move_sleeping_body_after_it_is_woken_up_outside_of_world() {
+        PWorld world = createWorldWithBoxOnGround();
+        PBody box = world.getBodies().get(1);
+        for (int step = 0; step < 200; step++) {
+            world.simulate(0.016);
+        }
+        assertFalse(box.isAwake());
+
+        double y = box.getCenterPt().getY();
+        box.setVelocity(Vector.of(0, 5));
+        world.simulate(0.016);
+
+        assertTrue(box.isAwake());
+        assertTrue(box.getCenterPt().getY() > y);
+    }
+
+    @Test
+    public void simulate_should_wake_sleeping_bodies_when_hit_by_body_woken_up_outside_of_world() {
+        PBroadphase[] broadphases = {
+                new PQuadTree(), new PSpatialHashGrid(), new PDynamicAABBTree(), new PSweepAndPrune()
+        };
+        for (PBroadphase broadphase : broadphases) {
+            PWorld world = new PWorld(broadphase);
+            PPolygon ground = createBox(-50, -10, 100, 10);
+            ground.setMoveable(false);
+            world.getBodies().add(ground);
+
+            PPolygon pushedBox = createBox(30, 0, 10, 10);
+            PPolygon hitBox = createBox(0, 0, 10, 10);
+            world.getBodies().add(pushedBox);
+            world.getBodies().add(hitBox);
+
+            for (int step = 0; step < 200; step++) {
+                world.simulate(0.016);
+            }
+            assertFalse(pushedBox.isAwake());
+            assertFalse(hitBox.isAwake());
+
+            // Only the pushed box is looked at by the broadphase, which still has to pair it with the sleeping box
+            pushedBox.setVelocity(Vector.of(-20, 0));
+            boolean isWoken = false;
+            for (int step = 0; step < 100 && !isWoken; step++) {
+                world.simulate(0.016);
+                isWoken = hitBox.isAwake();
+            }
+
+            assertTrue(isWoken);
+            assertTrue(pushedBox.getCenterPt().getX() > hitBox.getCenterPt().getX());
+        }
+    }
+
+    @Test
+    public void simulate_should_not_put_bodies_to_sleep_when_sleeping_is_disabled() {
+        PWorld world = createWorldWithBoxOnGround();
+        world.setSleepingEnabled(false);
+
+        for (int step = 0; step < 200; step++) {
+            world.simulate(0.016);
+        }
+
+        assertTrue(world.getBodies().get(1).isAwake());
+    }
+
+    @Test
+    public void simulate_should_stop_bullets_at_thin_walls() {
+        for (boolean isBullet : new boolean[] { false, true }) {
+            PWorld world = new PWorld();
+
+            // Speculative contacts stop the ball too, so they are turned off to only test the bullet
+            world.setSpeculativeContactsEnabled(false);
+
+            PPolygon wall = createBox(300, 0, 2, 600);
+            wall.setMoveable(false);
+            world.getBodies().add(wall);
+
+            PCircle ball = new PCircle("Ball");
+            ball.setRadius(5);
+            ball.setCenterPt(Vector.of(107, 300));
+            ball.setVelocity(Vector.of(3000, 0));
+            ball.setBullet(isBullet);
+            world.getBodies().add(ball);
+
+            for (int step = 0; step < 10; step++) {
+                world.simulate(1.0 / 60);
+            }
+
+            // The ball moves 50 units per step, so it goes through the wall unless it is a bullet
+            assertEquals(isBullet, ball.getCenterPt().getX() < 300);
+        }
+    }
+
+    @Test
+    public void simulate_should_only_keep_contact_points_of_last_step_given_drawing_contact_points() {
+        PWorld world = createWorldWithBoxOnGround();
+        world.setDrawingContactPts(true);
+
+        // Sleeping bodies have no contacts, so the box is kept awake
+        world.setSleepingEnabled(false);
+        for (int step = 0; step < 100; step++) {
+            world.simulate(0.016);
+        }
+
+        // The box rests flat on the ground, which only has two contact points
+        assertEquals(2, world.pointsToDraw.size());
+
+        world.setDrawingContactPts(false);
+        world.simulate(0.016);
+        assertTrue(world.pointsToDraw.isEmpty());
+    }
+
+    @Test
+    public void simulate_should_use_physics_parameters_of_config() {
+        PWorldConfig config = new PWorldConfig.PBuilder()
+                .setGravity(5, 0)
+                .setBroadphaseType(PWorldConfig.SPATIAL_HASH_GRID)
+                .build();
+        PWorld sidewaysWorld = new PWorld(config);
+        PCircle ball = createPCircle(2, Vector.of(0, 0));
+        sidewaysWorld.getBodies().add(ball);
+
+        sidewaysWorld.simulate(1);
+
+        assertTrue(sidewaysWorld.getBroadphase() instanceof PSpatialHashGrid);
+        assertEquals(Vector.of(5, 0), ball.getVelocity());
+        assertEquals(0, ball.getCenterPt().getY(), 0.000001);
+        assertTrue(ball.getCenterPt().getX() > 0);
+    }
+
+    @Test
+    public void simulate_should_push_apart_resting_bodies_given_no_gravity() {
+        PWorldConfig config = new PWorldConfig.PBuilder().setGravity(0, 0).build();
+        PWorld weightlessWorld = new PWorld(config);
+
+        // Neither body in each pair is moving, so the mtv cannot be split by how fast they are going
+        PPolygon ground = createBox(-50, -10, 100, 10);
+        ground.setMoveable(false);
+        weightlessWorld.getBodies().add(ground);
+        weightlessWorld.getBodies().add(createBox(0, -0.5, 10, 10));
+        weightlessWorld.getBodies().add(createBox(30, -0.5, 10, 10));
+        weightlessWorld.getBodies().add(createBox(39, 5, 10, 10));
+        weightlessWorld.getBodies().add(createPCircle(2, Vector.of(-20, 1.5)));
+        weightlessWorld.getBodies().add(createPCircle(2, Vector.of(-17, 1.5)));
+
+        for (int step = 0; step < 10; step++) {
+            weightlessWorld.simulate(0.016);
+        }
+
+        for (PBody body : weightlessWorld.getBodies()) {
+            assertTrue(Double.isFinite(body.getCenterPt().getX()));
+            assertTrue(Double.isFinite(body.getCenterPt().getY()));
+            assertTrue(Double.isFinite(body.getAngle()));
+        }
+        assertTrue(weightlessWorld.getBodies().get(1).getCenterPt().getY() > 4.5);
+        assertTrue(weightlessWorld.getBodies().get(4).getCenterPt().getX() < -20);
+    }
+
+    @Test
+    public void simulate_should_bounce_ball_as_high_given_speculative_contacts() {
+        double[] bounceHeights = new double[2];
+        for (int i = 0; i < 2; i++) {
+            PWorld bouncyWorld = new PWorld(new PWorldConfig.PBuilder().setRestitution(0.9).build());
+            bouncyWorld.setSpeculativeContactsEnabled(i == 1);
+
+            PPolygon ground = createBox(-50, -10, 100, 10);
+            ground.setMoveable(false);
+            bouncyWorld.getBodies().add(ground);
+            PCircle ball = new PCircle("Ball");
+            ball.setRadius(2);
+            ball.setCenterPt(Vector.of(0, 300));
+            bouncyWorld.getBodies().add(ball);
+
+            // Wait for the ball to bounce, then find the top of its first bounce
+            boolean hasBounced = false;
+            for (int step = 0; step < 1000 && !(hasBounced && ball.getVelocity().getY() < 0); step++) {
+                bouncyWorld.simulate(0.016);
+                hasBounced |= ball.getVelocity().getY() > 0;
+                bounceHeights[i] = Math.max(bounceHeights[i], hasBounced ? ball.getCenterPt().getY() : 0);
+            }
+        }
+
+        assertTrue(bounceHeights[0] > 150);
+        assertEquals(bounceHeights[0], bounceHeights[1], 0.01 * bounceHeights[0]);
+    }
+
+    @Test
+    public void simulate_should_publish_snapshot_of_bodies_given_publishing_snapshots() {
+        PWorld world = createWorldWithBoxOnGround();
+        world.setPublishingSnapshots(true);
+        PBody box = world.getBodies().get(1);
+
+        world.simulate(0.1);
+        PWorldSnapshot snapshot = world.getLatestSnapshot();
+        double centerY = box.getCenterPt().getY();
+
+        world.setPublishingSnapshots(false);
+        world.simulate(0.1);
+
+        assertEquals(1, snapshot.getStepNumber());
+        assertEquals(2, snapshot.getNumBodies());
+        assertTrue(snapshot.getBody(1) == box);
+        assertEquals(centerY, snapshot.getCenterY(1), 0);
+        assertEquals(1, world.getLatestSnapshot().getStepNumber());
+        assertEquals(2, world.getStepNumber());
+    }
+
+    @Test
+    public void simulate_should_publish_contact_points_given_drawing_contact_points() {
+        PWorld world = createWorldWithBoxOnGround();
+        world.setPublishingSnapshots(true);
+        world.setSleepingEnabled(false);
+
+        world.simulate(0.016);
+        assertEquals(0, world.getLatestSnapshot().getNumContactPts());
+
+        world.setDrawingContactPts(true);
+        world.simulate(0.016);
+        PWorldSnapshot snapshot = world.getLatestSnapshot();
+
+        // The box sits flat on top of the ground
+        assertEquals(2, snapshot.getNumContactPts());
+        for (int i = 0; i < snapshot.getNumContactPts(); i++) {
+            assertEquals(0, snapshot.getContactY(i), 0.1);
+            assertTrue(snapshot.getContactX(i) >= 0 && snapshot.getContactX(i) <= 10);
+        }
+    }
+
+    @Test
+    public void addCopiesOf_should_attach_copied_constraints_to_copied_bodies() {
+        PWorld copiedWorld = new PWorld();
+        copiedWorld.addCopiesOf(bodies, constraints);
+
+        assertEquals(bodies.size(), copiedWorld.getBodies().size());
+        for (int i = 0; i < bodies.size(); i++) {
+            assertTrue(bodies.get(i) != copiedWorld.getBodies().get(i));
+            assertEquals(bodies.get(i).getCenterPt(), copiedWorld.getBodies().get(i).getCenterPt());
+        }
+
+        PConstraints copiedSpring = copiedWorld.getConstraints().get(0);
+        assertTrue(copiedSpring instanceof PSpring);
+        assertTrue(copiedSpring.getAttachedBodies()[0] == copiedWorld.getBodies().get(0));
+        assertTrue(copiedSpring.getAttachedBodies()[1] == copiedWorld.getBodies().get(1));
+
+        // Simulating the copies does not move the originals
+        Vector centerPt = Vector.of(bodies.get(2).getCenterPt().getX(), bodies.get(2).getCenterPt().getY());
+        copiedWorld.simulate(0.1);
+        assertEquals(centerPt, bodies.get(2).getCenterPt());
+    }
+
+    private static PWorld createWorldWithBoxOnGround() {
+        PWorld world = new PWorld();
+
+        PPolygon ground = createBox(-50, -10, 100, 10);
+        ground.setMoveable(false);
+        world.getBodies().add(ground);
+        world.getBodies().add(createBox(0, 0, 10, 10));
+
+        return world;
+    }
+
+    private static PPolygon createBox(double x, double y, double width, double height) {
+        PPolygon box = new PPolygon("Box");
+        box.getVertices().addAll(Arrays.asList(
+                Vector.of(x, y), Vector.of(x + width, y), Vector.of(x + width, y + height), Vector.of(x, y + height)
+        ));
+        box.computeCenterOfMass();
+        return box;
+    }
+
     private static PPolygon createPPolygon(List<Vector> vertices) {
         PPolygon polygon = spy(new PPolygon(""));
         polygon.getVertices().addAll(vertices);
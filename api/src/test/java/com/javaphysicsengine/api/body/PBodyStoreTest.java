@@ -0,0 +1,90 @@
+package com.javaphysicsengine.api.body;
+
+import com.javaphysicsengine.utils.Vector;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PBodyStoreTest {
+
+    private PBodyStore store;
+    private PCircle circle1;
+    private PCircle circle2;
+    private List<PBody> bodies;
+
+    @Before
+    public void setup() {
+        circle1 = createPCircle(Vector.of(1, 2), Vector.of(3, 4));
+        circle2 = createPCircle(Vector.of(5, 6), Vector.of(7, 8));
+        circle2.setAngle(0.5);
+        circle2.setAngularVelocity(2);
+
+        bodies = new ArrayList<>(Arrays.asList(circle1, circle2));
+        store = new PBodyStore();
+    }
+
+    @Test
+    public void load_should_store_bodies_in_order() {
+        store.load(bodies);
+        assertEquals(2, store.size());
+        assertSame(circle2, store.getBody(1));
+        assertEquals(1, store.getInverseMass(1), 0.000001);
+
+        bodies.remove(circle1);
+        circle2.setMoveable(false);
+        store.load(bodies);
+        assertEquals(1, store.size());
+        assertSame(circle2, store.getBody(0));
+        assertEquals(0, store.getInverseMass(0), 0.000001);
+    }
+
+    @Test
+    public void integrate_should_update_velocities_and_compute_displacements() {
+        circle1.setMass(2);
+        circle1.setNetForce(Vector.of(4, -2));
+        circle2.setMoveable(false);
+
+        store.load(bodies);
+        store.integrate(0.5, 1);
+
+        // V' = V + (F / m) * t
+        assertEquals(Vector.of(4, 3.5), circle1.getVelocity());
+        assertEquals(2, store.getDisplacementX(0), 0.000001);
+        assertEquals(1.75, store.getDisplacementY(0), 0.000001);
+
+        // Bodies that do not move are not displaced
+        assertEquals(Vector.of(7, 8), circle2.getVelocity());
+        assertEquals(0, store.getDisplacementX(1), 0.000001);
+        assertEquals(0, store.getDisplacementY(1), 0.000001);
+        assertEquals(0.5, store.getNewAngle(1), 0.000001);
+
+        // The bodies are only moved by the world
+        assertEquals(Vector.of(1, 2), circle1.getCenterPt());
+    }
+
+    @Test
+    public void addGravity_should_only_add_force_to_moving_bodies() {
+        circle1.setMass(2);
+        circle2.setMoveable(false);
+
+        store.load(bodies);
+        store.addGravity(Vector.of(0, -10));
+        store.integrate(0, 1);
+
+        assertEquals(Vector.of(0, -20), circle1.getNetForce());
+        assertEquals(Vector.of(0, 0), circle2.getNetForce());
+    }
+
+    private static PCircle createPCircle(Vector centerPt, Vector velocity) {
+        PCircle circle = new PCircle("");
+        circle.setCenterPt(centerPt);
+        circle.setVelocity(velocity);
+        return circle;
+    }
+}
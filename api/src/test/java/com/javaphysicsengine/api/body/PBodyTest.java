@@ -1,16 +1,19 @@
 package com.javaphysicsengine.api.body;
 
+import com.javaphysicsengine.api.PWorld;
 import com.javaphysicsengine.utils.Vector;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.awt.Color;
 import java.awt.Graphics;
+import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -142,6 +145,73 @@ public class PBodyTest {
         assertEquals(new Vector(1, 1), pBody.getVelocity());
     }
 
+    @Test
+    public void setAwake_should_stop_body_when_put_to_sleep() {
+        pBody.setVelocity(new Vector(1, 1));
+        pBody.setAngularVelocity(2);
+        pBody.setSleepTime(0.3);
+        pBody.setAwake(false);
+
+        assertFalse(pBody.isAwake());
+        assertEquals(new Vector(0, 0), pBody.getVelocity());
+        assertEquals(0, pBody.getAngularVelocity(), 0.000001);
+        assertEquals(0, pBody.getSleepTime(), 0.000001);
+    }
+
+    @Test
+    public void setVelocity_should_wake_body() {
+        pBody.setAwake(false);
+        pBody.setVelocity(new Vector(1, 1));
+
+        assertTrue(pBody.isAwake());
+        assertEquals(new Vector(1, 1), pBody.getVelocity());
+    }
+
+    @Test
+    public void setAwake_should_tell_wake_listener_only_when_body_wakes_up() {
+        PWakeListener wakeListener = mock(PWakeListener.class);
+        pBody.setWakeListener(wakeListener);
+
+        pBody.setAwake(true);
+        pBody.setAwake(false);
+        verify(wakeListener, never()).onWake(pBody);
+
+        pBody.setVelocity(new Vector(1, 1));
+        pBody.setAwake(true);
+        verify(wakeListener, times(1)).onWake(pBody);
+    }
+
+    @Test
+    public void setVelocity_should_copy_velocity_so_that_simulating_does_not_change_given_vector() {
+        PWorld world = new PWorld();
+        PPolygon ground = new PPolygon("Ground");
+        ground.getVertices().addAll(Arrays.asList(Vector.of(0, 0), Vector.of(100, 0), Vector.of(100, 10), Vector.of(0, 10)));
+        ground.computeCenterOfMass();
+        ground.setMoveable(false);
+        world.getBodies().add(ground);
+
+        // One ball lands on the ground while the other one falls far away from it
+        Vector sharedVelocity = Vector.of(0, 0);
+        PCircle landingBall = new PCircle("Landing ball");
+        landingBall.setRadius(5);
+        landingBall.setCenterPt(Vector.of(50, 16));
+        landingBall.setVelocity(sharedVelocity);
+        world.getBodies().add(landingBall);
+
+        PCircle fallingBall = new PCircle("Falling ball");
+        fallingBall.setRadius(5);
+        fallingBall.setCenterPt(Vector.of(500, 500));
+        fallingBall.setVelocity(sharedVelocity);
+        world.getBodies().add(fallingBall);
+
+        for (int step = 0; step < 60; step++) {
+            world.simulate(1.0 / 60);
+        }
+
+        assertEquals(new Vector(0, 0), sharedVelocity);
+        assertEquals(new Vector(0, -9.81), fallingBall.getVelocity());
+    }
+
     @Test
     public void getAngle_should_return_45_when_angle_set_to_45() {
         pBody.setAngle(45);
@@ -63,6 +63,23 @@ public class PCircleTest {
         assertEquals(Vector.of(20, 20), circle.getCenterPt());
     }
 
+    @Test
+    public void getBoundingBox_should_only_change_after_circle_moves_or_resizes() {
+        PBoundingBox boundingBox = circle.getBoundingBox();
+        assertEquals(-10, boundingBox.getMinX(), 0.00001);
+        assertEquals(30, boundingBox.getMaxY(), 0.00001);
+
+        // Reading the box again does not write to it
+        boundingBox.setMinX(0);
+        circle.getBoundingBox();
+        assertEquals(0, boundingBox.getMinX(), 0.00001);
+
+        circle.translate(Vector.of(10, 0));
+        circle.setRadius(5);
+        assertEquals(15, circle.getBoundingBox().getMinX(), 0.00001);
+        assertEquals(15, circle.getBoundingBox().getMaxY(), 0.00001);
+    }
+
     @Test
     public void drawFill_should_draw_circle_with_fill_color() {
         Graphics graphics = mock(Graphics.class);
@@ -122,6 +122,25 @@ public class PPolygonTest {
         }
     }
 
+    @Test
+    public void getWorldNormals_should_rotate_the_edge_normals_with_the_polygon() {
+        double[] normals = polygon.getWorldNormals();
+        assertEquals(0, normals[0], 0.00001);
+        assertEquals(-1, normals[1], 0.00001);
+
+        polygon.rotate(Math.PI / 2);
+        polygon.translate(Vector.of(100, 0));
+
+        // The bottom edge now faces right, and its first vertex has moved with the polygon
+        normals = polygon.getWorldNormals();
+        assertEquals(1, normals[0], 0.00001);
+        assertEquals(0, normals[1], 0.00001);
+
+        double[] vertices = polygon.getWorldVertices();
+        assertEquals(110, vertices[0], 0.00001);
+        assertEquals(0, vertices[1], 0.00001);
+    }
+
     @Test
     public void move_should_translate_polygon_by_10_0_given_new_center_point_is_15_5() {
         polygon.move(Vector.of(15, 5));
@@ -168,6 +187,20 @@ public class PPolygonTest {
         verify(graphics, times(1)).fillPolygon(xCoords, yCoords, xCoords.length);
     }
 
+    @Test
+    public void drawFill_should_draw_polygon_where_it_was_in_snapshot() {
+        Graphics graphics = mock(Graphics.class);
+        polygon.setFillColor(Color.GREEN);
+        polygon.drawFill(graphics, 600, 105, 5, 0);
+
+        // The polygon itself has not moved
+        int[] xCoords = {100, 110, 110, 100};
+        int[] yCoords = {600, 600, 590, 590};
+
+        verify(graphics, times(1)).fillPolygon(xCoords, yCoords, xCoords.length);
+        assertEquals(5, polygon.getCenterPt().getX(), 0.00001);
+    }
+
     @Test
     public void drawOutline_should_draw_outline_of_polygon_with_outline_color() {
         Graphics graphics = mock(Graphics.class);
@@ -0,0 +1,219 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PBoundingBox;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.collision.PBoxBoxCollision;
+import com.javaphysicsengine.utils.Vector;
+import org.javatuples.Pair;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PDynamicAABBTreeTest {
+
+    private static final double MARGIN = 2;
+
+    private List<PBody> bodies;
+    private PDynamicAABBTree broadphase;
+
+    @Before
+    public void setup() {
+        Random random = new Random(1234);
+
+        bodies = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            bodies.add(createPCircle(5 + random.nextInt(10), Vector.of(random.nextInt(500), random.nextInt(500))));
+        }
+
+        broadphase = new PDynamicAABBTree(MARGIN);
+        broadphase.update(bodies);
+    }
+
+    @Test
+    public void getPotentialIntersectingBodies_should_return_intersecting_bodies() {
+        assertPairsAreCorrect();
+    }
+
+    @Test
+    public void getPotentialIntersectingBodies_should_return_intersecting_bodies_after_bodies_move() {
+        Random random = new Random(5678);
+        for (int i = 0; i < 20; i++) {
+            for (PBody body : bodies) {
+                body.translate(Vector.of(random.nextDouble() * 6 - 3, random.nextDouble() * 6 - 3));
+            }
+
+            broadphase.update(bodies);
+            assertPairsAreCorrect();
+        }
+    }
+
+    @Test
+    public void update_should_add_new_bodies() {
+        bodies.add(createPCircle(10, bodies.get(0).getCenterPt()));
+        bodies.add(createPCircle(10, bodies.get(1).getCenterPt()));
+        broadphase.update(bodies);
+
+        assertPairsAreCorrect();
+    }
+
+    @Test
+    public void update_should_remove_bodies_not_in_list() {
+        PBody removedBody = bodies.remove(10);
+        bodies.remove(50);
+        bodies.add(createPCircle(10, bodies.get(0).getCenterPt()));
+        broadphase.update(bodies);
+
+        assertPairsAreCorrect();
+        for (Pair<PBody, PBody> pair : broadphase.getPotentialIntersectingBodies()) {
+            assertTrue(pair.getValue0() != removedBody && pair.getValue1() != removedBody);
+        }
+    }
+
+    @Test
+    public void update_should_return_intersecting_bodies_given_only_moved_bodies() {
+        Random random = new Random(5678);
+        int[] movedIndices = new int[bodies.size()];
+        for (int i = 0; i < 20; i++) {
+            // Only every third body moves, as if the others were asleep
+            int numMovedBodies = 0;
+            for (int j = i % 3; j < bodies.size(); j += 3) {
+                bodies.get(j).translate(Vector.of(random.nextDouble() * 10 - 5, random.nextDouble() * 10 - 5));
+                movedIndices[numMovedBodies++] = j;
+            }
+
+            broadphase.update(bodies, movedIndices, numMovedBodies);
+            assertPairsAreCorrect();
+        }
+    }
+
+    @Test
+    public void update_should_keep_pairs_correct_given_bodies_moving_far_and_being_replaced() {
+        Random random = new Random(91011);
+        for (int i = 0; i < 50; i++) {
+            for (PBody body : bodies) {
+                body.translate(Vector.of(random.nextDouble() * 40 - 20, random.nextDouble() * 40 - 20));
+            }
+
+            bodies.remove(random.nextInt(bodies.size()));
+            bodies.add(createPCircle(5 + random.nextInt(30), Vector.of(random.nextInt(500), random.nextInt(500))));
+            broadphase.update(bodies);
+
+            assertPairsAreCorrect();
+        }
+    }
+
+    @Test
+    public void update_should_keep_tree_balanced() {
+        // Bodies added in sorted order make an unbalanced tree without rotations
+        List<PBody> sortedBodies = new ArrayList<>();
+        PDynamicAABBTree tree = new PDynamicAABBTree();
+        for (int i = 0; i < 1024; i++) {
+            sortedBodies.add(createPCircle(1, Vector.of(i * 10, 0)));
+            tree.update(sortedBodies);
+        }
+
+        assertTrue(tree.getHeight() <= 2 * 10);
+    }
+
+    @Test
+    public void query_should_return_bodies_in_region() {
+        PBoundingBox region = new PBoundingBox(100, 250, 50, 300);
+
+        Set<PBody> expectedBodies = new HashSet<>();
+        for (PBody body : bodies) {
+            if (PBoxBoxCollision.doBodiesCollide(body.getBoundingBox(), region)) {
+                expectedBodies.add(body);
+            }
+        }
+
+        List<PBody> bodiesInRegion = broadphase.query(region);
+        assertEquals(expectedBodies.size(), bodiesInRegion.size());
+        assertEquals(expectedBodies, new HashSet<>(bodiesInRegion));
+    }
+
+    @Test
+    public void raycast_should_return_hit_bodies_from_closest_to_farthest() {
+        PBody farBody = createPCircle(5, Vector.of(1000, 1000));
+        PBody closeBody = createPCircle(5, Vector.of(800, 1000));
+        PBody missedBody = createPCircle(5, Vector.of(900, 1100));
+        bodies.addAll(Arrays.asList(farBody, closeBody, missedBody));
+        broadphase.update(bodies);
+
+        List<PBody> hitBodies = broadphase.raycast(Vector.of(700, 1000), Vector.of(1, 0), 400);
+        assertEquals(Arrays.asList(closeBody, farBody), hitBodies);
+
+        List<PBody> shortHitBodies = broadphase.raycast(Vector.of(700, 1000), Vector.of(1, 0), 150);
+        assertEquals(Arrays.asList(closeBody), shortHitBodies);
+    }
+
+    @Test
+    public void getPotentialIntersectingPairs_should_return_same_pairs_as_getPotentialIntersectingBodies() {
+        bodies.remove(10);
+        bodies.get(20).translate(Vector.of(30, 30));
+        broadphase.update(bodies);
+
+        PPairBuffer buffer = new PPairBuffer();
+        broadphase.getPotentialIntersectingPairs(buffer);
+
+        Set<Pair<PBody, PBody>> pairs = new HashSet<>();
+        for (int i = 0; i < buffer.size(); i++) {
+            pairs.add(new Pair<>(bodies.get(buffer.getBodyIndex1(i)), bodies.get(buffer.getBodyIndex2(i))));
+        }
+
+        assertEquals(buffer.size(), pairs.size());
+        assertEquals(broadphase.getPotentialIntersectingBodies(), pairs);
+    }
+
+    /**
+     * Checks that every pair of intersecting bodies is returned, and that every returned pair is within the margins
+     */
+    private void assertPairsAreCorrect() {
+        Set<Pair<PBody, PBody>> potentialPairs = new HashSet<>();
+        for (Pair<PBody, PBody> pair : broadphase.getPotentialIntersectingBodies()) {
+            assertTrue(potentialPairs.add(createUnorderedPair(pair.getValue0(), pair.getValue1())));
+
+            PBoundingBox box1 = pair.getValue0().getBoundingBox();
+            PBoundingBox box2 = pair.getValue1().getBoundingBox();
+            // Each body can be anywhere in its fattened box, which is 2 margins wider than its bounding box
+            PBoundingBox fattenedBox1 = new PBoundingBox(box1.getMinX() - 4 * MARGIN, box1.getMaxX() + 4 * MARGIN,
+                    box1.getMinY() - 4 * MARGIN, box1.getMaxY() + 4 * MARGIN);
+            assertTrue(PBoxBoxCollision.doBodiesCollide(fattenedBox1, box2));
+        }
+
+        for (int i = 0; i < bodies.size(); i++) {
+            for (int j = i + 1; j < bodies.size(); j++) {
+                PBody body1 = bodies.get(i);
+                PBody body2 = bodies.get(j);
+
+                if (PBoxBoxCollision.doBodiesCollide(body1.getBoundingBox(), body2.getBoundingBox())) {
+                    assertTrue(potentialPairs.contains(createUnorderedPair(body1, body2)));
+                }
+            }
+        }
+    }
+
+    private static Pair<PBody, PBody> createUnorderedPair(PBody body1, PBody body2) {
+        if (System.identityHashCode(body1) < System.identityHashCode(body2)) {
+            return new Pair<>(body1, body2);
+        }
+        return new Pair<>(body2, body1);
+    }
+
+    private static PCircle createPCircle(int radius, Vector centerPt) {
+        PCircle newPCircle = new PCircle("");
+        newPCircle.setCenterPt(Vector.of(centerPt.getX(), centerPt.getY()));
+        newPCircle.setRadius(radius);
+
+        return newPCircle;
+    }
+}
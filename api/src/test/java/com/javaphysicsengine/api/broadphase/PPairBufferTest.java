@@ -0,0 +1,74 @@
+package com.javaphysicsengine.api.broadphase;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class PPairBufferTest {
+
+    @Test
+    public void add_should_store_lower_body_index_first() {
+        PPairBuffer buffer = new PPairBuffer();
+        buffer.add(7, 3);
+        buffer.add(2, 5);
+
+        assertEquals(2, buffer.size());
+        assertEquals(3, buffer.getBodyIndex1(0));
+        assertEquals(7, buffer.getBodyIndex2(0));
+        assertEquals(2, buffer.getBodyIndex1(1));
+        assertEquals(5, buffer.getBodyIndex2(1));
+    }
+
+    @Test
+    public void add_should_grow_buffer() {
+        PPairBuffer buffer = new PPairBuffer(1);
+        for (int i = 0; i < 100; i++) {
+            buffer.add(i, i + 1);
+        }
+
+        assertEquals(100, buffer.size());
+        assertEquals(99, buffer.getBodyIndex1(99));
+        assertEquals(100, buffer.getBodyIndex2(99));
+    }
+
+    @Test
+    public void clear_should_remove_all_pairs() {
+        PPairBuffer buffer = new PPairBuffer();
+        buffer.add(1, 2);
+        buffer.clear();
+
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void sortAndRemoveDuplicates_should_sort_and_remove_duplicate_pairs() {
+        Random random = new Random(1234);
+        PPairBuffer buffer = new PPairBuffer();
+        TreeSet<Long> expectedPairs = new TreeSet<>();
+
+        for (int i = 0; i < 5000; i++) {
+            int bodyIndex1 = random.nextInt(100);
+            int bodyIndex2 = bodyIndex1 + 1 + random.nextInt(100);
+
+            // Add most pairs in both orders, like a body in more than one quadrant would
+            buffer.add(bodyIndex1, bodyIndex2);
+            if (i % 4 != 0) {
+                buffer.add(bodyIndex2, bodyIndex1);
+            }
+            expectedPairs.add(((long) bodyIndex1 << 32) | bodyIndex2);
+        }
+
+        buffer.sortAndRemoveDuplicates();
+
+        assertEquals(expectedPairs.size(), buffer.size());
+        int i = 0;
+        for (long pair : expectedPairs) {
+            assertEquals((int) (pair >>> 32), buffer.getBodyIndex1(i));
+            assertEquals((int) pair, buffer.getBodyIndex2(i));
+            i++;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.collision.PBoxBoxCollision;
+import com.javaphysicsengine.utils.Vector;
+import org.javatuples.Pair;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PQuadTreeTest {
+
+    private List<PBody> bodies;
+
+    @Before
+    public void setup() {
+        Random random = new Random(1234);
+
+        bodies = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            bodies.add(createPCircle(5 + random.nextInt(10), Vector.of(random.nextInt(500), random.nextInt(500))));
+        }
+    }
+
+    @Test
+    public void getPotentialIntersectingBodies_should_contain_all_intersecting_bodies_when_built_from_list() {
+        PQuadTree tree = new PQuadTree(bodies);
+        assertContainsAllIntersectingBodies(tree.getPotentialIntersectingBodies());
+    }
+
+    @Test
+    public void getPotentialIntersectingBodies_should_contain_all_intersecting_bodies_when_updated() {
+        PQuadTree tree = new PQuadTree();
+        tree.update(bodies);
+        assertContainsAllIntersectingBodies(tree.getPotentialIntersectingBodies());
+    }
+
+    @Test
+    public void getPotentialIntersectingBodies_should_contain_all_intersecting_bodies_after_bodies_move() {
+        PQuadTree tree = new PQuadTree();
+        tree.update(bodies);
+
+        Random random = new Random(5678);
+        for (int i = 0; i < 20; i++) {
+            for (PBody body : bodies) {
+                body.translate(Vector.of(random.nextDouble() * 6 - 3, random.nextDouble() * 6 - 3));
+            }
+
+            tree.update(bodies);
+            assertContainsAllIntersectingBodies(tree.getPotentialIntersectingBodies());
+        }
+    }
+
+    @Test
+    public void update_should_contain_all_intersecting_bodies_given_only_moved_bodies() {
+        PQuadTree tree = new PQuadTree();
+        tree.update(bodies);
+
+        Random random = new Random(5678);
+        int[] movedIndices = new int[bodies.size()];
+        for (int i = 0; i < 20; i++) {
+            // Only every third body moves, as if the others were asleep
+            int numMovedBodies = 0;
+            for (int j = i % 3; j < bodies.size(); j += 3) {
+                bodies.get(j).translate(Vector.of(random.nextDouble() * 10 - 5, random.nextDouble() * 10 - 5));
+                movedIndices[numMovedBodies++] = j;
+            }
+
+            tree.update(bodies, movedIndices, numMovedBodies);
+            assertContainsAllIntersectingBodies(tree.getPotentialIntersectingBodies());
+        }
+    }
+
+    @Test
+    public void update_should_add_new_bodies_to_tree() {
+        PQuadTree tree = new PQuadTree();
+        tree.update(bodies);
+
+        PBody newBody = createPCircle(10, bodies.get(0).getCenterPt());
+        bodies.add(newBody);
+        tree.update(bodies);
+
+        assertTrue(tree.getPotentialIntersectingBodies().contains(new Pair<>(bodies.get(0), newBody)));
+        assertContainsAllIntersectingBodies(tree.getPotentialIntersectingBodies());
+    }
+
+    @Test
+    public void update_should_remove_bodies_not_in_list() {
+        PQuadTree tree = new PQuadTree();
+        tree.update(bodies);
+
+        PBody removedBody = bodies.remove(10);
+        tree.update(bodies);
+
+        for (Pair<PBody, PBody> pair : tree.getPotentialIntersectingBodies()) {
+            assertFalse(pair.getValue0() == removedBody || pair.getValue1() == removedBody);
+        }
+        assertContainsAllIntersectingBodies(tree.getPotentialIntersectingBodies());
+    }
+
+    @Test
+    public void getPotentialIntersectingPairs_should_return_same_pairs_as_getPotentialIntersectingBodies() {
+        PQuadTree tree = new PQuadTree();
+        tree.update(bodies);
+        bodies.remove(10);
+        bodies.get(20).translate(Vector.of(30, 30));
+        tree.update(bodies);
+
+        PPairBuffer buffer = new PPairBuffer();
+        tree.getPotentialIntersectingPairs(buffer);
+
+        Set<Pair<PBody, PBody>> pairs = new HashSet<>();
+        for (int i = 0; i < buffer.size(); i++) {
+            pairs.add(new Pair<>(bodies.get(buffer.getBodyIndex1(i)), bodies.get(buffer.getBodyIndex2(i))));
+        }
+
+        assertEquals(buffer.size(), pairs.size());
+        assertEquals(tree.getPotentialIntersectingBodies(), pairs);
+    }
+
+    private void assertContainsAllIntersectingBodies(Set<Pair<PBody, PBody>> pairs) {
+        for (int i = 0; i < bodies.size(); i++) {
+            for (int j = i + 1; j < bodies.size(); j++) {
+                PBody body1 = bodies.get(i);
+                PBody body2 = bodies.get(j);
+
+                if (PBoxBoxCollision.doBodiesCollide(body1.getBoundingBox(), body2.getBoundingBox())) {
+                    assertTrue(pairs.contains(new Pair<>(body1, body2)));
+                }
+            }
+        }
+    }
+
+    private static PCircle createPCircle(int radius, Vector centerPt) {
+        PCircle newPCircle = new PCircle("");
+        newPCircle.setCenterPt(Vector.of(centerPt.getX(), centerPt.getY()));
+        newPCircle.setRadius(radius);
+
+        return newPCircle;
+    }
+}
@@ -0,0 +1,124 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.collision.PBoxBoxCollision;
+import com.javaphysicsengine.utils.Vector;
+import org.javatuples.Pair;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PSpatialHashGridTest {
+
+    private List<PBody> bodies;
+    private PSpatialHashGrid broadphase;
+
+    @Before
+    public void setup() {
+        Random random = new Random(1234);
+
+        bodies = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            bodies.add(createPCircle(5 + random.nextInt(10), Vector.of(random.nextInt(500), random.nextInt(500))));
+        }
+
+        broadphase = new PSpatialHashGrid(20);
+        broadphase.update(bodies);
+    }
+
+    @Test
+    public void getPotentialIntersectingBodies_should_return_intersecting_bodies() {
+        assertEquals(getIntersectingBodies(), broadphase.getPotentialIntersectingBodies());
+    }
+
+    @Test
+    public void getPotentialIntersectingBodies_should_return_intersecting_bodies_after_bodies_move() {
+        Random random = new Random(5678);
+        for (int i = 0; i < 20; i++) {
+            for (PBody body : bodies) {
+                body.translate(Vector.of(random.nextDouble() * 6 - 3, random.nextDouble() * 6 - 3));
+            }
+
+            broadphase.update(bodies);
+            assertEquals(getIntersectingBodies(), broadphase.getPotentialIntersectingBodies());
+        }
+    }
+
+    @Test
+    public void update_should_add_new_bodies() {
+        bodies.add(createPCircle(10, bodies.get(0).getCenterPt()));
+        bodies.add(createPCircle(10, bodies.get(1).getCenterPt()));
+        broadphase.update(bodies);
+
+        assertEquals(getIntersectingBodies(), broadphase.getPotentialIntersectingBodies());
+    }
+
+    @Test
+    public void update_should_remove_bodies_not_in_list() {
+        bodies.remove(10);
+        bodies.remove(50);
+        bodies.add(createPCircle(10, bodies.get(0).getCenterPt()));
+        broadphase.update(bodies);
+
+        assertEquals(getIntersectingBodies(), broadphase.getPotentialIntersectingBodies());
+    }
+
+    @Test
+    public void update_should_handle_bodies_spanning_many_cells_and_negative_positions() {
+        bodies.add(createPCircle(200, Vector.of(250, 250)));
+        bodies.add(createPCircle(30, Vector.of(-15, -15)));
+        bodies.add(createPCircle(30, Vector.of(-70, -20)));
+        broadphase.update(bodies);
+
+        assertEquals(getIntersectingBodies(), broadphase.getPotentialIntersectingBodies());
+    }
+
+    @Test
+    public void getPotentialIntersectingPairs_should_return_indices_of_intersecting_bodies() {
+        PPairBuffer buffer = new PPairBuffer();
+        broadphase.getPotentialIntersectingPairs(buffer);
+
+        Set<Pair<PBody, PBody>> pairs = new HashSet<>();
+        for (int i = 0; i < buffer.size(); i++) {
+            int body1Index = buffer.getBodyIndex1(i);
+            int body2Index = buffer.getBodyIndex2(i);
+
+            assertTrue(body1Index < body2Index);
+            pairs.add(new Pair<>(bodies.get(body1Index), bodies.get(body2Index)));
+        }
+
+        assertEquals(getIntersectingBodies(), pairs);
+    }
+
+    private Set<Pair<PBody, PBody>> getIntersectingBodies() {
+        Set<Pair<PBody, PBody>> pairs = new HashSet<>();
+        for (int i = 0; i < bodies.size(); i++) {
+            for (int j = i + 1; j < bodies.size(); j++) {
+                PBody body1 = bodies.get(i);
+                PBody body2 = bodies.get(j);
+
+                if (PBoxBoxCollision.doBodiesCollide(body1.getBoundingBox(), body2.getBoundingBox())) {
+                    pairs.add(new Pair<>(body1, body2));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static PCircle createPCircle(int radius, Vector centerPt) {
+        PCircle newPCircle = new PCircle("");
+        newPCircle.setCenterPt(Vector.of(centerPt.getX(), centerPt.getY()));
+        newPCircle.setRadius(radius);
+
+        return newPCircle;
+    }
+}
@@ -0,0 +1,151 @@
+package com.javaphysicsengine.api.broadphase;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.collision.PBoxBoxCollision;
+import com.javaphysicsengine.utils.Vector;
+import org.javatuples.Pair;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class PSweepAndPruneTest {
+
+    private List<PBody> bodies;
+    private PSweepAndPrune broadphase;
+
+    @Before
+    public void setup() {
+        Random random = new Random(1234);
+
+        bodies = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            bodies.add(createPCircle(5 + random.nextInt(10), Vector.of(random.nextInt(500), random.nextInt(500))));
+        }
+
+        broadphase = new PSweepAndPrune();
+        broadphase.update(bodies);
+    }
+
+    @Test
+    public void getPotentialIntersectingBodies_should_return_intersecting_bodies() {
+        assertEquals(getIntersectingBodies(), broadphase.getPotentialIntersectingBodies());
+    }
+
+    @Test
+    public void getPotentialIntersectingBodies_should_return_intersecting_bodies_after_bodies_move() {
+        Random random = new Random(5678);
+        for (int i = 0; i < 20; i++) {
+            for (PBody body : bodies) {
+                body.translate(Vector.of(random.nextDouble() * 6 - 3, random.nextDouble() * 6 - 3));
+            }
+
+            broadphase.update(bodies);
+            assertEquals(getIntersectingBodies(), broadphase.getPotentialIntersectingBodies());
+        }
+    }
+
+    @Test
+    public void update_should_add_new_bodies() {
+        bodies.add(createPCircle(10, bodies.get(0).getCenterPt()));
+        bodies.add(createPCircle(10, bodies.get(1).getCenterPt()));
+        broadphase.update(bodies);
+
+        assertEquals(getIntersectingBodies(), broadphase.getPotentialIntersectingBodies());
+    }
+
+    @Test
+    public void update_should_remove_bodies_not_in_list() {
+        bodies.remove(10);
+        bodies.remove(50);
+        bodies.add(createPCircle(10, bodies.get(0).getCenterPt()));
+        broadphase.update(bodies);
+
+        assertEquals(getIntersectingBodies(), broadphase.getPotentialIntersectingBodies());
+    }
+
+    @Test
+    public void update_should_return_intersecting_bodies_given_only_moved_bodies() {
+        Random random = new Random(5678);
+        int[] movedIndices = new int[bodies.size()];
+        for (int i = 0; i < 20; i++) {
+            // Only every third body moves, as if the others were asleep
+            int numMovedBodies = 0;
+            for (int j = i % 3; j < bodies.size(); j += 3) {
+                bodies.get(j).translate(Vector.of(random.nextDouble() * 10 - 5, random.nextDouble() * 10 - 5));
+                movedIndices[numMovedBodies++] = j;
+            }
+
+            broadphase.update(bodies, movedIndices, numMovedBodies);
+            assertEquals(getIntersectingBodies(), broadphase.getPotentialIntersectingBodies());
+        }
+    }
+
+    @Test
+    public void update_should_keep_pairs_up_to_date_given_bodies_moving_far_and_being_replaced() {
+        Random random = new Random(91011);
+        for (int i = 0; i < 50; i++) {
+            for (PBody body : bodies) {
+                body.translate(Vector.of(random.nextDouble() * 40 - 20, random.nextDouble() * 40 - 20));
+            }
+
+            bodies.remove(random.nextInt(bodies.size()));
+            bodies.add(createPCircle(5 + random.nextInt(30), Vector.of(random.nextInt(500), random.nextInt(500))));
+            broadphase.update(bodies);
+
+            PPairBuffer buffer = new PPairBuffer();
+            broadphase.getPotentialIntersectingPairs(buffer);
+
+            assertEquals(getIntersectingBodies(), broadphase.getPotentialIntersectingBodies());
+            assertEquals(getIntersectingBodies().size(), buffer.size());
+        }
+    }
+
+    @Test
+    public void getPotentialIntersectingPairs_should_return_same_pairs_as_getPotentialIntersectingBodies() {
+        bodies.remove(10);
+        bodies.get(20).translate(Vector.of(30, 30));
+        broadphase.update(bodies);
+
+        PPairBuffer buffer = new PPairBuffer();
+        broadphase.getPotentialIntersectingPairs(buffer);
+
+        Set<Pair<PBody, PBody>> pairs = new HashSet<>();
+        for (int i = 0; i < buffer.size(); i++) {
+            pairs.add(new Pair<>(bodies.get(buffer.getBodyIndex1(i)), bodies.get(buffer.getBodyIndex2(i))));
+        }
+
+        assertEquals(buffer.size(), pairs.size());
+        assertEquals(broadphase.getPotentialIntersectingBodies(), pairs);
+    }
+
+    private Set<Pair<PBody, PBody>> getIntersectingBodies() {
+        Set<Pair<PBody, PBody>> pairs = new HashSet<>();
+        for (int i = 0; i < bodies.size(); i++) {
+            for (int j = i + 1; j < bodies.size(); j++) {
+                PBody body1 = bodies.get(i);
+                PBody body2 = bodies.get(j);
+
+                if (PBoxBoxCollision.doBodiesCollide(body1.getBoundingBox(), body2.getBoundingBox())) {
+                    pairs.add(new Pair<>(body1, body2));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static PCircle createPCircle(int radius, Vector centerPt) {
+        PCircle newPCircle = new PCircle("");
+        newPCircle.setCenterPt(Vector.of(centerPt.getX(), centerPt.getY()));
+        newPCircle.setRadius(radius);
+
+        return newPCircle;
+    }
+}
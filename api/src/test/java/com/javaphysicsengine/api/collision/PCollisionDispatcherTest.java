@@ -0,0 +1,125 @@
+package com.javaphysicsengine.api.collision;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PBoundingBox;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.api.broadphase.PPairBuffer;
+import com.javaphysicsengine.utils.Vector;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PCollisionDispatcherTest {
+
+    @Test
+    public void collide_should_flip_the_result_given_bodies_are_not_in_canonical_order() {
+        PPolygon box = createPBox(-10, -10, 20);
+        PCircle circle = createPCircle(5, Vector.of(0, 13));
+
+        PCollisionResult result = PCollisionDispatcher.collide(box, circle);
+        PCollisionResult canonicalResult = PCollisionDispatcher.collide(circle, box);
+
+        assertTrue(result.isHasCollided());
+        assertTrue(result.getMtv().getY() > 0);
+        assertEquals(canonicalResult.getMtv().scale(-1), result.getMtv());
+        assertEquals(canonicalResult.getContactPt(), result.getContactPt());
+    }
+
+    @Test
+    public void findContacts_should_use_the_test_registered_for_a_new_shape_type() {
+        int pointShape = PCollisionDispatcher.registerShapeType();
+        PCollisionDispatcher.register(PCollisionDispatcher.CIRCLE_SHAPE, pointShape, (body1, body2, result) -> {
+            result.reset();
+
+            PCircle circle = (PCircle) body1;
+            double distance = body2.getCenterPt().minus(circle.getCenterPt()).norm2();
+            if (distance < circle.getRadius()) {
+                Vector mtv = body2.getCenterPt().minus(circle.getCenterPt()).normalize().scale(circle.getRadius() - distance);
+                result.setCollision(mtv.scale(-0.5), mtv.scale(0.5), mtv, body2.getCenterPt());
+            }
+        });
+
+        List<PBody> bodies = new ArrayList<>();
+        bodies.add(new PPoint(pointShape, Vector.of(3, 0)));
+        bodies.add(createPCircle(5, Vector.of(0, 0)));
+
+        PPairBuffer pairs = new PPairBuffer();
+        pairs.add(0, 1);
+
+        PNarrowphase narrowphase = new PNarrowphase();
+        narrowphase.findContacts(bodies, pairs);
+
+        // The circle comes first, since its shape type is lower
+        assertEquals(1, narrowphase.getNumContacts());
+        assertEquals(1, narrowphase.getBodyIndex1(0));
+        assertEquals(0, narrowphase.getBodyIndex2(0));
+        assertEquals(Vector.of(2, 0), narrowphase.getResult(0).getMtv());
+    }
+
+    private static PCircle createPCircle(double radius, Vector centerPt) {
+        PCircle circle = new PCircle("");
+        circle.setCenterPt(centerPt);
+        circle.setRadius(radius);
+        circle.setVelocity(Vector.of(0, -1));
+        return circle;
+    }
+
+    private static PPolygon createPBox(double x, double y, double size) {
+        PPolygon box = new PPolygon("");
+        box.getVertices().add(Vector.of(x, y));
+        box.getVertices().add(Vector.of(x + size, y));
+        box.getVertices().add(Vector.of(x + size, y + size));
+        box.getVertices().add(Vector.of(x, y + size));
+        box.setVelocity(Vector.of(0, 1));
+        box.computeCenterOfMass();
+        return box;
+    }
+
+    /**
+     * A body that is only a point, which is a shape that the engine does not know about
+     */
+    private static class PPoint extends PBody {
+        private final int shapeType;
+
+        PPoint(int shapeType, Vector centerPt) {
+            super("");
+            this.shapeType = shapeType;
+            setCenterPt(centerPt);
+        }
+
+        @Override
+        public int getShapeType() {
+            return shapeType;
+        }
+
+        @Override
+        public double getInertia() {
+            return 0;
+        }
+
+        @Override
+        public void move(Vector newCenterPt) {
+            setCenterPt(newCenterPt);
+        }
+
+        @Override
+        public void rotate(double newAngle) {
+            setAngle(newAngle);
+        }
+
+        @Override
+        public void translate(Vector displacement) {
+            setCenterPt(getCenterPt().add(displacement));
+        }
+
+        @Override
+        public PBoundingBox getBoundingBox() {
+            return new PBoundingBox(getCenterPt().getX(), getCenterPt().getX(), getCenterPt().getY(), getCenterPt().getY());
+        }
+    }
+}
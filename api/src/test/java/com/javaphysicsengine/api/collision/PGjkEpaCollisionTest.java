@@ -0,0 +1,133 @@
+package com.javaphysicsengine.api.collision;
+
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.utils.Vector;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PGjkEpaCollisionTest {
+
+    @Test
+    public void doBodiesCollide_should_find_the_distance_between_polygons_that_do_not_touch() {
+        PPolygon box1 = createBox(0, 0, 100, 100);
+        PPolygon box2 = createBox(110, 50, 210, 150);
+
+        PCollisionResult result = PGjkEpaCollision.doBodiesCollide(box1, box2);
+
+        assertFalse(result.isHasCollided());
+        assertEquals(10, result.getDistance(), 0.000001);
+        assertEquals(100, result.getClosestPt1().getX(), 0.000001);
+        assertEquals(110, result.getClosestPt2().getX(), 0.000001);
+        assertEquals(result.getClosestPt1().getY(), result.getClosestPt2().getY(), 0.000001);
+    }
+
+    @Test
+    public void doBodiesCollide_should_find_the_same_mtv_and_manifold_as_sat() {
+        PPolygon box1 = createBox(0, 0, 200, 100);
+        PPolygon box2 = createBox(50, 90, 150, 190);
+
+        PCollisionResult satResult = PPolyPolyCollision.doBodiesCollide(box1, box2);
+        PCollisionResult result = PGjkEpaCollision.doBodiesCollide(box1, box2);
+
+        assertTrue(result.isHasCollided());
+        assertEquals(-10, result.getDistance(), 0.000001);
+        assertEquals(satResult.getMtv().getX(), result.getMtv().getX(), 0.000001);
+        assertEquals(satResult.getMtv().getY(), result.getMtv().getY(), 0.000001);
+        assertEquals(2, result.getNumContactPts());
+        for (int i = 0; i < 2; i++) {
+            assertEquals(satResult.getContactPt(i), result.getContactPt(i));
+            assertEquals(satResult.getFeatureId(i), result.getFeatureId(i));
+        }
+    }
+
+    @Test
+    public void doBodiesCollide_should_find_the_same_penetration_as_sat_for_polygons_with_many_vertices() {
+        PPolygon polygon1 = createRegularPolygon(64, 0, 0, 50, 0);
+        PPolygon polygon2 = createRegularPolygon(64, 80, 30, 50, 0.3);
+
+        PCollisionResult satResult = PPolyPolyCollision.doBodiesCollide(polygon1, polygon2);
+        PCollisionResult result = PGjkEpaCollision.doBodiesCollide(polygon1, polygon2);
+
+        assertTrue(result.isHasCollided());
+        assertEquals(satResult.getMtv().norm2(), result.getMtv().norm2(), 0.000001);
+        assertTrue(result.getMtv().dot(polygon2.getCenterPt().minus(polygon1.getCenterPt())) > 0);
+    }
+
+    @Test
+    public void getDistance_should_find_the_distance_from_a_circle_to_a_polygon() {
+        PPolygon box = createBox(-10, -10, 10, 10);
+        PCircle circle = createPCircle(5, Vector.of(0, 20));
+        Vector closestPt1 = new Vector(0, 0);
+        Vector closestPt2 = new Vector(0, 0);
+
+        double distance = PGjkEpaCollision.getDistance(box, circle, closestPt1, closestPt2);
+
+        assertEquals(5, distance, 0.000001);
+        assertEquals(Vector.of(0, 10), closestPt1);
+        assertEquals(Vector.of(0, 15), closestPt2);
+    }
+
+    @Test
+    public void doBodiesCollide_should_push_a_circle_out_of_a_polygon() {
+        PPolygon box = createBox(-10, -10, 10, 10);
+        PCircle circle = createPCircle(5, Vector.of(0, 13));
+
+        PCollisionResult result = PGjkEpaCollision.doBodiesCollide(box, circle);
+
+        assertTrue(result.isHasCollided());
+        assertEquals(-2, result.getDistance(), 0.000001);
+        assertEquals(0, result.getMtv().getX(), 0.000001);
+        assertEquals(2, result.getMtv().getY(), 0.000001);
+        assertEquals(1, result.getNumContactPts());
+    }
+
+    @Test
+    public void hasCollidedWith_should_use_gjk_when_either_polygon_asks_for_it() {
+        PPolygon box1 = createBox(0, 0, 100, 100);
+        PPolygon box2 = createBox(90, 90, 190, 190);
+        box2.getVertices().set(0, Vector.of(105, 95));
+        box2.computeCenterOfMass();
+
+        // The bounding boxes overlap but the polygons do not, which only GJK measures
+        assertEquals(Double.POSITIVE_INFINITY, box1.hasCollidedWith(box2).getDistance(), 0);
+        box2.setUsingGjk(true);
+        PCollisionResult result = box1.hasCollidedWith(box2);
+
+        assertFalse(result.isHasCollided());
+        assertTrue(result.getDistance() > 0);
+    }
+
+    private static PPolygon createBox(double minX, double minY, double maxX, double maxY) {
+        PPolygon polygon = new PPolygon("");
+        polygon.getVertices().addAll(Arrays.asList(Vector.of(minX, minY), Vector.of(maxX, minY),
+                Vector.of(maxX, maxY), Vector.of(minX, maxY)));
+        polygon.setVelocity(Vector.of(0, -1));
+        polygon.computeCenterOfMass();
+        return polygon;
+    }
+
+    private static PPolygon createRegularPolygon(int numVertices, double centerX, double centerY, double radius, double angle) {
+        PPolygon polygon = new PPolygon("");
+        for (int i = 0; i < numVertices; i++) {
+            double vertexAngle = angle + 2 * Math.PI * i / numVertices;
+            polygon.getVertices().add(Vector.of(centerX + radius * Math.cos(vertexAngle), centerY + radius * Math.sin(vertexAngle)));
+        }
+        polygon.setVelocity(Vector.of(0, -1));
+        polygon.computeCenterOfMass();
+        return polygon;
+    }
+
+    private static PCircle createPCircle(double radius, Vector centerPt) {
+        PCircle circle = new PCircle("");
+        circle.setCenterPt(centerPt);
+        circle.setRadius(radius);
+        circle.setVelocity(Vector.of(0, 1));
+        return circle;
+    }
+}
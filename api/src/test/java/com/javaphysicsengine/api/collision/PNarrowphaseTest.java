@@ -0,0 +1,170 @@
+package com.javaphysicsengine.api.collision;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.body.PCollidable;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.api.broadphase.PPairBuffer;
+import com.javaphysicsengine.api.broadphase.PSpatialHashGrid;
+import com.javaphysicsengine.utils.Vector;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PNarrowphaseTest {
+
+    private List<PBody> bodies;
+    private PPairBuffer pairs;
+
+    @Before
+    public void setup() {
+        Random random = new Random(1234);
+
+        bodies = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            double x = random.nextInt(400);
+            double y = random.nextInt(400);
+
+            if (i % 2 == 0) {
+                bodies.add(createPCircle(5 + random.nextInt(10), Vector.of(x, y)));
+            } else {
+                bodies.add(createPBox(x, y, 10 + random.nextInt(10)));
+            }
+
+            // Polygons can only be pushed apart if at least one of them is moving
+            bodies.get(i).setVelocity(Vector.of(random.nextDouble() * 10 - 5, random.nextDouble() * 10 - 5));
+        }
+
+        pairs = new PPairBuffer();
+        PSpatialHashGrid broadphase = new PSpatialHashGrid(20);
+        broadphase.update(bodies);
+        broadphase.getPotentialIntersectingPairs(pairs);
+    }
+
+    @Test
+    public void findContacts_should_find_contacts_in_order_of_pairs() {
+        PNarrowphase narrowphase = new PNarrowphase();
+        narrowphase.findContacts(bodies, pairs);
+
+        int contact = 0;
+        for (int i = 0; i < pairs.size(); i++) {
+            PCollidable body1 = (PCollidable) bodies.get(pairs.getBodyIndex1(i));
+            PCollidable body2 = (PCollidable) bodies.get(pairs.getBodyIndex2(i));
+
+            if (body1.hasCollidedWith(body2).isHasCollided()) {
+
+                // A contact lists its bodies in order of their shape types, even if its pair does not
+                int index1 = pairs.getBodyIndex1(i);
+                int index2 = pairs.getBodyIndex2(i);
+                if (bodies.get(index1).getShapeType() > bodies.get(index2).getShapeType()) {
+                    index1 = pairs.getBodyIndex2(i);
+                    index2 = pairs.getBodyIndex1(i);
+                }
+
+                assertEquals(index1, narrowphase.getBodyIndex1(contact));
+                assertEquals(index2, narrowphase.getBodyIndex2(contact));
+                assertTrue(narrowphase.getResult(contact).isHasCollided());
+                contact++;
+            }
+        }
+
+        assertTrue(contact > 0);
+        assertEquals(contact, narrowphase.getNumContacts());
+    }
+
+    @Test
+    public void findContacts_should_find_same_contacts_when_run_in_parallel() {
+        PNarrowphase serialNarrowphase = new PNarrowphase(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        serialNarrowphase.findContacts(bodies, pairs);
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            PNarrowphase parallelNarrowphase = new PNarrowphase(forkJoinPool, 3);
+            parallelNarrowphase.findContacts(bodies, pairs);
+
+            assertEquals(serialNarrowphase.getNumContacts(), parallelNarrowphase.getNumContacts());
+            for (int i = 0; i < serialNarrowphase.getNumContacts(); i++) {
+                assertEquals(serialNarrowphase.getBodyIndex1(i), parallelNarrowphase.getBodyIndex1(i));
+                assertEquals(serialNarrowphase.getBodyIndex2(i), parallelNarrowphase.getBodyIndex2(i));
+                assertEquals(serialNarrowphase.getResult(i).getMtv(), parallelNarrowphase.getResult(i).getMtv());
+                assertEquals(serialNarrowphase.getResult(i).getContactPt(), parallelNarrowphase.getResult(i).getContactPt());
+            }
+
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void findContacts_should_skip_bodies_that_do_not_move() {
+        List<PBody> bodies = new ArrayList<>();
+        bodies.add(createPCircle(10, Vector.of(0, 0)));
+        bodies.add(createPCircle(10, Vector.of(5, 0)));
+        bodies.add(createPCircle(10, Vector.of(10, 0)));
+        bodies.get(0).setMoveable(false);
+        bodies.get(1).setMoveable(false);
+
+        PPairBuffer pairs = new PPairBuffer();
+        pairs.add(0, 1);
+        pairs.add(1, 2);
+
+        PNarrowphase narrowphase = new PNarrowphase();
+        narrowphase.findContacts(bodies, pairs);
+
+        assertEquals(1, narrowphase.getNumContacts());
+        assertEquals(1, narrowphase.getBodyIndex1(0));
+        assertEquals(2, narrowphase.getBodyIndex2(0));
+        assertTrue(narrowphase.getResult(0).isHasCollided());
+    }
+
+    @Test
+    public void findContacts_should_find_speculative_contacts_given_bodies_could_touch_within_time_step() {
+        List<PBody> bodies = new ArrayList<>();
+        bodies.add(createPCircle(10, Vector.of(0, 0)));
+        bodies.add(createPCircle(10, Vector.of(25, 0)));
+        bodies.add(createPCircle(10, Vector.of(0, 25)));
+        bodies.get(1).setVelocity(Vector.of(-360, 0));
+        bodies.get(2).setVelocity(Vector.of(0, -60));
+
+        PPairBuffer pairs = new PPairBuffer();
+        pairs.add(0, 1);
+        pairs.add(0, 2);
+
+        // The balls are 5 units apart, which the first ball closes in 1/60 seconds and the second one does not
+        PNarrowphase narrowphase = new PNarrowphase();
+        narrowphase.findContacts(bodies, pairs, 1.0 / 60);
+
+        assertEquals(1, narrowphase.getNumContacts());
+        assertEquals(1, narrowphase.getBodyIndex2(0));
+        assertTrue(narrowphase.getResult(0).isSpeculative());
+        assertEquals(5, narrowphase.getResult(0).getDistance(), 0.000001);
+        assertEquals(-5, narrowphase.getResult(0).getPenetration(0), 0.000001);
+
+        narrowphase.findContacts(bodies, pairs);
+        assertEquals(0, narrowphase.getNumContacts());
+    }
+
+    private static PCircle createPCircle(double radius, Vector centerPt) {
+        PCircle circle = new PCircle("");
+        circle.setCenterPt(centerPt);
+        circle.setRadius(radius);
+        return circle;
+    }
+
+    private static PPolygon createPBox(double x, double y, double size) {
+        PPolygon box = new PPolygon("");
+        box.getVertices().add(Vector.of(x, y));
+        box.getVertices().add(Vector.of(x + size, y));
+        box.getVertices().add(Vector.of(x + size, y + size));
+        box.getVertices().add(Vector.of(x, y + size));
+        box.computeCenterOfMass();
+        return box;
+    }
+}
@@ -12,6 +12,7 @@ import java.util.Collection;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 @RunWith(Enclosed.class)
 public class PPolyPolyCollisionTest {
@@ -141,4 +142,48 @@ public class PPolyPolyCollisionTest {
             return polygon;
         }
     }
-}
\ No newline at end of file
+
+    public static class ContactManifoldTest {
+
+        @Test
+        public void doBodiesCollide_should_find_both_corners_of_a_box_resting_on_another() {
+            PPolygon ground = createBox(0, 0, 200, 100, false);
+            PPolygon box = createBox(50, 90, 150, 190, true);
+
+            PCollisionResult result = PPolyPolyCollision.doBodiesCollide(ground, box);
+
+            assertEquals(2, result.getNumContactPts());
+            double x1 = result.getContactPt(0).getX();
+            double x2 = result.getContactPt(1).getX();
+            assertEquals(50, Math.min(x1, x2), 0.00001);
+            assertEquals(150, Math.max(x1, x2), 0.00001);
+            assertEquals(10, result.getPenetration(0), 0.00001);
+            assertEquals(10, result.getPenetration(1), 0.00001);
+            assertNotEquals(result.getFeatureId(0), result.getFeatureId(1));
+        }
+
+        @Test
+        public void doBodiesCollide_should_keep_the_same_feature_ids_when_the_box_slides() {
+            PPolygon ground = createBox(0, 0, 200, 100, false);
+            PCollisionResult result1 = PPolyPolyCollision.doBodiesCollide(ground, createBox(50, 90, 150, 190, true));
+            PCollisionResult result2 = PPolyPolyCollision.doBodiesCollide(ground, createBox(52, 91, 152, 191, true));
+
+            assertEquals(2, result2.getNumContactPts());
+            for (int i = 0; i < 2; i++) {
+                assertEquals(result1.getContactPt(i).getX() + 2, result2.getContactPt(i).getX(), 0.00001);
+                assertEquals(result1.getFeatureId(i), result2.getFeatureId(i));
+            }
+        }
+
+        private static PPolygon createBox(double minX, double minY, double maxX, double maxY, boolean isMoving) {
+            PPolygon polygon = new PPolygon("");
+            polygon.getVertices().addAll(Arrays.asList(Vector.of(minX, minY), Vector.of(maxX, minY),
+                    Vector.of(maxX, maxY), Vector.of(minX, maxY)));
+            polygon.setVelocity(Vector.of(0, -1));
+            polygon.setMoveable(isMoving);
+            polygon.computeCenterOfMass();
+
+            return polygon;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.javaphysicsengine.api.collision;
+
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.utils.Vector;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PTimeOfImpactTest {
+
+    private PPolygon wall;
+    private PCircle bullet;
+
+    @Before
+    public void setup() {
+        wall = new PPolygon("Wall");
+        wall.getVertices().add(Vector.of(100, -50));
+        wall.getVertices().add(Vector.of(102, -50));
+        wall.getVertices().add(Vector.of(102, 50));
+        wall.getVertices().add(Vector.of(100, 50));
+        wall.computeCenterOfMass();
+
+        bullet = new PCircle("Bullet");
+        bullet.setRadius(5);
+        bullet.setCenterPt(Vector.of(0, 0));
+    }
+
+    @Test
+    public void getTimeOfImpact_should_return_when_bullet_touches_body_given_bullet_passed_through_it() {
+        bullet.startSweep();
+        bullet.translate(Vector.of(200, 0));
+
+        // The bullet touches the wall once it has moved 95 units, and is stopped slightly inside of it
+        double timeOfImpact = PTimeOfImpact.getTimeOfImpact(bullet, wall);
+        assertEquals(95.0 / 200, timeOfImpact, 0.001);
+
+        // The bullet is left where it ended the sweep
+        assertEquals(Vector.of(200, 0), bullet.getCenterPt());
+    }
+
+    @Test
+    public void getTimeOfImpact_should_return_1_given_bullet_slides_along_body() {
+        // The bullet goes slightly into the wall, like a body that rests against it
+        bullet.setCenterPt(Vector.of(95.01, -100));
+        bullet.startSweep();
+        bullet.translate(Vector.of(0, 200));
+
+        assertEquals(1, PTimeOfImpact.getTimeOfImpact(bullet, wall), 0);
+    }
+}
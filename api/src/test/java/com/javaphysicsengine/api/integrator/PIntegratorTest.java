@@ -0,0 +1,118 @@
+package com.javaphysicsengine.api.integrator;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.utils.Vector;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PIntegratorTest {
+
+    private static final double GRAVITY = -10;
+
+    // A spring that goes back and forth once a second
+    private static final double SPRING_ANGULAR_FREQUENCY = 2 * Math.PI;
+
+    private PCircle ball;
+    private List<PBody> bodies;
+
+    @Before
+    public void setUp() {
+        ball = new PCircle("Ball");
+        ball.setRadius(1);
+        ball.setCenterPt(Vector.of(0, 0));
+
+        bodies = new ArrayList<>();
+        bodies.add(ball);
+    }
+
+    @Test
+    public void integrate_should_follow_falling_body_exactly_given_verlet_or_rk4() {
+        for (PIntegrator integrator : new PIntegrator[] { new PVerletIntegrator(), new PRK4Integrator() }) {
+            setUp();
+            ball.setVelocity(Vector.of(1, 0));
+            fall(integrator, 10, 0.1);
+
+            // y = (1/2)gt^2
+            assertEquals(1, ball.getCenterPt().getX(), 0.000001);
+            assertEquals(0.5 * GRAVITY, ball.getCenterPt().getY(), 0.000001);
+            assertEquals(GRAVITY, ball.getVelocity().getY(), 0.000001);
+        }
+    }
+
+    @Test
+    public void integrate_should_move_with_new_velocity_given_semi_implicit_euler() {
+        fall(new PSemiImplicitEulerIntegrator(), 10, 0.1);
+
+        // Each step moves by the velocity at the end of the step: g * t^2 * (1 + 2 + ... + 10)
+        assertEquals(GRAVITY * 0.01 * 55, ball.getCenterPt().getY(), 0.000001);
+        assertEquals(GRAVITY, ball.getVelocity().getY(), 0.000001);
+    }
+
+    @Test
+    public void integrate_should_keep_spring_energy_at_30_hz() {
+        for (PIntegrator integrator : new PIntegrator[] {
+                new PSemiImplicitEulerIntegrator(), new PVerletIntegrator(), new PRK4Integrator() }) {
+            setUp();
+            ball.setCenterPt(Vector.of(10, 0));
+
+            // Ten seconds of a spring stretched by 10 units
+            double maxAmplitude = 0;
+            double minAmplitude = Double.MAX_VALUE;
+            for (int i = 0; i < 300; i++) {
+                integrator.integrate(bodies, this::addSpringForce, 1 / 30.0, 1);
+
+                double x = ball.getCenterPt().getX();
+                double v = ball.getVelocity().getX();
+                double amplitude = Math.sqrt(x * x + v * v / (SPRING_ANGULAR_FREQUENCY * SPRING_ANGULAR_FREQUENCY));
+                maxAmplitude = Math.max(maxAmplitude, amplitude);
+                minAmplitude = Math.min(minAmplitude, amplitude);
+            }
+
+            assertTrue(integrator.getClass().getSimpleName(), maxAmplitude < 11);
+            assertTrue(integrator.getClass().getSimpleName(), minAmplitude > 9);
+        }
+    }
+
+    @Test
+    public void integrate_should_not_move_bodies_that_do_not_move_or_are_asleep() {
+        PCircle wall = new PCircle("Wall");
+        wall.setRadius(1);
+        wall.setCenterPt(Vector.of(5, 5));
+        wall.setMoveable(false);
+        bodies.add(wall);
+        ball.setAwake(false);
+
+        for (PIntegrator integrator : new PIntegrator[] {
+                new PSemiImplicitEulerIntegrator(), new PVerletIntegrator(), new PRK4Integrator() }) {
+            integrator.integrate(bodies, this::addGravity, 0.1, 1);
+
+            assertEquals(Vector.of(0, 0), ball.getCenterPt());
+            assertEquals(Vector.of(5, 5), wall.getCenterPt());
+            assertEquals(Vector.of(0, 0), wall.getVelocity());
+        }
+    }
+
+    private void fall(PIntegrator integrator, int numSteps, double timeStep) {
+        for (int i = 0; i < numSteps; i++) {
+            integrator.integrate(bodies, this::addGravity, timeStep, 1);
+        }
+    }
+
+    private void addGravity() {
+        for (PBody body : bodies) {
+            body.getNetForce().setXY(0, GRAVITY * body.getMass());
+        }
+    }
+
+    private void addSpringForce() {
+        double x = ball.getCenterPt().getX();
+        ball.getNetForce().setXY(-SPRING_ANGULAR_FREQUENCY * SPRING_ANGULAR_FREQUENCY * x * ball.getMass(), 0);
+    }
+}
@@ -0,0 +1,315 @@
+package com.javaphysicsengine.api.solver;
+
+import com.javaphysicsengine.api.PWorldConfig;
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.body.PPolygon;
+import com.javaphysicsengine.api.broadphase.PPairBuffer;
+import com.javaphysicsengine.api.collision.PNarrowphase;
+import com.javaphysicsengine.utils.Vector;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PContactSolverTest {
+
+    private PCircle ground;
+    private PCircle ball;
+    private List<PBody> bodies;
+    private PPairBuffer pairs;
+    private PNarrowphase narrowphase;
+    private PContactSolver solver;
+
+    @Before
+    public void setup() {
+        ground = createPCircle(10, Vector.of(0, 0), Vector.of(0, 0));
+        ground.setMoveable(false);
+        ball = createPCircle(10, Vector.of(1, 19), Vector.of(2, -5));
+
+        bodies = new ArrayList<>();
+        bodies.add(ground);
+        bodies.add(ball);
+
+        pairs = new PPairBuffer();
+        pairs.add(0, 1);
+
+        narrowphase = new PNarrowphase();
+        solver = new PContactSolver();
+    }
+
+    @Test
+    public void solve_should_stop_bodies_from_moving_into_each_other() {
+        narrowphase.findContacts(bodies, pairs);
+        solver.solve(bodies, narrowphase);
+
+        Vector normal = ball.getCenterPt().minus(ground.getCenterPt()).normalize();
+        double velAlongNormal = ball.getVelocity().dot(normal);
+
+        // The ball hit the ground fast enough to bounce back a bit
+        assertTrue(velAlongNormal > 0);
+        assertTrue(velAlongNormal < 5);
+        assertEquals(Vector.of(0, 0), ground.getVelocity());
+    }
+
+    @Test
+    public void solve_should_clamp_friction_to_normal_impulse() {
+        narrowphase.findContacts(bodies, pairs);
+        solver.solve(bodies, narrowphase);
+
+        assertEquals(1, solver.getNumContacts());
+        assertTrue(solver.getNormalImpulse(0) > 0);
+        assertTrue(Math.abs(solver.getTangentImpulse(0)) <= 0.1 * solver.getNormalImpulse(0) + 0.000001);
+    }
+
+    @Test
+    public void solve_should_use_materials_of_bodies_before_those_of_config() {
+        solver.setConfig(PWorldConfig.DEFAULT.toBuilder().setRestitution(0).setFriction(0).build());
+        ball.setRestitution(1);
+        narrowphase.findContacts(bodies, pairs);
+        solver.solve(bodies, narrowphase);
+
+        // The ball is perfectly bouncy, so it bounces back as fast as it hit, and the ground has no friction
+        Vector normal = ball.getCenterPt().minus(ground.getCenterPt()).normalize();
+        assertEquals(Vector.of(2, -5).dot(normal), -ball.getVelocity().dot(normal), 0.000001);
+        assertEquals(0, solver.getTangentImpulse(0), 0.000001);
+    }
+
+    @Test
+    public void solve_should_push_overlapping_bodies_apart() {
+        narrowphase.findContacts(bodies, pairs);
+        solver.solve(bodies, narrowphase);
+
+        double distance = ball.getCenterPt().minus(ground.getCenterPt()).norm2();
+        assertTrue(distance > Vector.of(1, 19).norm2());
+    }
+
+    @Test
+    public void solve_should_carry_impulses_over_to_next_time_step() {
+        narrowphase.findContacts(bodies, pairs);
+        solver.solve(bodies, narrowphase);
+        double normalImpulse = solver.getNormalImpulse(0);
+        double tangentImpulse = solver.getTangentImpulse(0);
+
+        // Without any iterations, the impulses of the last time step are all that is applied
+        Vector velocity = new Vector(ball.getVelocity());
+        ball.setVelocity(Vector.of(2, -5));
+        solver.setVelocityIterations(0);
+        solver.setPositionIterations(0);
+        narrowphase.findContacts(bodies, pairs);
+        solver.solve(bodies, narrowphase);
+
+        assertEquals(normalImpulse, solver.getNormalImpulse(0), 0.000001);
+        assertEquals(tangentImpulse, solver.getTangentImpulse(0), 0.000001);
+        assertEquals(velocity, ball.getVelocity());
+    }
+
+    @Test
+    public void solve_should_not_carry_impulses_over_to_different_bodies() {
+        narrowphase.findContacts(bodies, pairs);
+        solver.solve(bodies, narrowphase);
+
+        // Another ball takes the place of the first one in the list
+        PCircle otherBall = createPCircle(10, Vector.of(1, 19), Vector.of(2, -5));
+        bodies.set(1, otherBall);
+        solver.setVelocityIterations(0);
+        narrowphase.findContacts(bodies, pairs);
+        solver.solve(bodies, narrowphase);
+
+        assertEquals(0, solver.getNormalImpulse(0), 0.000001);
+        assertEquals(Vector.of(2, -5), otherBall.getVelocity());
+    }
+
+    @Test
+    public void solve_should_push_evenly_on_both_corners_of_a_box_landing_flat() {
+        PPolygon floor = createBox(0, 0, 200, 100, Vector.of(0, 0));
+        floor.setMoveable(false);
+        PPolygon box = createBox(50, 99, 150, 199, Vector.of(0, -5));
+        bodies.set(0, floor);
+        bodies.set(1, box);
+
+        narrowphase.findContacts(bodies, pairs);
+        solver.solve(bodies, narrowphase);
+
+        // Both corners are solved together, so the box bounces straight up without either one tipping it over
+        assertEquals(2, solver.getNumContactPts(0));
+        assertTrue(solver.getNormalImpulse(0, 0) > 0);
+        assertEquals(solver.getNormalImpulse(0, 0), solver.getNormalImpulse(0, 1), 0.000001);
+        assertEquals(solver.getNormalImpulse(0, 0) + solver.getNormalImpulse(0, 1), solver.getNormalImpulse(0), 0.000001);
+        assertEquals(0, box.getAngularVelocity(), 0.000001);
+        assertEquals(0, box.getVelocity().getX(), 0.000001);
+        assertTrue(box.getVelocity().getY() > 0);
+    }
+
+    @Test
+    public void solve_should_only_let_box_close_the_gap_given_speculative_contact() {
+        PPolygon floor = createBox(0, 0, 200, 100, Vector.of(0, 0));
+        floor.setMoveable(false);
+        PPolygon box = createBox(50, 102, 150, 202, Vector.of(0, -300));
+        bodies.set(0, floor);
+        bodies.set(1, box);
+
+        narrowphase.findContacts(bodies, pairs, 1.0 / 60);
+        solver.solve(bodies, narrowphase, null, 1.0 / 60);
+
+        // The box is 2 units above the floor, so it can only move down by 2 units in the next time step
+        assertTrue(narrowphase.getResult(0).isSpeculative());
+        assertEquals(2, solver.getNumContactPts(0));
+        assertEquals(-2 * 60, box.getVelocity().getY(), 0.000001);
+        assertEquals(0, box.getAngularVelocity(), 0.000001);
+        assertEquals(102, box.getBoundingBox().getMinY(), 0.000001);
+    }
+
+    @Test
+    public void solve_should_carry_impulses_over_to_the_same_corners() {
+        PPolygon floor = createBox(0, 0, 200, 100, Vector.of(0, 0));
+        floor.setMoveable(false);
+        PPolygon box = createBox(50, 99, 150, 199, Vector.of(1, -5));
+        bodies.set(0, floor);
+        bodies.set(1, box);
+
+        narrowphase.findContacts(bodies, pairs);
+        solver.solve(bodies, narrowphase);
+        double normalImpulse1 = solver.getNormalImpulse(0, 0);
+        double normalImpulse2 = solver.getNormalImpulse(0, 1);
+
+        box.setVelocity(Vector.of(1, -5));
+        solver.setVelocityIterations(0);
+        solver.setPositionIterations(0);
+        narrowphase.findContacts(bodies, pairs);
+        solver.solve(bodies, narrowphase);
+
+        assertEquals(normalImpulse1, solver.getNormalImpulse(0, 0), 0.000001);
+        assertEquals(normalImpulse2, solver.getNormalImpulse(0, 1), 0.000001);
+    }
+
+    @Test
+    public void solve_should_give_same_velocities_when_islands_are_solved_in_parallel() {
+        List<PBody> serialBodies = createPiles();
+        List<PBody> parallelBodies = createPiles();
+        PPairBuffer pilePairs = new PPairBuffer();
+        for (int i = 0; i < serialBodies.size(); i++) {
+            if (i % 4 != 3) {
+                pilePairs.add(i, i + 1);
+            }
+        }
+
+        PContactSolver serialSolver = new PContactSolver();
+        serialSolver.setPositionIterations(0);
+        narrowphase.findContacts(serialBodies, pilePairs);
+        serialSolver.solve(serialBodies, narrowphase);
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            PContactSolver parallelSolver = new PContactSolver(forkJoinPool);
+            parallelSolver.setPositionIterations(0);
+            PIslands islands = new PIslands();
+            narrowphase.findContacts(parallelBodies, pilePairs);
+            islands.build(parallelBodies, new ArrayList<>(), narrowphase);
+            parallelSolver.solve(parallelBodies, narrowphase, islands);
+
+            assertEquals(serialBodies.size() / 4, islands.getNumIslands());
+            for (int i = 0; i < serialBodies.size(); i++) {
+                assertEquals(serialBodies.get(i).getVelocity(), parallelBodies.get(i).getVelocity());
+                assertEquals(serialBodies.get(i).getAngularVelocity(), parallelBodies.get(i).getAngularVelocity(), 0);
+            }
+
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void solve_should_give_same_velocities_for_any_number_of_threads_when_contacts_are_colored() {
+        List<PBody> pileWithOneThread = createBigPile();
+        List<PBody> pileWithFourThreads = createBigPile();
+        PPairBuffer pilePairs = new PPairBuffer();
+        for (int row = 0; row < 30; row++) {
+            for (int col = 0; col < 30; col++) {
+                if (col < 29) {
+                    pilePairs.add(30 * row + col, 30 * row + col + 1);
+                }
+                if (row < 29) {
+                    pilePairs.add(30 * row + col, 30 * (row + 1) + col);
+                }
+            }
+        }
+
+        ForkJoinPool oneThreadPool = new ForkJoinPool(1);
+        ForkJoinPool fourThreadPool = new ForkJoinPool(4);
+        try {
+            solveAsOneIsland(pileWithOneThread, pilePairs, new PContactSolver(oneThreadPool));
+            PContactSolver solver = new PContactSolver(fourThreadPool);
+            solveAsOneIsland(pileWithFourThreads, pilePairs, solver);
+
+            assertEquals(2 * 30 * 29, solver.getNumContacts());
+            for (int i = 0; i < pileWithOneThread.size(); i++) {
+                assertEquals(pileWithOneThread.get(i).getVelocity(), pileWithFourThreads.get(i).getVelocity());
+                assertEquals(pileWithOneThread.get(i).getCenterPt(), pileWithFourThreads.get(i).getCenterPt());
+            }
+
+        } finally {
+            oneThreadPool.shutdown();
+            fourThreadPool.shutdown();
+        }
+    }
+
+    private void solveAsOneIsland(List<PBody> bodies, PPairBuffer pairs, PContactSolver solver) {
+        PIslands islands = new PIslands();
+        narrowphase.findContacts(bodies, pairs);
+        islands.build(bodies, new ArrayList<>(), narrowphase);
+        assertEquals(1, islands.getNumIslands());
+        solver.solve(bodies, narrowphase, islands);
+    }
+
+    /**
+     * Creates a grid of balls that overlap the balls next to and above them, all falling
+     * @return The balls, row by row
+     */
+    private static List<PBody> createBigPile() {
+        List<PBody> pile = new ArrayList<>();
+        for (int row = 0; row < 30; row++) {
+            for (int col = 0; col < 30; col++) {
+                pile.add(createPCircle(10, Vector.of(19 * col, 19 * row), Vector.of(col % 3, -row)));
+            }
+        }
+        return pile;
+    }
+
+    /**
+     * Creates piles of four balls each, where each ball is falling onto the one below it
+     * @return The balls, with the balls of each pile next to each other
+     */
+    private static List<PBody> createPiles() {
+        List<PBody> piles = new ArrayList<>();
+        for (int pile = 0; pile < 100; pile++) {
+            for (int i = 0; i < 4; i++) {
+                piles.add(createPCircle(10, Vector.of(100 * pile + i, 19 * i), Vector.of(0, -i)));
+            }
+        }
+        return piles;
+    }
+
+    private static PPolygon createBox(double minX, double minY, double maxX, double maxY, Vector velocity) {
+        PPolygon box = new PPolygon("");
+        box.getVertices().addAll(Arrays.asList(Vector.of(minX, minY), Vector.of(maxX, minY),
+                Vector.of(maxX, maxY), Vector.of(minX, maxY)));
+        box.computeCenterOfMass();
+        box.setVelocity(velocity);
+        return box;
+    }
+
+    private static PCircle createPCircle(double radius, Vector centerPt, Vector velocity) {
+        PCircle circle = new PCircle("");
+        circle.setCenterPt(centerPt);
+        circle.setVelocity(velocity);
+        circle.setRadius(radius);
+        return circle;
+    }
+}
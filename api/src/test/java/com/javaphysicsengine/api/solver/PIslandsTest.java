@@ -0,0 +1,117 @@
+package com.javaphysicsengine.api.solver;
+
+import com.javaphysicsengine.api.body.PBody;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.api.body.PConstraints;
+import com.javaphysicsengine.api.body.PSpring;
+import com.javaphysicsengine.api.broadphase.PPairBuffer;
+import com.javaphysicsengine.api.collision.PNarrowphase;
+import com.javaphysicsengine.utils.Vector;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PIslandsTest {
+
+    private List<PBody> bodies;
+    private List<PConstraints> constraints;
+    private PPairBuffer pairs;
+    private PNarrowphase narrowphase;
+    private PIslands islands;
+
+    @Before
+    public void setup() {
+        // Two piles of two balls each, far away from each other
+        bodies = new ArrayList<>();
+        bodies.add(createPCircle(10, Vector.of(0, 0)));
+        bodies.add(createPCircle(10, Vector.of(100, 0)));
+        bodies.add(createPCircle(10, Vector.of(0, 15)));
+        bodies.add(createPCircle(10, Vector.of(100, 15)));
+
+        pairs = new PPairBuffer();
+        pairs.add(0, 2);
+        pairs.add(1, 3);
+
+        constraints = new ArrayList<>();
+        narrowphase = new PNarrowphase();
+        islands = new PIslands();
+    }
+
+    @Test
+    public void build_should_put_piles_that_do_not_touch_in_different_islands() {
+        narrowphase.findContacts(bodies, pairs);
+        islands.build(bodies, constraints, narrowphase);
+
+        assertEquals(2, islands.getNumIslands());
+        assertEquals(0, islands.getIsland(0));
+        assertEquals(1, islands.getIsland(1));
+        assertEquals(0, islands.getIsland(2));
+        assertEquals(1, islands.getIsland(3));
+
+        assertEquals(2, islands.getNumBodies(0));
+        assertEquals(0, islands.getBody(0, 0));
+        assertEquals(2, islands.getBody(0, 1));
+        assertEquals(1, islands.getNumContacts(0));
+        assertEquals(0, islands.getContact(0, 0));
+        assertEquals(1, islands.getNumContacts(1));
+        assertEquals(1, islands.getContact(1, 0));
+    }
+
+    @Test
+    public void build_should_join_islands_of_bodies_that_are_joined_by_a_constraint() {
+        constraints.add(new PSpring(bodies.get(2), bodies.get(3)));
+
+        narrowphase.findContacts(bodies, pairs);
+        islands.build(bodies, constraints, narrowphase);
+
+        assertEquals(1, islands.getNumIslands());
+        assertEquals(4, islands.getNumBodies(0));
+        assertEquals(2, islands.getNumContacts(0));
+        assertEquals(0, islands.getContact(0, 0));
+        assertEquals(1, islands.getContact(0, 1));
+    }
+
+    @Test
+    public void build_should_not_join_islands_through_a_body_that_does_not_move() {
+        // Both piles rest on the same ground
+        PCircle ground = createPCircle(200, Vector.of(50, -200));
+        ground.setMoveable(false);
+        bodies.add(ground);
+        pairs.add(0, 4);
+        pairs.add(1, 4);
+
+        narrowphase.findContacts(bodies, pairs);
+        islands.build(bodies, constraints, narrowphase);
+
+        assertEquals(2, islands.getNumIslands());
+        assertEquals(-1, islands.getIsland(4));
+        assertEquals(2, islands.getNumBodies(0));
+        assertEquals(2, islands.getNumBodies(1));
+        assertEquals(narrowphase.getNumContacts(), islands.getNumContacts(0) + islands.getNumContacts(1));
+    }
+
+    @Test
+    public void build_should_leave_out_bodies_that_are_asleep() {
+        bodies.get(1).setAwake(false);
+        bodies.get(3).setAwake(false);
+
+        narrowphase.findContacts(bodies, pairs);
+        islands.build(bodies, constraints, narrowphase);
+
+        assertEquals(1, islands.getNumIslands());
+        assertEquals(-1, islands.getIsland(1));
+        assertEquals(-1, islands.getIsland(3));
+        assertEquals(1, islands.getNumContacts(0));
+    }
+
+    private static PCircle createPCircle(double radius, Vector centerPt) {
+        PCircle circle = new PCircle("");
+        circle.setCenterPt(centerPt);
+        circle.setRadius(radius);
+        return circle;
+    }
+}
@@ -9,11 +9,7 @@ package com.javaphysicsengine.gui.editor;
 
 import com.javaphysicsengine.api.PWorld;
 import com.javaphysicsengine.api.body.PBody;
-import com.javaphysicsengine.api.body.PCircle;
 import com.javaphysicsengine.api.body.PConstraints;
-import com.javaphysicsengine.api.body.PPolygon;
-import com.javaphysicsengine.api.body.PSpring;
-import com.javaphysicsengine.api.body.PString;
 import com.javaphysicsengine.gui.codegenerator.PCodeGenerator;
 import com.javaphysicsengine.gui.editor.canvas.PEditorMouseHandler;
 import com.javaphysicsengine.gui.editor.canvas.PEditorPanel;
@@ -286,42 +282,9 @@ public class PEditorFrame extends JFrame implements ActionListener {
      */
     private void runSimulation() {
         PWorld world = new PWorld();
+        world.setDrawingContactPts(true);
 
-        for (PBody body : store.getCreatedBodies()) {
-            PBody copiedBody;
-
-            if (body instanceof PPolygon) {
-                copiedBody = new PPolygon((PPolygon) body);
-            } else if (body instanceof PCircle) {
-                copiedBody = new PCircle((PCircle) body);
-            } else {
-                throw new IllegalArgumentException("The class type " + body.getClass() + " is not supported!");
-            }
-            world.getBodies().add(copiedBody);
-        }
-
-        for (PConstraints constraint : store.getCreatedConstraints()) {
-            PBody attachedBody1 = world.getBodies().stream()
-                    .filter(body -> body.getName().equals(constraint.getAttachedBodies()[0].getName()))
-                    .findFirst().orElseThrow(() -> new IllegalArgumentException("Cannot find body in world!"));
-
-            PBody attachedBody2 = world.getBodies().stream()
-                    .filter(body -> body.getName().equals(constraint.getAttachedBodies()[1].getName()))
-                    .findFirst().orElseThrow(() -> new IllegalArgumentException("Cannot find body in world!"));
-
-            // Making a copy of the constraints
-            if (constraint instanceof PSpring) {
-                PSpring springCopy = new PSpring(attachedBody1, attachedBody2);
-                springCopy.setKValue(((PSpring) constraint).getKValue());
-                springCopy.setLength(constraint.getLength());
-                world.getConstraints().add(springCopy);
-
-            } else if (constraint instanceof PString) {
-                PString stringCopy = new PString(attachedBody1, attachedBody2);
-                stringCopy.setLength(constraint.getLength());
-                world.getConstraints().add(stringCopy);
-            }
-        }
+        world.addCopiesOf(store.getCreatedBodies(), store.getCreatedConstraints());
 
         new PSimulationWindow(world, 64, renderer.isShapeFillDisplayed(),
                 renderer.isShapeOutlineDisplayed(), renderer.isAntiAliasingToggled())
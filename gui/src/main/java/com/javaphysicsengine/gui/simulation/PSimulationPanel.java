@@ -7,9 +7,8 @@
 package com.javaphysicsengine.gui.simulation;
 
 import com.javaphysicsengine.api.PWorld;
+import com.javaphysicsengine.api.PWorldSnapshot;
 import com.javaphysicsengine.api.body.PBody;
-import com.javaphysicsengine.api.body.PConstraints;
-import com.javaphysicsengine.utils.Vector;
 
 import javax.swing.JPanel;
 import javax.swing.Timer;
@@ -25,11 +24,21 @@ public class PSimulationPanel extends JPanel implements ActionListener {
     private boolean isAntiAliasingToggled = false;
     private Timer gameTimer;
 
+    // Simulates the world in fixed steps on its own thread, while the timer only repaints the panel
+    private PSimulationThread simulationThread;
+
+    // The rates shown on the panel, which are measured over about a second at a time
+    private double simulationRate = 0;
+    private double renderRate = 0;
+    private long rateStartTime;
+    private long rateStartStepNumber = 0;
+    private int numFramesRendered = 0;
+
     /**
      * Pre-condition: "world" must not be null. Frame rate must be greater than 0
      * Post-condition: Creates a PSimulationPanel
      * @param world The PWorld object that contains all the objects to be simulated
-     * @param frameRate The FPS for rendering and simulating the bodies
+     * @param frameRate The FPS for rendering the bodies, and the number of time steps simulated per second
      * @param isShapeFillVisible Determines whether the bodies should have its shape fill rendered
      * @param isShapeOutlineVisible Determines whether the bodies should have its shape outlines rendered
      * @param isAntiAliasingToggled Determines whether AntiAliasing is turned on or off
@@ -42,7 +51,11 @@ public class PSimulationPanel extends JPanel implements ActionListener {
         this.isShapeOutlineVisible = isShapeOutlineVisible;
         this.isAntiAliasingToggled = isAntiAliasingToggled;
 
-        // Initialise the game loop
+        // Initialise the game loop. The bodies are drawn from the snapshots published by the simulation thread,
+        // so that drawing never reads them while they are being simulated
+        simulationThread = new PSimulationThread(world, 1 / frameRate);
+        simulationThread.start();
+        rateStartTime = System.nanoTime();
         gameTimer = new Timer((int) (1000 / frameRate), this);
         gameTimer.start();
     }
@@ -52,6 +65,7 @@ public class PSimulationPanel extends JPanel implements ActionListener {
      */
     public void turnOffTimer() {
         this.gameTimer.stop();
+        this.simulationThread.stopSimulating();
     }
 
     /**
@@ -69,36 +83,63 @@ public class PSimulationPanel extends JPanel implements ActionListener {
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         }
 
-        // Draw the bodies
-        for (PBody body : world.getBodies()) {
+        // Draw the bodies where they were at the end of the latest time step
+        PWorldSnapshot snapshot = world.getLatestSnapshot();
+        for (int i = 0; i < snapshot.getNumBodies(); i++) {
+            PBody body = snapshot.getBody(i);
             if (isShapeFillVisible)
-                body.drawFill(g, this.getHeight());
+                body.drawFill(g, this.getHeight(), snapshot.getCenterX(i), snapshot.getCenterY(i), snapshot.getAngle(i));
             if (isShapeOutlineVisible)
-                body.drawOutline(g, this.getHeight());
+                body.drawOutline(g, this.getHeight(), snapshot.getCenterX(i), snapshot.getCenterY(i), snapshot.getAngle(i));
         }
 
         // Draw the springs
-        for (PConstraints constraint : world.getConstraints()) {
-            constraint.drawConstraints(g, this.getHeight());
+        for (int i = 0; i < snapshot.getNumConstraints(); i++) {
+            snapshot.getConstraint(i).drawConstraints(g, this.getHeight(), snapshot.getConstraintX1(i),
+                    snapshot.getConstraintY1(i), snapshot.getConstraintX2(i), snapshot.getConstraintY2(i));
         }
 
-        // Draw all of the points
-        for (Vector pt : world.pointsToDraw) {
-            int topLeftX = (int) (pt.getX() - 1);
-            int topLeftY = this.getHeight() - (int) (pt.getY() + 1);
+        // Draw the contact points of the same time step
+        for (int i = 0; i < snapshot.getNumContactPts(); i++) {
+            int topLeftX = (int) (snapshot.getContactX(i) - 1);
+            int topLeftY = this.getHeight() - (int) (snapshot.getContactY(i) + 1);
             g.setColor(Color.GREEN);
             g.fillOval(topLeftX, topLeftY, 2, 2);
         }
+
+        drawRates(g, snapshot.getStepNumber());
+    }
+
+    /**
+     * Draws how many time steps are simulated and how many frames are drawn each second, so that it can be seen
+     * which of the two is falling behind
+     * @param g The graphics object
+     * @param stepNumber The step number of the snapshot that was drawn
+     */
+    private void drawRates(Graphics g, long stepNumber) {
+        numFramesRendered++;
+        long currentTime = System.nanoTime();
+        if (currentTime - rateStartTime >= 1e9) {
+            double timeEllapsed = (currentTime - rateStartTime) / 1e9;
+            simulationRate = (stepNumber - rateStartStepNumber) / timeEllapsed;
+            renderRate = numFramesRendered / timeEllapsed;
+
+            rateStartTime = currentTime;
+            rateStartStepNumber = stepNumber;
+            numFramesRendered = 0;
+        }
+
+        g.setColor(Color.BLACK);
+        g.drawString(String.format("Simulation: %.0f steps/s", simulationRate), 10, 20);
+        g.drawString(String.format("Rendering: %.0f frames/s", renderRate), 10, 35);
     }
 
     /**
-     * Simulates the bodies in the world and renders the objects
+     * Renders the latest snapshot of the objects
      * @param e The ActionEvent object that called this method
      */
     public void actionPerformed(ActionEvent e) {
         if (e.getSource() instanceof Timer) {
-            // Simulate the objects and draw them
-            world.simulate(1000 / frameRate / 1000.0);
             repaint();
         }
     }
@@ -0,0 +1,63 @@
+package com.javaphysicsengine.gui.simulation;
+
+import com.javaphysicsengine.api.PTimeStepper;
+import com.javaphysicsengine.api.PWorld;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulates a world with a fixed time step on its own thread, so that heavy time steps do not freeze the window
+ * and painting does not hold up the simulation.
+ *
+ * The world publishes a snapshot after each time step, which is all that the window reads. Once the thread has
+ * started, the world must not be used by any other thread
+ */
+public class PSimulationThread extends Thread {
+    private final PWorld world;
+    private final PTimeStepper timeStepper;
+    private volatile boolean isRunning = true;
+
+    /**
+     * Creates a thread that simulates a world
+     * Pre-condition: "world" must not be null, and "timeStep" must be greater than 0
+     * @param world The world to simulate
+     * @param timeStep The time simulated by each step, in seconds
+     */
+    public PSimulationThread(PWorld world, double timeStep) {
+        super("Simulation");
+        this.world = world;
+        this.timeStepper = new PTimeStepper(world, timeStep);
+
+        // The simulation keeps to the clock before painting does, and does not keep the program open
+        setPriority(Thread.MAX_PRIORITY);
+        setDaemon(true);
+    }
+
+    /**
+     * Simulates the world for the time that has passed on the clock until the thread is stopped
+     */
+    @Override
+    public void run() {
+        world.setPublishingSnapshots(true);
+        world.publishSnapshot();
+
+        long lastTime = System.nanoTime();
+        while (isRunning) {
+            long currentTime = System.nanoTime();
+            timeStepper.advance((currentTime - lastTime) / 1e9);
+            lastTime = currentTime;
+
+            // Sleep until the next step is due instead of checking the clock over and over
+            long timeToNextStep = (long) ((1 - timeStepper.getAlpha()) * timeStepper.getTimeStep() * 1e9);
+            LockSupport.parkNanos(this, timeToNextStep);
+        }
+    }
+
+    /**
+     * Stops simulating the world once the step that is being simulated is done
+     */
+    public void stopSimulating() {
+        isRunning = false;
+        interrupt();
+    }
+}
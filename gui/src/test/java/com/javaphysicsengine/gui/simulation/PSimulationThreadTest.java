@@ -0,0 +1,36 @@
+package com.javaphysicsengine.gui.simulation;
+
+import com.javaphysicsengine.api.PWorld;
+import com.javaphysicsengine.api.PWorldSnapshot;
+import com.javaphysicsengine.api.body.PCircle;
+import com.javaphysicsengine.utils.Vector;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PSimulationThreadTest {
+
+    @Test(timeout = 10000)
+    public void run_should_publish_snapshots_of_the_falling_ball_until_stopped() throws InterruptedException {
+        PWorld world = new PWorld();
+        PCircle ball = new PCircle("Ball");
+        ball.setCenterPt(Vector.of(0, 100));
+        world.getBodies().add(ball);
+
+        PSimulationThread simulationThread = new PSimulationThread(world, 1.0 / 100);
+        simulationThread.start();
+
+        // Wait on this thread, like the window does, until a few steps have been simulated
+        PWorldSnapshot snapshot = world.getLatestSnapshot();
+        while (snapshot.getStepNumber() < 5) {
+            Thread.sleep(10);
+            snapshot = world.getLatestSnapshot();
+        }
+        assertTrue(snapshot.getCenterY(0) < 100);
+
+        simulationThread.stopSimulating();
+        simulationThread.join(5000);
+        assertFalse(simulationThread.isAlive());
+    }
+}
@@ -22,17 +22,37 @@ public class Vector {
     }
 
     public static Vector minus(Vector v2, Vector v1) {
-        return new Vector(v2.getX() - v1.getX(), v2.getY() - v1.getY());
+        return new Vector(v2.x - v1.x, v2.y - v1.y);
     }
 
     public Vector minus(Vector v1) {
         return Vector.minus(this, v1);
     }
 
+    /**
+     * Computes v2 - v1 without allocating a new vector
+     * @param v2 The vector to subtract from
+     * @param v1 The vector to subtract
+     * @param out The vector to store the result in (can be v1 or v2)
+     * @return The "out" vector
+     */
+    public static Vector minus(Vector v2, Vector v1, Vector out) {
+        return out.set(v2.x - v1.x, v2.y - v1.y);
+    }
+
+    /**
+     * Subtracts a vector from this vector
+     * @param v1 The vector to subtract
+     * @return This vector
+     */
+    public Vector minusLocal(Vector v1) {
+        return set(x - v1.x, y - v1.y);
+    }
+
     public static Vector min(Vector... vectors) {
         Vector minVector = Vector.of(Double.MAX_VALUE, Double.MAX_VALUE);
         for (Vector v : vectors) {
-            minVector.setXY(Math.min(minVector.getX(), v.getX()), Math.min(minVector.getY(), v.getY()));
+            minVector.setXY(Math.min(minVector.x, v.x), Math.min(minVector.y, v.y));
         }
         return minVector;
     }
@@ -40,13 +60,13 @@ public class Vector {
     public static Vector max(Vector... vectors) {
         Vector minVector = Vector.of(Double.MIN_VALUE, Double.MIN_VALUE);
         for (Vector v : vectors) {
-            minVector.setXY(Math.max(minVector.getX(), v.getX()), Math.max(minVector.getY(), v.getY()));
+            minVector.setXY(Math.max(minVector.x, v.x), Math.max(minVector.y, v.y));
         }
         return minVector;
     }
 
     public static double dot(Vector v1, Vector v2) {
-        return (v1.getX() * v2.getX()) + (v1.getY() * v2.getY());
+        return (v1.x * v2.x) + (v1.y * v2.y);
     }
 
     public double dot(Vector v2) {
@@ -61,14 +81,54 @@ public class Vector {
         return Vector.scale(this, amount);
     }
 
+    /**
+     * Computes v * amount without allocating a new vector
+     * @param v The vector to scale
+     * @param amount The amount to scale by
+     * @param out The vector to store the result in (can be v)
+     * @return The "out" vector
+     */
+    public static Vector scale(Vector v, double amount, Vector out) {
+        return out.set(v.x * amount, v.y * amount);
+    }
+
+    /**
+     * Scales this vector
+     * @param amount The amount to scale by
+     * @return This vector
+     */
+    public Vector scaleLocal(double amount) {
+        return set(x * amount, y * amount);
+    }
+
     public static Vector add(Vector v1, Vector v2) {
-        return new Vector(v1.getX() + v2.getX(), v1.getY() + v2.getY());
+        return new Vector(v1.x + v2.x, v1.y + v2.y);
     }
 
     public Vector add(Vector v2) {
         return Vector.add(this, v2);
     }
 
+    /**
+     * Computes v1 + v2 without allocating a new vector
+     * @param v1 The first vector
+     * @param v2 The second vector
+     * @param out The vector to store the result in (can be v1 or v2)
+     * @return The "out" vector
+     */
+    public static Vector add(Vector v1, Vector v2, Vector out) {
+        return out.set(v1.x + v2.x, v1.y + v2.y);
+    }
+
+    /**
+     * Adds a vector to this vector
+     * @param v2 The vector to add
+     * @return This vector
+     */
+    public Vector addLocal(Vector v2) {
+        return set(x + v2.x, y + v2.y);
+    }
+
     public static double cross(Vector v1, Vector v2) {
         return v1.x * v2.y - v1.y * v2.x;
     }
@@ -105,6 +165,29 @@ public class Vector {
         return Vector.of(x / curLengthOfVector, y / curLengthOfVector);
     }
 
+    /**
+     * Computes the unit vector of v without allocating a new vector.
+     * Like {@link #normalize()}, a zero vector stays a zero vector
+     * @param v The vector to normalize
+     * @param out The vector to store the result in (can be v)
+     * @return The "out" vector
+     */
+    public static Vector normalize(Vector v, Vector out) {
+        double curLengthOfVector = v.norm2();
+        if (curLengthOfVector == 0) {
+            return out.set(0, 0);
+        }
+        return out.set(v.x / curLengthOfVector, v.y / curLengthOfVector);
+    }
+
+    /**
+     * Makes this vector a unit vector. Like {@link #normalize()}, a zero vector stays a zero vector
+     * @return This vector
+     */
+    public Vector normalizeLocal() {
+        return Vector.normalize(this, this);
+    }
+
     public double getX() {
         return this.x;
     }
@@ -131,6 +214,29 @@ public class Vector {
         this.y = v.y;
     }
 
+    /**
+     * Sets the components of this vector
+     * @param newX The new x value
+     * @param newY The new y value
+     * @return This vector, so that other operations can be chained onto it
+     */
+    public Vector set(double newX, double newY) {
+        this.x = newX;
+        this.y = newY;
+        return this;
+    }
+
+    /**
+     * Copies the components of another vector into this vector
+     * @param v The vector to copy
+     * @return This vector, so that other operations can be chained onto it
+     */
+    public Vector set(Vector v) {
+        this.x = v.x;
+        this.y = v.y;
+        return this;
+    }
+
     /**
      * Determines if two vectors are identical, within the range of {@code Vector#EQUALITY_ACCURACY}
      * @param object the object
@@ -0,0 +1,69 @@
+package com.javaphysicsengine.utils;
+
+/**
+ * A per-thread stack of scratch vectors, for temporary vectors in code that runs many times per second.
+ *
+ * A method takes a mark, obtains as many vectors as it needs, and releases back to its mark before it returns:
+ * <pre>
+ *     VectorPool pool = VectorPool.get();
+ *     int mark = pool.mark();
+ *     Vector temp = pool.obtain();
+ *     ...
+ *     pool.release(mark);
+ * </pre>
+ * Vectors obtained from the pool must not be stored or returned, since they are handed out again after a release.
+ */
+public class VectorPool {
+    private static final int INITIAL_CAPACITY = 32;
+    private static final ThreadLocal<VectorPool> POOLS = ThreadLocal.withInitial(VectorPool::new);
+
+    private Vector[] vectors = new Vector[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private VectorPool() {
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = new Vector(0, 0);
+        }
+    }
+
+    /**
+     * Returns the pool of the current thread
+     * @return The pool of the current thread
+     */
+    public static VectorPool get() {
+        return POOLS.get();
+    }
+
+    /**
+     * Returns the current position in the pool, to be given to {@link #release(int)} later
+     * @return The current position in the pool
+     */
+    public int mark() {
+        return size;
+    }
+
+    /**
+     * Returns a scratch vector. Its components are not reset
+     * @return A scratch vector
+     */
+    public Vector obtain() {
+        if (size == vectors.length) {
+            Vector[] newVectors = new Vector[2 * vectors.length];
+            System.arraycopy(vectors, 0, newVectors, 0, size);
+            for (int i = size; i < newVectors.length; i++) {
+                newVectors[i] = new Vector(0, 0);
+            }
+            vectors = newVectors;
+        }
+        return vectors[size++];
+    }
+
+    /**
+     * Returns all of the vectors obtained since a mark to the pool
+     * Pre-condition: "mark" must have come from {@link #mark()} on this pool, with no release to an earlier mark since
+     * @param mark The mark
+     */
+    public void release(int mark) {
+        size = mark;
+    }
+}
@@ -0,0 +1,43 @@
+package com.javaphysicsengine.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class VectorPoolTest {
+
+    @Test
+    public void obtain_should_return_different_vectors_until_released() {
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
+
+        Vector vector1 = pool.obtain();
+        Vector vector2 = pool.obtain();
+        assertNotSame(vector1, vector2);
+
+        pool.release(mark);
+        assertEquals(mark, pool.mark());
+        assertSame(vector1, pool.obtain());
+        pool.release(mark);
+    }
+
+    @Test
+    public void obtain_should_grow_pool() {
+        VectorPool pool = VectorPool.get();
+        int mark = pool.mark();
+
+        for (int i = 0; i < 1000; i++) {
+            pool.obtain().set(i, i);
+        }
+
+        assertEquals(mark + 1000, pool.mark());
+        pool.release(mark);
+    }
+
+    @Test
+    public void get_should_return_same_pool_on_same_thread() {
+        assertSame(VectorPool.get(), VectorPool.get());
+    }
+}
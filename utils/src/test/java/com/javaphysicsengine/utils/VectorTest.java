@@ -179,4 +179,40 @@ public class VectorTest {
         Vector vector = new Vector(10, 12);
         assertNotNull(vector.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void local_operations_should_modify_and_return_same_vector() {
+        Vector vector = Vector.of(3, 4);
+
+        Vector result = vector.addLocal(Vector.of(1, 2)).scaleLocal(2).minusLocal(Vector.of(4, 2));
+        assertSame(vector, result);
+        assertEquals(Vector.of(4, 10), vector);
+
+        vector.set(3, 4).normalizeLocal();
+        assertEquals(Vector.of(0.6, 0.8), vector);
+
+        assertEquals(Vector.of(0, 0), Vector.of(0, 0).normalizeLocal());
+    }
+
+    @Test
+    public void static_operations_with_out_vector_should_store_result_in_out_vector() {
+        Vector vector1 = Vector.of(10, 100);
+        Vector vector2 = Vector.of(1, -20);
+        Vector out = Vector.of(0, 0);
+
+        assertSame(out, Vector.add(vector1, vector2, out));
+        assertEquals(Vector.of(11, 80), out);
+
+        assertSame(out, Vector.minus(vector1, vector2, out));
+        assertEquals(Vector.of(9, 120), out);
+
+        assertSame(out, Vector.scale(vector1, 0.5, out));
+        assertEquals(Vector.of(5, 50), out);
+
+        assertSame(out, Vector.normalize(Vector.of(0, -5), out));
+        assertEquals(Vector.of(0, -1), out);
+
+        // The out vector can be one of the inputs
+        assertEquals(Vector.of(9, 120), Vector.minus(vector1, vector2, vector2));
+    }
+}